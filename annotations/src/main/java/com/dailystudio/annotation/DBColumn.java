@@ -5,12 +5,14 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 @Target(ElementType.FIELD)
 public @interface DBColumn {
     public String name() default "";
     public String allowNull() default "true";
     public String primary() default "false";
     public int version() default 1;
+    public boolean fullText() default false;
+    public int fullTextVersion() default 1;
 
 }
@@ -0,0 +1,15 @@
+package com.dailystudio.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.CLASS)
+@Target({})
+public @interface DBIndex {
+    public String name() default "";
+    public String[] columns();
+    public boolean unique() default false;
+    public int version() default 1;
+
+}
@@ -5,9 +5,49 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 @Target(ElementType.TYPE)
 public @interface DBObject {
+
+    /**
+     * VALUES keeps column values in the value map of DatabaseObject.
+     * FIELDS keeps them in typed fields of the generated class, and
+     * syncs them with the value map only on demand.
+     */
+    public enum Storage {
+        VALUES,
+        FIELDS,
+    }
+
+    /**
+     * Optional members of the generated class. SNAPSHOT adds the columnar
+     * Snapshot, STREAMING forEach(), iterate() and copy(), JSON and BINARY
+     * the codecs. Entities get none of them unless they ask for it.
+     */
+    public enum Feature {
+        SNAPSHOT,
+        STREAMING,
+        JSON,
+        BINARY,
+    }
+
     public int latestVersion() default 1;
-}
+    public Storage storage() default Storage.VALUES;
+    public DBIndex[] indexes() default {};
 
+    /**
+     * Max number of objects kept in the generated identity cache,
+     * keyed by the int or long primary column. 0 disables the cache.
+     */
+    public int cacheSize() default 0;
+
+    public Feature[] features() default {};
+
+    /**
+     * Classes holding the @DBTypeConverter methods for column types
+     * that are not supported out of the box.
+     */
+    public Class<?>[] converters() default {};
+
+    public DBRelation[] relations() default {};
+}
@@ -0,0 +1,14 @@
+package com.dailystudio.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface DBProjection {
+    public Class<?> of();
+    public String[] columns();
+
+}
@@ -0,0 +1,40 @@
+package com.dailystudio.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A relation from the annotated @DBObject to another one, listed in
+ * {@link DBObject#relations()}. The generated class gets a static
+ * load[Name]() that loads the related objects of a whole collection in
+ * a few chunked IN (...) queries.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({})
+public @interface DBRelation {
+
+    /**
+     * ONE_TO_MANY: column is in the target and references this object.
+     * MANY_TO_ONE: column is in this object and references the target.
+     */
+    public enum Type {
+        ONE_TO_MANY,
+        MANY_TO_ONE,
+    }
+
+    public String name();
+    public Class<?> target();
+    public Type type() default Type.MANY_TO_ONE;
+
+    /**
+     * The int or long column holding the reference.
+     */
+    public String column();
+
+    /**
+     * The referenced column. Defaults to the primary column of the
+     * referenced side.
+     */
+    public String referencedColumn() default "";
+}
@@ -0,0 +1,18 @@
+package com.dailystudio.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a static one-argument method of a class listed in
+ * {@link DBObject#converters()}. A field type T is supported once there
+ * is a converter from T to a storable type S (int, long, double, String
+ * or byte[]) and one from S back to T. Converters win over the built-in
+ * mappings, e.g. to store an enum by a stable code instead of its ordinal.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface DBTypeConverter {
+}
@@ -0,0 +1,173 @@
+package com.dailystudio.annotation.support;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Helpers used by generated binary codecs. Strings are stored as an
+ * int byte length (-1 for null) followed by their UTF-8 bytes, blobs
+ * as an int length (-1 for null) followed by the raw bytes.
+ */
+public class BufferUtils {
+
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final static int NULL_LENGTH = -1;
+
+    public static int getStringSize(String value) {
+        return 4 + getUtf8Length(value);
+    }
+
+    public static int getUtf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        final int len = value.length();
+
+        int count = 0;
+        char ch;
+        for (int i = 0; i < len; i++) {
+            ch = value.charAt(i);
+            if (ch < 0x80) {
+                count++;
+            } else if (ch < 0x800) {
+                count += 2;
+            } else if (Character.isHighSurrogate(ch)
+                    && i + 1 < len
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                count += 4;
+                i++;
+            } else if (Character.isSurrogate(ch)) {
+                count++;
+            } else {
+                count += 3;
+            }
+        }
+
+        return count;
+    }
+
+    public static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+
+        buffer.putInt(getUtf8Length(value));
+
+        final int len = value.length();
+
+        char ch;
+        int codePoint;
+        for (int i = 0; i < len; i++) {
+            ch = value.charAt(i);
+            if (ch < 0x80) {
+                buffer.put((byte) ch);
+            } else if (ch < 0x800) {
+                buffer.put((byte) (0xC0 | (ch >> 6)));
+                buffer.put((byte) (0x80 | (ch & 0x3F)));
+            } else if (Character.isHighSurrogate(ch)
+                    && i + 1 < len
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(ch, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(ch)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (ch >> 12)));
+                buffer.put((byte) (0x80 | ((ch >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (ch & 0x3F)));
+            }
+        }
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        final int len = buffer.getInt();
+        if (len == NULL_LENGTH) {
+            return null;
+        }
+
+        if (len < 0 || len > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        final String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), len, UTF_8);
+            buffer.position(buffer.position() + len);
+        } else {
+            final byte[] bytes = new byte[len];
+            buffer.get(bytes);
+            value = new String(bytes, UTF_8);
+        }
+
+        return value;
+    }
+
+    public static int getBytesSize(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    public static void putBytes(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    public static byte[] getBytes(ByteBuffer buffer) {
+        final int len = buffer.getInt();
+        if (len == NULL_LENGTH) {
+            return null;
+        }
+
+        if (len < 0 || len > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+
+        final byte[] bytes = new byte[len];
+        buffer.get(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Returns the remaining bytes of the buffer. The backing array is
+     * returned as is when the buffer spans all of it, so a wrapped blob
+     * goes back to the database without a copy.
+     */
+    public static byte[] toBytes(ByteBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+
+        if (buffer.hasArray()
+                && buffer.arrayOffset() == 0
+                && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Wraps a blob without copying it.
+     */
+    public static ByteBuffer wrap(byte[] bytes) {
+        return (bytes == null ? null : ByteBuffer.wrap(bytes));
+    }
+
+}
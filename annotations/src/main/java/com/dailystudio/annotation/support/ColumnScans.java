@@ -0,0 +1,540 @@
+package com.dailystudio.annotation.support;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scans over the primitive column arrays of generated snapshots.
+ *
+ * Rows are selected by bitmaps of (size + 63) / 64 longs, where bit
+ * (i & 63) of word (i >>> 6) selects row i. A null selection selects all
+ * rows. Filters return new bitmaps, so they can be combined with and()
+ * and andNot(). Loops run over plain arrays without boxing or branches on
+ * the values, which lets the JIT unroll and vectorize them.
+ *
+ * The overloads taking a ForkJoinPool split the rows into word-aligned
+ * ranges of at least PARALLEL_THRESHOLD rows. With a null pool or fewer
+ * rows they scan on the calling thread.
+ */
+public class ColumnScans {
+
+    public final static int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final static int SUM = 0;
+    private final static int MIN = 1;
+    private final static int MAX = 2;
+
+    public static long[] newBits(int size) {
+        return new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Returns a bitmap selecting rows 0 to size - 1.
+     */
+    public static long[] all(int size) {
+        final long[] bits = newBits(size);
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] = -1L;
+        }
+
+        if ((size & 63) != 0) {
+            bits[bits.length - 1] = (1L << size) - 1;
+        }
+
+        return bits;
+    }
+
+    public static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    public static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the number of selected rows.
+     */
+    public static int count(long[] selection, int size) {
+        if (selection == null) {
+            return size;
+        }
+
+        int count = 0;
+        for (long word: selection) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the rows selected by both, or null when both are null.
+     */
+    public static long[] and(long[] a, long[] b) {
+        if (a == null) {
+            return (b == null ? null : b.clone());
+        } else if (b == null) {
+            return a.clone();
+        }
+
+        final long[] bits = new long[a.length];
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] = a[w] & b[w];
+        }
+
+        return bits;
+    }
+
+    /**
+     * Returns the rows selected by a but not by b.
+     */
+    public static long[] andNot(long[] a, long[] b, int size) {
+        final long[] bits = (a == null ? all(size) : a.clone());
+        if (b == null) {
+            return bits;
+        }
+
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] &= ~b[w];
+        }
+
+        return bits;
+    }
+
+    /**
+     * Selects rows whose value is within [min, max].
+     */
+    public static long[] range(int[] values, int size, long min, long max, long[] selection) {
+        final long[] bits = newBits(size);
+
+        long word;
+        long value;
+        int end;
+        for (int w = 0; w < bits.length; w++) {
+            word = 0;
+            end = Math.min((w + 1) << 6, size);
+            for (int i = w << 6; i < end; i++) {
+                value = values[i];
+                word |= (value >= min & value <= max ? 1L : 0L) << i;
+            }
+
+            bits[w] = (selection == null ? word : word & selection[w]);
+        }
+
+        return bits;
+    }
+
+    public static long[] range(long[] values, int size, long min, long max, long[] selection) {
+        final long[] bits = newBits(size);
+
+        long word;
+        long value;
+        int end;
+        for (int w = 0; w < bits.length; w++) {
+            word = 0;
+            end = Math.min((w + 1) << 6, size);
+            for (int i = w << 6; i < end; i++) {
+                value = values[i];
+                word |= (value >= min & value <= max ? 1L : 0L) << i;
+            }
+
+            bits[w] = (selection == null ? word : word & selection[w]);
+        }
+
+        return bits;
+    }
+
+    public static long[] range(double[] values, int size, double min, double max, long[] selection) {
+        final long[] bits = newBits(size);
+
+        long word;
+        double value;
+        int end;
+        for (int w = 0; w < bits.length; w++) {
+            word = 0;
+            end = Math.min((w + 1) << 6, size);
+            for (int i = w << 6; i < end; i++) {
+                value = values[i];
+                word |= (value >= min & value <= max ? 1L : 0L) << i;
+            }
+
+            bits[w] = (selection == null ? word : word & selection[w]);
+        }
+
+        return bits;
+    }
+
+    /**
+     * Selects rows whose value equals value, e.g. a dictionary code or an
+     * enum ordinal.
+     */
+    public static long[] equalTo(int[] values, int size, int value, long[] selection) {
+        final long[] bits = newBits(size);
+
+        long word;
+        int end;
+        for (int w = 0; w < bits.length; w++) {
+            word = 0;
+            end = Math.min((w + 1) << 6, size);
+            for (int i = w << 6; i < end; i++) {
+                word |= (values[i] == value ? 1L : 0L) << i;
+            }
+
+            bits[w] = (selection == null ? word : word & selection[w]);
+        }
+
+        return bits;
+    }
+
+    public static long sum(int[] values, int size, long[] selection) {
+        return scanInts(SUM, values, selection, 0, size);
+    }
+
+    public static long sum(long[] values, int size, long[] selection) {
+        return scanLongs(SUM, values, selection, 0, size);
+    }
+
+    public static double sum(double[] values, int size, long[] selection) {
+        return scanDoubles(SUM, values, selection, 0, size);
+    }
+
+    /**
+     * Returns Long.MAX_VALUE when no row is selected.
+     */
+    public static long min(int[] values, int size, long[] selection) {
+        return scanInts(MIN, values, selection, 0, size);
+    }
+
+    public static long min(long[] values, int size, long[] selection) {
+        return scanLongs(MIN, values, selection, 0, size);
+    }
+
+    /**
+     * Returns Double.POSITIVE_INFINITY when no row is selected.
+     */
+    public static double min(double[] values, int size, long[] selection) {
+        return scanDoubles(MIN, values, selection, 0, size);
+    }
+
+    /**
+     * Returns Long.MIN_VALUE when no row is selected.
+     */
+    public static long max(int[] values, int size, long[] selection) {
+        return scanInts(MAX, values, selection, 0, size);
+    }
+
+    public static long max(long[] values, int size, long[] selection) {
+        return scanLongs(MAX, values, selection, 0, size);
+    }
+
+    /**
+     * Returns Double.NEGATIVE_INFINITY when no row is selected.
+     */
+    public static double max(double[] values, int size, long[] selection) {
+        return scanDoubles(MAX, values, selection, 0, size);
+    }
+
+    public static long sum(int[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(SUM, values, null, null, selection, 0, size)).mLongResult;
+    }
+
+    public static long sum(long[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(SUM, null, values, null, selection, 0, size)).mLongResult;
+    }
+
+    public static double sum(double[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(SUM, null, null, values, selection, 0, size)).mDoubleResult;
+    }
+
+    public static long min(int[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(MIN, values, null, null, selection, 0, size)).mLongResult;
+    }
+
+    public static long min(long[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(MIN, null, values, null, selection, 0, size)).mLongResult;
+    }
+
+    public static double min(double[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(MIN, null, null, values, selection, 0, size)).mDoubleResult;
+    }
+
+    public static long max(int[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(MAX, values, null, null, selection, 0, size)).mLongResult;
+    }
+
+    public static long max(long[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(MAX, null, values, null, selection, 0, size)).mLongResult;
+    }
+
+    public static double max(double[] values, int size, long[] selection, ForkJoinPool pool) {
+        return invoke(pool, new ScanTask(MAX, null, null, values, selection, 0, size)).mDoubleResult;
+    }
+
+    private static ScanTask invoke(ForkJoinPool pool, ScanTask task) {
+        if (pool == null || task.mTo - task.mFrom <= PARALLEL_THRESHOLD) {
+            task.scan();
+        } else {
+            pool.invoke(task);
+        }
+
+        return task;
+    }
+
+    /*
+     * The range scans below take a word-aligned from. Without a selection
+     * they run a plain loop; with one they visit the set bits only.
+     */
+
+    private static long scanInts(int op, int[] values, long[] selection, int from, int to) {
+        long result = initialLong(op);
+
+        if (selection == null) {
+            switch (op) {
+                case SUM:
+                    for (int i = from; i < to; i++) {
+                        result += values[i];
+                    }
+                    break;
+
+                case MIN:
+                    for (int i = from; i < to; i++) {
+                        result = Math.min(result, values[i]);
+                    }
+                    break;
+
+                default:
+                    for (int i = from; i < to; i++) {
+                        result = Math.max(result, values[i]);
+                    }
+                    break;
+            }
+
+            return result;
+        }
+
+        long word;
+        int i;
+        final int words = Math.min((to + 63) >>> 6, selection.length);
+        for (int w = from >>> 6; w < words; w++) {
+            word = selection[w];
+            while (word != 0) {
+                i = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (i >= to) {
+                    break;
+                }
+
+                result = combineLong(op, result, values[i]);
+                word &= word - 1;
+            }
+        }
+
+        return result;
+    }
+
+    private static long scanLongs(int op, long[] values, long[] selection, int from, int to) {
+        long result = initialLong(op);
+
+        if (selection == null) {
+            switch (op) {
+                case SUM:
+                    for (int i = from; i < to; i++) {
+                        result += values[i];
+                    }
+                    break;
+
+                case MIN:
+                    for (int i = from; i < to; i++) {
+                        result = Math.min(result, values[i]);
+                    }
+                    break;
+
+                default:
+                    for (int i = from; i < to; i++) {
+                        result = Math.max(result, values[i]);
+                    }
+                    break;
+            }
+
+            return result;
+        }
+
+        long word;
+        int i;
+        final int words = Math.min((to + 63) >>> 6, selection.length);
+        for (int w = from >>> 6; w < words; w++) {
+            word = selection[w];
+            while (word != 0) {
+                i = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (i >= to) {
+                    break;
+                }
+
+                result = combineLong(op, result, values[i]);
+                word &= word - 1;
+            }
+        }
+
+        return result;
+    }
+
+    private static double scanDoubles(int op, double[] values, long[] selection, int from, int to) {
+        double result = initialDouble(op);
+
+        if (selection == null) {
+            switch (op) {
+                case SUM:
+                    for (int i = from; i < to; i++) {
+                        result += values[i];
+                    }
+                    break;
+
+                case MIN:
+                    for (int i = from; i < to; i++) {
+                        result = Math.min(result, values[i]);
+                    }
+                    break;
+
+                default:
+                    for (int i = from; i < to; i++) {
+                        result = Math.max(result, values[i]);
+                    }
+                    break;
+            }
+
+            return result;
+        }
+
+        long word;
+        int i;
+        final int words = Math.min((to + 63) >>> 6, selection.length);
+        for (int w = from >>> 6; w < words; w++) {
+            word = selection[w];
+            while (word != 0) {
+                i = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (i >= to) {
+                    break;
+                }
+
+                result = combineDouble(op, result, values[i]);
+                word &= word - 1;
+            }
+        }
+
+        return result;
+    }
+
+    private static long initialLong(int op) {
+        switch (op) {
+            case MIN:
+                return Long.MAX_VALUE;
+
+            case MAX:
+                return Long.MIN_VALUE;
+
+            default:
+                return 0;
+        }
+    }
+
+    private static double initialDouble(int op) {
+        switch (op) {
+            case MIN:
+                return Double.POSITIVE_INFINITY;
+
+            case MAX:
+                return Double.NEGATIVE_INFINITY;
+
+            default:
+                return 0;
+        }
+    }
+
+    private static long combineLong(int op, long a, long b) {
+        switch (op) {
+            case MIN:
+                return Math.min(a, b);
+
+            case MAX:
+                return Math.max(a, b);
+
+            default:
+                return a + b;
+        }
+    }
+
+    private static double combineDouble(int op, double a, double b) {
+        switch (op) {
+            case MIN:
+                return Math.min(a, b);
+
+            case MAX:
+                return Math.max(a, b);
+
+            default:
+                return a + b;
+        }
+    }
+
+    private static class ScanTask extends RecursiveAction {
+
+        private final static long serialVersionUID = 1L;
+
+        private final int mOp;
+        private final int[] mInts;
+        private final long[] mLongs;
+        private final double[] mDoubles;
+        private final long[] mSelection;
+        private final int mFrom;
+        private final int mTo;
+
+        private long mLongResult;
+        private double mDoubleResult;
+
+        private ScanTask(int op,
+                         int[] ints, long[] longs, double[] doubles,
+                         long[] selection,
+                         int from, int to) {
+            mOp = op;
+            mInts = ints;
+            mLongs = longs;
+            mDoubles = doubles;
+            mSelection = selection;
+            mFrom = from;
+            mTo = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (mTo - mFrom <= PARALLEL_THRESHOLD) {
+                scan();
+
+                return;
+            }
+
+            final int mid = mFrom + (((mTo - mFrom) >>> 1) & ~63);
+
+            final ScanTask left = new ScanTask(mOp, mInts, mLongs, mDoubles,
+                    mSelection, mFrom, mid);
+            final ScanTask right = new ScanTask(mOp, mInts, mLongs, mDoubles,
+                    mSelection, mid, mTo);
+
+            invokeAll(left, right);
+
+            mLongResult = combineLong(mOp, left.mLongResult, right.mLongResult);
+            mDoubleResult = combineDouble(mOp, left.mDoubleResult, right.mDoubleResult);
+        }
+
+        private void scan() {
+            if (mInts != null) {
+                mLongResult = scanInts(mOp, mInts, mSelection, mFrom, mTo);
+            } else if (mLongs != null) {
+                mLongResult = scanLongs(mOp, mLongs, mSelection, mFrom, mTo);
+            } else {
+                mDoubleResult = scanDoubles(mOp, mDoubles, mSelection, mFrom, mTo);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,284 @@
+package com.dailystudio.annotation.support;
+
+import java.util.Arrays;
+
+/**
+ * A bounded LRU cache keyed by primitive longs. Entries live in
+ * fixed-size arrays allocated up front, so lookups and updates do
+ * not box keys or allocate map nodes.
+ */
+public class LongLruCache<V> {
+
+    private final static int NO_ENTRY = -1;
+
+    private final int mMaxSize;
+
+    private final int[] mTable;
+    private final int mMask;
+
+    private final long[] mKeys;
+    private final Object[] mValues;
+    private final int[] mPrev;
+    private final int[] mNext;
+
+    private int mHead = NO_ENTRY;
+    private int mTail = NO_ENTRY;
+    private int mFreeHead;
+    private int mSize;
+
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    public LongLruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+
+        mMaxSize = maxSize;
+
+        int tableSize = 2;
+        while (tableSize < maxSize * 2) {
+            tableSize <<= 1;
+        }
+
+        mTable = new int[tableSize];
+        mMask = tableSize - 1;
+
+        mKeys = new long[maxSize];
+        mValues = new Object[maxSize];
+        mPrev = new int[maxSize];
+        mNext = new int[maxSize];
+
+        resetEntries();
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V get(long key) {
+        int entry = findEntry(key);
+        if (entry == NO_ENTRY) {
+            mMissCount++;
+
+            return null;
+        }
+
+        mHitCount++;
+        moveToHead(entry);
+
+        return (V) mValues[entry];
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V put(long key, V value) {
+        if (value == null) {
+            return remove(key);
+        }
+
+        int entry = findEntry(key);
+        if (entry != NO_ENTRY) {
+            V oldValue = (V) mValues[entry];
+
+            mValues[entry] = value;
+            moveToHead(entry);
+
+            return oldValue;
+        }
+
+        if (mSize >= mMaxSize) {
+            removeEntry(mTail);
+            mEvictionCount++;
+        }
+
+        entry = mFreeHead;
+        mFreeHead = mNext[entry];
+
+        mKeys[entry] = key;
+        mValues[entry] = value;
+
+        insertSlot(key, entry);
+        linkHead(entry);
+        mSize++;
+
+        return null;
+    }
+
+    /**
+     * Puts the value unless the key is cached already, and returns the
+     * cached value then, or null when the value was put.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V putIfAbsent(long key, V value) {
+        int entry = findEntry(key);
+        if (entry != NO_ENTRY) {
+            moveToHead(entry);
+
+            return (V) mValues[entry];
+        }
+
+        return put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized V remove(long key) {
+        int entry = findEntry(key);
+        if (entry == NO_ENTRY) {
+            return null;
+        }
+
+        V oldValue = (V) mValues[entry];
+
+        removeEntry(entry);
+
+        return oldValue;
+    }
+
+    public synchronized void clear() {
+        resetEntries();
+    }
+
+    public synchronized int size() {
+        return mSize;
+    }
+
+    public int maxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized long hitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long missCount() {
+        return mMissCount;
+    }
+
+    public synchronized long evictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("LongLruCache[maxSize=%d, size=%d, hits=%d, misses=%d, evictions=%d]",
+                mMaxSize, mSize, mHitCount, mMissCount, mEvictionCount);
+    }
+
+    private void resetEntries() {
+        Arrays.fill(mTable, NO_ENTRY);
+        Arrays.fill(mValues, null);
+
+        for (int i = 0; i < mMaxSize; i++) {
+            mNext[i] = (i + 1 < mMaxSize ? i + 1 : NO_ENTRY);
+        }
+
+        mFreeHead = 0;
+        mHead = NO_ENTRY;
+        mTail = NO_ENTRY;
+        mSize = 0;
+    }
+
+    private void removeEntry(int entry) {
+        removeSlot(mKeys[entry]);
+        unlink(entry);
+
+        mValues[entry] = null;
+        mNext[entry] = mFreeHead;
+        mFreeHead = entry;
+        mSize--;
+    }
+
+    private int findEntry(long key) {
+        int slot = findSlot(key);
+
+        return (slot == NO_ENTRY ? NO_ENTRY : mTable[slot]);
+    }
+
+    private int findSlot(long key) {
+        int slot = hash(key) & mMask;
+        while (mTable[slot] != NO_ENTRY) {
+            if (mKeys[mTable[slot]] == key) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        return NO_ENTRY;
+    }
+
+    private void insertSlot(long key, int entry) {
+        int slot = hash(key) & mMask;
+        while (mTable[slot] != NO_ENTRY) {
+            slot = (slot + 1) & mMask;
+        }
+
+        mTable[slot] = entry;
+    }
+
+    private void removeSlot(long key) {
+        int hole = findSlot(key);
+        if (hole == NO_ENTRY) {
+            return;
+        }
+
+        int slot = (hole + 1) & mMask;
+        int home;
+        while (mTable[slot] != NO_ENTRY) {
+            home = hash(mKeys[mTable[slot]]) & mMask;
+            if (((slot - home) & mMask) >= ((slot - hole) & mMask)) {
+                mTable[hole] = mTable[slot];
+                hole = slot;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        mTable[hole] = NO_ENTRY;
+    }
+
+    private void linkHead(int entry) {
+        mPrev[entry] = NO_ENTRY;
+        mNext[entry] = mHead;
+        if (mHead != NO_ENTRY) {
+            mPrev[mHead] = entry;
+        }
+
+        mHead = entry;
+        if (mTail == NO_ENTRY) {
+            mTail = entry;
+        }
+    }
+
+    private void unlink(int entry) {
+        int prev = mPrev[entry];
+        int next = mNext[entry];
+
+        if (prev != NO_ENTRY) {
+            mNext[prev] = next;
+        } else {
+            mHead = next;
+        }
+
+        if (next != NO_ENTRY) {
+            mPrev[next] = prev;
+        } else {
+            mTail = prev;
+        }
+    }
+
+    private void moveToHead(int entry) {
+        if (entry == mHead) {
+            return;
+        }
+
+        unlink(entry);
+        linkHead(entry);
+    }
+
+    private static int hash(long key) {
+        int h = (int) (key ^ (key >>> 32));
+        h *= 0x9E3779B9;
+
+        return h ^ (h >>> 16);
+    }
+
+}
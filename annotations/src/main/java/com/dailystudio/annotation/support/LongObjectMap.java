@@ -0,0 +1,132 @@
+package com.dailystudio.annotation.support;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing map keyed by primitive longs, used to stitch
+ * related objects to their keys without boxing. Null values are not
+ * supported, as an empty slot is a slot without value.
+ */
+public class LongObjectMap<V> {
+
+    private final static int MIN_CAPACITY = 8;
+
+    private long[] mKeys;
+    private Object[] mValues;
+    private int mMask;
+    private int mSize;
+
+    public LongObjectMap() {
+        this(0);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(getCapacity(expectedSize));
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return (mSize == 0);
+    }
+
+    public boolean containsKey(long key) {
+        return (get(key) != null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = hash(key) & mMask;
+
+        Object value;
+        while ((value = mValues[slot]) != null) {
+            if (mKeys[slot] == key) {
+                return (V) value;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+
+        int slot = hash(key) & mMask;
+
+        Object old;
+        while ((old = mValues[slot]) != null) {
+            if (mKeys[slot] == key) {
+                mValues[slot] = value;
+
+                return (V) old;
+            }
+
+            slot = (slot + 1) & mMask;
+        }
+
+        mKeys[slot] = key;
+        mValues[slot] = value;
+
+        if (++mSize > (mMask + 1) / 2) {
+            rehash();
+        }
+
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(mValues, null);
+        mSize = 0;
+    }
+
+    private void rehash() {
+        final long[] keys = mKeys;
+        final Object[] values = mValues;
+
+        allocate(values.length * 2);
+
+        int slot;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+
+            slot = hash(keys[i]) & mMask;
+            while (mValues[slot] != null) {
+                slot = (slot + 1) & mMask;
+            }
+
+            mKeys[slot] = keys[i];
+            mValues[slot] = values[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new Object[capacity];
+        mMask = capacity - 1;
+    }
+
+    private static int getCapacity(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 2 < expectedSize) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
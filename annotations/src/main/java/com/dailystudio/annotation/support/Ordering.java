@@ -0,0 +1,9 @@
+package com.dailystudio.annotation.support;
+
+/**
+ * Direction of the generated keyset paging queries.
+ */
+public enum Ordering {
+    ASCENDING,
+    DESCENDING,
+}
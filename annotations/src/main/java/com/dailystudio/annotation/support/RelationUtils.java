@@ -0,0 +1,66 @@
+package com.dailystudio.annotation.support;
+
+import java.util.Arrays;
+
+/**
+ * Helpers used by generated relation loaders to query related rows by
+ * chunks of keys.
+ */
+public class RelationUtils {
+
+    /**
+     * SQLITE_MAX_VARIABLE_NUMBER of SQLite before 3.32, which is what
+     * older Android releases ship.
+     */
+    public final static int MAX_CHUNK_SIZE = 999;
+
+    /**
+     * Sorts the first count keys and moves the distinct ones to the
+     * front. Returns the number of distinct keys.
+     */
+    public static int sortUnique(long[] keys, int count) {
+        if (count <= 1) {
+            return count;
+        }
+
+        Arrays.sort(keys, 0, count);
+
+        int unique = 1;
+        for (int i = 1; i < count; i++) {
+            if (keys[i] != keys[unique - 1]) {
+                keys[unique++] = keys[i];
+            }
+        }
+
+        return unique;
+    }
+
+    public static String[] toArgs(long[] keys, int start, int count) {
+        final String[] args = new String[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = String.valueOf(keys[start + i]);
+        }
+
+        return args;
+    }
+
+    /**
+     * Appends "(?,?,...)" with count placeholders to sqlPrefix.
+     */
+    public static String composeInSQL(String sqlPrefix, int count) {
+        final StringBuilder builder = new StringBuilder(sqlPrefix.length() + count * 3 + 1);
+
+        builder.append(sqlPrefix);
+        builder.append('(');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append('?');
+        }
+        builder.append(')');
+
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.dailystudio.annotation.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of a text column. Each distinct string is kept once
+ * and rows refer to it by code, its index in the dictionary.
+ */
+public class StringDictionary {
+
+    /**
+     * Code of NULL.
+     */
+    public final static int NULL_CODE = -1;
+
+    /**
+     * Code returned for strings which are not in a dictionary. No row
+     * has it.
+     */
+    public final static int MISSING_CODE = -2;
+
+    private final Map<String, Integer> mCodes = new HashMap<>();
+    private final List<String> mStrings = new ArrayList<>();
+
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+
+        Integer code = mCodes.get(value);
+        if (code == null) {
+            code = mStrings.size();
+
+            mCodes.put(value, code);
+            mStrings.add(value);
+        }
+
+        return code;
+    }
+
+    public int size() {
+        return mStrings.size();
+    }
+
+    public String[] toArray() {
+        return mStrings.toArray(new String[mStrings.size()]);
+    }
+
+    /**
+     * Returns the code of value in dictionary, NULL_CODE for null or
+     * MISSING_CODE.
+     */
+    public static int codeOf(String[] dictionary, String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+
+        for (int i = 0; i < dictionary.length; i++) {
+            if (value.equals(dictionary[i])) {
+                return i;
+            }
+        }
+
+        return MISSING_CODE;
+    }
+
+    public static String decode(String[] dictionary, int code) {
+        return (code < 0 ? null : dictionary[code]);
+    }
+
+}
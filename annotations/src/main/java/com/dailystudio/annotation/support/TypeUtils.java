@@ -0,0 +1,39 @@
+package com.dailystudio.annotation.support;
+
+import java.util.Date;
+
+/**
+ * Helpers used by generated accessors to store enums as INTEGER ordinals
+ * and dates as INTEGER epoch milliseconds. A null enum or date is stored
+ * as SQL NULL, their sentinels only remain for callers converting null.
+ */
+public class TypeUtils {
+
+    public final static int NULL_ORDINAL = -1;
+    public final static long NULL_EPOCH_MILLIS = Long.MIN_VALUE;
+
+    public static int toOrdinal(Enum<?> value) {
+        return (value == null ? NULL_ORDINAL : value.ordinal());
+    }
+
+    /**
+     * Returns null for the null sentinel and for ordinals of constants
+     * that no longer exist.
+     */
+    public static <E extends Enum<E>> E toEnum(E[] values, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            return null;
+        }
+
+        return values[ordinal];
+    }
+
+    public static long toEpochMillis(Date date) {
+        return (date == null ? NULL_EPOCH_MILLIS : date.getTime());
+    }
+
+    public static Date toDate(long epochMillis) {
+        return (epochMillis == NULL_EPOCH_MILLIS ? null : new Date(epochMillis));
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.dailystudio.annotation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessorBenchmark {
+
+    private UserDBObject mUser;
+    private WideObjectDBObject mWide;
+    private WideFieldsObjectDBObject mWideFields;
+
+    private int mCounter;
+
+    @Setup
+    public void setup() {
+        mUser = new UserDBObject(BenchmarkData.CONTEXT);
+        mWide = new WideObjectDBObject(BenchmarkData.CONTEXT);
+        mWideFields = new WideFieldsObjectDBObject(BenchmarkData.CONTEXT);
+    }
+
+    @Benchmark
+    public void setGetUser(Blackhole blackhole) {
+        final int value = mCounter++;
+
+        mUser.setUserId(value);
+        mUser.setUserName("user");
+        mUser.setAge(value);
+        mUser.setMarried((value & 1) == 0);
+        mUser.setScore(value);
+
+        blackhole.consume(mUser.getUserId());
+        blackhole.consume(mUser.getUserName());
+        blackhole.consume(mUser.getAge());
+        blackhole.consume(mUser.getMarried());
+        blackhole.consume(mUser.getScore());
+    }
+
+    @Benchmark
+    public int setGetWideInt() {
+        mWide.setCol51(mCounter++);
+
+        return mWide.getCol51();
+    }
+
+    @Benchmark
+    public int setGetWideFieldsInt() {
+        mWideFields.setCol51(mCounter++);
+
+        return mWideFields.getCol51();
+    }
+
+    @Benchmark
+    public String setGetWideString() {
+        mWide.setCol49("value");
+
+        return mWide.getCol49();
+    }
+
+    @Benchmark
+    public String setGetWideFieldsString() {
+        mWideFields.setCol49("value");
+
+        return mWideFields.getCol49();
+    }
+
+}
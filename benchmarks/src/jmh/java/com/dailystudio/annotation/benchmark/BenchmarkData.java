@@ -0,0 +1,48 @@
+package com.dailystudio.annotation.benchmark;
+
+import android.content.Context;
+import android.database.MatrixCursor;
+import com.dailystudio.dataobject.Column;
+
+final class BenchmarkData {
+
+    final static Context CONTEXT = new Context();
+
+    private BenchmarkData() {
+    }
+
+    static MatrixCursor newCursor(Column[] columns, int rows) {
+        final String[] columnNames = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columnNames[i] = columns[i].getName();
+        }
+
+        final MatrixCursor cursor = new MatrixCursor(columnNames);
+
+        Object[] values;
+        for (int row = 0; row < rows; row++) {
+            values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = newValue(columns[i], row, i);
+            }
+
+            cursor.addRow(values);
+        }
+
+        return cursor;
+    }
+
+    private static Object newValue(Column column, int row, int index) {
+        switch (column.getType()) {
+            case "REAL":
+                return row * 0.5 + index;
+
+            case "TEXT":
+                return "row " + row + " column " + column.getName();
+
+            default:
+                return (long) (row + index);
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.dailystudio.annotation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConstructionBenchmark {
+
+    private WideObjectDBObject mWide;
+    private WideFieldsObjectDBObject mWideFields;
+
+    @Setup
+    public void setup() {
+        mWide = WideObjectDBObject.readAll(BenchmarkData.CONTEXT,
+                BenchmarkData.newCursor(WideObjectDBObject.sColumns_Ver2, 1)).get(0);
+        mWideFields = WideFieldsObjectDBObject.readAll(BenchmarkData.CONTEXT,
+                BenchmarkData.newCursor(WideFieldsObjectDBObject.sColumns_Ver2, 1)).get(0);
+    }
+
+    @Benchmark
+    public UserDBObject newUser() {
+        return new UserDBObject(BenchmarkData.CONTEXT);
+    }
+
+    @Benchmark
+    public WideObjectDBObject newWide() {
+        return new WideObjectDBObject(BenchmarkData.CONTEXT);
+    }
+
+    @Benchmark
+    public WideFieldsObjectDBObject newWideFields() {
+        return new WideFieldsObjectDBObject(BenchmarkData.CONTEXT);
+    }
+
+    @Benchmark
+    public WideObjectDBObject copyWide() {
+        return mWide.copy(BenchmarkData.CONTEXT);
+    }
+
+    @Benchmark
+    public WideFieldsObjectDBObject copyWideFields() {
+        return mWideFields.copy(BenchmarkData.CONTEXT);
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.dailystudio.annotation.benchmark;
+
+import android.database.MatrixCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CursorBindingBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private MatrixCursor mUserCursor;
+    private MatrixCursor mWideCursor;
+    private MatrixCursor mWideFieldsCursor;
+
+    @Setup
+    public void setup() {
+        mUserCursor = BenchmarkData.newCursor(UserDBObject.sColumns_Ver2, rows);
+        mWideCursor = BenchmarkData.newCursor(WideObjectDBObject.sColumns_Ver2, rows);
+        mWideFieldsCursor = BenchmarkData.newCursor(WideFieldsObjectDBObject.sColumns_Ver2, rows);
+    }
+
+    @Benchmark
+    public List<UserDBObject> readAllUser() {
+        mUserCursor.moveToPosition(-1);
+
+        return UserDBObject.readAll(BenchmarkData.CONTEXT, mUserCursor);
+    }
+
+    @Benchmark
+    public int forEachUser(final Blackhole blackhole) {
+        mUserCursor.moveToPosition(-1);
+
+        return UserDBObject.forEach(BenchmarkData.CONTEXT, mUserCursor,
+                new UserDBObject.RowVisitor() {
+                    @Override
+                    public boolean visit(UserDBObject object) {
+                        blackhole.consume(object.getScore());
+                        return true;
+                    }
+                });
+    }
+
+    @Benchmark
+    public List<WideObjectDBObject> readAllWide() {
+        mWideCursor.moveToPosition(-1);
+
+        return WideObjectDBObject.readAll(BenchmarkData.CONTEXT, mWideCursor);
+    }
+
+    @Benchmark
+    public int forEachWide(final Blackhole blackhole) {
+        mWideCursor.moveToPosition(-1);
+
+        return WideObjectDBObject.forEach(BenchmarkData.CONTEXT, mWideCursor,
+                new WideObjectDBObject.RowVisitor() {
+                    @Override
+                    public boolean visit(WideObjectDBObject object) {
+                        blackhole.consume(object.getCol51());
+                        return true;
+                    }
+                });
+    }
+
+    @Benchmark
+    public List<WideFieldsObjectDBObject> readAllWideFields() {
+        mWideFieldsCursor.moveToPosition(-1);
+
+        return WideFieldsObjectDBObject.readAll(BenchmarkData.CONTEXT, mWideFieldsCursor);
+    }
+
+    @Benchmark
+    public int forEachWideFields(final Blackhole blackhole) {
+        mWideFieldsCursor.moveToPosition(-1);
+
+        return WideFieldsObjectDBObject.forEach(BenchmarkData.CONTEXT, mWideFieldsCursor,
+                new WideFieldsObjectDBObject.RowVisitor() {
+                    @Override
+                    public boolean visit(WideFieldsObjectDBObject object) {
+                        blackhole.consume(object.getCol51());
+                        return true;
+                    }
+                });
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.dailystudio.annotation.benchmark;
+
+import android.os.Parcel;
+import android.util.JsonReader;
+import android.util.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private List<WideObjectDBObject> mWides;
+    private List<WideFieldsObjectDBObject> mWideFields;
+
+    private String mJson;
+    private ByteBuffer mBuffer;
+    private ByteBuffer mEncoded;
+    private Parcel mParcel;
+
+    @Setup
+    public void setup() throws IOException {
+        mWides = WideObjectDBObject.readAll(BenchmarkData.CONTEXT,
+                BenchmarkData.newCursor(WideObjectDBObject.sColumns_Ver2, rows));
+        mWideFields = WideFieldsObjectDBObject.readAll(BenchmarkData.CONTEXT,
+                BenchmarkData.newCursor(WideFieldsObjectDBObject.sColumns_Ver2, rows));
+
+        mJson = writeJsonWide();
+
+        mBuffer = ByteBuffer.allocate(WideObjectDBObject.getBinarySize(mWides));
+        mEncoded = ByteBuffer.allocate(mBuffer.capacity());
+        WideObjectDBObject.writeAllTo(mEncoded, mWides);
+
+        mParcel = Parcel.obtain();
+        for (WideObjectDBObject object: mWides) {
+            object.writeToParcel(mParcel);
+        }
+    }
+
+    @Benchmark
+    public String writeJsonWide() throws IOException {
+        final StringWriter out = new StringWriter();
+        final JsonWriter writer = new JsonWriter(out);
+
+        WideObjectDBObject.writeJsonArray(writer, mWides);
+        writer.flush();
+
+        return out.toString();
+    }
+
+    @Benchmark
+    public String writeJsonWideFields() throws IOException {
+        final StringWriter out = new StringWriter();
+        final JsonWriter writer = new JsonWriter(out);
+
+        WideFieldsObjectDBObject.writeJsonArray(writer, mWideFields);
+        writer.flush();
+
+        return out.toString();
+    }
+
+    @Benchmark
+    public List<WideObjectDBObject> readJsonWide() throws IOException {
+        return WideObjectDBObject.readJsonArray(BenchmarkData.CONTEXT,
+                new JsonReader(new StringReader(mJson)));
+    }
+
+    @Benchmark
+    public List<WideFieldsObjectDBObject> readJsonWideFields() throws IOException {
+        return WideFieldsObjectDBObject.readJsonArray(BenchmarkData.CONTEXT,
+                new JsonReader(new StringReader(mJson)));
+    }
+
+    @Benchmark
+    public ByteBuffer writeBinaryWide() {
+        mBuffer.clear();
+        WideObjectDBObject.writeAllTo(mBuffer, mWides);
+
+        return mBuffer;
+    }
+
+    @Benchmark
+    public ByteBuffer writeBinaryWideFields() {
+        mBuffer.clear();
+        WideFieldsObjectDBObject.writeAllTo(mBuffer, mWideFields);
+
+        return mBuffer;
+    }
+
+    @Benchmark
+    public List<WideObjectDBObject> readBinaryWide() {
+        mEncoded.position(0);
+
+        return WideObjectDBObject.readAllFrom(BenchmarkData.CONTEXT, mEncoded);
+    }
+
+    @Benchmark
+    public List<WideFieldsObjectDBObject> readBinaryWideFields() {
+        mEncoded.position(0);
+
+        return WideFieldsObjectDBObject.readAllFrom(BenchmarkData.CONTEXT, mEncoded);
+    }
+
+    @Benchmark
+    public Parcel writeParcelWide() {
+        final Parcel parcel = Parcel.obtain();
+        for (WideObjectDBObject object: mWides) {
+            object.writeToParcel(parcel);
+        }
+
+        return parcel;
+    }
+
+    @Benchmark
+    public List<WideObjectDBObject> readParcelWide() {
+        mParcel.setDataPosition(0);
+
+        final List<WideObjectDBObject> objects = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            objects.add(WideObjectDBObject.readFromParcel(BenchmarkData.CONTEXT, mParcel));
+        }
+
+        return objects;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.dailystudio.annotation.benchmark;
+
+import android.database.MatrixCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sums the score of users within an age range, from a list of objects
+ * and from a columnar snapshot. The *Read benchmarks include reading the
+ * cursor, the *Scan ones only the aggregate over data already loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotBenchmark {
+
+    private final static int MIN_AGE = 100;
+    private final static int MAX_AGE = 500;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private MatrixCursor mUserCursor;
+
+    private List<UserDBObject> mUsers;
+    private UserDBObject.Snapshot mSnapshot;
+
+    @Setup
+    public void setup() {
+        mUserCursor = BenchmarkData.newCursor(UserDBObject.sColumns_Ver2, rows);
+
+        mUsers = UserDBObject.readAll(BenchmarkData.CONTEXT, mUserCursor);
+
+        mUserCursor.moveToPosition(-1);
+        mSnapshot = UserDBObject.readSnapshot(mUserCursor);
+    }
+
+    @Benchmark
+    public double listRead() {
+        mUserCursor.moveToPosition(-1);
+
+        return sumScore(UserDBObject.readAll(BenchmarkData.CONTEXT, mUserCursor));
+    }
+
+    @Benchmark
+    public double snapshotRead() {
+        mUserCursor.moveToPosition(-1);
+
+        return sumScore(UserDBObject.readSnapshot(mUserCursor));
+    }
+
+    @Benchmark
+    public double listScan() {
+        return sumScore(mUsers);
+    }
+
+    @Benchmark
+    public double snapshotScan() {
+        return sumScore(mSnapshot);
+    }
+
+    private static double sumScore(List<UserDBObject> users) {
+        double sum = 0;
+
+        int age;
+        for (UserDBObject user: users) {
+            age = user.getAge();
+            if (age >= MIN_AGE && age <= MAX_AGE) {
+                sum += user.getScore();
+            }
+        }
+
+        return sum;
+    }
+
+    private static double sumScore(UserDBObject.Snapshot snapshot) {
+        return snapshot.sumScore(snapshot.filterAge(MIN_AGE, MAX_AGE, null));
+    }
+
+}
@@ -0,0 +1,9 @@
+package android.content;
+
+/**
+ * JVM stand-in for the Android Context. Generated objects only pass it
+ * through to DatabaseObject.
+ */
+public class Context {
+
+}
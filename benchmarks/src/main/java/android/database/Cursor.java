@@ -0,0 +1,30 @@
+package android.database;
+
+import java.io.Closeable;
+
+/**
+ * JVM stand-in for the subset of android.database.Cursor used by
+ * generated code.
+ */
+public interface Cursor extends Closeable {
+
+    int getCount();
+    int getPosition();
+
+    boolean moveToFirst();
+    boolean moveToNext();
+    boolean moveToPosition(int position);
+
+    int getColumnIndex(String columnName);
+
+    boolean isNull(int columnIndex);
+    int getInt(int columnIndex);
+    long getLong(int columnIndex);
+    double getDouble(int columnIndex);
+    String getString(int columnIndex);
+    byte[] getBlob(int columnIndex);
+
+    @Override
+    void close();
+
+}
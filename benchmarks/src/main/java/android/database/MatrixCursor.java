@@ -0,0 +1,130 @@
+package android.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory cursor over rows of boxed values, after
+ * android.database.MatrixCursor.
+ */
+public class MatrixCursor implements Cursor {
+
+    private final String[] mColumnNames;
+    private final List<Object[]> mRows = new ArrayList<>();
+
+    private int mPosition = -1;
+
+    public MatrixCursor(String[] columnNames) {
+        mColumnNames = columnNames;
+    }
+
+    public void addRow(Object[] columnValues) {
+        if (columnValues.length != mColumnNames.length) {
+            throw new IllegalArgumentException("columnNames.length = "
+                    + mColumnNames.length + ", columnValues.length = "
+                    + columnValues.length);
+        }
+
+        mRows.add(columnValues);
+    }
+
+    @Override
+    public int getCount() {
+        return mRows.size();
+    }
+
+    @Override
+    public int getPosition() {
+        return mPosition;
+    }
+
+    @Override
+    public boolean moveToFirst() {
+        return moveToPosition(0);
+    }
+
+    @Override
+    public boolean moveToNext() {
+        return moveToPosition(mPosition + 1);
+    }
+
+    @Override
+    public boolean moveToPosition(int position) {
+        final int count = mRows.size();
+        if (position >= count) {
+            mPosition = count;
+            return false;
+        }
+
+        if (position < 0) {
+            mPosition = -1;
+            return false;
+        }
+
+        mPosition = position;
+
+        return true;
+    }
+
+    @Override
+    public int getColumnIndex(String columnName) {
+        for (int i = 0; i < mColumnNames.length; i++) {
+            if (mColumnNames[i].equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean isNull(int columnIndex) {
+        return get(columnIndex) == null;
+    }
+
+    @Override
+    public int getInt(int columnIndex) {
+        final Object value = get(columnIndex);
+
+        return (value == null ? 0 : ((Number) value).intValue());
+    }
+
+    @Override
+    public long getLong(int columnIndex) {
+        final Object value = get(columnIndex);
+
+        return (value == null ? 0 : ((Number) value).longValue());
+    }
+
+    @Override
+    public double getDouble(int columnIndex) {
+        final Object value = get(columnIndex);
+
+        return (value == null ? 0 : ((Number) value).doubleValue());
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        final Object value = get(columnIndex);
+
+        return (value == null ? null : value.toString());
+    }
+
+    @Override
+    public byte[] getBlob(int columnIndex) {
+        return (byte[]) get(columnIndex);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Object get(int columnIndex) {
+        if (mPosition < 0 || mPosition >= mRows.size()) {
+            throw new IllegalStateException("cursor is not on a row: " + mPosition);
+        }
+
+        return mRows.get(mPosition)[columnIndex];
+    }
+
+}
@@ -0,0 +1,44 @@
+package android.database.sqlite;
+
+import android.database.Cursor;
+
+/**
+ * JVM stand-in for SQLiteDatabase. Transactions and DDL are no-ops,
+ * statements are {@link SQLiteStatement} stand-ins and queries are not
+ * supported.
+ */
+public class SQLiteDatabase {
+
+    public void beginTransaction() {
+    }
+
+    public void setTransactionSuccessful() {
+    }
+
+    public void endTransaction() {
+    }
+
+    public void execSQL(String sql) {
+    }
+
+    public SQLiteStatement compileStatement(String sql) {
+        return new SQLiteStatement();
+    }
+
+    public Cursor rawQuery(String sql, String[] selectionArgs) {
+        throw new UnsupportedOperationException("rawQuery is not supported by the stand-in");
+    }
+
+    public Cursor query(String table, String[] columns, String selection,
+                        String[] selectionArgs, String groupBy, String having,
+                        String orderBy) {
+        throw new UnsupportedOperationException("query is not supported by the stand-in");
+    }
+
+    public Cursor query(String table, String[] columns, String selection,
+                        String[] selectionArgs, String groupBy, String having,
+                        String orderBy, String limit) {
+        throw new UnsupportedOperationException("query is not supported by the stand-in");
+    }
+
+}
@@ -0,0 +1,61 @@
+package android.database.sqlite;
+
+import java.io.Closeable;
+
+/**
+ * JVM stand-in for a compiled statement. Bindings are kept in arrays
+ * and executing only counts calls, so benchmarks measure the generated
+ * binding code rather than SQLite.
+ */
+public class SQLiteStatement implements Closeable {
+
+    private final static int MAX_BINDINGS = 999;
+
+    private final long[] mLongs = new long[MAX_BINDINGS + 1];
+    private final double[] mDoubles = new double[MAX_BINDINGS + 1];
+    private final Object[] mObjects = new Object[MAX_BINDINGS + 1];
+
+    private long mExecutions;
+
+    public void bindLong(int index, long value) {
+        mLongs[index] = value;
+    }
+
+    public void bindDouble(int index, double value) {
+        mDoubles[index] = value;
+    }
+
+    public void bindString(int index, String value) {
+        mObjects[index] = value;
+    }
+
+    public void bindBlob(int index, byte[] value) {
+        mObjects[index] = value;
+    }
+
+    public void bindNull(int index) {
+        mObjects[index] = null;
+    }
+
+    public void clearBindings() {
+    }
+
+    public long executeInsert() {
+        return ++mExecutions;
+    }
+
+    public int executeUpdateDelete() {
+        mExecutions++;
+
+        return 1;
+    }
+
+    public void execute() {
+        mExecutions++;
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
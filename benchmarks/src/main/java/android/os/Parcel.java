@@ -0,0 +1,152 @@
+package android.os;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * JVM stand-in for Parcel, backed by a growable heap buffer. Strings are
+ * written as UTF-16 code units with an int length, like the platform
+ * implementation.
+ */
+public final class Parcel {
+
+    private final static int INITIAL_CAPACITY = 1024;
+
+    private ByteBuffer mBuffer = ByteBuffer.allocate(INITIAL_CAPACITY)
+            .order(ByteOrder.nativeOrder());
+    private int mDataSize;
+
+    private Parcel() {
+    }
+
+    public static Parcel obtain() {
+        return new Parcel();
+    }
+
+    public void recycle() {
+        mBuffer.clear();
+        mDataSize = 0;
+    }
+
+    public int dataSize() {
+        return mDataSize;
+    }
+
+    public int dataPosition() {
+        return mBuffer.position();
+    }
+
+    public void setDataPosition(int position) {
+        mBuffer.position(position);
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(4).putInt(value);
+        updateDataSize();
+    }
+
+    public void writeLong(long value) {
+        ensureCapacity(8).putLong(value);
+        updateDataSize();
+    }
+
+    public void writeDouble(double value) {
+        ensureCapacity(8).putDouble(value);
+        updateDataSize();
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+
+        final int len = value.length();
+
+        ensureCapacity(4 + len * 2).putInt(len);
+        for (int i = 0; i < len; i++) {
+            mBuffer.putChar(value.charAt(i));
+        }
+
+        updateDataSize();
+    }
+
+    public void writeByteArray(byte[] value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+
+        ensureCapacity(4 + value.length).putInt(value.length);
+        mBuffer.put(value);
+
+        updateDataSize();
+    }
+
+    public int readInt() {
+        return mBuffer.getInt();
+    }
+
+    public long readLong() {
+        return mBuffer.getLong();
+    }
+
+    public double readDouble() {
+        return mBuffer.getDouble();
+    }
+
+    public String readString() {
+        final int len = mBuffer.getInt();
+        if (len < 0) {
+            return null;
+        }
+
+        final char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = mBuffer.getChar();
+        }
+
+        return new String(chars);
+    }
+
+    public byte[] createByteArray() {
+        final int len = mBuffer.getInt();
+        if (len < 0) {
+            return null;
+        }
+
+        final byte[] value = new byte[len];
+        mBuffer.get(value);
+
+        return value;
+    }
+
+    private ByteBuffer ensureCapacity(int bytes) {
+        if (mBuffer.remaining() < bytes) {
+            int capacity = mBuffer.capacity() * 2;
+            while (capacity - mBuffer.position() < bytes) {
+                capacity *= 2;
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate(capacity)
+                    .order(ByteOrder.nativeOrder());
+
+            final int position = mBuffer.position();
+            final ByteBuffer data = mBuffer.duplicate();
+            data.position(0);
+            data.limit(Math.max(mDataSize, position));
+
+            buffer.put(data);
+            buffer.position(position);
+
+            mBuffer = buffer;
+        }
+
+        return mBuffer;
+    }
+
+    private void updateDataSize() {
+        mDataSize = Math.max(mDataSize, mBuffer.position());
+    }
+
+}
@@ -0,0 +1,90 @@
+package android.util;
+
+import java.util.Arrays;
+
+/**
+ * JVM stand-in for the subset of android.util.Base64 used by generated
+ * code. Only the standard alphabet with padding; lines are never
+ * wrapped, so NO_WRAP and DEFAULT encode alike.
+ */
+public class Base64 {
+
+    public final static int DEFAULT = 0;
+    public final static int NO_WRAP = 2;
+
+    private final static char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+                    .toCharArray();
+
+    private final static int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64() {
+    }
+
+    public static String encodeToString(byte[] input, int flags) {
+        final StringBuilder builder = new StringBuilder((input.length + 2) / 3 * 4);
+
+        for (int i = 0; i < input.length; i += 3) {
+            final int remaining = input.length - i;
+            final int bits = (input[i] & 0xff) << 16
+                    | (remaining > 1 ? (input[i + 1] & 0xff) << 8 : 0)
+                    | (remaining > 2 ? (input[i + 2] & 0xff) : 0);
+
+            builder.append(ALPHABET[bits >>> 18 & 0x3f]);
+            builder.append(ALPHABET[bits >>> 12 & 0x3f]);
+            builder.append(remaining > 1 ? ALPHABET[bits >>> 6 & 0x3f] : '=');
+            builder.append(remaining > 2 ? ALPHABET[bits & 0x3f] : '=');
+        }
+
+        return builder.toString();
+    }
+
+    public static byte[] decode(String str, int flags) {
+        final byte[] output = new byte[str.length() / 4 * 3];
+
+        int bits = 0;
+        int count = 0;
+        int len = 0;
+        for (int i = 0; i < str.length(); i++) {
+            final char c = str.charAt(i);
+            if (c == '=') {
+                break;
+            }
+
+            final int value = (c < DECODE.length ? DECODE[c] : -1);
+            if (value < 0) {
+                if (Character.isWhitespace(c)) {
+                    continue;
+                }
+
+                throw new IllegalArgumentException("bad base-64: " + c);
+            }
+
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                output[len++] = (byte) (bits >>> 16);
+                output[len++] = (byte) (bits >>> 8);
+                output[len++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+
+        if (count == 3) {
+            output[len++] = (byte) (bits >>> 10);
+            output[len++] = (byte) (bits >>> 2);
+        } else if (count == 2) {
+            output[len++] = (byte) (bits >>> 4);
+        }
+
+        return Arrays.copyOf(output, len);
+    }
+
+}
@@ -0,0 +1,413 @@
+package android.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * JVM stand-in for android.util.JsonReader. Supports strict JSON and the
+ * pull API used by generated codecs.
+ */
+public class JsonReader implements Closeable {
+
+    private final static int EMPTY_DOCUMENT = 0;
+    private final static int NONEMPTY_DOCUMENT = 1;
+    private final static int EMPTY_ARRAY = 2;
+    private final static int NONEMPTY_ARRAY = 3;
+    private final static int EMPTY_OBJECT = 4;
+    private final static int DANGLING_NAME = 5;
+    private final static int NONEMPTY_OBJECT = 6;
+
+    private final Reader mIn;
+
+    private final char[] mBuffer = new char[1024];
+    private int mPos = 0;
+    private int mLimit = 0;
+
+    private int[] mStack = new int[32];
+    private int mStackSize = 0;
+
+    private JsonToken mToken;
+    private String mValue;
+
+    private final StringBuilder mBuilder = new StringBuilder();
+
+    public JsonReader(Reader in) {
+        if (in == null) {
+            throw new NullPointerException("in == null");
+        }
+
+        mIn = in;
+        push(EMPTY_DOCUMENT);
+    }
+
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+        mToken = null;
+    }
+
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        mStackSize--;
+        mToken = null;
+    }
+
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+        mToken = null;
+    }
+
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        mStackSize--;
+        mToken = null;
+    }
+
+    public boolean hasNext() throws IOException {
+        final JsonToken token = peek();
+
+        return (token != JsonToken.END_OBJECT
+                && token != JsonToken.END_ARRAY
+                && token != JsonToken.END_DOCUMENT);
+    }
+
+    public JsonToken peek() throws IOException {
+        if (mToken != null) {
+            return mToken;
+        }
+
+        int c;
+        switch (mStack[mStackSize - 1]) {
+            case EMPTY_DOCUMENT:
+                replaceTop(NONEMPTY_DOCUMENT);
+                return readValue();
+
+            case NONEMPTY_DOCUMENT:
+                if (nextNonWhitespace(false) != -1) {
+                    throw syntaxError("Expected EOF");
+                }
+                return mToken = JsonToken.END_DOCUMENT;
+
+            case EMPTY_ARRAY:
+                replaceTop(NONEMPTY_ARRAY);
+                if (nextNonWhitespace(true) == ']') {
+                    return mToken = JsonToken.END_ARRAY;
+                }
+                mPos--;
+                return readValue();
+
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace(true);
+                if (c == ']') {
+                    return mToken = JsonToken.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Unterminated array");
+                }
+                return readValue();
+
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                final boolean first = (mStack[mStackSize - 1] == EMPTY_OBJECT);
+                replaceTop(DANGLING_NAME);
+
+                c = nextNonWhitespace(true);
+                if (c == '}') {
+                    return mToken = JsonToken.END_OBJECT;
+                }
+
+                if (!first) {
+                    if (c != ',') {
+                        throw syntaxError("Unterminated object");
+                    }
+                    c = nextNonWhitespace(true);
+                }
+
+                if (c != '"') {
+                    throw syntaxError("Expected name");
+                }
+
+                mValue = readString();
+                return mToken = JsonToken.NAME;
+
+            case DANGLING_NAME:
+                replaceTop(NONEMPTY_OBJECT);
+                if (nextNonWhitespace(true) != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                return readValue();
+
+            default:
+                throw new IllegalStateException("unexpected scope");
+        }
+    }
+
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+
+        return consume();
+    }
+
+    public String nextString() throws IOException {
+        final JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            throw new IllegalStateException("Expected a string but was " + token);
+        }
+
+        return consume();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+
+        return "true".equals(consume());
+    }
+
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+        consume();
+    }
+
+    public double nextDouble() throws IOException {
+        return Double.parseDouble(nextString());
+    }
+
+    public long nextLong() throws IOException {
+        final String value = nextString();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            final double asDouble = Double.parseDouble(value);
+            final long result = (long) asDouble;
+            if (result != asDouble) {
+                throw new NumberFormatException(value);
+            }
+
+            return result;
+        }
+    }
+
+    public int nextInt() throws IOException {
+        final long value = nextLong();
+        if (value != (int) value) {
+            throw new NumberFormatException(Long.toString(value));
+        }
+
+        return (int) value;
+    }
+
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            final JsonToken token = peek();
+            if (token == JsonToken.BEGIN_ARRAY) {
+                beginArray();
+                depth++;
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                beginObject();
+                depth++;
+            } else if (token == JsonToken.END_ARRAY) {
+                endArray();
+                depth--;
+            } else if (token == JsonToken.END_OBJECT) {
+                endObject();
+                depth--;
+            } else if (token == JsonToken.END_DOCUMENT) {
+                throw new IllegalStateException("Expected a value but was " + token);
+            } else {
+                consume();
+            }
+        } while (depth != 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        mToken = null;
+        mStackSize = 0;
+        mIn.close();
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        final JsonToken token = peek();
+        if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + token);
+        }
+    }
+
+    private String consume() {
+        final String value = mValue;
+
+        mValue = null;
+        mToken = null;
+
+        return value;
+    }
+
+    private JsonToken readValue() throws IOException {
+        final int c = nextNonWhitespace(true);
+        switch (c) {
+            case '{':
+                return mToken = JsonToken.BEGIN_OBJECT;
+
+            case '[':
+                return mToken = JsonToken.BEGIN_ARRAY;
+
+            case '"':
+                mValue = readString();
+                return mToken = JsonToken.STRING;
+
+            default:
+                mPos--;
+                return readLiteral();
+        }
+    }
+
+    private JsonToken readLiteral() throws IOException {
+        mBuilder.setLength(0);
+
+        while (true) {
+            if (mPos == mLimit && !fill()) {
+                break;
+            }
+
+            final char c = mBuffer[mPos];
+            if (c == ',' || c == '}' || c == ']' || c == ':'
+                    || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                break;
+            }
+
+            mBuilder.append(c);
+            mPos++;
+        }
+
+        final String literal = mBuilder.toString();
+        if (literal.isEmpty()) {
+            throw syntaxError("Expected literal value");
+        }
+
+        mValue = literal;
+        if ("null".equals(literal)) {
+            return mToken = JsonToken.NULL;
+        } else if ("true".equals(literal) || "false".equals(literal)) {
+            return mToken = JsonToken.BOOLEAN;
+        }
+
+        final char first = literal.charAt(0);
+        if (first == '-' || (first >= '0' && first <= '9')) {
+            return mToken = JsonToken.NUMBER;
+        }
+
+        throw syntaxError("Unexpected literal: " + literal);
+    }
+
+    private String readString() throws IOException {
+        mBuilder.setLength(0);
+
+        while (true) {
+            if (mPos == mLimit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+
+            final char c = mBuffer[mPos++];
+            if (c == '"') {
+                return mBuilder.toString();
+            } else if (c == '\\') {
+                mBuilder.append(readEscapeCharacter());
+            } else {
+                mBuilder.append(c);
+            }
+        }
+    }
+
+    private char readEscapeCharacter() throws IOException {
+        if (mPos == mLimit && !fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+
+        final char escaped = mBuffer[mPos++];
+        switch (escaped) {
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (mPos == mLimit && !fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+
+                    value = (value << 4) | Character.digit(mBuffer[mPos++], 16);
+                }
+                return (char) value;
+
+            case 't':
+                return '\t';
+
+            case 'b':
+                return '\b';
+
+            case 'n':
+                return '\n';
+
+            case 'r':
+                return '\r';
+
+            case 'f':
+                return '\f';
+
+            default:
+                return escaped;
+        }
+    }
+
+    private int nextNonWhitespace(boolean required) throws IOException {
+        while (mPos < mLimit || fill()) {
+            final char c = mBuffer[mPos++];
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+        }
+
+        if (required) {
+            throw syntaxError("End of input");
+        }
+
+        return -1;
+    }
+
+    private boolean fill() throws IOException {
+        final int keep = (mPos > 0 ? 1 : 0);
+        if (keep > 0) {
+            mBuffer[0] = mBuffer[mPos - 1];
+        }
+
+        mPos = keep;
+        mLimit = keep;
+
+        final int read = mIn.read(mBuffer, keep, mBuffer.length - keep);
+        if (read <= 0) {
+            return false;
+        }
+
+        mLimit += read;
+
+        return true;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at scope " + Arrays.toString(
+                Arrays.copyOf(mStack, mStackSize)));
+    }
+
+    private void push(int scope) {
+        if (mStackSize == mStack.length) {
+            mStack = Arrays.copyOf(mStack, mStackSize * 2);
+        }
+
+        mStack[mStackSize++] = scope;
+    }
+
+    private void replaceTop(int scope) {
+        mStack[mStackSize - 1] = scope;
+    }
+
+}
@@ -0,0 +1,240 @@
+package android.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * JVM stand-in for android.util.JsonWriter. Writes compact JSON with the
+ * same call sequence rules as the platform class.
+ */
+public class JsonWriter implements Closeable {
+
+    private final static int EMPTY_DOCUMENT = 0;
+    private final static int NONEMPTY_DOCUMENT = 1;
+    private final static int EMPTY_ARRAY = 2;
+    private final static int NONEMPTY_ARRAY = 3;
+    private final static int EMPTY_OBJECT = 4;
+    private final static int DANGLING_NAME = 5;
+    private final static int NONEMPTY_OBJECT = 6;
+
+    private final Writer mOut;
+
+    private int[] mStack = new int[32];
+    private int mStackSize = 0;
+
+    public JsonWriter(Writer out) {
+        if (out == null) {
+            throw new NullPointerException("out == null");
+        }
+
+        mOut = out;
+        push(EMPTY_DOCUMENT);
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        mOut.write('[');
+
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        mOut.write('{');
+
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+
+        final int context = peek();
+        if (context == NONEMPTY_OBJECT) {
+            mOut.write(',');
+        } else if (context != EMPTY_OBJECT) {
+            throw new IllegalStateException("nesting problem");
+        }
+
+        replaceTop(DANGLING_NAME);
+        string(name);
+        mOut.write(':');
+
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+
+        beforeValue();
+        string(value);
+
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        mOut.write("null");
+
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        mOut.write(value ? "true" : "false");
+
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+
+        beforeValue();
+        mOut.write(Double.toString(value));
+
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        mOut.write(Long.toString(value));
+
+        return this;
+    }
+
+    public void flush() throws IOException {
+        mOut.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mOut.close();
+
+        if (mStackSize > 1 || peek() != NONEMPTY_DOCUMENT) {
+            throw new IOException("Incomplete document");
+        }
+    }
+
+    private JsonWriter close(int empty, int nonempty, char closeBracket)
+            throws IOException {
+        final int context = peek();
+        if (context != nonempty && context != empty) {
+            throw new IllegalStateException("nesting problem");
+        }
+
+        mStackSize--;
+        mOut.write(closeBracket);
+
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        switch (peek()) {
+            case EMPTY_DOCUMENT:
+                replaceTop(NONEMPTY_DOCUMENT);
+                break;
+
+            case EMPTY_ARRAY:
+                replaceTop(NONEMPTY_ARRAY);
+                break;
+
+            case NONEMPTY_ARRAY:
+                mOut.write(',');
+                break;
+
+            case DANGLING_NAME:
+                replaceTop(NONEMPTY_OBJECT);
+                break;
+
+            default:
+                throw new IllegalStateException("nesting problem");
+        }
+    }
+
+    private void string(String value) throws IOException {
+        mOut.write('\"');
+
+        final int len = value.length();
+
+        char c;
+        for (int i = 0; i < len; i++) {
+            c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                    mOut.write('\\');
+                    mOut.write(c);
+                    break;
+
+                case '\t':
+                    mOut.write("\\t");
+                    break;
+
+                case '\b':
+                    mOut.write("\\b");
+                    break;
+
+                case '\n':
+                    mOut.write("\\n");
+                    break;
+
+                case '\r':
+                    mOut.write("\\r");
+                    break;
+
+                case '\f':
+                    mOut.write("\\f");
+                    break;
+
+                case '\u2028':
+                case '\u2029':
+                    mOut.write(String.format("\\u%04x", (int) c));
+                    break;
+
+                default:
+                    if (c < 0x20) {
+                        mOut.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        mOut.write(c);
+                    }
+                    break;
+            }
+        }
+
+        mOut.write('\"');
+    }
+
+    private int peek() {
+        return mStack[mStackSize - 1];
+    }
+
+    private void push(int scope) {
+        if (mStackSize == mStack.length) {
+            mStack = Arrays.copyOf(mStack, mStackSize * 2);
+        }
+
+        mStack[mStackSize++] = scope;
+    }
+
+    private void replaceTop(int scope) {
+        mStack[mStackSize - 1] = scope;
+    }
+
+}
@@ -0,0 +1,309 @@
+package com.dailystudio.annotation.benchmark;
+
+import com.dailystudio.annotation.DBColumn;
+import com.dailystudio.annotation.DBObject;
+
+@DBObject(latestVersion = 2,
+        features = { DBObject.Feature.STREAMING, DBObject.Feature.JSON, DBObject.Feature.BINARY })
+public class WideObject {
+
+    @DBColumn(primary = "true")
+    private long mId;
+
+    @DBColumn(name = "col_01")
+    private int mCol01;
+
+    @DBColumn(name = "col_02")
+    private long mCol02;
+
+    @DBColumn(name = "col_03")
+    private double mCol03;
+
+    @DBColumn(name = "col_04")
+    private String mCol04;
+
+    @DBColumn(name = "col_05")
+    private boolean mCol05;
+
+    @DBColumn(name = "col_06")
+    private int mCol06;
+
+    @DBColumn(name = "col_07")
+    private long mCol07;
+
+    @DBColumn(name = "col_08")
+    private double mCol08;
+
+    @DBColumn(name = "col_09")
+    private String mCol09;
+
+    @DBColumn(name = "col_10")
+    private boolean mCol10;
+
+    @DBColumn(name = "col_11")
+    private int mCol11;
+
+    @DBColumn(name = "col_12")
+    private long mCol12;
+
+    @DBColumn(name = "col_13")
+    private double mCol13;
+
+    @DBColumn(name = "col_14")
+    private String mCol14;
+
+    @DBColumn(name = "col_15")
+    private boolean mCol15;
+
+    @DBColumn(name = "col_16")
+    private int mCol16;
+
+    @DBColumn(name = "col_17")
+    private long mCol17;
+
+    @DBColumn(name = "col_18")
+    private double mCol18;
+
+    @DBColumn(name = "col_19")
+    private String mCol19;
+
+    @DBColumn(name = "col_20")
+    private boolean mCol20;
+
+    @DBColumn(name = "col_21")
+    private int mCol21;
+
+    @DBColumn(name = "col_22")
+    private long mCol22;
+
+    @DBColumn(name = "col_23")
+    private double mCol23;
+
+    @DBColumn(name = "col_24")
+    private String mCol24;
+
+    @DBColumn(name = "col_25")
+    private boolean mCol25;
+
+    @DBColumn(name = "col_26")
+    private int mCol26;
+
+    @DBColumn(name = "col_27")
+    private long mCol27;
+
+    @DBColumn(name = "col_28")
+    private double mCol28;
+
+    @DBColumn(name = "col_29")
+    private String mCol29;
+
+    @DBColumn(name = "col_30")
+    private boolean mCol30;
+
+    @DBColumn(name = "col_31")
+    private int mCol31;
+
+    @DBColumn(name = "col_32")
+    private long mCol32;
+
+    @DBColumn(name = "col_33")
+    private double mCol33;
+
+    @DBColumn(name = "col_34")
+    private String mCol34;
+
+    @DBColumn(name = "col_35")
+    private boolean mCol35;
+
+    @DBColumn(name = "col_36")
+    private int mCol36;
+
+    @DBColumn(name = "col_37")
+    private long mCol37;
+
+    @DBColumn(name = "col_38")
+    private double mCol38;
+
+    @DBColumn(name = "col_39")
+    private String mCol39;
+
+    @DBColumn(name = "col_40")
+    private boolean mCol40;
+
+    @DBColumn(name = "col_41")
+    private int mCol41;
+
+    @DBColumn(name = "col_42")
+    private long mCol42;
+
+    @DBColumn(name = "col_43")
+    private double mCol43;
+
+    @DBColumn(name = "col_44")
+    private String mCol44;
+
+    @DBColumn(name = "col_45")
+    private boolean mCol45;
+
+    @DBColumn(name = "col_46")
+    private int mCol46;
+
+    @DBColumn(name = "col_47")
+    private long mCol47;
+
+    @DBColumn(name = "col_48")
+    private double mCol48;
+
+    @DBColumn(name = "col_49")
+    private String mCol49;
+
+    @DBColumn(name = "col_50")
+    private boolean mCol50;
+
+    @DBColumn(name = "col_51")
+    private int mCol51;
+
+    @DBColumn(name = "col_52")
+    private long mCol52;
+
+    @DBColumn(name = "col_53")
+    private double mCol53;
+
+    @DBColumn(name = "col_54")
+    private String mCol54;
+
+    @DBColumn(name = "col_55")
+    private boolean mCol55;
+
+    @DBColumn(name = "col_56")
+    private int mCol56;
+
+    @DBColumn(name = "col_57")
+    private long mCol57;
+
+    @DBColumn(name = "col_58")
+    private double mCol58;
+
+    @DBColumn(name = "col_59")
+    private String mCol59;
+
+    @DBColumn(name = "col_60")
+    private boolean mCol60;
+
+    @DBColumn(name = "col_61")
+    private int mCol61;
+
+    @DBColumn(name = "col_62")
+    private long mCol62;
+
+    @DBColumn(name = "col_63")
+    private double mCol63;
+
+    @DBColumn(name = "col_64")
+    private String mCol64;
+
+    @DBColumn(name = "col_65")
+    private boolean mCol65;
+
+    @DBColumn(name = "col_66")
+    private int mCol66;
+
+    @DBColumn(name = "col_67")
+    private long mCol67;
+
+    @DBColumn(name = "col_68")
+    private double mCol68;
+
+    @DBColumn(name = "col_69")
+    private String mCol69;
+
+    @DBColumn(name = "col_70")
+    private boolean mCol70;
+
+    @DBColumn(name = "col_71")
+    private int mCol71;
+
+    @DBColumn(name = "col_72")
+    private long mCol72;
+
+    @DBColumn(name = "col_73")
+    private double mCol73;
+
+    @DBColumn(name = "col_74")
+    private String mCol74;
+
+    @DBColumn(name = "col_75")
+    private boolean mCol75;
+
+    @DBColumn(name = "col_76")
+    private int mCol76;
+
+    @DBColumn(name = "col_77")
+    private long mCol77;
+
+    @DBColumn(name = "col_78")
+    private double mCol78;
+
+    @DBColumn(name = "col_79")
+    private String mCol79;
+
+    @DBColumn(name = "col_80")
+    private boolean mCol80;
+
+    @DBColumn(name = "col_81")
+    private int mCol81;
+
+    @DBColumn(name = "col_82")
+    private long mCol82;
+
+    @DBColumn(name = "col_83")
+    private double mCol83;
+
+    @DBColumn(name = "col_84")
+    private String mCol84;
+
+    @DBColumn(name = "col_85")
+    private boolean mCol85;
+
+    @DBColumn(name = "col_86")
+    private int mCol86;
+
+    @DBColumn(name = "col_87")
+    private long mCol87;
+
+    @DBColumn(name = "col_88")
+    private double mCol88;
+
+    @DBColumn(name = "col_89")
+    private String mCol89;
+
+    @DBColumn(name = "col_90", version = 2)
+    private boolean mCol90;
+
+    @DBColumn(name = "col_91", version = 2)
+    private int mCol91;
+
+    @DBColumn(name = "col_92", version = 2)
+    private long mCol92;
+
+    @DBColumn(name = "col_93", version = 2)
+    private double mCol93;
+
+    @DBColumn(name = "col_94", version = 2)
+    private String mCol94;
+
+    @DBColumn(name = "col_95", version = 2)
+    private boolean mCol95;
+
+    @DBColumn(name = "col_96", version = 2)
+    private int mCol96;
+
+    @DBColumn(name = "col_97", version = 2)
+    private long mCol97;
+
+    @DBColumn(name = "col_98", version = 2)
+    private double mCol98;
+
+    @DBColumn(name = "col_99", version = 2)
+    private String mCol99;
+}
@@ -0,0 +1,14 @@
+package com.dailystudio.dataobject;
+
+public class BlobColumn extends Column {
+
+    public BlobColumn(String name, boolean allowNull, boolean primary, int version) {
+        super(name, "BLOB", allowNull, primary, version);
+    }
+
+    @Override
+    boolean matchValueType(Object value) {
+        return (value instanceof byte[]);
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.dailystudio.dataobject;
+
+/**
+ * JVM stand-in for the devbricks Column. Keeps the column metadata that
+ * generated code passes in; values live in {@link DatabaseObject}.
+ */
+public abstract class Column {
+
+    private final String mName;
+    private final String mType;
+    private final boolean mAllowNull;
+    private final boolean mPrimary;
+    private final int mVersion;
+
+    public Column(String name, String type,
+                  boolean allowNull, boolean primary, int version) {
+        mName = name;
+        mType = type;
+        mAllowNull = allowNull;
+        mPrimary = primary;
+        mVersion = version;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public String getType() {
+        return mType;
+    }
+
+    public boolean isAllowNull() {
+        return mAllowNull;
+    }
+
+    public boolean isPrimary() {
+        return mPrimary;
+    }
+
+    public int getVersion() {
+        return mVersion;
+    }
+
+    abstract boolean matchValueType(Object value);
+
+    @Override
+    public String toString() {
+        return String.format("%s(%s %s)", getClass().getSimpleName(), mName, mType);
+    }
+
+}
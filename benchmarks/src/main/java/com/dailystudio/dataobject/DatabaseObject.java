@@ -0,0 +1,92 @@
+package com.dailystudio.dataobject;
+
+import android.content.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for the devbricks DatabaseObject. Values are boxed into a
+ * map keyed by column name and checked against the template, which is
+ * the cost profile of the value storage mode on device.
+ */
+public class DatabaseObject {
+
+    protected final Context mContext;
+    protected int mVersion;
+
+    private Template mTemplate;
+    private final Map<String, Object> mValues = new HashMap<>();
+
+    public DatabaseObject(Context context, int version) {
+        mContext = context;
+        mVersion = version;
+    }
+
+    public Context getContext() {
+        return mContext;
+    }
+
+    public int getVersion() {
+        return mVersion;
+    }
+
+    public Template getTemplate() {
+        return mTemplate;
+    }
+
+    public void setTemplate(Template template) {
+        mTemplate = template;
+    }
+
+    public void setValue(Column column, Object value) {
+        if (mTemplate == null || !mTemplate.containsColumn(column)) {
+            return;
+        }
+
+        if (value != null && !column.matchValueType(value)) {
+            return;
+        }
+
+        mValues.put(column.getName(), value);
+    }
+
+    public Object getValue(Column column) {
+        if (column == null) {
+            return null;
+        }
+
+        return mValues.get(column.getName());
+    }
+
+    public int getIntegerValue(Column column) {
+        final Object value = getValue(column);
+
+        return (value instanceof Number ? ((Number) value).intValue() : 0);
+    }
+
+    public long getLongValue(Column column) {
+        final Object value = getValue(column);
+
+        return (value instanceof Number ? ((Number) value).longValue() : 0);
+    }
+
+    public double getDoubleValue(Column column) {
+        final Object value = getValue(column);
+
+        return (value instanceof Number ? ((Number) value).doubleValue() : 0);
+    }
+
+    public String getTextValue(Column column) {
+        final Object value = getValue(column);
+
+        return (value == null ? null : value.toString());
+    }
+
+    public byte[] getBlobValue(Column column) {
+        final Object value = getValue(column);
+
+        return (value instanceof byte[] ? (byte[]) value : null);
+    }
+
+}
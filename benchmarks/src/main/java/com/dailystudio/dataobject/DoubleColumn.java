@@ -0,0 +1,14 @@
+package com.dailystudio.dataobject;
+
+public class DoubleColumn extends Column {
+
+    public DoubleColumn(String name, boolean allowNull, boolean primary, int version) {
+        super(name, "REAL", allowNull, primary, version);
+    }
+
+    @Override
+    boolean matchValueType(Object value) {
+        return (value instanceof Double || value instanceof Float);
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.dailystudio.dataobject;
+
+public class IntegerColumn extends Column {
+
+    public IntegerColumn(String name, boolean allowNull, boolean primary, int version) {
+        super(name, "INTEGER", allowNull, primary, version);
+    }
+
+    @Override
+    boolean matchValueType(Object value) {
+        return (value instanceof Integer);
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.dailystudio.dataobject;
+
+public class LongColumn extends Column {
+
+    public LongColumn(String name, boolean allowNull, boolean primary, int version) {
+        super(name, "INTEGER", allowNull, primary, version);
+    }
+
+    @Override
+    boolean matchValueType(Object value) {
+        return (value instanceof Long || value instanceof Integer);
+    }
+
+}
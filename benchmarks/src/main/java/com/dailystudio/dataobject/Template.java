@@ -0,0 +1,52 @@
+package com.dailystudio.dataobject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JVM stand-in for the devbricks Template: an ordered set of columns
+ * with lookup by name.
+ */
+public class Template {
+
+    private final List<Column> mColumns = new ArrayList<>();
+    private final Map<String, Column> mColumnsByName = new HashMap<>();
+
+    public void addColumn(Column column) {
+        if (column == null || mColumnsByName.containsKey(column.getName())) {
+            return;
+        }
+
+        mColumns.add(column);
+        mColumnsByName.put(column.getName(), column);
+    }
+
+    public void addColumns(Column[] columns) {
+        if (columns == null) {
+            return;
+        }
+
+        for (Column column: columns) {
+            addColumn(column);
+        }
+    }
+
+    public Column getColumn(String name) {
+        return mColumnsByName.get(name);
+    }
+
+    public boolean containsColumn(Column column) {
+        return (column != null && mColumnsByName.get(column.getName()) == column);
+    }
+
+    public List<Column> listColumns() {
+        return mColumns;
+    }
+
+    public int getColumnCount() {
+        return mColumns.size();
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.dailystudio.dataobject;
+
+public class TextColumn extends Column {
+
+    public TextColumn(String name, boolean allowNull, boolean primary, int version) {
+        super(name, "TEXT", allowNull, primary, version);
+    }
+
+    @Override
+    boolean matchValueType(Object value) {
+        return (value instanceof String);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.dailystudio.annotation.benchmark.processor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+final class Allocations {
+
+    private final static ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    private Allocations() {
+    }
+
+    static boolean isSupported() {
+        return (THREAD_BEAN instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) THREAD_BEAN)
+                        .isThreadAllocatedMemorySupported());
+    }
+
+    static long currentThreadAllocatedBytes() {
+        if (!isSupported()) {
+            return 0;
+        }
+
+        return ((com.sun.management.ThreadMXBean) THREAD_BEAN)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.dailystudio.annotation.benchmark.processor;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+final class EntitySources {
+
+    final static String PACKAGE_NAME = "com.dailystudio.annotation.benchmark.synthetic";
+
+    private final static String[] TYPES = {
+            "int", "long", "double", "String", "boolean",
+    };
+
+    private EntitySources() {
+    }
+
+    static List<JavaFileObject> synthesize(int entities, int columns, int versions) {
+        List<JavaFileObject> sources = new ArrayList<>(entities);
+
+        for (int i = 0; i < entities; i++) {
+            final String className = String.format("Entity%04d", i);
+
+            sources.add(new StringSource(className,
+                    composeEntity(className, columns, versions)));
+        }
+
+        return sources;
+    }
+
+    private static String composeEntity(String className, int columns, int versions) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("package ").append(PACKAGE_NAME).append(";\n\n");
+        builder.append("import com.dailystudio.annotation.DBColumn;\n");
+        builder.append("import com.dailystudio.annotation.DBIndex;\n");
+        builder.append("import com.dailystudio.annotation.DBObject;\n\n");
+
+        builder.append("@DBObject(latestVersion = ").append(versions);
+        // all optional members, so the limits cover the largest output
+        builder.append(", features = {\n");
+        builder.append("        DBObject.Feature.SNAPSHOT, DBObject.Feature.STREAMING,\n");
+        builder.append("        DBObject.Feature.JSON, DBObject.Feature.BINARY\n");
+        builder.append("}");
+        if (columns > 1) {
+            builder.append(", indexes = {\n");
+            builder.append("        @DBIndex(columns = {\"c0001\"}),\n");
+            builder.append("        @DBIndex(columns = {\"c0001\", \"id\"}, version = ")
+                    .append(versions).append(")\n");
+            builder.append("}");
+        }
+        builder.append(")\n");
+
+        builder.append("public class ").append(className).append(" {\n\n");
+
+        builder.append("    @DBColumn(primary = \"true\")\n");
+        builder.append("    private long mId;\n");
+
+        for (int col = 1; col < columns; col++) {
+            builder.append("\n");
+            builder.append(String.format("    @DBColumn(name = \"c%04d\", version = %d)\n",
+                    col, getColumnVersion(col, columns, versions)));
+            builder.append(String.format("    private %s mC%04d;\n",
+                    TYPES[(col - 1) % TYPES.length], col));
+        }
+
+        builder.append("}\n");
+
+        return builder.toString();
+    }
+
+    private static int getColumnVersion(int col, int columns, int versions) {
+        if (col == 1) {
+            return 1;
+        }
+
+        return 1 + (col * versions / (columns + 1));
+    }
+
+    private static class StringSource extends SimpleJavaFileObject {
+
+        private final String mContent;
+
+        StringSource(String className, String content) {
+            super(URI.create("string:///" + PACKAGE_NAME.replace('.', '/')
+                    + "/" + className + Kind.SOURCE.extension), Kind.SOURCE);
+
+            mContent = content;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return mContent;
+        }
+
+    }
+
+}
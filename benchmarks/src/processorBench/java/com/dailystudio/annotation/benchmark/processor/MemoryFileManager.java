@@ -0,0 +1,113 @@
+package com.dailystudio.annotation.benchmark.processor;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps everything javac and the processor write in memory, so the
+ * benchmark does not measure disk I/O.
+ */
+final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<String, MemoryFileObject> mOutputs = new HashMap<>();
+
+    MemoryFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location,
+                                               String className,
+                                               JavaFileObject.Kind kind,
+                                               FileObject sibling) {
+        MemoryFileObject file = new MemoryFileObject(URI.create("mem:///"
+                + location.getName() + "/" + className.replace('.', '/')
+                + kind.extension), kind);
+
+        mOutputs.put(file.toUri().toString(), file);
+
+        return file;
+    }
+
+    int getGeneratedSourceCount() {
+        int count = 0;
+        for (MemoryFileObject file: mOutputs.values()) {
+            if (file.getKind() == JavaFileObject.Kind.SOURCE) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns a SHA-256 over the names and contents of all generated
+     * sources, in name order.
+     */
+    String getGeneratedSourceDigest() {
+        Map<String, MemoryFileObject> sources = new TreeMap<>();
+        for (Map.Entry<String, MemoryFileObject> entry: mOutputs.entrySet()) {
+            if (entry.getValue().getKind() == JavaFileObject.Kind.SOURCE) {
+                sources.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (Map.Entry<String, MemoryFileObject> entry: sources.entrySet()) {
+            digest.update(entry.getKey().getBytes(UTF_8));
+            digest.update((byte) 0);
+            digest.update(entry.getValue().mContent.toByteArray());
+            digest.update((byte) 0);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (byte b: digest.digest()) {
+            builder.append(String.format("%02x", b));
+        }
+
+        return builder.toString();
+    }
+
+    private static class MemoryFileObject extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream mContent = new ByteArrayOutputStream();
+
+        MemoryFileObject(URI uri, Kind kind) {
+            super(uri, kind);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            mContent.reset();
+
+            return mContent;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return new String(mContent.toByteArray(), UTF_8);
+        }
+
+    }
+
+}
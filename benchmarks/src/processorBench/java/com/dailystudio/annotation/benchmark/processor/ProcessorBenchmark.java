@@ -0,0 +1,398 @@
+package com.dailystudio.annotation.benchmark.processor;
+
+import com.dailystudio.annotation.processor.DBObjectProcessor;
+import com.dailystudio.annotation.processor.DBObjectRegistryProcessor;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Runs DBObjectProcessor and DBObjectRegistryProcessor in-process over
+ * synthesized entities and reports how their cost scales with the number
+ * of entities and columns. Costs are checked against the limits in a
+ * baseline properties file.
+ */
+public class ProcessorBenchmark {
+
+    private final static String KEY_MICROS_PER_COLUMN = "processor.micros.per.column.max";
+    private final static String KEY_BYTES_PER_COLUMN = "processor.bytes.per.column.max";
+    private final static String KEY_TIME_SCALING = "processor.time.scaling.max";
+    private final static String KEY_ALLOC_SCALING = "processor.alloc.scaling.max";
+
+    private static class Result {
+
+        int entities;
+        int columns;
+
+        long wallNanos;
+        long processorNanos;
+        long allocatedBytes;
+        long processorBytes;
+        List<Long> roundNanos;
+        int generatedSources;
+        String sourceDigest;
+
+        long getCells() {
+            return (long) entities * columns;
+        }
+
+        double getProcessorMicrosPerColumn() {
+            return processorNanos / 1000.0 / getCells();
+        }
+
+        double getProcessorBytesPerColumn() {
+            return (double) processorBytes / getCells();
+        }
+
+    }
+
+    private List<Integer> mEntities = Arrays.asList(50, 100, 200);
+    private List<Integer> mColumns = Arrays.asList(10, 50);
+    private int mVersions = 3;
+    private int mWarmups = 2;
+    private int mIterations = 3;
+    private boolean mCompile = false;
+    private int mThreads = 1;
+    private File mBaselineFile;
+    private File mCsvFile;
+
+    public static void main(String[] args) throws IOException {
+        ProcessorBenchmark benchmark = new ProcessorBenchmark();
+
+        benchmark.parseArgs(args);
+
+        System.exit(benchmark.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--entities":
+                    mEntities = parseList(args[++i]);
+                    break;
+
+                case "--columns":
+                    mColumns = parseList(args[++i]);
+                    break;
+
+                case "--versions":
+                    mVersions = Integer.parseInt(args[++i]);
+                    break;
+
+                case "--warmups":
+                    mWarmups = Integer.parseInt(args[++i]);
+                    break;
+
+                case "--iterations":
+                    mIterations = Integer.parseInt(args[++i]);
+                    break;
+
+                case "--compile":
+                    mCompile = true;
+                    break;
+
+                case "--threads":
+                    mThreads = Integer.parseInt(args[++i]);
+                    break;
+
+                case "--baseline":
+                    mBaselineFile = new File(args[++i]);
+                    break;
+
+                case "--csv":
+                    mCsvFile = new File(args[++i]);
+                    break;
+
+                default:
+                    throw new IllegalArgumentException("unknown argument: " + args[i]);
+            }
+        }
+    }
+
+    private boolean run() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            System.err.println("no system java compiler, run the benchmark on a JDK");
+            return false;
+        }
+
+        if (!Allocations.isSupported()) {
+            System.err.println("thread allocation counters are not supported, "
+                    + "allocation is reported as 0");
+        }
+
+        System.out.println(String.format(Locale.US,
+                "processor benchmark: versions = %d, warmups = %d, iterations = %d, mode = %s, threads = %d",
+                mVersions, mWarmups, mIterations, (mCompile ? "compile" : "proc:only"),
+                mThreads));
+        System.out.println(String.format(Locale.US,
+                "%8s %8s %10s %10s %12s %12s %8s %12s  %s",
+                "entities", "columns", "wall(ms)", "proc(ms)", "alloc(MB)",
+                "proc(MB)", "files", "sources", "rounds(ms)"));
+
+        List<Result> results = new ArrayList<>();
+        boolean valid = true;
+
+        for (int columns: mColumns) {
+            for (int entities: mEntities) {
+                Result result = measure(compiler, entities, columns);
+                if (result == null) {
+                    return false;
+                }
+
+                printResult(result);
+                results.add(result);
+
+                if (result.generatedSources != entities + 1) {
+                    System.err.println(String.format(Locale.US,
+                            "expected %d generated sources for %d entities, got %d",
+                            entities + 1, entities, result.generatedSources));
+                    valid = false;
+                }
+            }
+        }
+
+        if (mCsvFile != null) {
+            writeCsv(results);
+        }
+
+        if (mBaselineFile != null) {
+            valid &= checkBaseline(results);
+        }
+
+        return valid;
+    }
+
+    private Result measure(JavaCompiler compiler, int entities, int columns) {
+        List<Result> samples = new ArrayList<>();
+
+        Result sample;
+        for (int i = 0; i < mWarmups + mIterations; i++) {
+            sample = compile(compiler, entities, columns);
+            if (sample == null) {
+                return null;
+            }
+
+            if (i >= mWarmups) {
+                samples.add(sample);
+            }
+        }
+
+        return median(samples);
+    }
+
+    private Result compile(JavaCompiler compiler, int entities, int columns) {
+        List<JavaFileObject> sources = EntitySources.synthesize(entities, columns, mVersions);
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        MemoryFileManager fileManager = new MemoryFileManager(
+                compiler.getStandardFileManager(diagnostics, Locale.US, null));
+
+        List<String> options = new ArrayList<>();
+        options.add("-classpath");
+        options.add(System.getProperty("java.class.path"));
+        options.add("-Xlint:none");
+        options.add("-nowarn");
+        if (!mCompile) {
+            options.add("-proc:only");
+        }
+
+        // allocation is counted on the javac thread only, so the default
+        // keeps generation serial for the allocation limits to hold
+        options.add("-Adevbricks.threads=" + mThreads);
+
+        TimingProcessor processor = new TimingProcessor(new DBObjectProcessor());
+        TimingProcessor registryProcessor = new TimingProcessor(new DBObjectRegistryProcessor());
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager,
+                diagnostics, options, null, sources);
+        task.setProcessors(Arrays.asList(processor, registryProcessor));
+
+        System.gc();
+
+        final long startBytes = Allocations.currentThreadAllocatedBytes();
+        final long start = System.nanoTime();
+
+        final boolean success = task.call();
+
+        final long wallNanos = System.nanoTime() - start;
+        final long allocatedBytes = Allocations.currentThreadAllocatedBytes() - startBytes;
+
+        if (!success) {
+            for (Diagnostic<? extends JavaFileObject> diagnostic: diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    System.err.println(diagnostic);
+                }
+            }
+
+            return null;
+        }
+
+        Result result = new Result();
+
+        result.entities = entities;
+        result.columns = columns;
+        result.wallNanos = wallNanos;
+        result.allocatedBytes = allocatedBytes;
+        result.processorNanos = processor.getTotalNanos() + registryProcessor.getTotalNanos();
+        result.processorBytes = processor.getTotalBytes() + registryProcessor.getTotalBytes();
+        result.roundNanos = new ArrayList<>(processor.roundNanos);
+        for (int i = 0; i < result.roundNanos.size()
+                && i < registryProcessor.roundNanos.size(); i++) {
+            result.roundNanos.set(i, result.roundNanos.get(i) + registryProcessor.roundNanos.get(i));
+        }
+        result.generatedSources = fileManager.getGeneratedSourceCount();
+        result.sourceDigest = fileManager.getGeneratedSourceDigest();
+
+        return result;
+    }
+
+    private Result median(List<Result> samples) {
+        List<Result> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted, new java.util.Comparator<Result>() {
+            @Override
+            public int compare(Result r1, Result r2) {
+                return Long.compare(r1.processorNanos, r2.processorNanos);
+            }
+        });
+
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private void printResult(Result result) {
+        StringBuilder rounds = new StringBuilder();
+        for (long nanos: result.roundNanos) {
+            if (rounds.length() > 0) {
+                rounds.append(", ");
+            }
+
+            rounds.append(String.format(Locale.US, "%.1f", nanos / 1e6));
+        }
+
+        System.out.println(String.format(Locale.US,
+                "%8d %8d %10.1f %10.1f %12.1f %12.1f %8d %12s  [%s]",
+                result.entities, result.columns,
+                result.wallNanos / 1e6, result.processorNanos / 1e6,
+                result.allocatedBytes / 1048576.0, result.processorBytes / 1048576.0,
+                result.generatedSources, result.sourceDigest.substring(0, 12), rounds));
+    }
+
+    private void writeCsv(List<Result> results) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(mCsvFile))) {
+            writer.println("entities,columns,wall_ms,processor_ms,alloc_bytes,"
+                    + "processor_alloc_bytes,generated_sources,rounds,sources_sha256");
+
+            for (Result result: results) {
+                writer.println(String.format(Locale.US, "%d,%d,%.3f,%.3f,%d,%d,%d,%d,%s",
+                        result.entities, result.columns,
+                        result.wallNanos / 1e6, result.processorNanos / 1e6,
+                        result.allocatedBytes, result.processorBytes,
+                        result.generatedSources, result.roundNanos.size(),
+                        result.sourceDigest));
+            }
+        }
+    }
+
+    private boolean checkBaseline(List<Result> results) throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = new FileInputStream(mBaselineFile)) {
+            baseline.load(in);
+        }
+
+        final double maxMicrosPerColumn = getLimit(baseline, KEY_MICROS_PER_COLUMN);
+        final double maxBytesPerColumn = getLimit(baseline, KEY_BYTES_PER_COLUMN);
+        final double maxTimeScaling = getLimit(baseline, KEY_TIME_SCALING);
+        final double maxAllocScaling = getLimit(baseline, KEY_ALLOC_SCALING);
+
+        boolean valid = true;
+
+        for (int columns: mColumns) {
+            Result smallest = null;
+            Result largest = null;
+            for (Result result: results) {
+                if (result.columns != columns) {
+                    continue;
+                }
+
+                if (smallest == null || result.entities < smallest.entities) {
+                    smallest = result;
+                }
+                if (largest == null || result.entities > largest.entities) {
+                    largest = result;
+                }
+            }
+
+            if (largest == null) {
+                continue;
+            }
+
+            valid &= checkLimit(largest, KEY_MICROS_PER_COLUMN,
+                    largest.getProcessorMicrosPerColumn(), maxMicrosPerColumn);
+            valid &= checkLimit(largest, KEY_BYTES_PER_COLUMN,
+                    largest.getProcessorBytesPerColumn(), maxBytesPerColumn);
+
+            if (smallest == largest) {
+                continue;
+            }
+
+            valid &= checkLimit(largest, KEY_TIME_SCALING,
+                    largest.getProcessorMicrosPerColumn()
+                            / smallest.getProcessorMicrosPerColumn(),
+                    maxTimeScaling);
+            valid &= checkLimit(largest, KEY_ALLOC_SCALING,
+                    largest.getProcessorBytesPerColumn()
+                            / smallest.getProcessorBytesPerColumn(),
+                    maxAllocScaling);
+        }
+
+        System.out.println(valid ? "baseline: OK" : "baseline: FAILED");
+
+        return valid;
+    }
+
+    private boolean checkLimit(Result result, String key, double value, double limit) {
+        if (limit <= 0 || value <= limit) {
+            return true;
+        }
+
+        System.err.println(String.format(Locale.US,
+                "%s exceeded for %d entities x %d columns: %.2f > %.2f",
+                key, result.entities, result.columns, value, limit));
+
+        return false;
+    }
+
+    private static double getLimit(Properties baseline, String key) {
+        String value = baseline.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
+        }
+
+        return Double.parseDouble(value.trim());
+    }
+
+    private static List<Integer> parseList(String value) {
+        List<Integer> list = new ArrayList<>();
+        for (String item: value.split(",")) {
+            list.add(Integer.parseInt(item.trim()));
+        }
+
+        return list;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.dailystudio.annotation.benchmark.processor;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps a processor and records the wall time and the bytes allocated
+ * by the calling thread in each round.
+ */
+final class TimingProcessor implements Processor {
+
+    private final Processor mDelegate;
+
+    final List<Long> roundNanos = new ArrayList<>();
+    final List<Long> roundBytes = new ArrayList<>();
+
+    TimingProcessor(Processor delegate) {
+        mDelegate = delegate;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return mDelegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return mDelegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return mDelegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+        mDelegate.init(processingEnv);
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final long startBytes = Allocations.currentThreadAllocatedBytes();
+        final long start = System.nanoTime();
+
+        try {
+            return mDelegate.process(annotations, roundEnv);
+        } finally {
+            roundNanos.add(System.nanoTime() - start);
+            roundBytes.add(Allocations.currentThreadAllocatedBytes() - startBytes);
+        }
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element,
+                                                         AnnotationMirror annotation,
+                                                         ExecutableElement member,
+                                                         String userText) {
+        return mDelegate.getCompletions(element, annotation, member, userText);
+    }
+
+    long getTotalNanos() {
+        long total = 0;
+        for (long nanos: roundNanos) {
+            total += nanos;
+        }
+
+        return total;
+    }
+
+    long getTotalBytes() {
+        long total = 0;
+        for (long bytes: roundBytes) {
+            total += bytes;
+        }
+
+        return total;
+    }
+
+}
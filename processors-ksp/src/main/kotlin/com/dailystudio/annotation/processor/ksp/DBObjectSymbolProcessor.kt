@@ -0,0 +1,364 @@
+package com.dailystudio.annotation.processor.ksp
+
+import com.dailystudio.annotation.DBColumn
+import com.dailystudio.annotation.DBIndex
+import com.dailystudio.annotation.DBObject
+import com.dailystudio.annotation.processor.database.ColumnSpecs
+import com.dailystudio.annotation.processor.database.ColumnTypeSpecs
+import com.dailystudio.annotation.processor.database.DBObjectSpecs
+import com.dailystudio.annotation.processor.database.IndexSpecs
+import com.dailystudio.annotation.processor.database.RegistrySpecs
+import com.dailystudio.annotation.processor.utils.LogUtils
+import com.google.devtools.ksp.processing.CodeGenerator
+import com.google.devtools.ksp.processing.Dependencies
+import com.google.devtools.ksp.processing.KSPLogger
+import com.google.devtools.ksp.processing.Resolver
+import com.google.devtools.ksp.processing.SymbolProcessor
+import com.google.devtools.ksp.symbol.ClassKind
+import com.google.devtools.ksp.symbol.KSAnnotated
+import com.google.devtools.ksp.symbol.KSAnnotation
+import com.google.devtools.ksp.symbol.KSClassDeclaration
+import com.google.devtools.ksp.symbol.KSDeclaration
+import com.google.devtools.ksp.symbol.KSFile
+import com.google.devtools.ksp.symbol.KSPropertyDeclaration
+import com.google.devtools.ksp.symbol.KSType
+import com.google.devtools.ksp.validate
+import com.squareup.javapoet.ClassName
+import com.squareup.javapoet.JavaFile
+import javax.tools.Diagnostic
+
+/**
+ * KSP frontend of DBObjectProcessor. It reads the same annotations from
+ * KSP symbols into DBObjectSpecs and writes the same Java sources, so
+ * Kotlin modules do not need kapt stubs.
+ */
+class DBObjectSymbolProcessor(private val codeGenerator: CodeGenerator,
+                              private val logger: KSPLogger,
+                              private val options: Map<String, String>) : SymbolProcessor {
+
+    companion object {
+
+        private const val OPTION_LOG_LEVEL = "devbricks.log"
+        private const val OPTION_REGISTRY_PACKAGE = "devbricks.registry.package"
+
+        private val PRIMITIVE_TYPE_NAMES = mapOf(
+                "kotlin.Int" to "int",
+                "kotlin.Long" to "long",
+                "kotlin.Double" to "double",
+                "kotlin.Boolean" to "boolean",
+                "kotlin.Float" to "float",
+                "kotlin.Short" to "short",
+                "kotlin.Byte" to "byte")
+
+        private val BOXED_TYPE_NAMES = mapOf(
+                "kotlin.Int" to "java.lang.Integer",
+                "kotlin.Long" to "java.lang.Long",
+                "kotlin.Double" to "java.lang.Double",
+                "kotlin.Boolean" to "java.lang.Boolean",
+                "kotlin.Float" to "java.lang.Float",
+                "kotlin.Short" to "java.lang.Short",
+                "kotlin.Byte" to "java.lang.Byte")
+
+    }
+
+    private val registryEntities = mutableListOf<RegistrySpecs.EntitySpecs>()
+    private val registryFiles = mutableListOf<KSFile>()
+    private var resolver: Resolver? = null
+
+    init {
+        if (!LogUtils.setLevel(options[OPTION_LOG_LEVEL])) {
+            logger.warn("unknown $OPTION_LOG_LEVEL value [${options[OPTION_LOG_LEVEL]}], use warn")
+        }
+
+        LogUtils.setPrinter { kind, message ->
+            when (kind) {
+                Diagnostic.Kind.ERROR -> logger.error(message)
+                Diagnostic.Kind.WARNING, Diagnostic.Kind.MANDATORY_WARNING -> logger.warn(message)
+                else -> logger.info(message)
+            }
+        }
+    }
+
+    override fun process(resolver: Resolver): List<KSAnnotated> {
+        this.resolver = resolver
+
+        val symbols = resolver.getSymbolsWithAnnotation(DBObject::class.java.name).toList()
+        val deferred = symbols.filterNot { it.validate() }
+
+        symbols.filter { it.validate() }
+                .filterIsInstance<KSClassDeclaration>()
+                .sortedBy { it.qualifiedName?.asString() }
+                .forEach { generate(it) }
+
+        return deferred
+    }
+
+    override fun finish() {
+        generateRegistry()
+
+        resolver = null
+        LogUtils.setPrinter(null)
+    }
+
+    private fun generate(declaration: KSClassDeclaration) {
+        val dbObject = declaration.findAnnotation(DBObject::class.java) ?: return
+
+        val typeName = declaration.simpleName.asString()
+        val storage = dbObject.enumArgument<DBObject.Storage>(DBObject::class.java, "storage")
+
+        val specs = DBObjectSpecs.fromDefinition(declaration.packageName.asString(),
+                typeName,
+                dbObject.argument(DBObject::class.java, "latestVersion"),
+                storage,
+                dbObject.argument(DBObject::class.java, "cacheSize"),
+                dbObject.enumArrayArgument<DBObject.Feature>(DBObject::class.java, "features"))
+
+        LogUtils.info("gen class: %s", specs.generatedClassName)
+
+        if (dbObject.hasArrayArgument(DBObject::class.java, "converters")) {
+            LogUtils.warn("%s: @DBTypeConverter is not supported by the KSP frontend, "
+                    + "converters are ignored", typeName)
+        }
+
+        if (dbObject.hasArrayArgument(DBObject::class.java, "relations")) {
+            LogUtils.warn("%s: @DBRelation is not supported by the KSP frontend, "
+                    + "relations are ignored", typeName)
+        }
+
+        declaration.declarations
+                .filterIsInstance<KSPropertyDeclaration>()
+                .forEach { property ->
+                    val columnSpecs = composeColumnSpecs(property, storage)
+                    if (ColumnSpecs.isValidSpecs(columnSpecs)) {
+                        DBObjectSpecs.addColumn(specs, columnSpecs)
+                    }
+                }
+
+        dbObject.argument<List<*>>(DBObject::class.java, "indexes")
+                .filterIsInstance<KSAnnotation>()
+                .forEach { index ->
+                    DBObjectSpecs.addIndex(specs, IndexSpecs.fromDefinition(typeName,
+                            specs.tableName,
+                            index.argument(DBIndex::class.java, "name"),
+                            index.stringArrayArgument(DBIndex::class.java, "columns"),
+                            index.argument(DBIndex::class.java, "unique"),
+                            index.argument(DBIndex::class.java, "version"),
+                            specs.columns))
+                }
+
+        DBObjectSpecs.resolve(specs)
+
+        val sourceFile = declaration.containingFile
+        val dependencies = if (sourceFile == null) {
+            Dependencies(false)
+        } else {
+            Dependencies(false, sourceFile)
+        }
+
+        writeJavaFile(JavaFile.builder(specs.packageName,
+                DBObjectSpecs.composeTypeBuilder(specs).build())
+                .build(), dependencies)
+
+        registryEntities.add(RegistrySpecs.EntitySpecs(
+                declaration.qualifiedName?.asString() ?: typeName,
+                specs.generatedClassName, specs.tableName, specs.latestVersion))
+        if (sourceFile != null) {
+            registryFiles.add(sourceFile)
+        }
+    }
+
+    private fun composeColumnSpecs(property: KSPropertyDeclaration,
+                                   storage: DBObject.Storage): ColumnSpecs? {
+        val dbColumn = property.findAnnotation(DBColumn::class.java) ?: return null
+
+        val varName = property.simpleName.asString()
+        val javaTypeName = getJavaTypeName(property)
+        val typeSpecs = getEnumTypeSpecs(property)
+                ?: ColumnTypeSpecs.fromTypeName(javaTypeName, null)
+        if (typeSpecs == null) {
+            LogUtils.warn("[%s] is unsupported data type of [%s]. ignored!",
+                    javaTypeName, varName)
+        }
+
+        val specs = ColumnSpecs.fromDefinition(varName,
+                typeSpecs,
+                dbColumn.argument(DBColumn::class.java, "name"),
+                dbColumn.argument(DBColumn::class.java, "allowNull"),
+                dbColumn.argument(DBColumn::class.java, "primary"),
+                dbColumn.argument(DBColumn::class.java, "version"),
+                storage,
+                false)
+
+        ColumnSpecs.assignFullText(specs,
+                dbColumn.argument(DBColumn::class.java, "fullText"),
+                dbColumn.argument(DBColumn::class.java, "fullTextVersion"))
+
+        return specs
+    }
+
+    /**
+     * Maps the property type to the name javac would report for the
+     * field, which is what the shared ColumnSpecs type mapping expects.
+     */
+    private fun getJavaTypeName(property: KSPropertyDeclaration): String {
+        val type = property.type.resolve()
+        val qualifiedName = type.declaration.qualifiedName?.asString()
+                ?: return type.toString()
+
+        if (qualifiedName == "kotlin.String") {
+            return "java.lang.String"
+        } else if (qualifiedName == "kotlin.ByteArray") {
+            return "byte[]"
+        }
+
+        val typeNames = if (type.isMarkedNullable) BOXED_TYPE_NAMES else PRIMITIVE_TYPE_NAMES
+
+        return typeNames[qualifiedName] ?: qualifiedName
+    }
+
+    /**
+     * Enums cannot be told apart by name, so they are resolved from the
+     * declaration kind here.
+     */
+    private fun getEnumTypeSpecs(property: KSPropertyDeclaration): ColumnTypeSpecs? {
+        val declaration = property.type.resolve().declaration as? KSClassDeclaration
+                ?: return null
+        if (declaration.classKind != ClassKind.ENUM_CLASS) {
+            return null
+        }
+
+        val qualifiedName = declaration.qualifiedName?.asString() ?: return null
+        val packageName = declaration.packageName.asString()
+        val simpleNames = qualifiedName.removePrefix("$packageName.").split('.')
+
+        return ColumnTypeSpecs.ofEnum(ClassName.get(packageName,
+                simpleNames.first(), *simpleNames.drop(1).toTypedArray()))
+    }
+
+    private fun generateRegistry() {
+        if (registryEntities.isEmpty()) {
+            return
+        }
+
+        RegistrySpecs.sortEntities(registryEntities)
+
+        val conflict = RegistrySpecs.findTableConflict(registryEntities)
+        if (conflict != null) {
+            LogUtils.error("%s and %s are both stored in table [%s], rename one of them",
+                    conflict[0].sourceClassName, conflict[1].sourceClassName,
+                    conflict[0].tableName)
+            return
+        }
+
+        val packageOption = options[OPTION_REGISTRY_PACKAGE]?.takeIf { it.isNotEmpty() }
+        val packageName = packageOption ?: RegistrySpecs.getRegistryPackage(registryEntities)
+
+        val registryClassName = ClassName.get(packageName, RegistrySpecs.REGISTRY_CLASS_NAME)
+
+        // a registry on the classpath comes from another module, both
+        // would end up as the same class in the app
+        val existing = resolver?.let {
+            it.getClassDeclarationByName(it.getKSNameFromString(registryClassName.toString()))
+        }
+        if (existing != null) {
+            if (packageOption != null) {
+                LogUtils.error("%s already exists on the classpath, set %s to a package unique to this module",
+                        registryClassName, OPTION_REGISTRY_PACKAGE)
+            } else {
+                LogUtils.error("%s already exists on the classpath, set %s when entities are spread over modules",
+                        registryClassName, OPTION_REGISTRY_PACKAGE)
+            }
+            return
+        }
+
+        LogUtils.info("gen registry: %s", registryClassName)
+
+        writeJavaFile(JavaFile.builder(packageName,
+                RegistrySpecs.composeRegistryTypeBuilder(registryClassName, registryEntities)
+                        .build())
+                .build(), Dependencies(true, *registryFiles.toTypedArray()))
+
+        registryEntities.clear()
+        registryFiles.clear()
+    }
+
+    private fun writeJavaFile(javaFile: JavaFile, dependencies: Dependencies) {
+        codeGenerator.createNewFile(dependencies,
+                javaFile.packageName,
+                javaFile.typeSpec.name,
+                "java").bufferedWriter(Charsets.UTF_8).use { writer ->
+            javaFile.writeTo(writer)
+        }
+    }
+
+    private fun KSAnnotated.findAnnotation(annotationClass: Class<out Annotation>): KSAnnotation? {
+        return annotations.firstOrNull { annotation ->
+            annotation.shortName.asString() == annotationClass.simpleName
+                    && annotation.annotationType.resolve().declaration
+                            .qualifiedName?.asString() == annotationClass.name
+        }
+    }
+
+    /**
+     * Returns the argument value, or the default declared on the
+     * annotation class when KSP does not report the argument.
+     */
+    @Suppress("UNCHECKED_CAST")
+    private fun <T> KSAnnotation.argument(annotationClass: Class<out Annotation>,
+                                          name: String): T {
+        val argument = arguments.firstOrNull { it.name?.asString() == name }
+        if (argument?.value != null) {
+            return argument.value as T
+        }
+
+        return annotationClass.getMethod(name).defaultValue as T
+    }
+
+    private fun KSAnnotation.stringArrayArgument(annotationClass: Class<out Annotation>,
+                                                 name: String): Array<String> {
+        return when (val value = argument<Any?>(annotationClass, name)) {
+            is List<*> -> value.map { it.toString() }.toTypedArray()
+            is Array<*> -> value.map { it.toString() }.toTypedArray()
+            null -> arrayOf()
+            else -> arrayOf(value.toString())
+        }
+    }
+
+    private fun KSAnnotation.hasArrayArgument(annotationClass: Class<out Annotation>,
+                                              name: String): Boolean {
+        return when (val value = argument<Any?>(annotationClass, name)) {
+            is List<*> -> value.isNotEmpty()
+            is Array<*> -> value.isNotEmpty()
+            else -> false
+        }
+    }
+
+    /**
+     * Enum arguments come as the entry's KSType or declaration depending
+     * on the KSP version, and as the enum constant for defaults.
+     */
+    private inline fun <reified T : Enum<T>> KSAnnotation.enumArgument(
+            annotationClass: Class<out Annotation>, name: String): T {
+        return toEnum(argument<Any>(annotationClass, name))
+    }
+
+    private inline fun <reified T : Enum<T>> KSAnnotation.enumArrayArgument(
+            annotationClass: Class<out Annotation>, name: String): Array<T> {
+        return when (val value = argument<Any?>(annotationClass, name)) {
+            is List<*> -> value.filterNotNull().map { toEnum<T>(it) }.toTypedArray()
+            is Array<*> -> value.filterNotNull().map { toEnum<T>(it) }.toTypedArray()
+            null -> arrayOf()
+            else -> arrayOf(toEnum(value))
+        }
+    }
+
+    private inline fun <reified T : Enum<T>> toEnum(value: Any): T {
+        return when (value) {
+            is T -> value
+            is KSType -> enumValueOf(value.declaration.simpleName.asString())
+            is KSDeclaration -> enumValueOf(value.simpleName.asString())
+            else -> enumValueOf(value.toString().substringAfterLast('.'))
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.dailystudio.annotation.processor.ksp
+
+import com.google.devtools.ksp.processing.SymbolProcessor
+import com.google.devtools.ksp.processing.SymbolProcessorEnvironment
+import com.google.devtools.ksp.processing.SymbolProcessorProvider
+
+class DBObjectSymbolProcessorProvider : SymbolProcessorProvider {
+
+    override fun create(environment: SymbolProcessorEnvironment): SymbolProcessor {
+        return DBObjectSymbolProcessor(environment.codeGenerator,
+                environment.logger,
+                environment.options)
+    }
+
+}
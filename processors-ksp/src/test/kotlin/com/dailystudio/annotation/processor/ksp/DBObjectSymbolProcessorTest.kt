@@ -0,0 +1,120 @@
+package com.dailystudio.annotation.processor.ksp
+
+import com.dailystudio.annotation.processor.DBObjectProcessor
+import com.dailystudio.annotation.processor.DBObjectRegistryProcessor
+import com.tschuchort.compiletesting.KotlinCompilation
+import com.tschuchort.compiletesting.SourceFile
+import com.tschuchort.compiletesting.kspSourcesDir
+import com.tschuchort.compiletesting.symbolProcessorProviders
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.util.Locale
+import javax.tools.Diagnostic
+import javax.tools.DiagnosticCollector
+import javax.tools.JavaFileObject
+import javax.tools.ToolProvider
+
+/**
+ * Runs the javac processor and the KSP frontend over the example User
+ * entity, and over a Kotlin entity and its Java twin, and checks that both
+ * generate the same sources.
+ */
+class DBObjectSymbolProcessorTest {
+
+    private val userSource = File("../example/app/src/main/java/com/dailystudio/annotation/example/User.java")
+    private val playerKotlinSource = File("src/test/resources/Player.kt")
+    private val playerJavaSource = File("src/test/resources/Player.java")
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    @Test
+    fun kspOutputMatchesJavacOutput() {
+        assertSameSources(generateWithJavac(userSource), generateWithKsp(userSource))
+    }
+
+    @Test
+    fun kotlinEntityMatchesJavaEntity() {
+        val kspSources = generateWithKsp(playerKotlinSource)
+
+        assertSameSources(generateWithJavac(playerJavaSource), kspSources)
+
+        // Kotlin properties have no m or s prefix to strip, while javac
+        // strips any leading m or s, so the Java twin uses mXxx fields
+        val player = kspSources.getValue("com/dailystudio/annotation/example/PlayerDBObject.java")
+        assertTrue(player.contains("public void setScore(double score)"))
+        assertTrue(player.contains("public boolean getScored()"))
+        assertTrue(player.contains("public int getMode()"))
+        assertTrue(player.contains("public Integer getLevel()"))
+
+        // only the features the entity opts in to
+        assertTrue(player.contains("writeJsonArray("))
+        assertFalse(player.contains("readSnapshot("))
+    }
+
+    private fun assertSameSources(javacSources: Map<String, String>,
+                                  kspSources: Map<String, String>) {
+        assertTrue("javac generated nothing", javacSources.isNotEmpty())
+        assertEquals(javacSources.keys, kspSources.keys)
+
+        for ((name, content) in javacSources) {
+            assertEquals("$name differs", content, kspSources[name])
+        }
+    }
+
+    private fun generateWithJavac(source: File): Map<String, String> {
+        val outputDir = temporaryFolder.newFolder("javac")
+
+        val compiler = ToolProvider.getSystemJavaCompiler()
+        val diagnostics = DiagnosticCollector<JavaFileObject>()
+        val fileManager = compiler.getStandardFileManager(diagnostics, Locale.US, null)
+
+        val task = compiler.getTask(null, fileManager, diagnostics,
+                listOf("-proc:only",
+                        "-classpath", System.getProperty("java.class.path"),
+                        "-s", outputDir.path),
+                null,
+                fileManager.getJavaFileObjects(source))
+        task.setProcessors(listOf(DBObjectProcessor(), DBObjectRegistryProcessor()))
+
+        task.call()
+
+        // the generated sources need the Android runtime to compile, so
+        // only errors outside them fail the processing
+        val errors = diagnostics.diagnostics.filter { diagnostic ->
+            diagnostic.kind == Diagnostic.Kind.ERROR
+                    && diagnostic.source?.toUri()?.path?.startsWith(outputDir.path) != true
+        }
+        assertTrue("javac processing failed: $errors", errors.isEmpty())
+
+        return readSources(outputDir)
+    }
+
+    private fun generateWithKsp(source: File): Map<String, String> {
+        val compilation = KotlinCompilation().apply {
+            workingDir = temporaryFolder.newFolder("ksp")
+            sources = listOf(SourceFile.fromPath(source))
+            symbolProcessorProviders = listOf(DBObjectSymbolProcessorProvider())
+            inheritClassPath = true
+        }
+
+        // the generated sources need the Android runtime to compile, so
+        // only the KSP step is checked here
+        val result = compilation.compile()
+        assertFalse(result.messages, result.messages.contains("e: [ksp]"))
+
+        return readSources(File(compilation.kspSourcesDir, "java"))
+    }
+
+    private fun readSources(dir: File): Map<String, String> {
+        return dir.walkTopDown()
+                .filter { it.isFile && it.name.endsWith(".java") }
+                .associate { it.relativeTo(dir).path to it.readText() }
+    }
+
+}
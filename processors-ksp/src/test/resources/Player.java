@@ -0,0 +1,27 @@
+package com.dailystudio.annotation.example;
+
+import com.dailystudio.annotation.DBColumn;
+import com.dailystudio.annotation.DBObject;
+
+@DBObject(latestVersion = 2,
+        features = { DBObject.Feature.JSON, DBObject.Feature.BINARY })
+public class Player {
+
+    @DBColumn(primary = "true")
+    private long mPlayerId;
+
+    @DBColumn(name = "nick_name", allowNull = "false")
+    private String mNickName;
+
+    @DBColumn(name = "mode")
+    private int mMode;
+
+    @DBColumn(name = "scored")
+    private boolean mScored;
+
+    @DBColumn(name = "level")
+    private Integer mLevel;
+
+    @DBColumn(name = "score", version = 2)
+    private double mScore;
+}
@@ -0,0 +1,27 @@
+package com.dailystudio.annotation.example
+
+import com.dailystudio.annotation.DBColumn
+import com.dailystudio.annotation.DBObject
+
+@DBObject(latestVersion = 2,
+        features = [DBObject.Feature.JSON, DBObject.Feature.BINARY])
+class Player {
+
+    @DBColumn(primary = "true")
+    var playerId: Long = 0
+
+    @DBColumn(name = "nick_name", allowNull = "false")
+    var nickName: String = ""
+
+    @DBColumn(name = "mode")
+    var mode: Int = 0
+
+    @DBColumn(name = "scored")
+    var scored: Boolean = false
+
+    @DBColumn(name = "level")
+    var level: Int? = null
+
+    @DBColumn(name = "score", version = 2)
+    var score: Double = 0.0
+}
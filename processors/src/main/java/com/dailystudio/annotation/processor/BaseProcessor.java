@@ -1,16 +1,33 @@
 package com.dailystudio.annotation.processor;
 
 import com.dailystudio.annotation.GlobalEnvironment;
+import com.dailystudio.annotation.processor.utils.CountingWriter;
 import com.dailystudio.annotation.processor.utils.LogUtils;
+import com.dailystudio.annotation.processor.utils.ProcessingStats;
+import com.squareup.javapoet.JavaFile;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public abstract class BaseProcessor extends AbstractProcessor  {
 
+    protected final static String OPTION_LOG_LEVEL = "devbricks.log";
+    protected final static String OPTION_STATS_FILE = "devbricks.stats";
+
     private Messager mMessager;
 
+    private ProcessingStats mStats;
+    private String mStatsFile;
+
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
@@ -18,12 +35,100 @@ public abstract class BaseProcessor extends AbstractProcessor  {
         mMessager = processingEnv.getMessager();
 
         GlobalEnvironment.attachToEnvironment(processingEnv);
+
+        String level = processingEnv.getOptions().get(OPTION_LOG_LEVEL);
+        if (!LogUtils.setLevel(level)) {
+            warn("unknown %s value [%s], use warn", OPTION_LOG_LEVEL, level);
+        }
+
+        mStatsFile = processingEnv.getOptions().get(OPTION_STATS_FILE);
+        if (mStatsFile != null && !mStatsFile.isEmpty()) {
+            mStats = ProcessingStats.of(processingEnv);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return new HashSet<>(Arrays.asList(OPTION_LOG_LEVEL, OPTION_STATS_FILE));
+    }
+
+    /**
+     * Returns a stats record for one generated class, or null when
+     * -Adevbricks.stats is not set.
+     */
+    protected ProcessingStats.EntityStats beginStats(String sourceClass,
+                                                     String generatedClass) {
+        if (mStats == null) {
+            return null;
+        }
+
+        return mStats.begin(getClass().getSimpleName(), sourceClass, generatedClass);
+    }
+
+    protected void resumeStats(ProcessingStats.EntityStats entity) {
+        if (mStats == null || entity == null) {
+            return;
+        }
+
+        mStats.resume(entity);
+    }
+
+    protected void endStats(ProcessingStats.EntityStats entity) {
+        if (mStats == null || entity == null) {
+            return;
+        }
+
+        mStats.end(entity);
+    }
+
+    protected void writeStats() {
+        if (mStats == null) {
+            return;
+        }
+
+        try {
+            mStats.writeTo(new File(mStatsFile));
+        } catch (IOException e) {
+            warn("write stats to %s failed: %s", mStatsFile, e.toString());
+        }
+    }
+
+    /**
+     * Writes the file through the Filer, same as JavaFile.writeTo(Filer),
+     * and returns the number of UTF-8 bytes written.
+     */
+    protected long writeJavaFile(JavaFile javaFile) throws IOException {
+        String fileName = javaFile.packageName.isEmpty()
+                ? javaFile.typeSpec.name
+                : javaFile.packageName + "." + javaFile.typeSpec.name;
+        List<Element> originatingElements = javaFile.typeSpec.originatingElements;
+
+        JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(fileName,
+                originatingElements.toArray(new Element[originatingElements.size()]));
+
+        CountingWriter writer = new CountingWriter(sourceFile.openWriter());
+        try {
+            javaFile.writeTo(writer);
+        } catch (IOException e) {
+            writer.close();
+            sourceFile.delete();
+
+            throw e;
+        }
+
+        writer.close();
+
+        return writer.getByteCount();
     }
 
     public void note(String format, Object... args) {
         LogUtils.debug(mMessager, format, args);
     }
 
+    public void info(String format, Object... args) {
+        LogUtils.info(mMessager, format, args);
+    }
+
     public void error(String format, Object... args) {
         LogUtils.error(mMessager, format, args);
     }
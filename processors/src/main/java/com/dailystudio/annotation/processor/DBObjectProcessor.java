@@ -1,34 +1,70 @@
 package com.dailystudio.annotation.processor;
 
-import androidx.annotation.Keep;
 import com.dailystudio.annotation.DBColumn;
+import com.dailystudio.annotation.DBIndex;
 import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.DBRelation;
 import com.dailystudio.annotation.processor.database.ColumnSpecs;
+import com.dailystudio.annotation.processor.database.DBObjectSpecs;
+import com.dailystudio.annotation.processor.database.IndexSpecs;
+import com.dailystudio.annotation.processor.database.RelationSpecs;
+import com.dailystudio.annotation.processor.database.TypeConverterSpecs;
 import com.dailystudio.annotation.processor.utils.GenUtils;
+import com.dailystudio.annotation.processor.utils.ProcessingStats;
 import com.squareup.javapoet.*;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 public class DBObjectProcessor extends BaseProcessor {
 
-    private final static String DATABASE_OBJECT_PACKAGE = "com.dailystudio.dataobject";
     private final static int DEFAULT_VERSION = 0x1;
 
-    private Filer mFiler;
-    private Elements mElementUtils;
+    private final static String OPTION_THREADS = "devbricks.threads";
+
+    private static class EntityModel {
 
+        TypeElement typeElement;
+        DBObjectSpecs specs;
+
+        ProcessingStats.EntityStats stats = null;
+
+    }
+
+    private Elements mElementUtils;
+    private Types mTypeUtils;
+    private int mThreads = 1;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
 
-        mFiler = processingEnv.getFiler();
         mElementUtils = processingEnv.getElementUtils();
+        mTypeUtils = processingEnv.getTypeUtils();
+
+        mThreads = Runtime.getRuntime().availableProcessors();
+
+        String threads = processingEnv.getOptions().get(OPTION_THREADS);
+        if (threads != null && !threads.isEmpty()) {
+            try {
+                mThreads = Math.max(1, Integer.parseInt(threads.trim()));
+            } catch (NumberFormatException e) {
+                warn("invalid %s value [%s], use %d", OPTION_THREADS, threads, mThreads);
+            }
+        }
     }
 
     @Override
@@ -36,206 +72,276 @@ public class DBObjectProcessor extends BaseProcessor {
         Set<? extends Element> elements =
                 roundEnv.getElementsAnnotatedWith(DBObject.class);
 
-        TypeElement typeElement;
-        VariableElement varElement;
+        List<TypeElement> typeElements = new ArrayList<>();
         for (Element element : elements) {
             if (element instanceof TypeElement) {
-                typeElement = (TypeElement) element;
+                typeElements.add((TypeElement) element);
+            }
+        }
 
-                int latestVersion = DEFAULT_VERSION;
-                DBObject dbObject = typeElement.getAnnotation(DBObject.class);
-                if (dbObject != null) {
-                    latestVersion = dbObject.latestVersion();
-                }
+        // the order of annotated elements is unspecified, so entities are
+        // always handled by qualified name
+        Collections.sort(typeElements, new Comparator<TypeElement>() {
+            @Override
+            public int compare(TypeElement e1, TypeElement e2) {
+                return e1.getQualifiedName().toString().compareTo(
+                        e2.getQualifiedName().toString());
+            }
+        });
+
+        List<EntityModel> models = new ArrayList<>();
+        EntityModel model;
+        for (TypeElement typeElement : typeElements) {
+            model = extractEntityModel(typeElement);
+            if (model != null) {
+                models.add(model);
+            }
+        }
 
-                String packageName = mElementUtils.getPackageOf(typeElement).getQualifiedName().toString();
-                String typeName = typeElement.getSimpleName().toString();
-
-                ClassName generatedClassName = ClassName
-                        .get(packageName, GenUtils.getDBObjectGenClassName(typeName));
-                note("gen class: %s", generatedClassName);
-
-                MethodSpec constructorBase = MethodSpec.constructorBuilder()
-                        .addModifiers(Modifier.PUBLIC)
-                        .addParameter(ClassName.get("android.content", "Context"),
-                                "context")
-                        .addParameter(TypeName.INT, "version")
-                        .addStatement("super(context, version)")
-                        .addStatement("initMembers()")
-                        .build();
-
-                MethodSpec constructorShortcut = MethodSpec.constructorBuilder()
-                        .addModifiers(Modifier.PUBLIC)
-                        .addParameter(ClassName.get("android.content", "Context"),
-                                "context")
-                        .addStatement("this(context, $L)", latestVersion)
-                        .build();
-
-                // define the wrapper class
-                TypeSpec.Builder classBuilder = TypeSpec.classBuilder(generatedClassName)
-                        .addModifiers(Modifier.PUBLIC)
-                        .superclass(ClassName.get(DATABASE_OBJECT_PACKAGE, "DatabaseObject"))
-                        .addMethod(constructorShortcut)
-                        .addMethod(constructorBase)
-                        .addAnnotation(Keep.class);
-
-                note("dbobject: package = %s", packageName);
-                note("dbobject: class = %s", typeName);
-                List<? extends Element> subElements = element.getEnclosedElements();
-                note("dbobject: sub-elements = %s", subElements);
-
-                Map<Integer, List<FieldSpec>> fieldsMap = new HashMap<>();
-                ColumnSpecs columnSpecs;
-                for (Element subElement: subElements) {
-                    if (subElement instanceof VariableElement) {
-                        varElement = (VariableElement) subElement;
-
-                        columnSpecs = ColumnSpecs.fromVariableElement(varElement);
-                        if (ColumnSpecs.isValidSpecs(columnSpecs)) {
-                            classBuilder.addField(columnSpecs.fieldSpec);
-                            classBuilder.addMethod(columnSpecs.setterMethodSpec);
-                            classBuilder.addMethod(columnSpecs.getterMethodSpec);
-
-                            List<FieldSpec> specs;
-                            if (fieldsMap.containsKey(columnSpecs.version)) {
-                                specs = fieldsMap.get(columnSpecs.version);
-                            } else {
-                                specs = new ArrayList<>();
-                            }
-
-                            specs.add(columnSpecs.fieldSpec);
-                            fieldsMap.put(columnSpecs.version, specs);
-                        }
-                    }
-                }
+        List<JavaFile> javaFiles = composeJavaFiles(models);
 
-                List<FieldSpec> columnsFields = composeColumnsFields(fieldsMap);
-                if (columnsFields != null) {
+        for (int i = 0; i < models.size(); i++) {
+            writeEntity(models.get(i), javaFiles.get(i));
+        }
 
-                    FieldSpec spec;
-                    for (int i = 0; i < columnsFields.size(); i++) {
-                        spec = columnsFields.get(i);
+        if (roundEnv.processingOver()) {
+            writeStats();
+        }
 
-                        classBuilder.addField(spec);
-                    }
-                }
+        // DBObjectRegistryProcessor reads @DBObject as well
+        return false;
+    }
 
-                MethodSpec initMemberMethod = composeInitMemberMethod(fieldsMap);
-                if (initMemberMethod != null) {
-                    classBuilder.addMethod(initMemberMethod);
-                }
+    /**
+     * Reads everything needed from the element on the javac thread. All
+     * Element, annotation and Messager access happens here, so the model
+     * can be composed on any thread later.
+     */
+    private EntityModel extractEntityModel(TypeElement typeElement) {
+        EntityModel model = new EntityModel();
+
+        model.typeElement = typeElement;
+
+        int latestVersion = DEFAULT_VERSION;
+        DBObject.Storage storage = DBObject.Storage.VALUES;
+        int cacheSize = 0;
+        DBObject.Feature[] features = null;
+        List<TypeConverterSpecs> converters = null;
+
+        DBObject dbObject = typeElement.getAnnotation(DBObject.class);
+        if (dbObject != null) {
+            latestVersion = dbObject.latestVersion();
+            storage = dbObject.storage();
+            cacheSize = dbObject.cacheSize();
+            features = dbObject.features();
+            converters = TypeConverterSpecs.fromDBObject(dbObject, mTypeUtils);
+        }
 
-                try {
-                    JavaFile.builder(packageName,
-                            classBuilder.build())
-                            .build()
-                            .writeTo(mFiler);
-                } catch (IOException e) {
-                    error("generate class for %s failed: %s", typeElement, e.toString());
+        String packageName = mElementUtils.getPackageOf(typeElement).getQualifiedName().toString();
+        String typeName = typeElement.getSimpleName().toString();
+
+        DBObjectSpecs specs = DBObjectSpecs.fromDefinition(packageName, typeName,
+                latestVersion, storage, cacheSize, features);
+        model.specs = specs;
+
+        info("gen class: %s", specs.generatedClassName);
+
+        model.stats = beginStats(
+                typeElement.getQualifiedName().toString(),
+                specs.generatedClassName.toString());
+
+        note("dbobject: package = %s", packageName);
+        note("dbobject: class = %s", typeName);
+        List<? extends Element> subElements = typeElement.getEnclosedElements();
+        note("dbobject: sub-elements = %s", subElements);
+
+        VariableElement varElement;
+        ColumnSpecs columnSpecs;
+        for (Element subElement: subElements) {
+            if (subElement instanceof VariableElement) {
+                varElement = (VariableElement) subElement;
+
+                columnSpecs = ColumnSpecs.fromVariableElement(varElement, storage, converters);
+                if (columnSpecs != null && !ColumnSpecs.isValidSpecs(columnSpecs)) {
+                    if (model.stats != null) {
+                        model.stats.skippedFields.add(varElement.getSimpleName().toString());
+                    }
+                } else if (ColumnSpecs.isValidSpecs(columnSpecs)) {
+                    DBObjectSpecs.addColumn(specs, columnSpecs);
                 }
             }
         }
 
-        return true;
-    }
+        if (dbObject != null) {
+            for (DBIndex dbIndex: dbObject.indexes()) {
+                DBObjectSpecs.addIndex(specs, IndexSpecs.fromAnnotation(typeName,
+                        specs.tableName, dbIndex, specs.columns));
+            }
+        }
 
-    private MethodSpec composeInitMemberMethod(Map<Integer, List<FieldSpec>> fieldSpecs) {
-        MethodSpec.Builder builder = MethodSpec.methodBuilder("initMembers")
-                .addStatement("final $T templ = getTemplate();",
-                        ClassName.get(DATABASE_OBJECT_PACKAGE, "Template"))
-                .addModifiers(Modifier.PRIVATE);
-        if (fieldSpecs == null) {
-            return builder.build();
+        if (dbObject != null) {
+            for (DBRelation dbRelation: dbObject.relations()) {
+                DBObjectSpecs.addRelation(specs,
+                        extractRelation(model, typeName, dbRelation));
+            }
         }
 
-        Set<Integer> keys = fieldSpecs.keySet();
-        if (keys == null || keys.size() <= 0) {
-            return builder.build();
+        DBObjectSpecs.resolve(specs);
+
+        if (model.stats != null) {
+            model.stats.columnCount = specs.columns.size();
+            endStats(model.stats);
         }
 
-        List<Integer> versions = new LinkedList<>(keys);
-        Collections.sort(versions);
+        return model;
+    }
 
-        int ver;
-        String fieldName;
-        for (int i = 0; i < versions.size(); i++) {
-            ver = versions.get(i);
+    /**
+     * Reads only the class name of the target, so the output depends on
+     * the entity alone. DBRelationProcessor resolves the relation columns
+     * and reports errors about the target.
+     */
+    private RelationSpecs extractRelation(EntityModel model,
+                                          String typeName,
+                                          DBRelation dbRelation) {
+        TypeElement targetElement = getRelationTarget(dbRelation);
+        if (targetElement == null) {
+            error("%s: relation [%s] target is not a class",
+                    model.typeElement, dbRelation.name());
 
+            return null;
+        }
 
-            fieldName = getVerColumnsFieldName(ver);
+        String targetPackage = mElementUtils.getPackageOf(targetElement)
+                .getQualifiedName().toString();
+        String targetTypeName = targetElement.getSimpleName().toString();
 
-            if (i == 0) {
-                builder.beginControlFlow("if (mVersion == $L)", ver);
-            } else {
-                builder.nextControlFlow("else if (mVersion == $L)", ver);
-            }
+        return RelationSpecs.fromDefinition(typeName,
+                dbRelation.name(),
+                dbRelation.type(),
+                ClassName.get(targetPackage,
+                        GenUtils.getDBObjectGenClassName(targetTypeName)),
+                GenUtils.getDBObjectTableName(targetTypeName));
+    }
 
-            builder.addStatement("templ.addColumns($L)",
-                    fieldName);
+    private TypeElement getRelationTarget(DBRelation dbRelation) {
+        TypeMirror targetType;
+        try {
+            Class<?> targetClass = dbRelation.target();
+            return mElementUtils.getTypeElement(targetClass.getCanonicalName());
+        } catch (MirroredTypeException e) {
+            targetType = e.getTypeMirror();
         }
 
-        builder.endControlFlow();
+        Element element = mTypeUtils.asElement(targetType);
+        if (element instanceof TypeElement) {
+            return (TypeElement) element;
+        }
 
-        return builder.build();
+        return null;
     }
 
-    private List<FieldSpec> composeColumnsFields(Map<Integer, List<FieldSpec>> fieldSpecs) {
-        if (fieldSpecs == null || fieldSpecs.size() <= 0) {
-            return null;
+    /**
+     * Composes the models on a bounded pool. The result list has the same
+     * order as the models, whatever order the tasks finish in.
+     */
+    private List<JavaFile> composeJavaFiles(final List<EntityModel> models) {
+        List<JavaFile> javaFiles = new ArrayList<>(models.size());
+
+        int threads = Math.min(mThreads, models.size());
+        if (threads <= 1) {
+            for (EntityModel model: models) {
+                javaFiles.add(composeJavaFileWithStats(model));
+            }
+
+            return javaFiles;
         }
 
-        List<FieldSpec> columnsFields = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactory() {
 
-        Set<Integer> keys = fieldSpecs.keySet();
+                    private int mCount = 0;
 
-        List<Integer> versions = new LinkedList<>(keys);
-        Collections.sort(versions);
+                    @Override
+                    public synchronized Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable,
+                                "devbricks-codegen-" + (++mCount));
+                        thread.setDaemon(true);
 
-        StringBuilder columnsInitializationStatement = new StringBuilder();
+                        return thread;
+                    }
 
-        List<FieldSpec> verSpecs = new ArrayList<>();
-        List<FieldSpec> currVerSpecs;
-        FieldSpec columnsField;
+                });
 
-        int ver;
-        String fieldName;
-        for (int i = 0; i < versions.size(); i++) {
-            ver = versions.get(i);
+        try {
+            List<Future<JavaFile>> futures = new ArrayList<>(models.size());
+            for (final EntityModel model: models) {
+                futures.add(executor.submit(new Callable<JavaFile>() {
 
-            currVerSpecs = fieldSpecs.get(ver);
-            if (currVerSpecs == null || currVerSpecs.size() <= 0) {
-                continue;
-            }
+                    @Override
+                    public JavaFile call() {
+                        return composeJavaFileWithStats(model);
+                    }
 
-            columnsInitializationStatement.setLength(0);
+                }));
+            }
 
-            for (FieldSpec fieldSpec: currVerSpecs) {
-                verSpecs.add(fieldSpec);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    javaFiles.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    error("generate class for %s failed: %s",
+                            models.get(i).typeElement, e.getCause());
+                    javaFiles.add(null);
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error("generate classes interrupted: %s", e.toString());
 
-            for (FieldSpec fieldSpec: verSpecs) {
-                columnsInitializationStatement.append(fieldSpec.name);
-                columnsInitializationStatement.append(",");
+            while (javaFiles.size() < models.size()) {
+                javaFiles.add(null);
             }
+        } finally {
+            executor.shutdownNow();
+        }
 
-            fieldName = getVerColumnsFieldName(ver);
+        return javaFiles;
+    }
 
-            columnsField = FieldSpec.builder(
-                    ArrayTypeName.of(ClassName.get(DATABASE_OBJECT_PACKAGE, "Column")),
-                    fieldName,
-                    Modifier.STATIC,
-                    Modifier.PUBLIC)
-                    .initializer("{" + columnsInitializationStatement.toString() + "}")
-                    .build();
+    private JavaFile composeJavaFileWithStats(EntityModel model) {
+        resumeStats(model.stats);
 
-            columnsFields.add(columnsField);
-        }
+        // the output depends on the entity alone, the relation loaders that
+        // read the targets come from the aggregating DBRelationProcessor.
+        // An isolating processor must name exactly one originating element
+        TypeSpec.Builder typeBuilder = DBObjectSpecs.composeTypeBuilder(model.specs)
+                .addOriginatingElement(model.typeElement);
+
+        JavaFile javaFile = JavaFile.builder(model.specs.packageName,
+                typeBuilder.build())
+                .build();
 
-        return columnsFields;
+        endStats(model.stats);
+
+        return javaFile;
     }
 
-    private String getVerColumnsFieldName(int version) {
-        return "sColumns_Ver" + version;
+    private void writeEntity(EntityModel model, JavaFile javaFile) {
+        if (javaFile != null) {
+            resumeStats(model.stats);
+
+            try {
+                long bytes = writeJavaFile(javaFile);
+                if (model.stats != null) {
+                    model.stats.generatedBytes = bytes;
+                }
+            } catch (IOException e) {
+                error("generate class for %s failed: %s", model.typeElement, e.toString());
+            }
+
+            endStats(model.stats);
+        }
     }
 
     @Override
@@ -245,6 +351,14 @@ public class DBObjectProcessor extends BaseProcessor {
                 DBColumn.class.getCanonicalName()));
     }
 
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<>(super.getSupportedOptions());
+        options.add(OPTION_THREADS);
+
+        return options;
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.latestSupported();
@@ -0,0 +1,179 @@
+package com.dailystudio.annotation.processor;
+
+import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.processor.database.RegistrySpecs;
+import com.dailystudio.annotation.processor.utils.GenUtils;
+import com.dailystudio.annotation.processor.utils.ProcessingStats;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates DBObjectRegistry over all @DBObject entities of a compilation.
+ * It is the only aggregating part, so DBObjectProcessor stays isolating
+ * and a change to one entity does not regenerate the others.
+ */
+public class DBObjectRegistryProcessor extends BaseProcessor {
+
+    private final static int DEFAULT_VERSION = 0x1;
+
+    private final static String OPTION_REGISTRY_PACKAGE = "devbricks.registry.package";
+
+    private Elements mElementUtils;
+
+    private final List<RegistrySpecs.EntitySpecs> mRegistryEntities = new ArrayList<>();
+    private final List<TypeElement> mRegistryElements = new ArrayList<>();
+    private boolean mRegistryGenerated = false;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        mElementUtils = processingEnv.getElementUtils();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnv) {
+        Set<? extends Element> elements =
+                roundEnv.getElementsAnnotatedWith(DBObject.class);
+
+        TypeElement typeElement;
+        for (Element element : elements) {
+            if (!(element instanceof TypeElement)) {
+                continue;
+            }
+
+            typeElement = (TypeElement) element;
+
+            DBObject dbObject = typeElement.getAnnotation(DBObject.class);
+
+            String packageName = mElementUtils.getPackageOf(typeElement).getQualifiedName().toString();
+            String typeName = typeElement.getSimpleName().toString();
+
+            mRegistryEntities.add(new RegistrySpecs.EntitySpecs(
+                    typeElement.getQualifiedName().toString(),
+                    ClassName.get(packageName, GenUtils.getDBObjectGenClassName(typeName)),
+                    GenUtils.getDBObjectTableName(typeName),
+                    (dbObject == null ? DEFAULT_VERSION : dbObject.latestVersion())));
+            mRegistryElements.add(typeElement);
+        }
+
+        if (elements.isEmpty() || roundEnv.processingOver()) {
+            generateRegistry();
+
+            mRegistryEntities.clear();
+            mRegistryElements.clear();
+        }
+
+        if (roundEnv.processingOver()) {
+            writeStats();
+        }
+
+        // @DBObject is left unclaimed for DBObjectProcessor
+        return false;
+    }
+
+    private void generateRegistry() {
+        if (mRegistryEntities.isEmpty()) {
+            return;
+        }
+
+        if (mRegistryGenerated) {
+            error("%s already generated, entities found in a later round are not registered: %s",
+                    RegistrySpecs.REGISTRY_CLASS_NAME, mRegistryElements);
+            return;
+        }
+
+        mRegistryGenerated = true;
+
+        RegistrySpecs.sortEntities(mRegistryEntities);
+
+        RegistrySpecs.EntitySpecs[] conflict =
+                RegistrySpecs.findTableConflict(mRegistryEntities);
+        if (conflict != null) {
+            error("%s and %s are both stored in table [%s], rename one of them",
+                    conflict[0].sourceClassName, conflict[1].sourceClassName,
+                    conflict[0].tableName);
+            return;
+        }
+
+        String packageName = processingEnv.getOptions().get(OPTION_REGISTRY_PACKAGE);
+        boolean packageSet = (packageName != null && !packageName.isEmpty());
+        if (!packageSet) {
+            packageName = RegistrySpecs.getRegistryPackage(mRegistryEntities);
+        }
+
+        ClassName registryClassName = ClassName.get(packageName,
+                RegistrySpecs.REGISTRY_CLASS_NAME);
+
+        // a registry on the classpath comes from another module, both
+        // would end up as the same class in the app
+        if (mElementUtils.getTypeElement(registryClassName.toString()) != null) {
+            if (packageSet) {
+                error("%s already exists on the classpath, set %s to a package unique to this module",
+                        registryClassName, OPTION_REGISTRY_PACKAGE);
+            } else {
+                error("%s already exists on the classpath, set %s when entities are spread over modules",
+                        registryClassName, OPTION_REGISTRY_PACKAGE);
+            }
+
+            return;
+        }
+
+        info("gen registry: %s", registryClassName);
+
+        ProcessingStats.EntityStats stats = beginStats(null, registryClassName.toString());
+
+        TypeSpec.Builder classBuilder = RegistrySpecs.composeRegistryTypeBuilder(
+                registryClassName, mRegistryEntities);
+
+        for (TypeElement element: mRegistryElements) {
+            classBuilder.addOriginatingElement(element);
+        }
+
+        try {
+            long bytes = writeJavaFile(JavaFile.builder(packageName,
+                    classBuilder.build())
+                    .build());
+            if (stats != null) {
+                stats.generatedBytes = bytes;
+            }
+        } catch (IOException e) {
+            error("generate registry %s failed: %s", registryClassName, e.toString());
+        }
+
+        endStats(stats);
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(DBObject.class.getCanonicalName());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<>(super.getSupportedOptions());
+        options.add(OPTION_REGISTRY_PACKAGE);
+
+        return options;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.dailystudio.annotation.processor;
+
+import androidx.annotation.Keep;
+import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.DBProjection;
+import com.dailystudio.annotation.processor.database.ColumnSpecs;
+import com.dailystudio.annotation.processor.database.IndexSpecs;
+import com.dailystudio.annotation.processor.database.ProjectionSpecs;
+import com.dailystudio.annotation.processor.database.TypeConverterSpecs;
+import com.dailystudio.annotation.processor.utils.GenUtils;
+import com.dailystudio.annotation.processor.utils.ProcessingStats;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public class DBProjectionProcessor extends BaseProcessor {
+
+    private Elements mElementUtils;
+    private Types mTypeUtils;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        mElementUtils = processingEnv.getElementUtils();
+        mTypeUtils = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnv) {
+        Set<? extends Element> elements =
+                roundEnv.getElementsAnnotatedWith(DBProjection.class);
+
+        TypeElement typeElement;
+        for (Element element : elements) {
+            if (!(element instanceof TypeElement)) {
+                continue;
+            }
+
+            typeElement = (TypeElement) element;
+
+            DBProjection dbProjection = typeElement.getAnnotation(DBProjection.class);
+            if (dbProjection == null) {
+                continue;
+            }
+
+            TypeElement targetElement = getTargetElement(dbProjection);
+            if (targetElement == null
+                    || targetElement.getAnnotation(DBObject.class) == null) {
+                error("%s: projection target is not a @DBObject", typeElement);
+                continue;
+            }
+
+            List<TypeConverterSpecs> converters = TypeConverterSpecs.fromDBObject(
+                    targetElement.getAnnotation(DBObject.class), mTypeUtils);
+
+            List<ColumnSpecs> targetColumns = ColumnSpecs.fromTypeElement(targetElement,
+                    DBObject.Storage.VALUES, converters);
+
+            List<ColumnSpecs> columns = new ArrayList<>();
+            ColumnSpecs columnSpecs;
+            boolean valid = true;
+            for (String colName: dbProjection.columns()) {
+                columnSpecs = IndexSpecs.findColumn(targetColumns, colName);
+                if (columnSpecs == null) {
+                    error("%s: column [%s] does not exist in %s",
+                            typeElement, colName, targetElement);
+                    valid = false;
+                } else if (columns.contains(columnSpecs)) {
+                    error("%s: column [%s] is projected more than once",
+                            typeElement, colName);
+                    valid = false;
+                } else {
+                    columns.add(columnSpecs);
+                }
+            }
+
+            if (!valid) {
+                continue;
+            }
+
+            if (columns.isEmpty()) {
+                error("%s: projection without columns", typeElement);
+                continue;
+            }
+
+            String packageName = mElementUtils.getPackageOf(typeElement).getQualifiedName().toString();
+            String typeName = typeElement.getSimpleName().toString();
+
+            ClassName generatedClassName = ClassName
+                    .get(packageName, GenUtils.getDBProjectionGenClassName(typeName));
+            info("gen class: %s", generatedClassName);
+
+            ProcessingStats.EntityStats stats = beginStats(
+                    typeElement.getQualifiedName().toString(),
+                    generatedClassName.toString());
+
+            String tableName = GenUtils.getDBObjectTableName(
+                    targetElement.getSimpleName().toString());
+
+            // the projection reads the columns of its target, so the
+            // processor is aggregating and the target is an origin as well
+            TypeSpec.Builder classBuilder = TypeSpec.classBuilder(generatedClassName)
+                    .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                    .addAnnotation(Keep.class)
+                    .addOriginatingElement(typeElement)
+                    .addOriginatingElement(targetElement)
+                    .addFields(ProjectionSpecs.composeProjectionFields(tableName, columns))
+                    .addMethod(ProjectionSpecs.composeConstructor(columns))
+                    .addMethods(ProjectionSpecs.composeGetterMethods(columns))
+                    .addMethod(ProjectionSpecs.composeReadAllMethod(generatedClassName))
+                    .addMethod(ProjectionSpecs.composeQueryMethod(generatedClassName))
+                    .addType(ProjectionSpecs.composeCursorReaderType(
+                            generatedClassName, columns));
+
+            try {
+                long bytes = writeJavaFile(JavaFile.builder(packageName,
+                        classBuilder.build())
+                        .build());
+                if (stats != null) {
+                    stats.generatedBytes = bytes;
+                }
+            } catch (IOException e) {
+                error("generate class for %s failed: %s", typeElement, e.toString());
+            }
+
+            if (stats != null) {
+                stats.columnCount = columns.size();
+                endStats(stats);
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            writeStats();
+        }
+
+        return true;
+    }
+
+    private TypeElement getTargetElement(DBProjection dbProjection) {
+        TypeMirror targetType;
+        try {
+            Class<?> targetClass = dbProjection.of();
+            return mElementUtils.getTypeElement(targetClass.getCanonicalName());
+        } catch (MirroredTypeException e) {
+            targetType = e.getTypeMirror();
+        }
+
+        Element element = mTypeUtils.asElement(targetType);
+        if (element instanceof TypeElement) {
+            return (TypeElement) element;
+        }
+
+        return null;
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(DBProjection.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+}
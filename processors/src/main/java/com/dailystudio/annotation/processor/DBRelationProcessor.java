@@ -0,0 +1,205 @@
+package com.dailystudio.annotation.processor;
+
+import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.DBRelation;
+import com.dailystudio.annotation.processor.database.ColumnSpecs;
+import com.dailystudio.annotation.processor.database.RelationSpecs;
+import com.dailystudio.annotation.processor.database.TypeConverterSpecs;
+import com.dailystudio.annotation.processor.utils.GenUtils;
+import com.dailystudio.annotation.processor.utils.ProcessingStats;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates [Entity]DBRelations with the loaders of the @DBRelation of
+ * each @DBObject. The loaders read the columns of the relation targets,
+ * so this processor is aggregating and names the targets as originating
+ * elements too, while the load[Name]() methods of the isolating
+ * DBObjectProcessor only delegate to it.
+ */
+public class DBRelationProcessor extends BaseProcessor {
+
+    private Elements mElementUtils;
+    private Types mTypeUtils;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+
+        mElementUtils = processingEnv.getElementUtils();
+        mTypeUtils = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnv) {
+        Set<? extends Element> elements =
+                roundEnv.getElementsAnnotatedWith(DBObject.class);
+
+        List<TypeElement> typeElements = new ArrayList<>();
+        for (Element element : elements) {
+            if (element instanceof TypeElement) {
+                typeElements.add((TypeElement) element);
+            }
+        }
+
+        Collections.sort(typeElements, new Comparator<TypeElement>() {
+            @Override
+            public int compare(TypeElement e1, TypeElement e2) {
+                return e1.getQualifiedName().toString().compareTo(
+                        e2.getQualifiedName().toString());
+            }
+        });
+
+        for (TypeElement typeElement: typeElements) {
+            DBObject dbObject = typeElement.getAnnotation(DBObject.class);
+            if (dbObject != null && dbObject.relations().length > 0) {
+                generateRelations(typeElement, dbObject);
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            writeStats();
+        }
+
+        // @DBObject is left unclaimed for DBObjectProcessor
+        return false;
+    }
+
+    private void generateRelations(TypeElement typeElement, DBObject dbObject) {
+        String packageName = mElementUtils.getPackageOf(typeElement).getQualifiedName().toString();
+        String typeName = typeElement.getSimpleName().toString();
+
+        List<ColumnSpecs> columns = ColumnSpecs.fromTypeElement(typeElement,
+                DBObject.Storage.VALUES,
+                TypeConverterSpecs.fromDBObject(dbObject, mTypeUtils));
+
+        List<RelationSpecs> relations = new ArrayList<>();
+        Set<TypeElement> originatingElements = new LinkedHashSet<>();
+        originatingElements.add(typeElement);
+
+        boolean valid = true;
+        for (DBRelation dbRelation: dbObject.relations()) {
+            TypeElement targetElement = getRelationTarget(dbRelation);
+            DBObject targetObject = (targetElement == null
+                    ? null : targetElement.getAnnotation(DBObject.class));
+            if (targetObject == null) {
+                error("%s: relation [%s] target is not a @DBObject",
+                        typeElement, dbRelation.name());
+                valid = false;
+                continue;
+            }
+
+            List<ColumnSpecs> targetColumns;
+            if (targetElement.equals(typeElement)) {
+                targetColumns = columns;
+            } else {
+                targetColumns = ColumnSpecs.fromTypeElement(targetElement,
+                        DBObject.Storage.VALUES,
+                        TypeConverterSpecs.fromDBObject(targetObject, mTypeUtils));
+            }
+
+            String targetPackage = mElementUtils.getPackageOf(targetElement)
+                    .getQualifiedName().toString();
+            String targetTypeName = targetElement.getSimpleName().toString();
+
+            RelationSpecs relation = RelationSpecs.fromDefinition(typeName,
+                    dbRelation.name(),
+                    dbRelation.type(),
+                    ClassName.get(targetPackage,
+                            GenUtils.getDBObjectGenClassName(targetTypeName)),
+                    GenUtils.getDBObjectTableName(targetTypeName));
+            if (relation == null
+                    || !RelationSpecs.resolveColumns(relation, typeName,
+                            dbRelation.column(), dbRelation.referencedColumn(),
+                            columns, targetColumns)) {
+                valid = false;
+                continue;
+            }
+
+            relations.add(relation);
+            originatingElements.add(targetElement);
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        ClassName relationsClassName = ClassName.get(packageName,
+                GenUtils.getDBRelationsGenClassName(typeName));
+        info("gen class: %s", relationsClassName);
+
+        ProcessingStats.EntityStats stats = beginStats(
+                typeElement.getQualifiedName().toString(),
+                relationsClassName.toString());
+
+        TypeSpec.Builder classBuilder = RelationSpecs.composeRelationsTypeBuilder(
+                relationsClassName,
+                ClassName.get(packageName, GenUtils.getDBObjectGenClassName(typeName)),
+                relations);
+        for (TypeElement element: originatingElements) {
+            classBuilder.addOriginatingElement(element);
+        }
+
+        try {
+            long bytes = writeJavaFile(JavaFile.builder(packageName,
+                    classBuilder.build())
+                    .build());
+            if (stats != null) {
+                stats.generatedBytes = bytes;
+            }
+        } catch (IOException e) {
+            error("generate class for %s failed: %s", typeElement, e.toString());
+        }
+
+        if (stats != null) {
+            stats.columnCount = columns.size();
+            endStats(stats);
+        }
+    }
+
+    private TypeElement getRelationTarget(DBRelation dbRelation) {
+        TypeMirror targetType;
+        try {
+            Class<?> targetClass = dbRelation.target();
+            return mElementUtils.getTypeElement(targetClass.getCanonicalName());
+        } catch (MirroredTypeException e) {
+            targetType = e.getTypeMirror();
+        }
+
+        Element element = mTypeUtils.asElement(targetType);
+        if (element instanceof TypeElement) {
+            return (TypeElement) element;
+        }
+
+        return null;
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(DBObject.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+}
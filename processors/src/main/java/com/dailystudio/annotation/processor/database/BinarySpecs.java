@@ -0,0 +1,379 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class BinarySpecs {
+
+    private final static int HEADER_SIZE = 4;
+
+    public static List<MethodSpec> composeBinaryMethods(ClassName generatedClassName,
+                                                        List<ColumnSpecs> columns,
+                                                        int latestVersion) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        methods.add(composeGetBinarySizeMethod(columns));
+        methods.add(composeWriteToMethod(columns));
+        methods.add(composeReadFromMethod(generatedClassName, columns, latestVersion));
+        methods.add(composeGetBinarySizeAllMethod(generatedClassName));
+        methods.add(composeWriteAllToMethod(generatedClassName));
+        methods.add(composeReadAllFromMethod(generatedClassName));
+        methods.add(composeWriteToParcelMethod(columns));
+        methods.add(composeReadFromParcelMethod(generatedClassName, columns, latestVersion));
+
+        return methods;
+    }
+
+    private static MethodSpec composeGetBinarySizeMethod(List<ColumnSpecs> columns) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getBinarySize")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.INT)
+                .addStatement("int size = $L", HEADER_SIZE);
+
+        for (ColumnSpecs column: columns) {
+            beginVersionGuard(builder, column, "mVersion");
+
+            if (hasPresenceFlag(column)) {
+                builder.addStatement("size += ($L ? 1 : $L)",
+                        ColumnSpecs.composeIsNull(column, ""), 1 + getFixedSize(column));
+            } else if (column.storageTypeName.isPrimitive()) {
+                builder.addStatement("size += $L", getFixedSize(column));
+            } else if (ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+                builder.addStatement("size += $T.getBytesSize($L)",
+                        getBufferUtilsClassName(), composeStoredValue(column));
+            } else {
+                builder.addStatement("size += $T.getStringSize($L)",
+                        getBufferUtilsClassName(), composeStoredValue(column));
+            }
+
+            endVersionGuard(builder, column);
+        }
+
+        return builder.addStatement("return size")
+                .build();
+    }
+
+    private static MethodSpec composeWriteToMethod(List<ColumnSpecs> columns) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("writeTo")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ByteBuffer.class, "buffer")
+                .addStatement("buffer.putInt(mVersion)");
+
+        CodeBlock value;
+        for (ColumnSpecs column: columns) {
+            beginVersionGuard(builder, column, "mVersion");
+
+            value = composeStoredValue(column);
+            beginFlaggedWrite(builder, column, "buffer.put((byte) $L)");
+
+            if (column.storageTypeName == TypeName.INT) {
+                builder.addStatement("buffer.putInt($L)", value);
+            } else if (column.storageTypeName == TypeName.LONG) {
+                builder.addStatement("buffer.putLong($L)", value);
+            } else if (column.storageTypeName == TypeName.DOUBLE) {
+                builder.addStatement("buffer.putDouble($L)", value);
+            } else if (column.storageTypeName == TypeName.BOOLEAN) {
+                builder.addStatement("buffer.put((byte) ($L ? 1 : 0))", value);
+            } else if (ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+                builder.addStatement("$T.putBytes(buffer, $L)",
+                        getBufferUtilsClassName(), value);
+            } else {
+                builder.addStatement("$T.putString(buffer, $L)",
+                        getBufferUtilsClassName(), value);
+            }
+
+            endFlagged(builder, column);
+            endVersionGuard(builder, column);
+        }
+
+        return builder.build();
+    }
+
+    private static MethodSpec composeReadFromMethod(ClassName generatedClassName,
+                                                    List<ColumnSpecs> columns,
+                                                    int latestVersion) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("readFrom")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getContextClassName(), "context")
+                .addParameter(ByteBuffer.class, "buffer")
+                .returns(generatedClassName)
+                .addStatement("final int version = buffer.getInt()");
+
+        addVersionCheck(builder, latestVersion);
+
+        builder.addStatement("final $T object = new $T(context, version)",
+                generatedClassName, generatedClassName);
+
+        String setter;
+        for (ColumnSpecs column: columns) {
+            beginVersionGuard(builder, column, "version");
+
+            setter = column.setterMethodSpec.name;
+            beginFlaggedRead(builder, column, "buffer.get()");
+
+            if (column.storageTypeName == TypeName.INT) {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, "buffer.getInt()"));
+            } else if (column.storageTypeName == TypeName.LONG) {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, "buffer.getLong()"));
+            } else if (column.storageTypeName == TypeName.DOUBLE) {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, "buffer.getDouble()"));
+            } else if (column.storageTypeName == TypeName.BOOLEAN) {
+                builder.addStatement("object.$L(buffer.get() != 0)", setter);
+            } else if (ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, CodeBlock.of(
+                                "$T.getBytes(buffer)", getBufferUtilsClassName())));
+            } else {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, CodeBlock.of(
+                                "$T.getString(buffer)", getBufferUtilsClassName())));
+            }
+
+            endFlagged(builder, column);
+            endVersionGuard(builder, column);
+        }
+
+        return builder.addStatement("object.clearDirtyColumns()")
+                .addStatement("return object")
+                .build();
+    }
+
+    private static MethodSpec composeGetBinarySizeAllMethod(ClassName generatedClassName) {
+        return MethodSpec.methodBuilder("getBinarySize")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getCollectionTypeName(generatedClassName), "objects")
+                .returns(TypeName.INT)
+                .addStatement("int size = 4")
+                .beginControlFlow("for ($T object: objects)", generatedClassName)
+                .addStatement("size += object.getBinarySize()")
+                .endControlFlow()
+                .addStatement("return size")
+                .build();
+    }
+
+    private static MethodSpec composeWriteAllToMethod(ClassName generatedClassName) {
+        return MethodSpec.methodBuilder("writeAllTo")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ByteBuffer.class, "buffer")
+                .addParameter(getCollectionTypeName(generatedClassName), "objects")
+                .addStatement("buffer.putInt(objects.size())")
+                .beginControlFlow("for ($T object: objects)", generatedClassName)
+                .addStatement("object.writeTo(buffer)")
+                .endControlFlow()
+                .build();
+    }
+
+    private static MethodSpec composeReadAllFromMethod(ClassName generatedClassName) {
+        TypeName listTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), generatedClassName);
+
+        return MethodSpec.methodBuilder("readAllFrom")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getContextClassName(), "context")
+                .addParameter(ByteBuffer.class, "buffer")
+                .returns(listTypeName)
+                .addStatement("final int count = buffer.getInt()")
+                .beginControlFlow("if (count < 0)")
+                .addStatement("throw new $T($S + count)",
+                        IllegalArgumentException.class, "invalid object count: ")
+                .endControlFlow()
+                .addStatement("final $T objects = new $T<$T>(count)",
+                        listTypeName, ArrayList.class, generatedClassName)
+                .beginControlFlow("for (int i = 0; i < count; i++)")
+                .addStatement("objects.add(readFrom(context, buffer))")
+                .endControlFlow()
+                .addStatement("return objects")
+                .build();
+    }
+
+    private static MethodSpec composeWriteToParcelMethod(List<ColumnSpecs> columns) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("writeToParcel")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(getParcelClassName(), "dest")
+                .addStatement("dest.writeInt(mVersion)");
+
+        CodeBlock value;
+        for (ColumnSpecs column: columns) {
+            beginVersionGuard(builder, column, "mVersion");
+
+            value = composeStoredValue(column);
+            beginFlaggedWrite(builder, column, "dest.writeInt($L)");
+
+            if (column.storageTypeName == TypeName.INT) {
+                builder.addStatement("dest.writeInt($L)", value);
+            } else if (column.storageTypeName == TypeName.LONG) {
+                builder.addStatement("dest.writeLong($L)", value);
+            } else if (column.storageTypeName == TypeName.DOUBLE) {
+                builder.addStatement("dest.writeDouble($L)", value);
+            } else if (column.storageTypeName == TypeName.BOOLEAN) {
+                builder.addStatement("dest.writeInt($L ? 1 : 0)", value);
+            } else if (ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+                builder.addStatement("dest.writeByteArray($L)", value);
+            } else {
+                builder.addStatement("dest.writeString($L)", value);
+            }
+
+            endFlagged(builder, column);
+            endVersionGuard(builder, column);
+        }
+
+        return builder.build();
+    }
+
+    private static MethodSpec composeReadFromParcelMethod(ClassName generatedClassName,
+                                                          List<ColumnSpecs> columns,
+                                                          int latestVersion) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("readFromParcel")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getContextClassName(), "context")
+                .addParameter(getParcelClassName(), "source")
+                .returns(generatedClassName)
+                .addStatement("final int version = source.readInt()");
+
+        addVersionCheck(builder, latestVersion);
+
+        builder.addStatement("final $T object = new $T(context, version)",
+                generatedClassName, generatedClassName);
+
+        String setter;
+        for (ColumnSpecs column: columns) {
+            beginVersionGuard(builder, column, "version");
+
+            setter = column.setterMethodSpec.name;
+            beginFlaggedRead(builder, column, "source.readInt()");
+
+            if (column.storageTypeName == TypeName.INT) {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, "source.readInt()"));
+            } else if (column.storageTypeName == TypeName.LONG) {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, "source.readLong()"));
+            } else if (column.storageTypeName == TypeName.DOUBLE) {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, "source.readDouble()"));
+            } else if (column.storageTypeName == TypeName.BOOLEAN) {
+                builder.addStatement("object.$L(source.readInt() != 0)", setter);
+            } else if (ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, "source.createByteArray()"));
+            } else {
+                builder.addStatement("object.$L($L)", setter,
+                        ColumnSpecs.composeFromStorage(column, "source.readString()"));
+            }
+
+            endFlagged(builder, column);
+            endVersionGuard(builder, column);
+        }
+
+        return builder.addStatement("object.clearDirtyColumns()")
+                .addStatement("return object")
+                .build();
+    }
+
+    private static void addVersionCheck(MethodSpec.Builder builder, int latestVersion) {
+        builder.beginControlFlow("if (version < $L || version > $L)",
+                CommonVariables.DEFAULT_VERSION, latestVersion)
+                .addStatement("throw new $T($S + version)",
+                        IllegalArgumentException.class, "unsupported version: ")
+                .endControlFlow();
+    }
+
+    private static void beginVersionGuard(MethodSpec.Builder builder,
+                                          ColumnSpecs column,
+                                          String versionExpr) {
+        if (column.version > CommonVariables.DEFAULT_VERSION) {
+            builder.beginControlFlow("if ($L >= $L)", versionExpr, column.version);
+        }
+    }
+
+    private static void endVersionGuard(MethodSpec.Builder builder,
+                                        ColumnSpecs column) {
+        if (column.version > CommonVariables.DEFAULT_VERSION) {
+            builder.endControlFlow();
+        }
+    }
+
+    /**
+     * Nullable columns stored as primitives have no value to write for
+     * NULL, so a presence flag precedes them. Text and blobs encode null
+     * on their own.
+     */
+    private static boolean hasPresenceFlag(ColumnSpecs column) {
+        return ColumnSpecs.isNullablePrimitive(column);
+    }
+
+    private static void beginFlaggedWrite(MethodSpec.Builder builder,
+                                          ColumnSpecs column,
+                                          String flagStatement) {
+        if (!hasPresenceFlag(column)) {
+            return;
+        }
+
+        builder.beginControlFlow("if ($L)", ColumnSpecs.composeIsNull(column, ""))
+                .addStatement(flagStatement, 0)
+                .nextControlFlow("else")
+                .addStatement(flagStatement, 1);
+    }
+
+    private static void beginFlaggedRead(MethodSpec.Builder builder,
+                                         ColumnSpecs column,
+                                         String flagExpr) {
+        if (!hasPresenceFlag(column)) {
+            return;
+        }
+
+        builder.beginControlFlow("if ($L == 0)", flagExpr);
+        CursorSpecs.addBindNullStatement(builder, column);
+        builder.nextControlFlow("else");
+    }
+
+    private static void endFlagged(MethodSpec.Builder builder, ColumnSpecs column) {
+        if (hasPresenceFlag(column)) {
+            builder.endControlFlow();
+        }
+    }
+
+    private static CodeBlock composeStoredValue(ColumnSpecs column) {
+        return ColumnSpecs.composeToStorage(column, column.getterMethodSpec.name + "()");
+    }
+
+    private static int getFixedSize(ColumnSpecs column) {
+        if (column.storageTypeName == TypeName.LONG
+                || column.storageTypeName == TypeName.DOUBLE) {
+            return 8;
+        } else if (column.storageTypeName == TypeName.BOOLEAN) {
+            return 1;
+        }
+
+        return 4;
+    }
+
+    private static TypeName getCollectionTypeName(ClassName generatedClassName) {
+        return ParameterizedTypeName.get(ClassName.get(Collection.class), generatedClassName);
+    }
+
+    private static ClassName getBufferUtilsClassName() {
+        return ClassName.get(CacheSpecs.SUPPORT_PACKAGE, "BufferUtils");
+    }
+
+    private static ClassName getParcelClassName() {
+        return ClassName.get("android.os", "Parcel");
+    }
+
+    private static ClassName getContextClassName() {
+        return ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context");
+    }
+
+}
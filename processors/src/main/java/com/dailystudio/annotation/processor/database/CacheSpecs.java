@@ -0,0 +1,163 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.dailystudio.annotation.processor.utils.LogUtils;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CacheSpecs {
+
+    public final static String SUPPORT_PACKAGE = "com.dailystudio.annotation.support";
+
+    private final static String CACHE_FIELD = "sIdentityCache";
+
+    public static ColumnSpecs getCacheKeyColumn(String typeName,
+                                                List<ColumnSpecs> columns) {
+        ColumnSpecs keyColumn = null;
+        for (ColumnSpecs column: columns) {
+            if (!column.primary) {
+                continue;
+            }
+
+            if (keyColumn != null) {
+                LogUtils.error("%s: identity cache requires a single primary column",
+                        typeName);
+
+                return null;
+            }
+
+            keyColumn = column;
+        }
+
+        if (keyColumn == null) {
+            LogUtils.error("%s: identity cache requires a primary column", typeName);
+
+            return null;
+        }
+
+        if (keyColumn.valueTypeName != TypeName.LONG
+                && keyColumn.valueTypeName != TypeName.INT) {
+            LogUtils.error("%s: identity cache requires an int or long primary column, "
+                    + "but [%s] is %s",
+                    typeName, keyColumn.columnName, keyColumn.valueTypeName);
+
+            return null;
+        }
+
+        return keyColumn;
+    }
+
+    public static FieldSpec composeCacheField(ClassName generatedClassName, int cacheSize) {
+        TypeName cacheTypeName = getCacheTypeName(generatedClassName);
+
+        return FieldSpec.builder(cacheTypeName,
+                CACHE_FIELD,
+                Modifier.PRIVATE,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("new $T($L)", cacheTypeName, cacheSize)
+                .build();
+    }
+
+    public static List<MethodSpec> composeCacheMethods(ClassName generatedClassName,
+                                                       ColumnSpecs keyColumn) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        String keyName = ColumnSpecs.getParameterName(keyColumn);
+
+        methods.add(MethodSpec.methodBuilder("getCached")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(keyColumn.valueTypeName, keyName)
+                .returns(generatedClassName)
+                .addStatement("return $L.get($L)", CACHE_FIELD, keyName)
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("findCached")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context"),
+                        "context")
+                .addParameter(WriteSpecs.getDatabaseClassName(), "db")
+                .addParameter(keyColumn.valueTypeName, keyName)
+                .returns(generatedClassName)
+                .addStatement("$T object = $L.get($L)",
+                        generatedClassName, CACHE_FIELD, keyName)
+                .beginControlFlow("if (object != null)")
+                .addStatement("return object")
+                .endControlFlow()
+                .addStatement("final $T c = db.query($L, null, $S, new $T{$L}, null, null, null)",
+                        ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor"),
+                        SchemaSpecs.TABLE_NAME_FIELD,
+                        keyColumn.columnName + " = ?",
+                        ArrayTypeName.of(String.class),
+                        ColumnSpecs.composeSelectionArg(keyColumn, keyName))
+                .beginControlFlow("try")
+                .beginControlFlow("if (c == null || !c.moveToFirst())")
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("object = fromCursor(c, new $T(context))", generatedClassName)
+                .nextControlFlow("finally")
+                .beginControlFlow("if (c != null)")
+                .addStatement("c.close()")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("final $T cached = $L.putIfAbsent($L, object)",
+                        generatedClassName, CACHE_FIELD, keyName)
+                .addStatement("return (cached != null ? cached : object)")
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("invalidateCache")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(keyColumn.valueTypeName, keyName)
+                .addStatement("$L.remove($L)", CACHE_FIELD, keyName)
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("clearCache")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addStatement("$L.clear()", CACHE_FIELD)
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("getCacheHitCount")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(TypeName.LONG)
+                .addStatement("return $L.hitCount()", CACHE_FIELD)
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("getCacheMissCount")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(TypeName.LONG)
+                .addStatement("return $L.missCount()", CACHE_FIELD)
+                .build());
+
+        return methods;
+    }
+
+    /**
+     * Invalidates the cached object of a written row. Writes add it once
+     * their statement is done, outside of their transaction, so no reader
+     * caches the row as it was before the commit.
+     */
+    public static void addInvalidateStatement(MethodSpec.Builder builder,
+                                              ColumnSpecs keyColumn,
+                                              String objectExpr) {
+        if (keyColumn == null) {
+            return;
+        }
+
+        builder.addStatement("invalidateCache($L$L())",
+                objectExpr == null ? "" : objectExpr + ".",
+                keyColumn.getterMethodSpec.name);
+    }
+
+    private static TypeName getCacheTypeName(ClassName generatedClassName) {
+        return ParameterizedTypeName.get(
+                ClassName.get(SUPPORT_PACKAGE, "LongLruCache"), generatedClassName);
+    }
+
+}
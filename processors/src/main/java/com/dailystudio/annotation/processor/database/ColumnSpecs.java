@@ -1,146 +1,453 @@
 package com.dailystudio.annotation.processor.database;
 
 import com.dailystudio.annotation.DBColumn;
+import com.dailystudio.annotation.DBObject;
 import com.dailystudio.annotation.processor.utils.LogUtils;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeName;
 
+import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class ColumnSpecs {
 
     public FieldSpec fieldSpec = null;
+    public FieldSpec ordinalFieldSpec = null;
+    public FieldSpec storageFieldSpec = null;
     public MethodSpec getterMethodSpec = null;
     public MethodSpec setterMethodSpec = null;
 
+    public String varName = null;
+    public String propertyName = null;
+    public String columnName = null;
+    public TypeName valueTypeName = null;
+    public TypeName storageTypeName = null;
+    public ColumnTypeSpecs typeSpecs = null;
+    public FieldSpec supportFieldSpec = null;
+    public String valueGetterName = null;
+    public String cursorGetterName = null;
+    public String statementBinderName = null;
+    public String sqlType = null;
+
+    public boolean primary = false;
+    public boolean allowNull = true;
+    public boolean fullText = false;
+
     public int version = CommonVariables.DEFAULT_VERSION;
+    public int fullTextVersion = CommonVariables.DEFAULT_VERSION;
+    public int ordinal = -1;
 
     private ColumnSpecs() {
 
     }
 
     public static ColumnSpecs fromVariableElement(VariableElement element) {
+        return fromVariableElement(element, DBObject.Storage.VALUES);
+    }
+
+    public static ColumnSpecs fromVariableElement(VariableElement element,
+                                                  DBObject.Storage storage) {
+        return fromVariableElement(element, storage, null);
+    }
+
+    public static ColumnSpecs fromVariableElement(VariableElement element,
+                                                  DBObject.Storage storage,
+                                                  List<TypeConverterSpecs> converters) {
+        return fromVariableElement(element, storage, converters, true);
+    }
+
+    private static ColumnSpecs fromVariableElement(VariableElement element,
+                                                   DBObject.Storage storage,
+                                                   List<TypeConverterSpecs> converters,
+                                                   boolean warnUnsupported) {
         if (element == null) {
             return null;
         }
 
-        ColumnSpecs specs = new ColumnSpecs();
-
-        String varName = element.getSimpleName().toString();
         DBColumn dbColumn = element.getAnnotation(DBColumn.class);
         if (dbColumn == null) {
             return null;
         }
 
+        String varName = element.getSimpleName().toString();
         TypeMirror fieldType = element.asType();
-        String varTypeName = fieldType.toString();
 
-        LogUtils.debug("dbfield: name = %s", varName);
-        LogUtils.debug("dbfield: type = %s", varTypeName);
-        LogUtils.debug("dbfield: version = %s", dbColumn.version());
+        ColumnTypeSpecs typeSpecs = ColumnTypeSpecs.fromTypeMirror(fieldType, converters);
+        if (typeSpecs == null && warnUnsupported) {
+            warnUnsupportedType(varName, fieldType.toString());
+        }
+
+        ColumnSpecs specs = fromDefinition(varName,
+                typeSpecs,
+                dbColumn.name(),
+                dbColumn.allowNull(),
+                dbColumn.primary(),
+                dbColumn.version(),
+                storage);
+
+        assignFullText(specs, dbColumn.fullText(), dbColumn.fullTextVersion());
+
+        return specs;
+    }
+
+    /**
+     * Builds the column from plain @DBColumn values, independent of the
+     * compiler frontend. varTypeName is the Java name of the field type,
+     * e.g. int, java.lang.String, java.util.Date or byte[].
+     */
+    public static ColumnSpecs fromDefinition(String varName,
+                                             String varTypeName,
+                                             String name,
+                                             String allowNull,
+                                             String primary,
+                                             int version,
+                                             DBObject.Storage storage) {
+        ColumnTypeSpecs typeSpecs = ColumnTypeSpecs.fromTypeName(varTypeName, null);
+        if (typeSpecs == null) {
+            warnUnsupportedType(varName, varTypeName);
+        }
+
+        return fromDefinition(varName, typeSpecs, name, allowNull, primary, version, storage);
+    }
+
+    /**
+     * Same as above with a resolved type. A null typeSpecs gives a
+     * column without accessors, which callers report as skipped.
+     */
+    public static ColumnSpecs fromDefinition(String varName,
+                                             ColumnTypeSpecs typeSpecs,
+                                             String name,
+                                             String allowNull,
+                                             String primary,
+                                             int version,
+                                             DBObject.Storage storage) {
+        return fromDefinition(varName, typeSpecs, name, allowNull, primary,
+                version, storage, true);
+    }
 
-        specs.version = dbColumn.version();
-        specs.fieldSpec = composeColumnField(varName, varTypeName, dbColumn);
-        if (specs.fieldSpec == null) {
+    /**
+     * Same as above with the naming of accessors. Legacy naming strips
+     * any leading m or s of the field, which javac entities rely on, e.g.
+     * mode gives getOde(). Otherwise only mXxx and sXxx are stripped, as
+     * Kotlin properties have no prefix.
+     */
+    public static ColumnSpecs fromDefinition(String varName,
+                                             ColumnTypeSpecs typeSpecs,
+                                             String name,
+                                             String allowNull,
+                                             String primary,
+                                             int version,
+                                             DBObject.Storage storage,
+                                             boolean legacyNaming) {
+        if (varName == null || varName.isEmpty()) {
+            return null;
+        }
+
+        ColumnSpecs specs = new ColumnSpecs();
+
+        LogUtils.debug("dbfield: name = %s", varName);
+        LogUtils.debug("dbfield: type = %s",
+                (typeSpecs == null ? null : typeSpecs.valueTypeName));
+        LogUtils.debug("dbfield: version = %s", version);
+
+        specs.version = version;
+        specs.varName = varName;
+        specs.propertyName = stripVarPrefix(varName, legacyNaming);
+        specs.columnName = getColumnName(varName, name);
+        specs.primary = parsePrimary(varName, primary);
+        specs.allowNull = parseAllowNull(varName, allowNull, specs.primary);
+
+        if (typeSpecs == null) {
             return specs;
         }
 
-        specs.setterMethodSpec = composeColumnSetterMethod(varName, varTypeName,
-                specs.fieldSpec.name);
+        specs.typeSpecs = typeSpecs;
+        specs.fieldSpec = composeColumnField(typeSpecs.storageTypeName, specs.columnName,
+                specs.allowNull, specs.primary, specs.version);
+
+        specs.valueTypeName = typeSpecs.valueTypeName;
+        specs.storageTypeName = typeSpecs.storageTypeName;
+        specs.valueGetterName = getGetValueFunctionName(typeSpecs.storageTypeName);
+        specs.cursorGetterName = getCursorGetterName(typeSpecs.storageTypeName);
+        specs.statementBinderName = getStatementBinderName(typeSpecs.storageTypeName);
+        specs.sqlType = getSQLType(typeSpecs.storageTypeName);
+        specs.supportFieldSpec = typeSpecs.composeSupportField();
+
+        if (storage == DBObject.Storage.FIELDS) {
+            specs.storageFieldSpec = composeStorageField(varName, specs.valueTypeName);
+            if (specs.storageFieldSpec == null) {
+                return specs;
+            }
+
+            specs.setterMethodSpec = composeStorageFieldSetterMethod(specs.propertyName,
+                    specs.valueTypeName, specs.storageFieldSpec.name, specs.fieldSpec.name,
+                    specs.version, hasPresenceBit(specs));
+
+            specs.getterMethodSpec = composeStorageFieldGetterMethod(specs.propertyName,
+                    specs.valueTypeName, specs.storageFieldSpec.name);
+        } else {
+            specs.setterMethodSpec = composeColumnSetterMethod(specs.propertyName, typeSpecs,
+                    specs.fieldSpec.name, specs.version);
 
-        specs.getterMethodSpec = composeColumnGetterMethod(varName, varTypeName,
-                specs.fieldSpec.name);
+            specs.getterMethodSpec = composeColumnGetterMethod(specs.propertyName, typeSpecs,
+                    specs.valueGetterName, specs.fieldSpec.name);
+        }
 
         return specs;
     }
 
-    private static MethodSpec composeColumnSetterMethod(String varName,
-                                                        String varType,
-                                                        String colName) {
+    private static void warnUnsupportedType(String varName, String varTypeName) {
+        LogUtils.warn("[%s] is unsupported data type of [%s], "
+                + "add a @DBTypeConverter for it. ignored!", varTypeName, varName);
+    }
+
+    /**
+     * Returns the valid columns declared by a @DBObject class, e.g. the
+     * target of a projection or a relation. Unsupported types are not
+     * reported again, the processing of the class itself does that.
+     */
+    public static List<ColumnSpecs> fromTypeElement(TypeElement typeElement,
+                                                    DBObject.Storage storage,
+                                                    List<TypeConverterSpecs> converters) {
+        List<ColumnSpecs> columns = new ArrayList<>();
+
+        ColumnSpecs columnSpecs;
+        for (Element subElement: typeElement.getEnclosedElements()) {
+            if (subElement instanceof VariableElement) {
+                columnSpecs = fromVariableElement((VariableElement) subElement,
+                        storage, converters, false);
+                if (isValidSpecs(columnSpecs)) {
+                    columns.add(columnSpecs);
+                }
+            }
+        }
+
+        return columns;
+    }
+
+    /**
+     * Marks the column as indexed by the full-text table of its entity
+     * since fullTextVersion, or since the column itself was added when
+     * that is later.
+     */
+    public static void assignFullText(ColumnSpecs specs,
+                                      boolean fullText,
+                                      int fullTextVersion) {
+        if (specs == null) {
+            return;
+        }
+
+        specs.fullText = fullText;
+        specs.fullTextVersion = Math.max(specs.version, fullTextVersion);
+    }
+
+    public static void assignOrdinal(ColumnSpecs specs, int ordinal) {
+        if (specs == null || specs.fieldSpec == null) {
+            return;
+        }
+
+        specs.ordinal = ordinal;
+        specs.ordinalFieldSpec = FieldSpec.builder(TypeName.INT,
+                getOrdinalFieldName(specs.fieldSpec.name),
+                Modifier.PUBLIC,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$L", ordinal)
+                .build();
+    }
+
+    private static String getOrdinalFieldName(String colName) {
+        return colName.replaceFirst("^COLUMN_", "ORDINAL_");
+    }
+
+    private static FieldSpec composeStorageField(String varName,
+                                                 TypeName varTypeName) {
         if (varName == null || varName.isEmpty()
-                || varType == null || varType.isEmpty()
-                || colName == null || colName.isEmpty()) {
+                || varTypeName == null) {
             return null;
         }
 
-        String setterName = varNameToMethodName(varName, CommonVariables.SETTER_PREFIX);
+        return FieldSpec.builder(varTypeName, varName, Modifier.PRIVATE)
+                .build();
+    }
+
+    private static MethodSpec composeStorageFieldSetterMethod(String propertyName,
+                                                              TypeName varTypeName,
+                                                              String storageFieldName,
+                                                              String colName,
+                                                              int version,
+                                                              boolean markValue) {
+        String setterName = propertyNameToMethodName(propertyName, CommonVariables.SETTER_PREFIX);
         LogUtils.debug("dbfield: setter name = %s", setterName);
-        String paramName = varNameToParameterName(varName);
+        String paramName = propertyNameToParameterName(propertyName);
         LogUtils.debug("dbfield: parameter name = %s", paramName);
 
-        TypeName paramTypeName = getParamOrReturnTypeNameByType(varType);
-        if (paramTypeName == null) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(setterName)
+                .addParameter(varTypeName, paramName)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("this.$L = $L", storageFieldName, paramName);
+
+        beginTemplateGuard(builder, version);
+
+        if (markValue) {
+            builder.addStatement("markValue($L)", getOrdinalFieldName(colName));
+        }
+
+        builder.addStatement("markDirty($L)", getOrdinalFieldName(colName));
+
+        endTemplateGuard(builder, version);
+
+        return builder.build();
+    }
+
+    private static MethodSpec composeStorageFieldGetterMethod(String propertyName,
+                                                              TypeName varTypeName,
+                                                              String storageFieldName) {
+        String getterName = propertyNameToMethodName(propertyName, CommonVariables.GETTER_PREFIX);
+        LogUtils.debug("dbfield: getter name = %s", getterName);
+
+        return MethodSpec.methodBuilder(getterName)
+                .returns(varTypeName)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("return this.$L", storageFieldName)
+                .build();
+    }
+
+    private static MethodSpec composeColumnSetterMethod(String propertyName,
+                                                        ColumnTypeSpecs typeSpecs,
+                                                        String colName,
+                                                        int version) {
+        if (propertyName == null || propertyName.isEmpty()
+                || typeSpecs == null
+                || colName == null || colName.isEmpty()) {
             return null;
         }
 
+        String setterName = propertyNameToMethodName(propertyName, CommonVariables.SETTER_PREFIX);
+        LogUtils.debug("dbfield: setter name = %s", setterName);
+        String paramName = propertyNameToParameterName(propertyName);
+        LogUtils.debug("dbfield: parameter name = %s", paramName);
+
         MethodSpec.Builder builder = MethodSpec.methodBuilder(setterName)
-                .addParameter(paramTypeName, paramName)
+                .addParameter(typeSpecs.valueTypeName, paramName)
                 .addModifiers(Modifier.PUBLIC);
 
-        if (paramTypeName == TypeName.BOOLEAN) {
-            builder.addStatement("setValue($L, ($L ? 1 : 0))", colName, paramName);
+        CodeBlock value;
+        if (typeSpecs.storageTypeName == TypeName.BOOLEAN) {
+            value = CodeBlock.of("($L ? 1 : 0)", paramName);
+        } else {
+            value = typeSpecs.composeToStorage(paramName);
+        }
+
+        if (typeSpecs.isNullableValue() && !value.toString().equals(paramName)) {
+            builder.addStatement("setValue($L, ($L == null ? null : $L))",
+                    colName, paramName, value);
         } else {
-            builder.addStatement("setValue($L, $L)", colName, paramName);
+            builder.addStatement("setValue($L, $L)", colName, value);
         }
 
+        beginTemplateGuard(builder, version);
+        builder.addStatement("markDirty($L)", getOrdinalFieldName(colName));
+        endTemplateGuard(builder, version);
+
         return builder.build();
     }
 
-    private static MethodSpec composeColumnGetterMethod(String varName,
-                                                        String varType,
+    /**
+     * The template of an older object version has no columns added later,
+     * setValue() drops them, so they must not be marked as written either.
+     */
+    private static void beginTemplateGuard(MethodSpec.Builder builder, int version) {
+        if (version > CommonVariables.DEFAULT_VERSION) {
+            builder.beginControlFlow("if (mVersion >= $L)", version);
+        }
+    }
+
+    private static void endTemplateGuard(MethodSpec.Builder builder, int version) {
+        if (version > CommonVariables.DEFAULT_VERSION) {
+            builder.endControlFlow();
+        }
+    }
+
+    private static MethodSpec composeColumnGetterMethod(String propertyName,
+                                                        ColumnTypeSpecs typeSpecs,
+                                                        String getValueFuncName,
                                                         String colName) {
-        if (varName == null || varName.isEmpty()
-                || varType == null || varType.isEmpty()
+        if (propertyName == null || propertyName.isEmpty()
+                || typeSpecs == null
                 || colName == null || colName.isEmpty()) {
             return null;
         }
 
-        String setterName = varNameToMethodName(varName, CommonVariables.GETTER_PREFIX);
+        String setterName = propertyNameToMethodName(propertyName, CommonVariables.GETTER_PREFIX);
         LogUtils.debug("dbfield: getter name = %s", setterName);
 
-        TypeName returnTypeName = getParamOrReturnTypeNameByType(varType);
-        if (returnTypeName == null) {
-            return null;
-        }
-
-        String getValueFuncName = getGetValueFunctionNameByType(varType);
         if (getValueFuncName == null || getValueFuncName.isEmpty()) {
             return null;
         }
         LogUtils.debug("dbfield: getter value func = %s", getValueFuncName);
 
         MethodSpec.Builder builder = MethodSpec.methodBuilder(setterName)
-                .returns(returnTypeName)
+                .returns(typeSpecs.valueTypeName)
                 .addModifiers(Modifier.PUBLIC);
 
-        if (returnTypeName == TypeName.BOOLEAN) {
-            builder.addStatement("return ($L($L) == 1)", getValueFuncName, colName);
+        CodeBlock value;
+        if (typeSpecs.storageTypeName == TypeName.BOOLEAN) {
+            value = CodeBlock.of("($L($L) == 1)", getValueFuncName, colName);
         } else {
-            builder.addStatement("return $L($L)", getValueFuncName, colName);
+            value = typeSpecs.composeFromStorage(
+                    CodeBlock.of("$L($L)", getValueFuncName, colName));
+        }
+
+        if (typeSpecs.isNullableValue()) {
+            builder.addStatement("return (getValue($L) == null ? null : $L)", colName, value);
+        } else {
+            builder.addStatement("return $L", value);
         }
 
         return builder.build();
     }
 
-    private static FieldSpec composeColumnField(String varName,
-                                                String varType,
-                                                DBColumn dbColumn) {
-        if (varName == null || varName.isEmpty()
-                || varType == null || varType.isEmpty()) {
+    private static FieldSpec composeColumnField(TypeName storageTypeName,
+                                                String colName,
+                                                boolean allowNull,
+                                                boolean primary,
+                                                int version) {
+        String fieldNameSuffix = colName.toUpperCase();
+
+        TypeName colTypeName = getColumnTypeName(storageTypeName);
+        if (colTypeName == null) {
             return null;
         }
 
-        String colName = dbColumn.name();
-        if (colName == null || colName.isEmpty()) {
-            colName = varNameToColumnName(varName);
+        return FieldSpec.builder(
+                ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "Column"),
+                "COLUMN_" + fieldNameSuffix,
+                Modifier.STATIC,
+                Modifier.PUBLIC)
+                .initializer("new $T($S, $L, $L, $L)",
+                        colTypeName, colName, allowNull, primary, version)
+                .build();
+    }
+
+    private static boolean parseAllowNull(String varName,
+                                          String allowNullStr,
+                                          boolean primary) {
+        if (primary) {
+            return false;
         }
 
         boolean allowNull = false;
-        String allowNullStr = dbColumn.allowNull();
         try {
             allowNull = Boolean.parseBoolean(allowNullStr);
         } catch (Exception e) {
@@ -150,8 +457,11 @@ public class ColumnSpecs {
             allowNull = true;
         }
 
+        return allowNull;
+    }
+
+    private static boolean parsePrimary(String varName, String primaryStr) {
         boolean primary = false;
-        String primaryStr = dbColumn.primary();
         try {
             primary = Boolean.parseBoolean(primaryStr);
         } catch (Exception e) {
@@ -161,125 +471,96 @@ public class ColumnSpecs {
             primary = false;
         }
 
-        if (primary) {
-            allowNull = false;
-        }
-
-        int version = dbColumn.version();
-
-        String fieldNameSuffix = colName.toUpperCase();
+        return primary;
+    }
 
-        TypeName colTypeName = getColumnTypeNameByType(varType);
-        if (colTypeName == null) {
-            return null;
+    private static String getColumnName(String varName, String colName) {
+        if (colName == null || colName.isEmpty()) {
+            colName = varNameToColumnName(varName);
         }
 
-        return FieldSpec.builder(
-                ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "Column"),
-                "COLUMN_" + fieldNameSuffix,
-                Modifier.STATIC,
-                Modifier.PUBLIC)
-                .initializer("new $T($S, $L, $L, $L)",
-                        colTypeName, colName, allowNull, primary, version)
-                .build();
+        return colName;
     }
 
-
-    private static String getGetValueFunctionNameByType(String varType) {
-        if (varType == null || varType.isEmpty()) {
-            return null;
+    private static String getStatementBinderName(TypeName storageTypeName) {
+        if (storageTypeName == TypeName.INT
+                || storageTypeName == TypeName.BOOLEAN
+                || storageTypeName == TypeName.LONG) {
+            return "bindLong";
+        } else if (storageTypeName == TypeName.DOUBLE) {
+            return "bindDouble";
+        } else if (ColumnTypeSpecs.STRING.equals(storageTypeName)) {
+            return "bindString";
+        } else if (ColumnTypeSpecs.BYTES.equals(storageTypeName)) {
+            return "bindBlob";
         }
 
-        String funcName = null;
-        switch (varType.toLowerCase()) {
-            case "int":
-            case "boolean":
-                funcName = "getIntegerValue";
-                break;
-
-            case "java.lang.string":
-                funcName = "getTextValue";
-                break;
-
-            case "long":
-                funcName = "getLongValue";
-                break;
-
-            case "double":
-                funcName = "getDoubleValue";
-                break;
+        return null;
+    }
 
-            default:
-                LogUtils.warn("[%s] is unsupported data type. ignored!", varType);
-                break;
+    private static String getSQLType(TypeName storageTypeName) {
+        if (storageTypeName == TypeName.INT
+                || storageTypeName == TypeName.BOOLEAN
+                || storageTypeName == TypeName.LONG) {
+            return "INTEGER";
+        } else if (storageTypeName == TypeName.DOUBLE) {
+            return "REAL";
+        } else if (ColumnTypeSpecs.STRING.equals(storageTypeName)) {
+            return "TEXT";
+        } else if (ColumnTypeSpecs.BYTES.equals(storageTypeName)) {
+            return "BLOB";
         }
 
-        return funcName;
+        return null;
     }
 
-
-    private static TypeName getParamOrReturnTypeNameByType(String varType) {
-        if (varType == null || varType.isEmpty()) {
-            return null;
+    private static String getCursorGetterName(TypeName storageTypeName) {
+        if (storageTypeName == TypeName.INT
+                || storageTypeName == TypeName.BOOLEAN) {
+            return "getInt";
+        } else if (storageTypeName == TypeName.LONG) {
+            return "getLong";
+        } else if (storageTypeName == TypeName.DOUBLE) {
+            return "getDouble";
+        } else if (ColumnTypeSpecs.STRING.equals(storageTypeName)) {
+            return "getString";
+        } else if (ColumnTypeSpecs.BYTES.equals(storageTypeName)) {
+            return "getBlob";
         }
 
-        TypeName cn = null;
-        switch (varType.toLowerCase()) {
-            case "int":
-                cn = TypeName.INT;
-                break;
-
-            case "boolean":
-                cn = TypeName.BOOLEAN;
-                break;
-
-            case "java.lang.string":
-                cn = ClassName.get("java.lang", "String");
-                break;
-
-            case "long":
-                cn = TypeName.LONG;
-                break;
-
-            case "double":
-                cn = TypeName.DOUBLE;
-                break;
+        return null;
+    }
 
-            default:
-                LogUtils.warn("[%s] is unsupported data type. ignored!", varType);
-                break;
+    private static String getGetValueFunctionName(TypeName storageTypeName) {
+        if (storageTypeName == TypeName.INT
+                || storageTypeName == TypeName.BOOLEAN) {
+            return "getIntegerValue";
+        } else if (storageTypeName == TypeName.LONG) {
+            return "getLongValue";
+        } else if (storageTypeName == TypeName.DOUBLE) {
+            return "getDoubleValue";
+        } else if (ColumnTypeSpecs.STRING.equals(storageTypeName)) {
+            return "getTextValue";
+        } else if (ColumnTypeSpecs.BYTES.equals(storageTypeName)) {
+            return "getBlobValue";
         }
 
-        return cn;
+        return null;
     }
 
-    private static TypeName getColumnTypeNameByType(String varType) {
-        if (varType == null || varType.isEmpty()) {
-            return null;
-        }
-
+    private static TypeName getColumnTypeName(TypeName storageTypeName) {
         String colClassName = null;
-        switch (varType.toLowerCase()) {
-            case "int":
-            case "boolean":
-                colClassName = "IntegerColumn";
-                break;
-
-            case "java.lang.string":
-                colClassName = "TextColumn";
-                break;
-
-            case "long":
-                colClassName = "LongColumn";
-                break;
-
-            case "double":
-                colClassName = "DoubleColumn";
-                break;
-
-            default:
-                LogUtils.warn("[%s] is unsupported data type. ignored!", varType);
-                break;
+        if (storageTypeName == TypeName.INT
+                || storageTypeName == TypeName.BOOLEAN) {
+            colClassName = "IntegerColumn";
+        } else if (storageTypeName == TypeName.LONG) {
+            colClassName = "LongColumn";
+        } else if (storageTypeName == TypeName.DOUBLE) {
+            colClassName = "DoubleColumn";
+        } else if (ColumnTypeSpecs.STRING.equals(storageTypeName)) {
+            colClassName = "TextColumn";
+        } else if (ColumnTypeSpecs.BYTES.equals(storageTypeName)) {
+            colClassName = "BlobColumn";
         }
 
         if (colClassName == null) {
@@ -303,42 +584,140 @@ public class ColumnSpecs {
         return colName;
     }
 
-    private static String varNameToMethodName(String varName, String methodPrefix) {
-        if (varName == null || varName.isEmpty()) {
-            return varName;
+    private static String propertyNameToMethodName(String propertyName, String methodPrefix) {
+        if (propertyName == null || propertyName.isEmpty()) {
+            return propertyName;
         }
 
         StringBuilder builder = new StringBuilder(methodPrefix);
 
-        String methodName = varName;
-        if (varName.startsWith("m") || varName.startsWith("s")) {
-            methodName = methodName.substring(1);
+        builder.append(Character.toUpperCase(propertyName.charAt(0)));
+        builder.append(propertyName.substring(1));
+
+        return builder.toString();
+    }
+
+    private static String stripVarPrefix(String varName, boolean legacyNaming) {
+        if (varName.length() > 1
+                && (varName.charAt(0) == 'm' || varName.charAt(0) == 's')
+                && (legacyNaming || Character.isUpperCase(varName.charAt(1)))) {
+            return varName.substring(1);
+        }
+
+        return varName;
+    }
+
+    private static String propertyNameToParameterName(String propertyName) {
+        if (propertyName == null || propertyName.isEmpty()) {
+            return propertyName;
         }
 
-        builder.append(Character.toUpperCase(methodName.charAt(0)));
-        builder.append(methodName.substring(1));
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(Character.toLowerCase(propertyName.charAt(0)));
+        builder.append(propertyName.substring(1));
 
         return builder.toString();
     }
 
-    private static String varNameToParameterName(String varName) {
-        if (varName == null || varName.isEmpty()) {
-            return varName;
+    public static CodeBlock composeSelectionArg(ColumnSpecs specs, String valueExpr) {
+        if (specs.storageTypeName == TypeName.BOOLEAN) {
+            return CodeBlock.of("($L ? \"1\" : \"0\")", valueExpr);
+        } else if (specs.storageTypeName.isPrimitive()) {
+            return CodeBlock.of("$T.valueOf($L)", String.class,
+                    composeToStorage(specs, valueExpr));
         }
 
-        StringBuilder builder = new StringBuilder();
+        return composeToStorage(specs, valueExpr);
+    }
+
+    public static CodeBlock composeToStorage(ColumnSpecs specs, Object valueExpr) {
+        return specs.typeSpecs.composeToStorage(valueExpr);
+    }
+
+    public static CodeBlock composeFromStorage(ColumnSpecs specs, Object storedExpr) {
+        return specs.typeSpecs.composeFromStorage(storedExpr);
+    }
 
-        String paramName = varName;
-        if (varName.startsWith("m") || varName.startsWith("s")) {
-            paramName = paramName.substring(1);
+    /**
+     * Returns the support fields of the columns, once per name, as
+     * columns of the same enum type share their values() cache.
+     */
+    public static List<FieldSpec> composeSupportFields(List<ColumnSpecs> columns) {
+        List<FieldSpec> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        for (ColumnSpecs column: columns) {
+            if (column.supportFieldSpec != null
+                    && names.add(column.supportFieldSpec.name)) {
+                fields.add(column.supportFieldSpec);
+            }
         }
 
-        builder.append(Character.toLowerCase(paramName.charAt(0)));
-        builder.append(paramName.substring(1));
+        return fields;
+    }
 
-        return builder.toString();
+    /**
+     * Returns true for a column stored as a primitive which can be NULL,
+     * either as it allows null or as its value type is nullable, e.g.
+     * Integer or Date. Statements and cursors check it for null first.
+     */
+    public static boolean isNullablePrimitive(ColumnSpecs specs) {
+        return specs.storageTypeName != null
+                && specs.storageTypeName.isPrimitive()
+                && (specs.allowNull || specs.typeSpecs.isNullableValue());
+    }
+
+    /**
+     * Returns true when the presence of the value is tracked on its own,
+     * as the getter of a primitive value returns 0 for NULL.
+     */
+    public static boolean hasPresenceBit(ColumnSpecs specs) {
+        return isNullablePrimitive(specs) && specs.valueTypeName.isPrimitive();
+    }
+
+    /**
+     * Returns true when the column of an object can have no value, so
+     * {@link #composeIsNull(ColumnSpecs, String)} applies to it.
+     */
+    public static boolean canBeNull(ColumnSpecs specs) {
+        return specs.storageFieldSpec == null
+                || hasPresenceBit(specs)
+                || !specs.valueTypeName.isPrimitive();
     }
 
+    public static boolean hasPresenceBits(List<ColumnSpecs> columns) {
+        for (ColumnSpecs column: columns) {
+            if (hasPresenceBit(column)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns a condition which holds when the column of the object
+     * objectPrefix points to, e.g. "object." or "" for this, has no value.
+     */
+    public static CodeBlock composeIsNull(ColumnSpecs specs, String objectPrefix) {
+        if (specs.storageFieldSpec == null) {
+            return CodeBlock.of("$LgetValue($L) == null", objectPrefix, specs.fieldSpec.name);
+        } else if (hasPresenceBit(specs)) {
+            return CodeBlock.of("!$LhasValue($L)", objectPrefix, specs.ordinalFieldSpec.name);
+        }
+
+        return CodeBlock.of("$L$L() == null", objectPrefix, specs.getterMethodSpec.name);
+    }
+
+    public static String getParameterName(ColumnSpecs specs) {
+        return propertyNameToParameterName(specs.propertyName);
+    }
+
+    public static String getAccessorStem(ColumnSpecs specs) {
+        return specs.setterMethodSpec.name.substring(
+                CommonVariables.SETTER_PREFIX.length());
+    }
 
     public static boolean isValidSpecs(ColumnSpecs specs) {
         if (specs == null) {
@@ -348,7 +727,8 @@ public class ColumnSpecs {
 //        return (specs.fieldSpec != null);
         return (specs.fieldSpec != null
                 && specs.setterMethodSpec != null
-                && specs.getterMethodSpec != null);
+                && specs.getterMethodSpec != null
+                && specs.cursorGetterName != null);
     }
 
 }
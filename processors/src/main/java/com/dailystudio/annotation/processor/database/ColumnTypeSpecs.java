@@ -0,0 +1,346 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps the Java type of a column to the type kept in DatabaseObject and
+ * SQLite. storageTypeName is one of int, long, double, boolean, String
+ * or byte[]; codecs switch on it and wrap values with composeToStorage()
+ * and composeFromStorage().
+ */
+public class ColumnTypeSpecs {
+
+    public enum Conversion {
+        NONE,
+        CAST,
+        BOXED,
+        ENUM,
+        DATE,
+        BYTE_BUFFER,
+        CONVERTER,
+    }
+
+    public final static TypeName STRING = ClassName.get("java.lang", "String");
+    public final static TypeName BYTES = ArrayTypeName.of(TypeName.BYTE);
+
+    private final static ClassName DATE = ClassName.get("java.util", "Date");
+    private final static ClassName BYTE_BUFFER = ClassName.get("java.nio", "ByteBuffer");
+
+    private final static List<TypeName> CONVERTER_STORAGE_TYPES = Arrays.asList(
+            TypeName.INT, TypeName.LONG, TypeName.DOUBLE, STRING, BYTES);
+
+    public TypeName valueTypeName = null;
+    public TypeName storageTypeName = null;
+    public Conversion conversion = Conversion.NONE;
+
+    public TypeConverterSpecs toStorageConverter = null;
+    public TypeConverterSpecs fromStorageConverter = null;
+
+    private ColumnTypeSpecs() {
+
+    }
+
+    private static ColumnTypeSpecs of(TypeName valueTypeName,
+                                      TypeName storageTypeName,
+                                      Conversion conversion) {
+        ColumnTypeSpecs specs = new ColumnTypeSpecs();
+
+        specs.valueTypeName = valueTypeName;
+        specs.storageTypeName = storageTypeName;
+        specs.conversion = conversion;
+
+        return specs;
+    }
+
+    public static ColumnTypeSpecs ofEnum(TypeName enumTypeName) {
+        return of(enumTypeName, TypeName.INT, Conversion.ENUM);
+    }
+
+    /**
+     * Resolves the type of a javac field. Converters are looked up
+     * first, so they can override the built-in mappings.
+     */
+    public static ColumnTypeSpecs fromTypeMirror(TypeMirror type,
+                                                 List<TypeConverterSpecs> converters) {
+        if (type == null) {
+            return null;
+        }
+
+        TypeName typeName = TypeName.get(type);
+
+        ColumnTypeSpecs specs = fromConverters(typeName, converters);
+        if (specs != null) {
+            return specs;
+        }
+
+        switch (type.getKind()) {
+            case INT:
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+            case FLOAT:
+            case SHORT:
+            case BYTE:
+                return fromTypeName(typeName);
+
+            case ARRAY:
+                if (((ArrayType) type).getComponentType().getKind() == TypeKind.BYTE) {
+                    return fromTypeName(typeName);
+                }
+                break;
+
+            case DECLARED:
+                if (((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+                    return ofEnum(typeName);
+                }
+
+                return fromTypeName(typeName);
+
+            default:
+                break;
+        }
+
+        return null;
+    }
+
+    /**
+     * Resolves a type by its Java name, for frontends without
+     * TypeMirrors. Enums have to be passed through ofEnum().
+     */
+    public static ColumnTypeSpecs fromTypeName(String varTypeName,
+                                               List<TypeConverterSpecs> converters) {
+        if (varTypeName == null || varTypeName.isEmpty()) {
+            return null;
+        }
+
+        TypeName typeName = getTypeNameByName(varTypeName);
+        if (typeName == null) {
+            return null;
+        }
+
+        ColumnTypeSpecs specs = fromConverters(typeName, converters);
+        if (specs != null) {
+            return specs;
+        }
+
+        return fromTypeName(typeName);
+    }
+
+    private static ColumnTypeSpecs fromTypeName(TypeName typeName) {
+        if (typeName == TypeName.INT
+                || typeName == TypeName.LONG
+                || typeName == TypeName.DOUBLE
+                || typeName == TypeName.BOOLEAN
+                || STRING.equals(typeName)
+                || BYTES.equals(typeName)) {
+            return of(typeName, typeName, Conversion.NONE);
+        } else if (typeName == TypeName.FLOAT) {
+            return of(typeName, TypeName.DOUBLE, Conversion.CAST);
+        } else if (typeName == TypeName.SHORT || typeName == TypeName.BYTE) {
+            return of(typeName, TypeName.INT, Conversion.CAST);
+        } else if (DATE.equals(typeName)) {
+            return of(typeName, TypeName.LONG, Conversion.DATE);
+        } else if (BYTE_BUFFER.equals(typeName)) {
+            return of(typeName, BYTES, Conversion.BYTE_BUFFER);
+        } else if (typeName.isBoxedPrimitive()) {
+            ColumnTypeSpecs unboxed = fromTypeName(typeName.unbox());
+            if (unboxed != null) {
+                return of(typeName, unboxed.storageTypeName, Conversion.BOXED);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns true for values which can be null while their storage type
+     * is primitive, i.e. boxed types, enums and dates. Null is kept as SQL
+     * NULL.
+     */
+    public boolean isNullableValue() {
+        return (conversion == Conversion.BOXED
+                || conversion == Conversion.ENUM
+                || conversion == Conversion.DATE);
+    }
+
+    private static ColumnTypeSpecs fromConverters(TypeName typeName,
+                                                  List<TypeConverterSpecs> converters) {
+        if (converters == null) {
+            return null;
+        }
+
+        TypeConverterSpecs fromStorage;
+        for (TypeConverterSpecs toStorage: converters) {
+            if (!toStorage.fromTypeName.equals(typeName)
+                    || !CONVERTER_STORAGE_TYPES.contains(toStorage.toTypeName)) {
+                continue;
+            }
+
+            fromStorage = TypeConverterSpecs.findConverter(converters,
+                    toStorage.toTypeName, typeName);
+            if (fromStorage == null) {
+                continue;
+            }
+
+            ColumnTypeSpecs specs = of(typeName, toStorage.toTypeName, Conversion.CONVERTER);
+
+            specs.toStorageConverter = toStorage;
+            specs.fromStorageConverter = fromStorage;
+
+            return specs;
+        }
+
+        return null;
+    }
+
+    private static TypeName getTypeNameByName(String varTypeName) {
+        switch (varTypeName) {
+            case "int":
+                return TypeName.INT;
+            case "long":
+                return TypeName.LONG;
+            case "double":
+                return TypeName.DOUBLE;
+            case "boolean":
+                return TypeName.BOOLEAN;
+            case "float":
+                return TypeName.FLOAT;
+            case "short":
+                return TypeName.SHORT;
+            case "byte":
+                return TypeName.BYTE;
+            case "byte[]":
+                return BYTES;
+            default:
+                break;
+        }
+
+        if (varTypeName.indexOf('.') < 0 || varTypeName.indexOf('<') >= 0) {
+            return null;
+        }
+
+        return ClassName.bestGuess(varTypeName);
+    }
+
+    /**
+     * Wraps a value of valueTypeName into its stored form. valueExpr is
+     * evaluated once. Nullable values must be checked for null first.
+     */
+    public CodeBlock composeToStorage(Object valueExpr) {
+        switch (conversion) {
+            case CAST:
+                return CodeBlock.of("($T) $L", storageTypeName, valueExpr);
+
+            case BOXED:
+                if (valueTypeName.unbox() == storageTypeName) {
+                    return CodeBlock.of("$L", valueExpr);
+                }
+
+                return CodeBlock.of("($T) $L", storageTypeName, valueExpr);
+
+            case ENUM:
+                return CodeBlock.of("$T.toOrdinal($L)", getTypeUtilsClassName(), valueExpr);
+
+            case DATE:
+                return CodeBlock.of("$T.toEpochMillis($L)", getTypeUtilsClassName(), valueExpr);
+
+            case BYTE_BUFFER:
+                return CodeBlock.of("$T.toBytes($L)", getBufferUtilsClassName(), valueExpr);
+
+            case CONVERTER:
+                return CodeBlock.of("$T.$L($L)", toStorageConverter.ownerClassName,
+                        toStorageConverter.methodName, valueExpr);
+
+            default:
+                return CodeBlock.of("$L", valueExpr);
+        }
+    }
+
+    /**
+     * Wraps a stored value back into valueTypeName. storedExpr is
+     * evaluated once.
+     */
+    public CodeBlock composeFromStorage(Object storedExpr) {
+        switch (conversion) {
+            case CAST:
+                return CodeBlock.of("($T) $L", valueTypeName, storedExpr);
+
+            case BOXED:
+                if (valueTypeName.unbox() == storageTypeName) {
+                    return CodeBlock.of("$L", storedExpr);
+                }
+
+                return CodeBlock.of("($T) $L", valueTypeName.unbox(), storedExpr);
+
+            case ENUM:
+                return CodeBlock.of("$T.toEnum($L, $L)", getTypeUtilsClassName(),
+                        getEnumValuesFieldName(), storedExpr);
+
+            case DATE:
+                return CodeBlock.of("$T.toDate($L)", getTypeUtilsClassName(), storedExpr);
+
+            case BYTE_BUFFER:
+                return CodeBlock.of("$T.wrap($L)", getBufferUtilsClassName(), storedExpr);
+
+            case CONVERTER:
+                return CodeBlock.of("$T.$L($L)", fromStorageConverter.ownerClassName,
+                        fromStorageConverter.methodName, storedExpr);
+
+            default:
+                return CodeBlock.of("$L", storedExpr);
+        }
+    }
+
+    /**
+     * Returns the field caching values() of an enum type, so reading an
+     * ordinal does not clone the constants array, or null.
+     */
+    public FieldSpec composeSupportField() {
+        if (conversion != Conversion.ENUM) {
+            return null;
+        }
+
+        return FieldSpec.builder(ArrayTypeName.of(valueTypeName),
+                getEnumValuesFieldName(),
+                Modifier.PRIVATE,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$T.values()", valueTypeName)
+                .build();
+    }
+
+    private String getEnumValuesFieldName() {
+        StringBuilder builder = new StringBuilder();
+
+        for (String simpleName: ((ClassName) valueTypeName).simpleNames()) {
+            builder.append(simpleName.replaceAll("([a-z0-9])([A-Z])", "$1_$2")
+                    .toUpperCase());
+            builder.append("_");
+        }
+        builder.append("VALUES");
+
+        return builder.toString();
+    }
+
+    private static ClassName getTypeUtilsClassName() {
+        return ClassName.get(CacheSpecs.SUPPORT_PACKAGE, "TypeUtils");
+    }
+
+    private static ClassName getBufferUtilsClassName() {
+        return ClassName.get(CacheSpecs.SUPPORT_PACKAGE, "BufferUtils");
+    }
+
+}
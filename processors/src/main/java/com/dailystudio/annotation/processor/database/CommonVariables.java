@@ -3,6 +3,9 @@ package com.dailystudio.annotation.processor.database;
 public class CommonVariables {
 
     public final static String DATABASE_OBJECT_PACKAGE = "com.dailystudio.dataobject";
+    public final static String ANDROID_CONTENT_PACKAGE = "android.content";
+    public final static String ANDROID_DATABASE_PACKAGE = "android.database";
+    public final static String ANDROID_SQLITE_PACKAGE = "android.database.sqlite";
     public final static int DEFAULT_VERSION = 0x1;
 
     public final static String SETTER_PREFIX = "set";
@@ -0,0 +1,164 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CursorSpecs {
+
+    public final static String CURSOR_BINDER_CLASS_NAME = "CursorBinder";
+
+    private final static String INDEX_FIELD_SUFFIX = "Index";
+
+    public static TypeSpec composeCursorBinderType(ClassName generatedClassName,
+                                                   List<ColumnSpecs> columns) {
+        if (generatedClassName == null || columns == null) {
+            return null;
+        }
+
+        ClassName cursorClassName = ClassName.get(
+                CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(CURSOR_BINDER_CLASS_NAME)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
+
+        MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(cursorClassName, "c");
+
+        MethodSpec.Builder bindBuilder = MethodSpec.methodBuilder("bind")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(cursorClassName, "c")
+                .addParameter(generatedClassName, "object")
+                .returns(generatedClassName);
+
+        String indexName;
+        for (ColumnSpecs column: columns) {
+            indexName = getIndexFieldName(column);
+
+            builder.addField(FieldSpec.builder(TypeName.INT, indexName,
+                    Modifier.PRIVATE, Modifier.FINAL).build());
+
+            constructorBuilder.addStatement("$L = c.getColumnIndex($S)",
+                    indexName, column.columnName);
+
+            bindBuilder.beginControlFlow("if ($L >= 0)", indexName)
+                    .beginControlFlow("if (c.isNull($L))", indexName);
+            addBindNullStatement(bindBuilder, column);
+            bindBuilder.nextControlFlow("else");
+            if (column.storageTypeName == TypeName.BOOLEAN) {
+                bindBuilder.addStatement("object.$L(c.$L($L) == 1)",
+                        column.setterMethodSpec.name, column.cursorGetterName, indexName);
+            } else {
+                bindBuilder.addStatement("object.$L($L)",
+                        column.setterMethodSpec.name,
+                        ColumnSpecs.composeFromStorage(column, CodeBlock.of("c.$L($L)",
+                                column.cursorGetterName, indexName)));
+            }
+            bindBuilder.endControlFlow();
+            bindBuilder.endControlFlow();
+        }
+
+        bindBuilder.addStatement("object.clearDirtyColumns()");
+        bindBuilder.addStatement("return object");
+
+        return builder.addMethod(constructorBuilder.build())
+                .addMethod(bindBuilder.build())
+                .build();
+    }
+
+    public static MethodSpec composeFromCursorMethod(ClassName generatedClassName) {
+        if (generatedClassName == null) {
+            return null;
+        }
+
+        return MethodSpec.methodBuilder("fromCursor")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor"),
+                        "c")
+                .addParameter(generatedClassName, "object")
+                .returns(generatedClassName)
+                .addStatement("return new $L(c).bind(c, object)", CURSOR_BINDER_CLASS_NAME)
+                .build();
+    }
+
+    public static MethodSpec composeReadAllMethod(ClassName generatedClassName) {
+        if (generatedClassName == null) {
+            return null;
+        }
+
+        TypeName listTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), generatedClassName);
+
+        return MethodSpec.methodBuilder("readAll")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context"),
+                        "context")
+                .addParameter(ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor"),
+                        "c")
+                .returns(listTypeName)
+                .beginControlFlow("if (c == null)")
+                .addStatement("return new $T<$T>()", ArrayList.class, generatedClassName)
+                .endControlFlow()
+                .addStatement("final $T objects = new $T<$T>(c.getCount())",
+                        listTypeName, ArrayList.class, generatedClassName)
+                .addStatement("final $L binder = new $L(c)",
+                        CURSOR_BINDER_CLASS_NAME, CURSOR_BINDER_CLASS_NAME)
+                .beginControlFlow("while (c.moveToNext())")
+                .addStatement("objects.add(binder.bind(c, new $T(context)))",
+                        generatedClassName)
+                .endControlFlow()
+                .addStatement("return objects")
+                .build();
+    }
+
+    /**
+     * Keeps NULL of a nullable primitive column as no value, the default
+     * value is only what its getter returns.
+     */
+    static void addBindNullStatement(MethodSpec.Builder builder, ColumnSpecs column) {
+        if (!ColumnSpecs.isNullablePrimitive(column)) {
+            builder.addStatement("object.$L($L)",
+                    column.setterMethodSpec.name, getDefaultValue(column));
+        } else if (column.storageFieldSpec != null) {
+            builder.addStatement("object.$L($L)",
+                    column.setterMethodSpec.name, getDefaultValue(column));
+            if (ColumnSpecs.hasPresenceBit(column)) {
+                builder.addStatement("object.clearValue($L)", column.ordinalFieldSpec.name);
+            }
+        } else {
+            builder.addStatement("object.setValue($L, null)", column.fieldSpec.name);
+        }
+    }
+
+    static String getDefaultValue(ColumnSpecs column) {
+        if (column.valueTypeName == TypeName.BOOLEAN) {
+            return "false";
+        } else if (column.valueTypeName == TypeName.SHORT
+                || column.valueTypeName == TypeName.BYTE) {
+            return "(" + column.valueTypeName + ") 0";
+        } else if (column.valueTypeName.isPrimitive()) {
+            return "0";
+        }
+
+        return "null";
+    }
+
+    private static String getIndexFieldName(ColumnSpecs column) {
+        StringBuilder builder = new StringBuilder("m");
+
+        builder.append(ColumnSpecs.getAccessorStem(column));
+        builder.append(INDEX_FIELD_SUFFIX);
+
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,459 @@
+package com.dailystudio.annotation.processor.database;
+
+import androidx.annotation.Keep;
+import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.processor.utils.GenUtils;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Frontend-neutral model of one @DBObject entity. The javac processor and
+ * the KSP processor both fill it from their own symbols and compose the
+ * generated class from it, so they produce the same output.
+ */
+public class DBObjectSpecs {
+
+    public String packageName;
+    public String typeName;
+    public ClassName generatedClassName;
+    public String tableName;
+
+    public int latestVersion = CommonVariables.DEFAULT_VERSION;
+    public DBObject.Storage storage = DBObject.Storage.VALUES;
+    public int cacheSize = 0;
+    public Set<DBObject.Feature> features = EnumSet.noneOf(DBObject.Feature.class);
+
+    public List<ColumnSpecs> columns = new ArrayList<>();
+    public SortedMap<Integer, List<FieldSpec>> fieldsMap = new TreeMap<>();
+    public List<IndexSpecs> indexes = new ArrayList<>();
+    public List<RelationSpecs> relations = new ArrayList<>();
+    public ColumnSpecs cacheKeyColumn = null;
+    public ColumnSpecs pagingKeyColumn = null;
+    public List<ColumnSpecs> pagingIndexColumns = new ArrayList<>();
+    public List<ColumnSpecs> fullTextColumns = new ArrayList<>();
+
+    private DBObjectSpecs() {
+
+    }
+
+    public static DBObjectSpecs fromDefinition(String packageName,
+                                               String typeName,
+                                               int latestVersion,
+                                               DBObject.Storage storage,
+                                               int cacheSize,
+                                               DBObject.Feature[] features) {
+        DBObjectSpecs specs = new DBObjectSpecs();
+
+        specs.packageName = packageName;
+        specs.typeName = typeName;
+        specs.generatedClassName = ClassName.get(packageName,
+                GenUtils.getDBObjectGenClassName(typeName));
+        specs.tableName = GenUtils.getDBObjectTableName(typeName);
+        specs.latestVersion = latestVersion;
+        specs.storage = (storage == null ? DBObject.Storage.VALUES : storage);
+        specs.cacheSize = cacheSize;
+        if (features != null) {
+            specs.features.addAll(Arrays.asList(features));
+        }
+
+        return specs;
+    }
+
+    /**
+     * Appends a column in declaration order. The column gets the next
+     * ordinal and joins the column array of its version.
+     */
+    public static void addColumn(DBObjectSpecs specs, ColumnSpecs column) {
+        ColumnSpecs.assignOrdinal(column, specs.columns.size());
+
+        List<FieldSpec> versionFields = specs.fieldsMap.get(column.version);
+        if (versionFields == null) {
+            versionFields = new ArrayList<>();
+            specs.fieldsMap.put(column.version, versionFields);
+        }
+
+        versionFields.add(column.fieldSpec);
+
+        specs.columns.add(column);
+    }
+
+    public static void addIndex(DBObjectSpecs specs, IndexSpecs index) {
+        if (index != null) {
+            specs.indexes.add(index);
+        }
+    }
+
+    public static void addRelation(DBObjectSpecs specs, RelationSpecs relation) {
+        if (relation != null) {
+            specs.relations.add(relation);
+        }
+    }
+
+    /**
+     * Runs the checks that need all columns and picks the cache and paging
+     * keys. Call it once after all columns and indexes are added.
+     */
+    public static void resolve(DBObjectSpecs specs) {
+        SchemaSpecs.checkMigrations(specs.typeName, specs.columns);
+
+        if (specs.cacheSize > 0) {
+            specs.cacheKeyColumn = CacheSpecs.getCacheKeyColumn(specs.typeName, specs.columns);
+        }
+
+        specs.pagingKeyColumn = PagingSpecs.getPagingKeyColumn(specs.typeName, specs.columns);
+        specs.pagingIndexColumns = PagingSpecs.getPagingIndexColumns(specs.typeName,
+                specs.indexes, specs.pagingKeyColumn);
+
+        if (FullTextSpecs.checkFullText(specs.typeName, specs.columns)) {
+            specs.fullTextColumns = FullTextSpecs.getFullTextColumns(
+                    specs.columns, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Composes the generated class. Uses the model only, so it is safe to
+     * call from any thread and from any frontend.
+     */
+    public static TypeSpec.Builder composeTypeBuilder(DBObjectSpecs specs) {
+        ClassName generatedClassName = specs.generatedClassName;
+        List<ColumnSpecs> columns = specs.columns;
+        SortedMap<Integer, List<FieldSpec>> fieldsMap = specs.fieldsMap;
+        String tableName = specs.tableName;
+        int latestVersion = specs.latestVersion;
+        DBObject.Storage storage = specs.storage;
+
+        MethodSpec constructorBase = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ClassName.get("android.content", "Context"),
+                        "context")
+                .addParameter(TypeName.INT, "version")
+                .addStatement("super(context, version)")
+                .addStatement("initMembers()")
+                .build();
+
+        MethodSpec constructorShortcut = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ClassName.get("android.content", "Context"),
+                        "context")
+                .addStatement("this(context, $L)", latestVersion)
+                .build();
+
+        // define the wrapper class
+        TypeSpec.Builder classBuilder = TypeSpec.classBuilder(generatedClassName)
+                .addModifiers(Modifier.PUBLIC)
+                .superclass(ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "DatabaseObject"))
+                .addMethod(constructorShortcut)
+                .addMethod(constructorBase)
+                .addAnnotation(Keep.class);
+
+        for (ColumnSpecs columnSpecs: columns) {
+            classBuilder.addField(columnSpecs.fieldSpec);
+            classBuilder.addField(columnSpecs.ordinalFieldSpec);
+            if (columnSpecs.storageFieldSpec != null) {
+                classBuilder.addField(columnSpecs.storageFieldSpec);
+            }
+
+            classBuilder.addMethod(columnSpecs.setterMethodSpec);
+            classBuilder.addMethod(columnSpecs.getterMethodSpec);
+        }
+
+        for (FieldSpec supportField: ColumnSpecs.composeSupportFields(columns)) {
+            classBuilder.addField(supportField);
+        }
+
+        List<FieldSpec> columnsFields = composeColumnsFields(fieldsMap);
+        if (columnsFields != null) {
+
+            FieldSpec spec;
+            for (int i = 0; i < columnsFields.size(); i++) {
+                spec = columnsFields.get(i);
+
+                classBuilder.addField(spec);
+            }
+        }
+
+        List<IndexSpecs> indexes = specs.indexes;
+
+        classBuilder.addField(SchemaSpecs.composeTableNameField(tableName));
+        classBuilder.addFields(SchemaSpecs.composeColumnNamesFields(columns));
+        classBuilder.addFields(SchemaSpecs.composeSchemaFields(
+                tableName, columns, indexes, latestVersion));
+        classBuilder.addMethod(SchemaSpecs.composeGetCreateTableSQLMethod(
+                columns, latestVersion));
+        classBuilder.addMethod(SchemaSpecs.composeGetCreateIndexSQLMethod(
+                columns, indexes, latestVersion));
+        classBuilder.addMethod(SchemaSpecs.composeGetUpgradeSQLMethod(
+                tableName, columns, indexes, latestVersion));
+
+        ColumnSpecs cacheKeyColumn = specs.cacheKeyColumn;
+        if (cacheKeyColumn != null) {
+            classBuilder.addField(CacheSpecs.composeCacheField(
+                    generatedClassName, specs.cacheSize));
+            classBuilder.addMethods(CacheSpecs.composeCacheMethods(
+                    generatedClassName, cacheKeyColumn));
+        }
+
+        classBuilder.addFields(WriteSpecs.composeWriteFields(tableName, columns));
+        classBuilder.addMethods(WriteSpecs.composeBatchWriteMethods(
+                generatedClassName, columns, latestVersion, cacheKeyColumn));
+        classBuilder.addMethod(WriteSpecs.composeBindStatementMethod(
+                generatedClassName, columns));
+
+        classBuilder.addField(DirtySpecs.composeDirtyField(columns.size()));
+        classBuilder.addMethods(DirtySpecs.composeDirtyMethods(columns.size()));
+
+        if (storage == DBObject.Storage.FIELDS
+                && ColumnSpecs.hasPresenceBits(columns)) {
+            classBuilder.addField(DirtySpecs.composeValueField(columns.size()));
+            classBuilder.addMethods(DirtySpecs.composeValueMethods(columns.size()));
+        }
+
+        MethodSpec updateMethod = WriteSpecs.composeUpdateMethod(tableName, columns,
+                cacheKeyColumn);
+        if (updateMethod != null) {
+            classBuilder.addMethod(updateMethod);
+        }
+
+        Set<String> findByMethodNames = new HashSet<>();
+        for (IndexSpecs index: indexes) {
+            if (findByMethodNames.add(IndexSpecs.getFindByMethodName(index))) {
+                classBuilder.addMethod(IndexSpecs.composeFindByMethod(
+                        generatedClassName, index));
+            }
+        }
+
+        ColumnSpecs pagingKeyColumn = specs.pagingKeyColumn;
+        if (pagingKeyColumn != null) {
+            List<ColumnSpecs> pagingIndexColumns = specs.pagingIndexColumns;
+
+            classBuilder.addFields(PagingSpecs.composePagingFields(
+                    tableName, pagingKeyColumn, pagingIndexColumns));
+            classBuilder.addMethods(PagingSpecs.composePagingMethods(
+                    generatedClassName, pagingKeyColumn, pagingIndexColumns));
+        }
+
+        if (!specs.fullTextColumns.isEmpty()) {
+            classBuilder.addFields(FullTextSpecs.composeSearchFields(tableName, columns));
+            classBuilder.addMethods(FullTextSpecs.composeSearchMethods(generatedClassName));
+        }
+
+        ClassName relationsClassName = ClassName.get(specs.packageName,
+                GenUtils.getDBRelationsGenClassName(specs.typeName));
+        Set<String> loadMethodNames = new HashSet<>();
+        for (RelationSpecs relation: specs.relations) {
+            if (loadMethodNames.add(RelationSpecs.getLoadMethodName(relation))) {
+                classBuilder.addMethod(RelationSpecs.composeDelegateMethod(
+                        generatedClassName, relationsClassName, relation));
+            }
+        }
+
+        classBuilder.addMethod(composeInitMemberMethod());
+        classBuilder.addMethod(composeVersionTemplateMethod(fieldsMap, latestVersion));
+        classBuilder.addMethod(composeBuildTemplateMethod());
+        classBuilder.addTypes(composeTemplateHolderTypes(fieldsMap));
+
+        if (storage == DBObject.Storage.FIELDS) {
+            classBuilder.addMethod(StorageSpecs.composeSyncFieldsToValuesMethod(columns));
+            classBuilder.addMethod(StorageSpecs.composeSyncFieldsFromValuesMethod(columns));
+        }
+
+        classBuilder.addType(CursorSpecs.composeCursorBinderType(
+                generatedClassName, columns));
+        classBuilder.addMethod(CursorSpecs.composeFromCursorMethod(generatedClassName));
+        classBuilder.addMethod(CursorSpecs.composeReadAllMethod(generatedClassName));
+
+        if (specs.features.contains(DBObject.Feature.SNAPSHOT)) {
+            classBuilder.addField(SnapshotSpecs.composeSnapshotSQLField(tableName, columns));
+            classBuilder.addType(SnapshotSpecs.composeSnapshotType(columns));
+            classBuilder.addMethods(SnapshotSpecs.composeReadSnapshotMethods());
+        }
+
+        if (specs.features.contains(DBObject.Feature.STREAMING)) {
+            classBuilder.addType(StreamSpecs.composeVisitorType(generatedClassName));
+            classBuilder.addType(StreamSpecs.composeIteratorType(generatedClassName));
+            classBuilder.addMethod(StreamSpecs.composeForEachMethod(generatedClassName));
+            classBuilder.addMethod(StreamSpecs.composeIterateMethod(generatedClassName));
+            classBuilder.addMethod(StreamSpecs.composeCopyMethod(generatedClassName, columns));
+        }
+
+        if (specs.features.contains(DBObject.Feature.JSON)) {
+            classBuilder.addMethods(JsonSpecs.composeJsonMethods(generatedClassName, columns));
+        }
+
+        if (specs.features.contains(DBObject.Feature.BINARY)) {
+            classBuilder.addMethods(BinarySpecs.composeBinaryMethods(
+                    generatedClassName, columns, latestVersion));
+        }
+
+        return classBuilder;
+    }
+
+    private static MethodSpec composeInitMemberMethod() {
+        return MethodSpec.methodBuilder("initMembers")
+                .addModifiers(Modifier.PRIVATE)
+                .addStatement("final $T templ = getVersionTemplate(mVersion)",
+                        ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "Template"))
+                .beginControlFlow("if (templ != null)")
+                .addStatement("setTemplate(templ)")
+                .endControlFlow()
+                .build();
+    }
+
+    private static MethodSpec composeVersionTemplateMethod(SortedMap<Integer, List<FieldSpec>> fieldSpecs,
+                                                    int latestVersion) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getVersionTemplate")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(TypeName.INT, "version")
+                .returns(ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "Template"));
+
+        List<Integer> versions = getSortedVersions(fieldSpecs);
+        if (versions.isEmpty()) {
+            return builder.addStatement("return null").build();
+        }
+
+        int maxVersion = Math.max(latestVersion, versions.get(versions.size() - 1));
+
+        builder.beginControlFlow("switch (version)");
+
+        int templVer = 0;
+        for (int ver = versions.get(0); ver <= maxVersion; ver++) {
+            if (versions.contains(ver)) {
+                templVer = ver;
+            }
+
+            builder.addStatement("case $L: return $L.TEMPLATE",
+                    ver, getVerTemplateHolderName(templVer));
+        }
+
+        builder.addStatement("default: return null");
+        builder.endControlFlow();
+
+        return builder.build();
+    }
+
+    private static MethodSpec composeBuildTemplateMethod() {
+        ClassName templateClassName = ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "Template");
+
+        return MethodSpec.methodBuilder("buildTemplate")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(ArrayTypeName.of(ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "Column")),
+                        "columns")
+                .returns(templateClassName)
+                .addStatement("final $T templ = new $T()",
+                        templateClassName, templateClassName)
+                .addStatement("templ.addColumns(columns)")
+                .addStatement("return templ")
+                .build();
+    }
+
+    private static List<TypeSpec> composeTemplateHolderTypes(SortedMap<Integer, List<FieldSpec>> fieldSpecs) {
+        List<TypeSpec> holderTypes = new ArrayList<>();
+
+        List<Integer> versions = getSortedVersions(fieldSpecs);
+        for (int ver: versions) {
+            holderTypes.add(TypeSpec.classBuilder(getVerTemplateHolderName(ver))
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .addField(FieldSpec.builder(
+                            ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "Template"),
+                            "TEMPLATE",
+                            Modifier.STATIC,
+                            Modifier.FINAL)
+                            .initializer("buildTemplate($L)", getVerColumnsFieldName(ver))
+                            .build())
+                    .build());
+        }
+
+        return holderTypes;
+    }
+
+    private static List<Integer> getSortedVersions(SortedMap<Integer, List<FieldSpec>> fieldSpecs) {
+        if (fieldSpecs == null) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> versions = new ArrayList<>();
+        for (Map.Entry<Integer, List<FieldSpec>> entry: fieldSpecs.entrySet()) {
+            if (entry.getValue() != null && entry.getValue().size() > 0) {
+                versions.add(entry.getKey());
+            }
+        }
+
+        return versions;
+    }
+
+    private static List<FieldSpec> composeColumnsFields(SortedMap<Integer, List<FieldSpec>> fieldSpecs) {
+        if (fieldSpecs == null || fieldSpecs.size() <= 0) {
+            return null;
+        }
+
+        List<FieldSpec> columnsFields = new ArrayList<>();
+
+        List<Integer> versions = new ArrayList<>(fieldSpecs.keySet());
+
+        StringBuilder columnsInitializationStatement = new StringBuilder();
+
+        List<FieldSpec> verSpecs = new ArrayList<>();
+        List<FieldSpec> currVerSpecs;
+        FieldSpec columnsField;
+
+        int ver;
+        String fieldName;
+        for (int i = 0; i < versions.size(); i++) {
+            ver = versions.get(i);
+
+            currVerSpecs = fieldSpecs.get(ver);
+            if (currVerSpecs == null || currVerSpecs.size() <= 0) {
+                continue;
+            }
+
+            columnsInitializationStatement.setLength(0);
+
+            for (FieldSpec fieldSpec: currVerSpecs) {
+                verSpecs.add(fieldSpec);
+            }
+
+            for (FieldSpec fieldSpec: verSpecs) {
+                columnsInitializationStatement.append(fieldSpec.name);
+                columnsInitializationStatement.append(",");
+            }
+
+            fieldName = getVerColumnsFieldName(ver);
+
+            columnsField = FieldSpec.builder(
+                    ArrayTypeName.of(ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "Column")),
+                    fieldName,
+                    Modifier.STATIC,
+                    Modifier.PUBLIC)
+                    .initializer("{" + columnsInitializationStatement.toString() + "}")
+                    .build();
+
+            columnsFields.add(columnsField);
+        }
+
+        return columnsFields;
+    }
+
+    private static String getVerColumnsFieldName(int version) {
+        return "sColumns_Ver" + version;
+    }
+
+    private static String getVerTemplateHolderName(int version) {
+        return "TemplateHolder_Ver" + version;
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DirtySpecs {
+
+    private final static String DIRTY_FIELD = "mDirtyColumns";
+    private final static String VALUE_FIELD = "mValueColumns";
+    private final static int BITS_PER_WORD = 64;
+
+    public static FieldSpec composeDirtyField(int columnCount) {
+        return composeBitsField(DIRTY_FIELD, columnCount);
+    }
+
+    /**
+     * Presence bits of the FIELDS storage, set for a nullable primitive
+     * column once it holds a value, so that NULL is not written as 0.
+     */
+    public static FieldSpec composeValueField(int columnCount) {
+        return composeBitsField(VALUE_FIELD, columnCount);
+    }
+
+    public static List<MethodSpec> composeValueMethods(int columnCount) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        MethodSpec.Builder markBuilder = MethodSpec.methodBuilder("markValue")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(TypeName.INT, "ordinal");
+        MethodSpec.Builder clearBuilder = MethodSpec.methodBuilder("clearValue")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(TypeName.INT, "ordinal");
+        MethodSpec.Builder hasValueBuilder = MethodSpec.methodBuilder("hasValue")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(TypeName.INT, "ordinal")
+                .returns(TypeName.BOOLEAN);
+
+        if (isWide(columnCount)) {
+            markBuilder.addStatement("$L[ordinal >>> 6] |= (1L << (ordinal & 63))",
+                    VALUE_FIELD);
+            clearBuilder.addStatement("$L[ordinal >>> 6] &= ~(1L << (ordinal & 63))",
+                    VALUE_FIELD);
+            hasValueBuilder.addStatement("return ($L[ordinal >>> 6] & (1L << (ordinal & 63))) != 0",
+                    VALUE_FIELD);
+        } else {
+            markBuilder.addStatement("$L |= (1L << ordinal)", VALUE_FIELD);
+            clearBuilder.addStatement("$L &= ~(1L << ordinal)", VALUE_FIELD);
+            hasValueBuilder.addStatement("return ($L & (1L << ordinal)) != 0", VALUE_FIELD);
+        }
+
+        methods.add(markBuilder.build());
+        methods.add(clearBuilder.build());
+        methods.add(hasValueBuilder.build());
+
+        return methods;
+    }
+
+    private static FieldSpec composeBitsField(String fieldName, int columnCount) {
+        if (isWide(columnCount)) {
+            return FieldSpec.builder(ArrayTypeName.of(TypeName.LONG),
+                    fieldName,
+                    Modifier.PRIVATE,
+                    Modifier.FINAL)
+                    .initializer("new long[$L]", getWordCount(columnCount))
+                    .build();
+        }
+
+        return FieldSpec.builder(TypeName.LONG, fieldName, Modifier.PRIVATE)
+                .build();
+    }
+
+    public static List<MethodSpec> composeDirtyMethods(int columnCount) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        boolean wide = isWide(columnCount);
+
+        MethodSpec.Builder markBuilder = MethodSpec.methodBuilder("markDirty")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(TypeName.INT, "ordinal");
+        MethodSpec.Builder isDirtyBuilder = MethodSpec.methodBuilder("isDirty")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(TypeName.INT, "ordinal")
+                .returns(TypeName.BOOLEAN);
+        MethodSpec.Builder hasDirtyBuilder = MethodSpec.methodBuilder("hasDirtyColumns")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.BOOLEAN);
+        MethodSpec.Builder clearBuilder = MethodSpec.methodBuilder("clearDirtyColumns")
+                .addModifiers(Modifier.PUBLIC);
+
+        if (wide) {
+            markBuilder.addStatement("$L[ordinal >>> 6] |= (1L << (ordinal & 63))",
+                    DIRTY_FIELD);
+            isDirtyBuilder.addStatement("return ($L[ordinal >>> 6] & (1L << (ordinal & 63))) != 0",
+                    DIRTY_FIELD);
+            hasDirtyBuilder.beginControlFlow("for (long word: $L)", DIRTY_FIELD)
+                    .beginControlFlow("if (word != 0)")
+                    .addStatement("return true")
+                    .endControlFlow()
+                    .endControlFlow()
+                    .addStatement("return false");
+            clearBuilder.addStatement("$T.fill($L, 0L)", Arrays.class, DIRTY_FIELD);
+        } else {
+            markBuilder.addStatement("$L |= (1L << ordinal)", DIRTY_FIELD);
+            isDirtyBuilder.addStatement("return ($L & (1L << ordinal)) != 0", DIRTY_FIELD);
+            hasDirtyBuilder.addStatement("return $L != 0", DIRTY_FIELD);
+            clearBuilder.addStatement("$L = 0", DIRTY_FIELD);
+        }
+
+        methods.add(markBuilder.build());
+        methods.add(isDirtyBuilder.build());
+        methods.add(hasDirtyBuilder.build());
+        methods.add(clearBuilder.build());
+
+        return methods;
+    }
+
+    private static boolean isWide(int columnCount) {
+        return columnCount > BITS_PER_WORD;
+    }
+
+    private static int getWordCount(int columnCount) {
+        return (columnCount + BITS_PER_WORD - 1) / BITS_PER_WORD;
+    }
+
+}
@@ -0,0 +1,408 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.dailystudio.annotation.processor.utils.LogUtils;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Full-text search over @DBColumn(fullText = true) columns. The columns
+ * are indexed by an FTS4 table with external content, [table]_fts, which
+ * keeps only the index and reads the text from the entity table. Triggers
+ * on the entity table keep it in sync.
+ *
+ * The FTS table uses the row id of the entity as docid, so the entity
+ * needs a single int or long primary column: it is an alias of the row id
+ * and, unlike implicit row ids, survives VACUUM.
+ */
+public class FullTextSpecs {
+
+    private final static String SEARCH_SQL_FIELD = "SQL_SEARCH";
+    private final static String SEARCH_ROW_IDS_SQL_FIELD = "SQL_SEARCH_ROW_IDS";
+
+    private final static String[] TRIGGER_SUFFIXES = {
+            "_bi", "_ai", "_bu", "_au", "_bd"
+    };
+
+    /**
+     * Checks full-text columns are TEXT and the entity has a row id alias.
+     * Returns true when there is nothing to report.
+     */
+    public static boolean checkFullText(String typeName, List<ColumnSpecs> columns) {
+        if (getFullTextColumns(columns, Integer.MAX_VALUE).isEmpty()) {
+            return true;
+        }
+
+        boolean valid = true;
+        for (ColumnSpecs column: columns) {
+            if (column.fullText && !ColumnTypeSpecs.STRING.equals(column.storageTypeName)) {
+                LogUtils.error("%s: full-text column [%s] is %s, but only text columns "
+                        + "can be searched", typeName, column.columnName, column.valueTypeName);
+                valid = false;
+            }
+        }
+
+        if (getRowIdColumn(columns) == null) {
+            LogUtils.error("%s: full-text columns require a single int or long primary column",
+                    typeName);
+            valid = false;
+        }
+
+        return valid;
+    }
+
+    /**
+     * Returns the full-text columns which exist in the given version.
+     */
+    public static List<ColumnSpecs> getFullTextColumns(List<ColumnSpecs> columns,
+                                                       int version) {
+        List<ColumnSpecs> fullTextColumns = new ArrayList<>();
+        if (columns == null) {
+            return fullTextColumns;
+        }
+
+        for (ColumnSpecs column: columns) {
+            if (column.fullText && column.fullTextVersion <= version) {
+                fullTextColumns.add(column);
+            }
+        }
+
+        return fullTextColumns;
+    }
+
+    /**
+     * Returns the versions in which the set of full-text columns changes,
+     * in ascending order.
+     */
+    public static List<Integer> getFullTextVersions(List<ColumnSpecs> columns) {
+        List<Integer> versions = new ArrayList<>();
+
+        for (ColumnSpecs column: getFullTextColumns(columns, Integer.MAX_VALUE)) {
+            if (!versions.contains(column.fullTextVersion)) {
+                versions.add(column.fullTextVersion);
+            }
+        }
+
+        Collections.sort(versions);
+
+        return versions;
+    }
+
+    /**
+     * Composes the statements creating the FTS table and its triggers in
+     * the given version, or none when it has no full-text columns.
+     */
+    public static List<String> composeCreateSQLs(String tableName,
+                                                 List<ColumnSpecs> columns,
+                                                 List<IndexSpecs> indexes,
+                                                 int version) {
+        List<String> statements = new ArrayList<>();
+
+        List<ColumnSpecs> fullTextColumns = getFullTextColumns(columns, version);
+        ColumnSpecs rowIdColumn = getRowIdColumn(columns);
+        if (fullTextColumns.isEmpty() || rowIdColumn == null) {
+            return statements;
+        }
+
+        String ftsTableName = getFullTextTableName(tableName);
+        String rowId = rowIdColumn.columnName;
+
+        StringBuilder names = new StringBuilder();
+        StringBuilder newValues = new StringBuilder();
+        for (ColumnSpecs column: fullTextColumns) {
+            if (names.length() > 0) {
+                names.append(", ");
+                newValues.append(", ");
+            }
+
+            names.append(column.columnName);
+            newValues.append("new.");
+            newValues.append(column.columnName);
+        }
+
+        statements.add("CREATE VIRTUAL TABLE IF NOT EXISTS " + ftsTableName
+                + " USING fts4(content=\"" + tableName + "\", " + names + ")");
+
+        String insertIndex = "INSERT INTO " + ftsTableName + "(docid, " + names
+                + ") VALUES (new." + rowId + ", " + newValues + ");";
+        String deleteIndex = "DELETE FROM " + ftsTableName + " WHERE docid = old." + rowId + ";";
+
+        statements.add(composeReplaceTriggerSQL(tableName, rowIdColumn, indexes, version));
+        statements.add(composeTriggerSQL(tableName, "_ai", "AFTER INSERT", insertIndex));
+
+        String updateOf = "UPDATE OF " + rowId + ", " + names;
+        statements.add(composeTriggerSQL(tableName, "_bu", "BEFORE " + updateOf, deleteIndex));
+        statements.add(composeTriggerSQL(tableName, "_au", "AFTER " + updateOf, insertIndex));
+        statements.add(composeTriggerSQL(tableName, "_bd", "BEFORE DELETE", deleteIndex));
+
+        return statements;
+    }
+
+    /**
+     * Composes the statements upgrading the FTS table of an existing
+     * entity table from fromVersion. When its columns change, it is
+     * dropped, created again and rebuilt from the rows already stored.
+     */
+    public static List<String> composeUpgradeSQLs(String tableName,
+                                                  List<ColumnSpecs> columns,
+                                                  List<IndexSpecs> indexes,
+                                                  int fromVersion,
+                                                  int toVersion) {
+        List<String> statements = new ArrayList<>();
+
+        List<ColumnSpecs> fromColumns = getFullTextColumns(columns, fromVersion);
+        List<ColumnSpecs> toColumns = getFullTextColumns(columns, toVersion);
+
+        String ftsTableName = getFullTextTableName(tableName);
+        if (toColumns.size() == fromColumns.size()) {
+            if (!toColumns.isEmpty() && hasUniqueIndexes(indexes, fromVersion, toVersion)) {
+                statements.add("DROP TRIGGER IF EXISTS " + ftsTableName + "_bi");
+                statements.add(composeReplaceTriggerSQL(tableName,
+                        getRowIdColumn(columns), indexes, toVersion));
+            }
+
+            return statements;
+        }
+
+        if (!fromColumns.isEmpty()) {
+            for (String suffix: TRIGGER_SUFFIXES) {
+                statements.add("DROP TRIGGER IF EXISTS " + ftsTableName + suffix);
+            }
+
+            statements.add("DROP TABLE IF EXISTS " + ftsTableName);
+        }
+
+        List<String> createStatements = composeCreateSQLs(tableName, columns, indexes, toVersion);
+        if (createStatements.isEmpty()) {
+            return createStatements;
+        }
+
+        statements.addAll(createStatements);
+        statements.add("INSERT INTO " + ftsTableName + "(" + ftsTableName + ") VALUES ('rebuild')");
+
+        return statements;
+    }
+
+    public static List<FieldSpec> composeSearchFields(String tableName,
+                                                      List<ColumnSpecs> columns) {
+        List<FieldSpec> fields = new ArrayList<>();
+
+        ColumnSpecs rowIdColumn = getRowIdColumn(columns);
+        if (rowIdColumn == null) {
+            return fields;
+        }
+
+        String ftsTableName = getFullTextTableName(tableName);
+        String matchSQL = "SELECT docid FROM " + ftsTableName
+                + " WHERE " + ftsTableName + " MATCH ? LIMIT ?";
+
+        fields.add(composeSQLField(SEARCH_ROW_IDS_SQL_FIELD, matchSQL));
+        fields.add(composeSQLField(SEARCH_SQL_FIELD, "SELECT * FROM " + tableName
+                + " WHERE " + rowIdColumn.columnName + " IN (" + matchSQL + ")"));
+
+        return fields;
+    }
+
+    /**
+     * Composes searchRowIds(db, query, limit) and
+     * search(context, db, query, limit). query is an FTS4 MATCH
+     * expression, e.g. "ali*" or "user_name:alice".
+     */
+    public static List<MethodSpec> composeSearchMethods(ClassName generatedClassName) {
+        ClassName contextClassName =
+                ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context");
+        ClassName cursorClassName =
+                ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+        ClassName databaseClassName =
+                ClassName.get(CommonVariables.ANDROID_SQLITE_PACKAGE, "SQLiteDatabase");
+        TypeName listTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), generatedClassName);
+
+        List<MethodSpec> methods = new ArrayList<>();
+
+        methods.add(composeSearchMethodBuilder("searchRowIds", null, databaseClassName)
+                .returns(long[].class)
+                .addStatement("final $T c = db.rawQuery($L, new $T{query, $T.valueOf(limit)})",
+                        cursorClassName, SEARCH_ROW_IDS_SQL_FIELD,
+                        ArrayTypeName.of(String.class), String.class)
+                .beginControlFlow("try")
+                .addStatement("final long[] rowIds = new long[c.getCount()]")
+                .addStatement("int count = 0")
+                .beginControlFlow("while (count < rowIds.length && c.moveToNext())")
+                .addStatement("rowIds[count++] = c.getLong(0)")
+                .endControlFlow()
+                .addStatement("return (count == rowIds.length ? rowIds : $T.copyOf(rowIds, count))",
+                        Arrays.class)
+                .nextControlFlow("finally")
+                .beginControlFlow("if (c != null)")
+                .addStatement("c.close()")
+                .endControlFlow()
+                .endControlFlow()
+                .build());
+
+        methods.add(composeSearchMethodBuilder("search", contextClassName, databaseClassName)
+                .returns(listTypeName)
+                .addStatement("final $T c = db.rawQuery($L, new $T{query, $T.valueOf(limit)})",
+                        cursorClassName, SEARCH_SQL_FIELD,
+                        ArrayTypeName.of(String.class), String.class)
+                .beginControlFlow("try")
+                .addStatement("return readAll(context, c)")
+                .nextControlFlow("finally")
+                .beginControlFlow("if (c != null)")
+                .addStatement("c.close()")
+                .endControlFlow()
+                .endControlFlow()
+                .build());
+
+        return methods;
+    }
+
+    private static MethodSpec.Builder composeSearchMethodBuilder(String methodName,
+                                                                 ClassName contextClassName,
+                                                                 ClassName databaseClassName) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(methodName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+
+        if (contextClassName != null) {
+            builder.addParameter(contextClassName, "context");
+        }
+
+        return builder.addParameter(databaseClassName, "db")
+                .addParameter(String.class, "query")
+                .addParameter(TypeName.INT, "limit")
+                .beginControlFlow("if (limit <= 0)")
+                .addStatement("throw new $T($S + limit)",
+                        IllegalArgumentException.class, "invalid limit: ")
+                .endControlFlow();
+    }
+
+    /**
+     * INSERT OR REPLACE deletes conflicting rows without firing DELETE
+     * triggers, so their text is unindexed before the insert, while the
+     * FTS table can still read it.
+     */
+    private static String composeReplaceTriggerSQL(String tableName,
+                                                   ColumnSpecs rowIdColumn,
+                                                   List<IndexSpecs> indexes,
+                                                   int version) {
+        String rowId = rowIdColumn.columnName;
+
+        return composeTriggerSQL(tableName, "_bi", "BEFORE INSERT",
+                "DELETE FROM " + getFullTextTableName(tableName) + " WHERE docid IN (SELECT "
+                        + rowId + " FROM " + tableName + " WHERE "
+                        + composeConflictCondition(rowIdColumn, indexes, version) + ");");
+    }
+
+    private static String composeTriggerSQL(String tableName,
+                                            String suffix,
+                                            String event,
+                                            String body) {
+        return "CREATE TRIGGER IF NOT EXISTS " + getFullTextTableName(tableName) + suffix
+                + " " + event + " ON " + tableName + " BEGIN " + body + " END";
+    }
+
+    /**
+     * Matches the rows an insert of new.* would replace: the same row id
+     * or the same values of a unique index.
+     */
+    private static String composeConflictCondition(ColumnSpecs rowIdColumn,
+                                                   List<IndexSpecs> indexes,
+                                                   int version) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(rowIdColumn.columnName);
+        builder.append(" = new.");
+        builder.append(rowIdColumn.columnName);
+
+        if (indexes == null) {
+            return builder.toString();
+        }
+
+        for (IndexSpecs index: indexes) {
+            if (!index.unique || index.version > version) {
+                continue;
+            }
+
+            builder.append(" OR (");
+            for (int i = 0; i < index.columns.size(); i++) {
+                if (i > 0) {
+                    builder.append(" AND ");
+                }
+
+                builder.append(index.columns.get(i).columnName);
+                builder.append(" = new.");
+                builder.append(index.columns.get(i).columnName);
+            }
+            builder.append(")");
+        }
+
+        return builder.toString();
+    }
+
+    private static boolean hasUniqueIndexes(List<IndexSpecs> indexes,
+                                            int fromVersion,
+                                            int toVersion) {
+        if (indexes == null) {
+            return false;
+        }
+
+        for (IndexSpecs index: indexes) {
+            if (index.unique && index.version > fromVersion && index.version <= toVersion) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static FieldSpec composeSQLField(String fieldName, String sql) {
+        return FieldSpec.builder(String.class,
+                fieldName,
+                Modifier.PRIVATE,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$S", sql)
+                .build();
+    }
+
+    /**
+     * Returns the single int or long primary column, which SQLite keeps
+     * as an alias of the row id, or null.
+     */
+    private static ColumnSpecs getRowIdColumn(List<ColumnSpecs> columns) {
+        ColumnSpecs rowIdColumn = null;
+        for (ColumnSpecs column: columns) {
+            if (!column.primary) {
+                continue;
+            }
+
+            if (rowIdColumn != null) {
+                return null;
+            }
+
+            rowIdColumn = column;
+        }
+
+        if (rowIdColumn == null
+                || (rowIdColumn.storageTypeName != TypeName.INT
+                && rowIdColumn.storageTypeName != TypeName.LONG)) {
+            return null;
+        }
+
+        return rowIdColumn;
+    }
+
+    private static String getFullTextTableName(String tableName) {
+        return tableName + "_fts";
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.dailystudio.annotation.DBIndex;
+import com.dailystudio.annotation.processor.utils.LogUtils;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IndexSpecs {
+
+    public String name = null;
+    public List<ColumnSpecs> columns = new ArrayList<>();
+    public boolean unique = false;
+    public int version = CommonVariables.DEFAULT_VERSION;
+
+    private IndexSpecs() {
+
+    }
+
+    public static IndexSpecs fromAnnotation(String typeName,
+                                            String tableName,
+                                            DBIndex dbIndex,
+                                            List<ColumnSpecs> columns) {
+        if (dbIndex == null) {
+            return null;
+        }
+
+        return fromDefinition(typeName, tableName,
+                dbIndex.name(), dbIndex.columns(), dbIndex.unique(), dbIndex.version(),
+                columns);
+    }
+
+    /**
+     * Builds the index from plain @DBIndex values, independent of the
+     * compiler frontend.
+     */
+    public static IndexSpecs fromDefinition(String typeName,
+                                            String tableName,
+                                            String name,
+                                            String[] colNames,
+                                            boolean unique,
+                                            int version,
+                                            List<ColumnSpecs> columns) {
+        if (columns == null) {
+            return null;
+        }
+
+        if (colNames == null || colNames.length <= 0) {
+            LogUtils.error("%s: index without columns", typeName);
+
+            return null;
+        }
+
+        IndexSpecs specs = new IndexSpecs();
+
+        specs.unique = unique;
+        specs.version = version;
+
+        ColumnSpecs column;
+        for (String colName: colNames) {
+            column = findColumn(columns, colName);
+            if (column == null) {
+                LogUtils.error("%s: index column [%s] is not a @DBColumn",
+                        typeName, colName);
+
+                return null;
+            }
+
+            if (column.version > specs.version) {
+                LogUtils.error("%s: index column [%s] is added in version %d, "
+                        + "after its index in version %d",
+                        typeName, colName, column.version, specs.version);
+
+                return null;
+            }
+
+            if (ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+                LogUtils.error("%s: index column [%s] is a BLOB, which cannot be "
+                        + "passed as a selection argument",
+                        typeName, colName);
+
+                return null;
+            }
+
+            specs.columns.add(column);
+        }
+
+        if (name == null || name.isEmpty()) {
+            StringBuilder builder = new StringBuilder("idx_");
+            builder.append(tableName);
+            for (ColumnSpecs indexColumn: specs.columns) {
+                builder.append("_");
+                builder.append(indexColumn.columnName);
+            }
+
+            name = builder.toString();
+        }
+
+        specs.name = name;
+
+        return specs;
+    }
+
+    public static ColumnSpecs findColumn(List<ColumnSpecs> columns, String colName) {
+        if (columns == null || colName == null) {
+            return null;
+        }
+
+        for (ColumnSpecs column: columns) {
+            if (colName.equals(column.columnName)) {
+                return column;
+            }
+        }
+
+        return null;
+    }
+
+    public static String composeCreateIndexSQL(String tableName, IndexSpecs index) {
+        StringBuilder builder = new StringBuilder("CREATE ");
+        if (index.unique) {
+            builder.append("UNIQUE ");
+        }
+
+        builder.append("INDEX IF NOT EXISTS ");
+        builder.append(index.name);
+        builder.append(" ON ");
+        builder.append(tableName);
+        builder.append(" (");
+        for (int i = 0; i < index.columns.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(index.columns.get(i).columnName);
+        }
+        builder.append(")");
+
+        return builder.toString();
+    }
+
+    public static MethodSpec composeFindByMethod(ClassName generatedClassName,
+                                                 IndexSpecs index) {
+        ClassName contextClassName =
+                ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context");
+        ClassName cursorClassName =
+                ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+        ClassName databaseClassName =
+                ClassName.get(CommonVariables.ANDROID_SQLITE_PACKAGE, "SQLiteDatabase");
+        TypeName listTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), generatedClassName);
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(getFindByMethodName(index))
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(contextClassName, "context")
+                .addParameter(databaseClassName, "db");
+
+        StringBuilder selection = new StringBuilder();
+        CodeBlock.Builder selectionArgs = CodeBlock.builder();
+
+        ColumnSpecs column;
+        String paramName;
+        for (int i = 0; i < index.columns.size(); i++) {
+            column = index.columns.get(i);
+            paramName = ColumnSpecs.getParameterName(column);
+
+            builder.addParameter(column.valueTypeName, paramName);
+
+            if (i > 0) {
+                selection.append(" AND ");
+                selectionArgs.add(", ");
+            }
+
+            selection.append(column.columnName);
+            selection.append(" = ?");
+            selectionArgs.add(ColumnSpecs.composeSelectionArg(column, paramName));
+        }
+
+        builder.addStatement("final $T c = db.query($L, null, $S, new $T{$L}, null, null, null)",
+                cursorClassName, SchemaSpecs.TABLE_NAME_FIELD,
+                selection.toString(),
+                ArrayTypeName.of(String.class),
+                selectionArgs.build());
+
+        builder.beginControlFlow("try");
+        if (index.unique) {
+            builder.returns(generatedClassName)
+                    .beginControlFlow("if (c == null || !c.moveToFirst())")
+                    .addStatement("return null")
+                    .endControlFlow()
+                    .addStatement("return fromCursor(c, new $T(context))",
+                            generatedClassName);
+        } else {
+            builder.returns(listTypeName)
+                    .addStatement("return readAll(context, c)");
+        }
+        builder.nextControlFlow("finally");
+        builder.beginControlFlow("if (c != null)")
+                .addStatement("c.close()")
+                .endControlFlow();
+        builder.endControlFlow();
+
+        return builder.build();
+    }
+
+    public static String getFindByMethodName(IndexSpecs index) {
+        StringBuilder builder = new StringBuilder("findBy");
+
+        for (int i = 0; i < index.columns.size(); i++) {
+            if (i > 0) {
+                builder.append("And");
+            }
+
+            builder.append(ColumnSpecs.getAccessorStem(index.columns.get(i)));
+        }
+
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,237 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class JsonSpecs {
+
+    private final static String ANDROID_UTIL_PACKAGE = "android.util";
+
+    public static List<MethodSpec> composeJsonMethods(ClassName generatedClassName,
+                                                      List<ColumnSpecs> columns) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        methods.add(composeWriteJsonMethod(columns));
+        methods.add(composeWriteJsonArrayMethod(generatedClassName));
+        methods.add(composeReadJsonMethod(generatedClassName, columns));
+        methods.add(composeReadJsonShortcutMethod(generatedClassName));
+        methods.add(composeReadJsonArrayMethod(generatedClassName));
+
+        return methods;
+    }
+
+    private static MethodSpec composeWriteJsonMethod(List<ColumnSpecs> columns) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("writeJson")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(getJsonWriterClassName(), "writer")
+                .addException(IOException.class)
+                .addStatement("writer.beginObject()");
+
+        int guardVersion = CommonVariables.DEFAULT_VERSION;
+        for (ColumnSpecs column: columns) {
+            if (column.version != guardVersion) {
+                if (guardVersion > CommonVariables.DEFAULT_VERSION) {
+                    builder.endControlFlow();
+                }
+
+                guardVersion = Math.max(column.version, CommonVariables.DEFAULT_VERSION);
+                if (guardVersion > CommonVariables.DEFAULT_VERSION) {
+                    builder.beginControlFlow("if (mVersion >= $L)", guardVersion);
+                }
+            }
+
+            if (ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+                builder.addStatement("final $T $L = $L", column.storageTypeName,
+                        ColumnSpecs.getParameterName(column),
+                        ColumnSpecs.composeToStorage(column,
+                                column.getterMethodSpec.name + "()"));
+                builder.addStatement("writer.name($S).value($L == null ? null : "
+                                + "$T.encodeToString($L, $T.NO_WRAP))",
+                        column.columnName, ColumnSpecs.getParameterName(column),
+                        getBase64ClassName(), ColumnSpecs.getParameterName(column),
+                        getBase64ClassName());
+            } else if (ColumnSpecs.canBeNull(column)) {
+                builder.beginControlFlow("if ($L)", ColumnSpecs.composeIsNull(column, ""))
+                        .addStatement("writer.name($S).nullValue()", column.columnName)
+                        .nextControlFlow("else")
+                        .addStatement("writer.name($S).value($L)",
+                                column.columnName, ColumnSpecs.composeToStorage(column,
+                                        column.getterMethodSpec.name + "()"))
+                        .endControlFlow();
+            } else {
+                builder.addStatement("writer.name($S).value($L)",
+                        column.columnName, ColumnSpecs.composeToStorage(column,
+                                column.getterMethodSpec.name + "()"));
+            }
+        }
+
+        if (guardVersion > CommonVariables.DEFAULT_VERSION) {
+            builder.endControlFlow();
+        }
+
+        return builder.addStatement("writer.endObject()")
+                .build();
+    }
+
+    private static MethodSpec composeWriteJsonArrayMethod(ClassName generatedClassName) {
+        return MethodSpec.methodBuilder("writeJsonArray")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getJsonWriterClassName(), "writer")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                        generatedClassName), "objects")
+                .addException(IOException.class)
+                .addStatement("writer.beginArray()")
+                .beginControlFlow("if (objects != null)")
+                .beginControlFlow("for ($T object: objects)", generatedClassName)
+                .beginControlFlow("if (object == null)")
+                .addStatement("writer.nullValue()")
+                .nextControlFlow("else")
+                .addStatement("object.writeJson(writer)")
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("writer.endArray()")
+                .build();
+    }
+
+    private static MethodSpec composeReadJsonMethod(ClassName generatedClassName,
+                                                    List<ColumnSpecs> columns) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("readJson")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getJsonReaderClassName(), "reader")
+                .addParameter(generatedClassName, "object")
+                .returns(generatedClassName)
+                .addException(IOException.class)
+                .addStatement("reader.beginObject()")
+                .beginControlFlow("while (reader.hasNext())")
+                .beginControlFlow("switch (reader.nextName())");
+
+        for (ColumnSpecs column: columns) {
+            builder.addCode("case $S:\n$>", column.columnName);
+
+            if (column.version > CommonVariables.DEFAULT_VERSION) {
+                builder.beginControlFlow("if (object.mVersion < $L)", column.version)
+                        .addStatement("reader.skipValue()")
+                        .nextControlFlow("else if (reader.peek() == $T.NULL)",
+                                getJsonTokenClassName());
+            } else {
+                builder.beginControlFlow("if (reader.peek() == $T.NULL)",
+                        getJsonTokenClassName());
+            }
+
+            builder.addStatement("reader.nextNull()");
+            CursorSpecs.addBindNullStatement(builder, column);
+            builder.nextControlFlow("else")
+                    .addStatement("object.$L($L)",
+                            column.setterMethodSpec.name, composeReadValue(column))
+                    .endControlFlow()
+                    .addStatement("break")
+                    .addCode("$<");
+        }
+
+        builder.addCode("default:\n$>")
+                .addStatement("reader.skipValue()")
+                .addStatement("break")
+                .addCode("$<");
+
+        return builder.endControlFlow()
+                .endControlFlow()
+                .addStatement("reader.endObject()")
+                .addStatement("object.clearDirtyColumns()")
+                .addStatement("return object")
+                .build();
+    }
+
+    private static MethodSpec composeReadJsonShortcutMethod(ClassName generatedClassName) {
+        return MethodSpec.methodBuilder("readJson")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getContextClassName(), "context")
+                .addParameter(getJsonReaderClassName(), "reader")
+                .returns(generatedClassName)
+                .addException(IOException.class)
+                .addStatement("return readJson(reader, new $T(context))", generatedClassName)
+                .build();
+    }
+
+    private static MethodSpec composeReadJsonArrayMethod(ClassName generatedClassName) {
+        TypeName listTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), generatedClassName);
+
+        return MethodSpec.methodBuilder("readJsonArray")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getContextClassName(), "context")
+                .addParameter(getJsonReaderClassName(), "reader")
+                .returns(listTypeName)
+                .addException(IOException.class)
+                .addStatement("final $T objects = new $T<$T>()",
+                        listTypeName, ArrayList.class, generatedClassName)
+                .addStatement("reader.beginArray()")
+                .beginControlFlow("while (reader.hasNext())")
+                .beginControlFlow("if (reader.peek() == $T.NULL)", getJsonTokenClassName())
+                .addStatement("reader.nextNull()")
+                .nextControlFlow("else")
+                .addStatement("objects.add(readJson(reader, new $T(context)))",
+                        generatedClassName)
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("reader.endArray()")
+                .addStatement("return objects")
+                .build();
+    }
+
+    private static CodeBlock composeReadValue(ColumnSpecs column) {
+        CodeBlock storedValue;
+        if (ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+            storedValue = CodeBlock.of("$T.decode(reader.nextString(), $T.NO_WRAP)",
+                    getBase64ClassName(), getBase64ClassName());
+        } else {
+            storedValue = CodeBlock.of("reader.$L()", getReaderMethodName(column));
+        }
+
+        return ColumnSpecs.composeFromStorage(column, storedValue);
+    }
+
+    private static String getReaderMethodName(ColumnSpecs column) {
+        if (column.storageTypeName == TypeName.INT) {
+            return "nextInt";
+        } else if (column.storageTypeName == TypeName.LONG) {
+            return "nextLong";
+        } else if (column.storageTypeName == TypeName.DOUBLE) {
+            return "nextDouble";
+        } else if (column.storageTypeName == TypeName.BOOLEAN) {
+            return "nextBoolean";
+        }
+
+        return "nextString";
+    }
+
+    private static ClassName getJsonReaderClassName() {
+        return ClassName.get(ANDROID_UTIL_PACKAGE, "JsonReader");
+    }
+
+    private static ClassName getJsonWriterClassName() {
+        return ClassName.get(ANDROID_UTIL_PACKAGE, "JsonWriter");
+    }
+
+    private static ClassName getBase64ClassName() {
+        return ClassName.get(ANDROID_UTIL_PACKAGE, "Base64");
+    }
+
+    private static ClassName getJsonTokenClassName() {
+        return ClassName.get(ANDROID_UTIL_PACKAGE, "JsonToken");
+    }
+
+    private static ClassName getContextClassName() {
+        return ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context");
+    }
+
+}
@@ -0,0 +1,279 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.dailystudio.annotation.processor.utils.LogUtils;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset paging helpers. A page starts after the last row of the previous
+ * page instead of skipping OFFSET rows, so every page costs one index seek
+ * however deep it is. The SQL of each query is composed here, once per
+ * ordering, and kept in static fields of the generated class.
+ *
+ * Paging by an indexed column breaks ties with the primary key, and skips
+ * rows where the column is NULL. Only single-column indexes on a table
+ * whose key is its INTEGER rowid are used: such an index is ordered by
+ * the column and then the rowid, which is the ORDER BY of the page, so
+ * SQLite needs no temporary B-tree to sort each page.
+ */
+public class PagingSpecs {
+
+    private final static String FIRST_PAGE_SQL_FIELD = "FIRST_PAGE_SQL";
+    private final static String PAGE_AFTER_SQL_FIELD = "PAGE_AFTER_SQL";
+
+    private final static String ROWID_SQL_TYPE = "INTEGER";
+
+    /**
+     * Returns the single primary column to page by, or null when the
+     * entity has none or it cannot be compared, e.g. a BLOB.
+     */
+    public static ColumnSpecs getPagingKeyColumn(String typeName,
+                                                 List<ColumnSpecs> columns) {
+        ColumnSpecs keyColumn = null;
+        for (ColumnSpecs column: columns) {
+            if (!column.primary) {
+                continue;
+            }
+
+            if (keyColumn != null) {
+                LogUtils.debug("%s: no keyset paging for a composite primary key",
+                        typeName);
+
+                return null;
+            }
+
+            keyColumn = column;
+        }
+
+        if (keyColumn == null || !isPageable(keyColumn)) {
+            LogUtils.debug("%s: no keyset paging without a comparable primary column",
+                    typeName);
+
+            return null;
+        }
+
+        return keyColumn;
+    }
+
+    /**
+     * Returns the column of each single-column index which can be paged by
+     * with the key column as tiebreaker, once per column.
+     */
+    public static List<ColumnSpecs> getPagingIndexColumns(String typeName,
+                                                          List<IndexSpecs> indexes,
+                                                          ColumnSpecs keyColumn) {
+        Map<String, ColumnSpecs> columns = new LinkedHashMap<>();
+        if (keyColumn == null || indexes.isEmpty()) {
+            return new ArrayList<>(columns.values());
+        }
+
+        if (!ROWID_SQL_TYPE.equals(keyColumn.sqlType)) {
+            LogUtils.debug("%s: no keyset paging by index without an INTEGER primary key",
+                    typeName);
+
+            return new ArrayList<>(columns.values());
+        }
+
+        ColumnSpecs column;
+        for (IndexSpecs index: indexes) {
+            if (index.columns.size() != 1) {
+                LogUtils.debug("%s: no keyset paging by composite index [%s]",
+                        typeName, index.name);
+
+                continue;
+            }
+
+            column = index.columns.get(0);
+            if (column != keyColumn && isPageable(column)) {
+                columns.put(column.columnName, column);
+            }
+        }
+
+        return new ArrayList<>(columns.values());
+    }
+
+    public static List<FieldSpec> composePagingFields(String tableName,
+                                                      ColumnSpecs keyColumn,
+                                                      List<ColumnSpecs> indexColumns) {
+        List<FieldSpec> fields = new ArrayList<>();
+
+        String key = keyColumn.columnName;
+
+        fields.add(composeSQLField(FIRST_PAGE_SQL_FIELD,
+                composeSelectSQL(tableName, null, key, "ASC"),
+                composeSelectSQL(tableName, null, key, "DESC")));
+        fields.add(composeSQLField(PAGE_AFTER_SQL_FIELD,
+                composeSelectSQL(tableName, key + " > ?", key, "ASC"),
+                composeSelectSQL(tableName, key + " < ?", key, "DESC")));
+
+        String col;
+        for (ColumnSpecs column: indexColumns) {
+            col = column.columnName;
+
+            fields.add(composeSQLField(getFirstPageByFieldName(column),
+                    composeSelectSQL(tableName, col + " IS NOT NULL",
+                            col + " ASC, " + key, "ASC"),
+                    composeSelectSQL(tableName, col + " IS NOT NULL",
+                            col + " DESC, " + key, "DESC")));
+            fields.add(composeSQLField(getPageByAfterFieldName(column),
+                    composeSelectSQL(tableName,
+                            col + " >= ? AND (" + col + " > ? OR " + key + " > ?)",
+                            col + " ASC, " + key, "ASC"),
+                    composeSelectSQL(tableName,
+                            col + " <= ? AND (" + col + " < ? OR " + key + " < ?)",
+                            col + " DESC, " + key, "DESC")));
+        }
+
+        return fields;
+    }
+
+    public static List<MethodSpec> composePagingMethods(ClassName generatedClassName,
+                                                        ColumnSpecs keyColumn,
+                                                        List<ColumnSpecs> indexColumns) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        String keyName = ColumnSpecs.getParameterName(keyColumn);
+
+        methods.add(composePageMethod(generatedClassName, "firstPage",
+                FIRST_PAGE_SQL_FIELD, new ColumnSpecs[0], new String[0],
+                CodeBlock.of("")));
+
+        methods.add(composePageMethod(generatedClassName, "pageAfter",
+                PAGE_AFTER_SQL_FIELD,
+                new ColumnSpecs[] { keyColumn },
+                new String[] { keyName },
+                CodeBlock.of("$L, ",
+                        ColumnSpecs.composeSelectionArg(keyColumn, keyName))));
+
+        String stem;
+        String valueName;
+        CodeBlock valueArg;
+        for (ColumnSpecs column: indexColumns) {
+            stem = ColumnSpecs.getAccessorStem(column);
+            valueName = ColumnSpecs.getParameterName(column);
+
+            valueArg = ColumnSpecs.composeSelectionArg(column, valueName);
+
+            methods.add(composePageMethod(generatedClassName, "firstPageBy" + stem,
+                    getFirstPageByFieldName(column), new ColumnSpecs[0], new String[0],
+                    CodeBlock.of("")));
+
+            methods.add(composePageMethod(generatedClassName, "pageBy" + stem + "After",
+                    getPageByAfterFieldName(column),
+                    new ColumnSpecs[] { column, keyColumn },
+                    new String[] { valueName, keyName },
+                    CodeBlock.of("$L, $L, $L, ", valueArg, valueArg,
+                            ColumnSpecs.composeSelectionArg(keyColumn, keyName))));
+        }
+
+        return methods;
+    }
+
+    private static MethodSpec composePageMethod(ClassName generatedClassName,
+                                                String methodName,
+                                                String sqlFieldName,
+                                                ColumnSpecs[] paramColumns,
+                                                String[] paramNames,
+                                                CodeBlock selectionArgs) {
+        ClassName contextClassName =
+                ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context");
+        ClassName cursorClassName =
+                ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+        ClassName databaseClassName =
+                ClassName.get(CommonVariables.ANDROID_SQLITE_PACKAGE, "SQLiteDatabase");
+        TypeName listTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), generatedClassName);
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(methodName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(contextClassName, "context")
+                .addParameter(databaseClassName, "db");
+
+        for (int i = 0; i < paramColumns.length; i++) {
+            builder.addParameter(paramColumns[i].valueTypeName, paramNames[i]);
+        }
+
+        return builder.addParameter(TypeName.INT, "pageSize")
+                .addParameter(getOrderingClassName(), "ordering")
+                .returns(listTypeName)
+                .beginControlFlow("if (pageSize <= 0)")
+                .addStatement("throw new $T($S + pageSize)",
+                        IllegalArgumentException.class, "invalid page size: ")
+                .endControlFlow()
+                .addStatement("final $T c = db.rawQuery($L[ordering.ordinal()], new $T{$L$T.valueOf(pageSize)})",
+                        cursorClassName, sqlFieldName,
+                        ArrayTypeName.of(String.class), selectionArgs, String.class)
+                .beginControlFlow("try")
+                .addStatement("return readAll(context, c)")
+                .nextControlFlow("finally")
+                .beginControlFlow("if (c != null)")
+                .addStatement("c.close()")
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * Holds the SQL of both orderings, indexed by Ordering.ordinal().
+     */
+    private static FieldSpec composeSQLField(String fieldName,
+                                             String ascendingSQL,
+                                             String descendingSQL) {
+        return FieldSpec.builder(String[].class,
+                fieldName,
+                Modifier.PRIVATE,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("{$S, $S}", ascendingSQL, descendingSQL)
+                .build();
+    }
+
+    private static String composeSelectSQL(String tableName,
+                                           String where,
+                                           String orderBy,
+                                           String direction) {
+        StringBuilder builder = new StringBuilder("SELECT * FROM ");
+
+        builder.append(tableName);
+        if (where != null) {
+            builder.append(" WHERE ");
+            builder.append(where);
+        }
+        builder.append(" ORDER BY ");
+        builder.append(orderBy);
+        builder.append(" ");
+        builder.append(direction);
+        builder.append(" LIMIT ?");
+
+        return builder.toString();
+    }
+
+    private static boolean isPageable(ColumnSpecs column) {
+        return column.storageTypeName != TypeName.BOOLEAN
+                && !ColumnTypeSpecs.BYTES.equals(column.storageTypeName);
+    }
+
+    private static String getFirstPageByFieldName(ColumnSpecs column) {
+        return "FIRST_PAGE_BY_" + column.columnName.toUpperCase() + "_SQL";
+    }
+
+    private static String getPageByAfterFieldName(ColumnSpecs column) {
+        return "PAGE_BY_" + column.columnName.toUpperCase() + "_AFTER_SQL";
+    }
+
+    private static ClassName getOrderingClassName() {
+        return ClassName.get(CacheSpecs.SUPPORT_PACKAGE, "Ordering");
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProjectionSpecs {
+
+    public final static String PROJECTION_FIELD = "PROJECTION";
+    public final static String CURSOR_READER_CLASS_NAME = "CursorReader";
+
+    private final static String INDEX_FIELD_SUFFIX = "Index";
+
+    public static List<FieldSpec> composeProjectionFields(String tableName,
+                                                          List<ColumnSpecs> columns) {
+        List<FieldSpec> fields = new ArrayList<>();
+
+        fields.add(SchemaSpecs.composeTableNameField(tableName));
+
+        StringBuilder initializer = new StringBuilder("{");
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            initializer.append(i == 0 ? "$S" : ", $S");
+            args.add(columns.get(i).columnName);
+        }
+        initializer.append("}");
+
+        fields.add(FieldSpec.builder(String[].class,
+                PROJECTION_FIELD,
+                Modifier.PUBLIC,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer(initializer.toString(), args.toArray())
+                .build());
+
+        fields.addAll(ColumnSpecs.composeSupportFields(columns));
+
+        for (ColumnSpecs column: columns) {
+            fields.add(FieldSpec.builder(getProjectedTypeName(column),
+                    column.varName,
+                    Modifier.PRIVATE,
+                    Modifier.FINAL)
+                    .build());
+        }
+
+        return fields;
+    }
+
+    public static MethodSpec composeConstructor(List<ColumnSpecs> columns) {
+        MethodSpec.Builder builder = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC);
+
+        String paramName;
+        for (ColumnSpecs column: columns) {
+            paramName = ColumnSpecs.getParameterName(column);
+
+            builder.addParameter(getProjectedTypeName(column), paramName);
+            builder.addStatement("this.$L = $L", column.varName, paramName);
+        }
+
+        return builder.build();
+    }
+
+    public static List<MethodSpec> composeGetterMethods(List<ColumnSpecs> columns) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        for (ColumnSpecs column: columns) {
+            methods.add(MethodSpec.methodBuilder(column.getterMethodSpec.name)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(getProjectedTypeName(column))
+                    .addStatement("return this.$L", column.varName)
+                    .build());
+        }
+
+        return methods;
+    }
+
+    public static TypeSpec composeCursorReaderType(ClassName generatedClassName,
+                                                   List<ColumnSpecs> columns) {
+        ClassName cursorClassName = ClassName.get(
+                CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(CURSOR_READER_CLASS_NAME)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
+
+        MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(cursorClassName, "c");
+
+        MethodSpec.Builder readBuilder = MethodSpec.methodBuilder("read")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(cursorClassName, "c")
+                .returns(generatedClassName);
+
+        StringBuilder arguments = new StringBuilder();
+
+        String indexName;
+        String paramName;
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnSpecs column = columns.get(i);
+
+            indexName = "m" + ColumnSpecs.getAccessorStem(column) + INDEX_FIELD_SUFFIX;
+            paramName = ColumnSpecs.getParameterName(column);
+
+            builder.addField(FieldSpec.builder(TypeName.INT, indexName,
+                    Modifier.PRIVATE, Modifier.FINAL).build());
+
+            constructorBuilder.addStatement("$L = c.getColumnIndex($S)",
+                    indexName, column.columnName);
+
+            if (column.typeSpecs.isNullableValue()
+                    || ColumnSpecs.hasPresenceBit(column)) {
+                readBuilder.addStatement("final $T $L = ($L >= 0 && !c.isNull($L) ? $L : null)",
+                        getProjectedTypeName(column), paramName, indexName, indexName,
+                        composeReadValue(column, indexName));
+            } else if (column.storageTypeName == TypeName.BOOLEAN) {
+                readBuilder.addStatement("final $T $L = ($L >= 0 && c.$L($L) == 1)",
+                        column.valueTypeName, paramName,
+                        indexName, column.cursorGetterName, indexName);
+            } else {
+                readBuilder.addStatement("final $T $L = ($L >= 0 ? $L : $L)",
+                        column.valueTypeName, paramName, indexName,
+                        ColumnSpecs.composeFromStorage(column, CodeBlock.of("c.$L($L)",
+                                column.cursorGetterName, indexName)),
+                        CursorSpecs.getDefaultValue(column));
+            }
+
+            if (i > 0) {
+                arguments.append(", ");
+            }
+            arguments.append(paramName);
+        }
+
+        readBuilder.addStatement("return new $T($L)", generatedClassName, arguments.toString());
+
+        return builder.addMethod(constructorBuilder.build())
+                .addMethod(readBuilder.build())
+                .build();
+    }
+
+    public static MethodSpec composeReadAllMethod(ClassName generatedClassName) {
+        TypeName listTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), generatedClassName);
+
+        return MethodSpec.methodBuilder("readAll")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor"),
+                        "c")
+                .returns(listTypeName)
+                .beginControlFlow("if (c == null)")
+                .addStatement("return new $T<$T>()", ArrayList.class, generatedClassName)
+                .endControlFlow()
+                .addStatement("final $T projections = new $T<$T>(c.getCount())",
+                        listTypeName, ArrayList.class, generatedClassName)
+                .addStatement("final $L reader = new $L(c)",
+                        CURSOR_READER_CLASS_NAME, CURSOR_READER_CLASS_NAME)
+                .beginControlFlow("while (c.moveToNext())")
+                .addStatement("projections.add(reader.read(c))")
+                .endControlFlow()
+                .addStatement("return projections")
+                .build();
+    }
+
+    public static MethodSpec composeQueryMethod(ClassName generatedClassName) {
+        TypeName listTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), generatedClassName);
+        ClassName cursorClassName = ClassName.get(
+                CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+
+        return MethodSpec.methodBuilder("query")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ClassName.get(CommonVariables.ANDROID_SQLITE_PACKAGE,
+                        "SQLiteDatabase"), "db")
+                .addParameter(String.class, "selection")
+                .addParameter(String[].class, "selectionArgs")
+                .addParameter(String.class, "orderBy")
+                .returns(listTypeName)
+                .addStatement("final $T c = db.query($L, $L, selection, selectionArgs, null, null, orderBy)",
+                        cursorClassName, SchemaSpecs.TABLE_NAME_FIELD, PROJECTION_FIELD)
+                .beginControlFlow("try")
+                .addStatement("return readAll(c)")
+                .nextControlFlow("finally")
+                .beginControlFlow("if (c != null)")
+                .addStatement("c.close()")
+                .endControlFlow()
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * A projection has no presence bits, so a nullable column stored as a
+     * primitive is projected boxed and reads NULL as null, not as 0.
+     */
+    private static TypeName getProjectedTypeName(ColumnSpecs column) {
+        if (ColumnSpecs.hasPresenceBit(column)) {
+            return column.valueTypeName.box();
+        }
+
+        return column.valueTypeName;
+    }
+
+    private static CodeBlock composeReadValue(ColumnSpecs column, String indexName) {
+        if (column.storageTypeName == TypeName.BOOLEAN) {
+            return CodeBlock.of("c.$L($L) == 1", column.cursorGetterName, indexName);
+        }
+
+        return ColumnSpecs.composeFromStorage(column, CodeBlock.of("c.$L($L)",
+                column.cursorGetterName, indexName));
+    }
+
+}
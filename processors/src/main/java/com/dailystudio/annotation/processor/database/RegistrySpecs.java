@@ -0,0 +1,325 @@
+package com.dailystudio.annotation.processor.database;
+
+import androidx.annotation.Keep;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class RegistrySpecs {
+
+    public final static String REGISTRY_CLASS_NAME = "DBObjectRegistry";
+    public final static String ENTITY_CLASS_NAME = "Entity";
+
+    private final static String ENTITIES_FIELD = "ENTITIES";
+
+    public static class EntitySpecs {
+
+        public String sourceClassName;
+        public ClassName generatedClassName;
+        public String tableName;
+        public int latestVersion;
+
+        public EntitySpecs(String sourceClassName,
+                           ClassName generatedClassName,
+                           String tableName,
+                           int latestVersion) {
+            this.sourceClassName = sourceClassName;
+            this.generatedClassName = generatedClassName;
+            this.tableName = tableName;
+            this.latestVersion = latestVersion;
+        }
+
+    }
+
+    public static String getRegistryPackage(List<EntitySpecs> entities) {
+        String common = null;
+        String packageName;
+        for (EntitySpecs entity: entities) {
+            packageName = entity.generatedClassName.packageName();
+            if (common == null) {
+                common = packageName;
+                continue;
+            }
+
+            while (!common.isEmpty()
+                    && !packageName.equals(common)
+                    && !packageName.startsWith(common + ".")) {
+                int lastDot = common.lastIndexOf('.');
+                common = (lastDot < 0 ? "" : common.substring(0, lastDot));
+            }
+        }
+
+        return (common == null ? "" : common);
+    }
+
+    /**
+     * Sorts entities by table name, then by generated class name, so the
+     * registry does not depend on the order entities were found in.
+     */
+    public static void sortEntities(List<EntitySpecs> entities) {
+        Collections.sort(entities, new Comparator<EntitySpecs>() {
+            @Override
+            public int compare(EntitySpecs e1, EntitySpecs e2) {
+                int result = e1.tableName.compareTo(e2.tableName);
+                if (result != 0) {
+                    return result;
+                }
+
+                return e1.generatedClassName.toString().compareTo(
+                        e2.generatedClassName.toString());
+            }
+        });
+    }
+
+    /**
+     * Returns the first two sorted entities which map to the same table,
+     * or null. Table names come from simple class names, so entities of
+     * the same name in different packages collide.
+     */
+    public static EntitySpecs[] findTableConflict(List<EntitySpecs> entities) {
+        for (int i = 1; i < entities.size(); i++) {
+            if (entities.get(i).tableName.equals(entities.get(i - 1).tableName)) {
+                return new EntitySpecs[] { entities.get(i - 1), entities.get(i) };
+            }
+        }
+
+        return null;
+    }
+
+    public static TypeSpec.Builder composeRegistryTypeBuilder(ClassName registryClassName,
+                                                              List<EntitySpecs> entities) {
+        return TypeSpec.classBuilder(registryClassName)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addAnnotation(Keep.class)
+                .addType(composeEntityType())
+                .addField(composeEntitiesField(entities))
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build())
+                .addMethods(composeRegistryMethods(entities));
+    }
+
+    public static TypeSpec composeEntityType() {
+        ClassName entityClassName = ClassName.bestGuess(ENTITY_CLASS_NAME);
+        TypeName objectClassTypeName = getObjectClassTypeName();
+
+        MethodSpec constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(String.class, "tableName")
+                .addParameter(TypeName.INT, "latestVersion")
+                .addParameter(String[].class, "columnNames")
+                .addParameter(objectClassTypeName, "objectClass")
+                .addStatement("this.tableName = tableName")
+                .addStatement("this.latestVersion = latestVersion")
+                .addStatement("this.columnNames = columnNames")
+                .addStatement("this.objectClass = objectClass")
+                .build();
+
+        return TypeSpec.classBuilder(entityClassName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.ABSTRACT)
+                .addField(String.class, "tableName", Modifier.PUBLIC, Modifier.FINAL)
+                .addField(TypeName.INT, "latestVersion", Modifier.PUBLIC, Modifier.FINAL)
+                .addField(String[].class, "columnNames", Modifier.PUBLIC, Modifier.FINAL)
+                .addField(objectClassTypeName, "objectClass", Modifier.PUBLIC, Modifier.FINAL)
+                .addMethod(constructor)
+                .addMethod(composeAbstractMethod("newObject", getDatabaseObjectClassName())
+                        .addParameter(getContextClassName(), "context")
+                        .addParameter(TypeName.INT, "version")
+                        .build())
+                .addMethod(composeAbstractMethod("getCreateTableSQL", ClassName.get(String.class))
+                        .addParameter(TypeName.INT, "version")
+                        .build())
+                .addMethod(composeAbstractMethod("getCreateIndexSQL",
+                        ArrayTypeName.of(String.class))
+                        .addParameter(TypeName.INT, "version")
+                        .build())
+                .addMethod(composeAbstractMethod("getUpgradeSQL",
+                        ArrayTypeName.of(String.class))
+                        .addParameter(TypeName.INT, "fromVersion")
+                        .build())
+                .build();
+    }
+
+    public static FieldSpec composeEntitiesField(List<EntitySpecs> entities) {
+        ClassName entityClassName = ClassName.bestGuess(ENTITY_CLASS_NAME);
+
+        CodeBlock.Builder initializer = CodeBlock.builder()
+                .add("{\n")
+                .indent();
+
+        for (int i = 0; i < entities.size(); i++) {
+            initializer.add("$L", composeEntity(entities.get(i)));
+            initializer.add(i < entities.size() - 1 ? ",\n" : "\n");
+        }
+
+        initializer.unindent().add("}");
+
+        return FieldSpec.builder(ArrayTypeName.of(entityClassName),
+                ENTITIES_FIELD,
+                Modifier.PRIVATE,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer(initializer.build())
+                .build();
+    }
+
+    public static List<MethodSpec> composeRegistryMethods(List<EntitySpecs> entities) {
+        ClassName entityClassName = ClassName.bestGuess(ENTITY_CLASS_NAME);
+
+        List<MethodSpec> methods = new ArrayList<>();
+
+        methods.add(MethodSpec.methodBuilder("getEntityCount")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(TypeName.INT)
+                .addStatement("return $L.length", ENTITIES_FIELD)
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("getEntity")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeName.INT, "index")
+                .returns(entityClassName)
+                .addStatement("return $L[index]", ENTITIES_FIELD)
+                .build());
+
+        MethodSpec.Builder findBuilder = MethodSpec.methodBuilder("findEntity")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(String.class, "tableName")
+                .returns(entityClassName)
+                .beginControlFlow("if (tableName == null)")
+                .addStatement("return null")
+                .endControlFlow()
+                .beginControlFlow("switch (tableName)");
+
+        for (int i = 0; i < entities.size(); i++) {
+            findBuilder.addStatement("case $S: return $L[$L]",
+                    entities.get(i).tableName, ENTITIES_FIELD, i);
+        }
+
+        methods.add(findBuilder.addStatement("default: return null")
+                .endControlFlow()
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("findEntity")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getObjectClassTypeName(), "objectClass")
+                .returns(entityClassName)
+                .beginControlFlow("for ($T entity: $L)", entityClassName, ENTITIES_FIELD)
+                .beginControlFlow("if (entity.objectClass == objectClass)")
+                .addStatement("return entity")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return null")
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("createAll")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(WriteSpecs.getDatabaseClassName(), "db")
+                .addStatement("db.beginTransaction()")
+                .beginControlFlow("try")
+                .beginControlFlow("for ($T entity: $L)", entityClassName, ENTITIES_FIELD)
+                .addStatement("final $T sql = entity.getCreateTableSQL(entity.latestVersion)",
+                        String.class)
+                .beginControlFlow("if (sql != null)")
+                .addStatement("db.execSQL(sql)")
+                .endControlFlow()
+                .beginControlFlow("for ($T indexSQL: entity.getCreateIndexSQL(entity.latestVersion))",
+                        String.class)
+                .addStatement("db.execSQL(indexSQL)")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("db.setTransactionSuccessful()")
+                .nextControlFlow("finally")
+                .addStatement("db.endTransaction()")
+                .endControlFlow()
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("upgradeAll")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(WriteSpecs.getDatabaseClassName(), "db")
+                .addParameter(TypeName.INT, "fromVersion")
+                .addStatement("db.beginTransaction()")
+                .beginControlFlow("try")
+                .beginControlFlow("for ($T entity: $L)", entityClassName, ENTITIES_FIELD)
+                .beginControlFlow("for ($T sql: entity.getUpgradeSQL(fromVersion))",
+                        String.class)
+                .addStatement("db.execSQL(sql)")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("db.setTransactionSuccessful()")
+                .nextControlFlow("finally")
+                .addStatement("db.endTransaction()")
+                .endControlFlow()
+                .build());
+
+        return methods;
+    }
+
+    private static TypeSpec composeEntity(EntitySpecs entity) {
+        ClassName generatedClassName = entity.generatedClassName;
+
+        return TypeSpec.anonymousClassBuilder("$S, $L, $T.$L, $T.class",
+                entity.tableName, entity.latestVersion,
+                generatedClassName, SchemaSpecs.COLUMN_NAMES_FIELD,
+                generatedClassName)
+                .superclass(ClassName.bestGuess(ENTITY_CLASS_NAME))
+                .addMethod(composeOverrideMethod("newObject", getDatabaseObjectClassName())
+                        .addParameter(getContextClassName(), "context")
+                        .addParameter(TypeName.INT, "version")
+                        .addStatement("return new $T(context, version)", generatedClassName)
+                        .build())
+                .addMethod(composeOverrideMethod("getCreateTableSQL", ClassName.get(String.class))
+                        .addParameter(TypeName.INT, "version")
+                        .addStatement("return $T.getCreateTableSQL(version)", generatedClassName)
+                        .build())
+                .addMethod(composeOverrideMethod("getCreateIndexSQL",
+                        ArrayTypeName.of(String.class))
+                        .addParameter(TypeName.INT, "version")
+                        .addStatement("return $T.getCreateIndexSQL(version)", generatedClassName)
+                        .build())
+                .addMethod(composeOverrideMethod("getUpgradeSQL",
+                        ArrayTypeName.of(String.class))
+                        .addParameter(TypeName.INT, "fromVersion")
+                        .addStatement("return $T.getUpgradeSQL(fromVersion)", generatedClassName)
+                        .build())
+                .build();
+    }
+
+    private static MethodSpec.Builder composeAbstractMethod(String name, TypeName returnType) {
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .returns(returnType);
+    }
+
+    private static MethodSpec.Builder composeOverrideMethod(String name, TypeName returnType) {
+        return MethodSpec.methodBuilder(name)
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(returnType);
+    }
+
+    private static TypeName getObjectClassTypeName() {
+        return ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(getDatabaseObjectClassName()));
+    }
+
+    private static ClassName getDatabaseObjectClassName() {
+        return ClassName.get(CommonVariables.DATABASE_OBJECT_PACKAGE, "DatabaseObject");
+    }
+
+    private static ClassName getContextClassName() {
+        return ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context");
+    }
+
+}
@@ -0,0 +1,320 @@
+package com.dailystudio.annotation.processor.database;
+
+import androidx.annotation.Keep;
+import com.dailystudio.annotation.DBRelation;
+import com.dailystudio.annotation.processor.utils.LogUtils;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A @DBRelation of an entity. keyColumn is the column of the entity whose
+ * values are collected from a collection of objects, targetKeyColumn the
+ * column of the target they are matched against in IN (...) queries. Both
+ * are null until resolveColumns(), which needs the columns of the target.
+ */
+public class RelationSpecs {
+
+    public String name;
+    public DBRelation.Type type = DBRelation.Type.MANY_TO_ONE;
+
+    public ClassName targetClassName;
+    public String targetTableName;
+
+    public ColumnSpecs keyColumn;
+    public ColumnSpecs targetKeyColumn;
+
+    private RelationSpecs() {
+
+    }
+
+    /**
+     * Builds the relation from the plain @DBRelation values that do not
+     * depend on the target. Reports an error and returns null when the
+     * name is missing.
+     */
+    public static RelationSpecs fromDefinition(String typeName,
+                                               String name,
+                                               DBRelation.Type type,
+                                               ClassName targetClassName,
+                                               String targetTableName) {
+        if (name == null || name.isEmpty()) {
+            LogUtils.error("%s: relation without name", typeName);
+
+            return null;
+        }
+
+        RelationSpecs specs = new RelationSpecs();
+
+        specs.name = name;
+        specs.type = (type == null ? DBRelation.Type.MANY_TO_ONE : type);
+        specs.targetClassName = targetClassName;
+        specs.targetTableName = targetTableName;
+
+        return specs;
+    }
+
+    /**
+     * Resolves keyColumn and targetKeyColumn against the columns of both
+     * sides. Reports an error and returns false when a column is missing
+     * or not an int or long.
+     */
+    public static boolean resolveColumns(RelationSpecs specs,
+                                         String typeName,
+                                         String column,
+                                         String referencedColumn,
+                                         List<ColumnSpecs> columns,
+                                         List<ColumnSpecs> targetColumns) {
+        String name = specs.name;
+
+        List<ColumnSpecs> referencingColumns;
+        List<ColumnSpecs> referencedColumns;
+        if (specs.type == DBRelation.Type.ONE_TO_MANY) {
+            referencingColumns = targetColumns;
+            referencedColumns = columns;
+        } else {
+            referencingColumns = columns;
+            referencedColumns = targetColumns;
+        }
+
+        ColumnSpecs referencing = IndexSpecs.findColumn(referencingColumns, column);
+        if (referencing == null) {
+            LogUtils.error("%s: relation [%s] column [%s] is not a @DBColumn",
+                    typeName, name, column);
+
+            return false;
+        }
+
+        ColumnSpecs referenced;
+        if (referencedColumn == null || referencedColumn.isEmpty()) {
+            referenced = getPrimaryColumn(referencedColumns);
+            if (referenced == null) {
+                LogUtils.error("%s: relation [%s] requires a single primary column "
+                        + "or a referencedColumn", typeName, name);
+
+                return false;
+            }
+        } else {
+            referenced = IndexSpecs.findColumn(referencedColumns, referencedColumn);
+            if (referenced == null) {
+                LogUtils.error("%s: relation [%s] referenced column [%s] is not a @DBColumn",
+                        typeName, name, referencedColumn);
+
+                return false;
+            }
+        }
+
+        if (!isKeyColumn(referencing) || !isKeyColumn(referenced)) {
+            LogUtils.error("%s: relation [%s] requires int or long columns, "
+                    + "but [%s] is %s and [%s] is %s",
+                    typeName, name,
+                    referencing.columnName, referencing.valueTypeName,
+                    referenced.columnName, referenced.valueTypeName);
+
+            return false;
+        }
+
+        if (specs.type == DBRelation.Type.ONE_TO_MANY) {
+            specs.keyColumn = referenced;
+            specs.targetKeyColumn = referencing;
+        } else {
+            specs.keyColumn = referencing;
+            specs.targetKeyColumn = referenced;
+        }
+
+        return true;
+    }
+
+    /**
+     * Composes [Entity]DBRelations, holding the loaders of the resolved
+     * relations of one entity.
+     */
+    public static TypeSpec.Builder composeRelationsTypeBuilder(ClassName relationsClassName,
+                                                               ClassName generatedClassName,
+                                                               List<RelationSpecs> relations) {
+        TypeSpec.Builder classBuilder = TypeSpec.classBuilder(relationsClassName)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addAnnotation(Keep.class);
+
+        Set<String> loadMethodNames = new HashSet<>();
+        for (RelationSpecs relation: relations) {
+            if (loadMethodNames.add(getLoadMethodName(relation))) {
+                classBuilder.addField(composeLoadSQLField(relation));
+            }
+        }
+
+        classBuilder.addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .build());
+
+        loadMethodNames.clear();
+        for (RelationSpecs relation: relations) {
+            if (loadMethodNames.add(getLoadMethodName(relation))) {
+                classBuilder.addMethod(composeLoadMethod(generatedClassName, relation));
+            }
+        }
+
+        return classBuilder;
+    }
+
+    /**
+     * Composes load[Name](context, db, objects) of the entity, which only
+     * delegates to [Entity]DBRelations. Its signature depends on the
+     * @DBRelation values alone, not on the columns of the target.
+     */
+    public static MethodSpec composeDelegateMethod(ClassName generatedClassName,
+                                                   ClassName relationsClassName,
+                                                   RelationSpecs relation) {
+        return composeLoadMethodBuilder(generatedClassName, relation)
+                .addStatement("return $T.$L(context, db, objects)",
+                        relationsClassName, getLoadMethodName(relation))
+                .build();
+    }
+
+    private static FieldSpec composeLoadSQLField(RelationSpecs relation) {
+        return FieldSpec.builder(String.class,
+                getLoadSQLFieldName(relation),
+                Modifier.PRIVATE,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$S", "SELECT * FROM " + relation.targetTableName
+                        + " WHERE " + relation.targetKeyColumn.columnName + " IN ")
+                .build();
+    }
+
+    /**
+     * Composes load[Name](context, db, objects). Keys are collected into a
+     * long[], sorted and deduplicated, and queried in chunks of at most
+     * RelationUtils.MAX_CHUNK_SIZE. The result maps each key to the
+     * related target, or to the list of them for ONE_TO_MANY.
+     */
+    private static MethodSpec composeLoadMethod(ClassName generatedClassName,
+                                                RelationSpecs relation) {
+        ClassName cursorClassName =
+                ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+        ClassName relationUtilsClassName =
+                ClassName.get(CacheSpecs.SUPPORT_PACKAGE, "RelationUtils");
+
+        ClassName targetClassName = relation.targetClassName;
+        TypeName targetListTypeName = ParameterizedTypeName.get(
+                ClassName.get(List.class), targetClassName);
+
+        boolean toMany = (relation.type == DBRelation.Type.ONE_TO_MANY);
+        TypeName mapTypeName = getMapTypeName(relation);
+
+        String keyGetter = relation.keyColumn.getterMethodSpec.name;
+        String targetKeyGetter = relation.targetKeyColumn.getterMethodSpec.name;
+
+        MethodSpec.Builder builder = composeLoadMethodBuilder(generatedClassName, relation)
+                .addStatement("final long[] keys = new long[objects.size()]")
+                .addStatement("int count = 0")
+                .beginControlFlow("for ($T object: objects)", generatedClassName)
+                .beginControlFlow("if (object != null)")
+                .addStatement("keys[count++] = object.$L()", keyGetter)
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("count = $T.sortUnique(keys, count)", relationUtilsClassName)
+                .addStatement("final $T related = new $T(count)", mapTypeName, mapTypeName)
+                .beginControlFlow("for (int start = 0; start < count; start += $T.MAX_CHUNK_SIZE)",
+                        relationUtilsClassName)
+                .addStatement("final int size = $T.min(count - start, $T.MAX_CHUNK_SIZE)",
+                        Math.class, relationUtilsClassName)
+                .addStatement("final $T c = db.rawQuery($T.composeInSQL($L, size), "
+                                + "$T.toArgs(keys, start, size))",
+                        cursorClassName, relationUtilsClassName, getLoadSQLFieldName(relation),
+                        relationUtilsClassName)
+                .beginControlFlow("try")
+                .beginControlFlow("for ($T target: $T.readAll(context, c))",
+                        targetClassName, targetClassName);
+
+        if (toMany) {
+            builder.addStatement("$T targets = related.get(target.$L())",
+                    targetListTypeName, targetKeyGetter)
+                    .beginControlFlow("if (targets == null)")
+                    .addStatement("targets = new $T<$T>()", ArrayList.class, targetClassName)
+                    .addStatement("related.put(target.$L(), targets)", targetKeyGetter)
+                    .endControlFlow()
+                    .addStatement("targets.add(target)");
+        } else {
+            builder.addStatement("related.put(target.$L(), target)", targetKeyGetter);
+        }
+
+        return builder.endControlFlow()
+                .nextControlFlow("finally")
+                .beginControlFlow("if (c != null)")
+                .addStatement("c.close()")
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return related")
+                .build();
+    }
+
+    private static MethodSpec.Builder composeLoadMethodBuilder(ClassName generatedClassName,
+                                                               RelationSpecs relation) {
+        ClassName contextClassName =
+                ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context");
+        ClassName databaseClassName =
+                ClassName.get(CommonVariables.ANDROID_SQLITE_PACKAGE, "SQLiteDatabase");
+
+        return MethodSpec.methodBuilder(getLoadMethodName(relation))
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(contextClassName, "context")
+                .addParameter(databaseClassName, "db")
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class),
+                        generatedClassName), "objects")
+                .returns(getMapTypeName(relation));
+    }
+
+    private static TypeName getMapTypeName(RelationSpecs relation) {
+        TypeName valueTypeName = (relation.type == DBRelation.Type.ONE_TO_MANY
+                ? ParameterizedTypeName.get(ClassName.get(List.class), relation.targetClassName)
+                : relation.targetClassName);
+
+        return ParameterizedTypeName.get(
+                ClassName.get(CacheSpecs.SUPPORT_PACKAGE, "LongObjectMap"), valueTypeName);
+    }
+
+    public static String getLoadMethodName(RelationSpecs relation) {
+        return "load" + Character.toUpperCase(relation.name.charAt(0))
+                + relation.name.substring(1);
+    }
+
+    private static String getLoadSQLFieldName(RelationSpecs relation) {
+        return "LOAD_" + relation.name.replaceAll("([a-z0-9])([A-Z])", "$1_$2")
+                .toUpperCase() + "_SQL";
+    }
+
+    private static ColumnSpecs getPrimaryColumn(List<ColumnSpecs> columns) {
+        ColumnSpecs primaryColumn = null;
+        for (ColumnSpecs column: columns) {
+            if (!column.primary) {
+                continue;
+            }
+
+            if (primaryColumn != null) {
+                return null;
+            }
+
+            primaryColumn = column;
+        }
+
+        return primaryColumn;
+    }
+
+    private static boolean isKeyColumn(ColumnSpecs column) {
+        return column.valueTypeName == TypeName.INT
+                || column.valueTypeName == TypeName.LONG;
+    }
+
+}
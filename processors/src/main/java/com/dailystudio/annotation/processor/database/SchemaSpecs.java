@@ -0,0 +1,442 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.dailystudio.annotation.processor.utils.LogUtils;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SchemaSpecs {
+
+    public final static String TABLE_NAME_FIELD = "TABLE_NAME";
+    public final static String COLUMN_COUNT_FIELD = "COLUMN_COUNT";
+    public final static String COLUMN_NAMES_FIELD = "COLUMN_NAMES";
+
+    private final static String EMPTY_SQL_FIELD = "SQL_NONE";
+
+    public static boolean checkMigrations(String typeName, List<ColumnSpecs> columns) {
+        if (columns == null || columns.isEmpty()) {
+            return true;
+        }
+
+        int baseVersion = getBaseVersion(columns);
+
+        boolean valid = true;
+        for (ColumnSpecs column: columns) {
+            if (column.version <= baseVersion) {
+                continue;
+            }
+
+            if (column.primary) {
+                LogUtils.error("%s: primary column [%s] is added in version %d, "
+                        + "which can not be migrated by ALTER TABLE",
+                        typeName, column.columnName, column.version);
+                valid = false;
+            } else if (!column.allowNull) {
+                LogUtils.error("%s: non-null column [%s] is added in version %d, "
+                        + "which can not be migrated by ALTER TABLE",
+                        typeName, column.columnName, column.version);
+                valid = false;
+            }
+        }
+
+        return valid;
+    }
+
+    public static FieldSpec composeTableNameField(String tableName) {
+        return FieldSpec.builder(ClassName.get(String.class),
+                TABLE_NAME_FIELD,
+                Modifier.PUBLIC,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$S", tableName)
+                .build();
+    }
+
+    public static List<FieldSpec> composeColumnNamesFields(List<ColumnSpecs> columns) {
+        List<FieldSpec> namesFields = new ArrayList<>();
+
+        namesFields.add(FieldSpec.builder(TypeName.INT,
+                COLUMN_COUNT_FIELD,
+                Modifier.PUBLIC,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$L", columns.size())
+                .build());
+
+        List<String> names = new ArrayList<>();
+        for (ColumnSpecs column: columns) {
+            names.add(column.columnName);
+        }
+
+        namesFields.add(composeStatementsField(COLUMN_NAMES_FIELD, names));
+
+        return namesFields;
+    }
+
+    public static List<FieldSpec> composeSchemaFields(String tableName,
+                                                      List<ColumnSpecs> columns,
+                                                      List<IndexSpecs> indexes,
+                                                      int latestVersion) {
+        List<FieldSpec> schemaFields = new ArrayList<>();
+
+        schemaFields.add(FieldSpec.builder(ArrayTypeName.of(String.class),
+                EMPTY_SQL_FIELD,
+                Modifier.PRIVATE,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("{}")
+                .build());
+
+        List<Integer> versions = getColumnVersions(columns);
+        if (versions.isEmpty()) {
+            return schemaFields;
+        }
+
+        for (int ver: versions) {
+            schemaFields.add(FieldSpec.builder(ClassName.get(String.class),
+                    getCreateTableFieldName(ver),
+                    Modifier.PUBLIC,
+                    Modifier.STATIC,
+                    Modifier.FINAL)
+                    .initializer("$S", composeCreateTableSQL(tableName, columns, ver))
+                    .build());
+        }
+
+        for (int ver: getIndexVersions(columns, indexes)) {
+            schemaFields.add(composeStatementsField(getCreateIndexesFieldName(ver),
+                    composeCreateIndexSQLs(tableName, columns, indexes, ver)));
+        }
+
+        int maxVersion = getMaxVersion(columns, indexes, latestVersion);
+        for (int from = CommonVariables.DEFAULT_VERSION; from < maxVersion; from++) {
+            List<String> statements = composeUpgradeSQLs(tableName,
+                    columns, indexes, from, maxVersion);
+            if (statements.isEmpty()) {
+                continue;
+            }
+
+            schemaFields.add(composeStatementsField(getUpgradeFieldName(from), statements));
+        }
+
+        return schemaFields;
+    }
+
+    public static MethodSpec composeGetCreateTableSQLMethod(List<ColumnSpecs> columns,
+                                                            int latestVersion) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getCreateTableSQL")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeName.INT, "version")
+                .returns(String.class);
+
+        List<Integer> versions = getColumnVersions(columns);
+        if (versions.isEmpty()) {
+            return builder.addStatement("return null").build();
+        }
+
+        int maxVersion = getMaxVersion(columns, null, latestVersion);
+
+        builder.beginControlFlow("switch (version)");
+
+        int createVer = 0;
+        for (int ver = versions.get(0); ver <= maxVersion; ver++) {
+            if (versions.contains(ver)) {
+                createVer = ver;
+            }
+
+            builder.addStatement("case $L: return $L", ver, getCreateTableFieldName(createVer));
+        }
+
+        builder.addStatement("default: return null");
+        builder.endControlFlow();
+
+        return builder.build();
+    }
+
+    public static MethodSpec composeGetCreateIndexSQLMethod(List<ColumnSpecs> columns,
+                                                            List<IndexSpecs> indexes,
+                                                            int latestVersion) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getCreateIndexSQL")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeName.INT, "version")
+                .returns(ArrayTypeName.of(String.class));
+
+        List<Integer> versions = getIndexVersions(columns, indexes);
+        if (versions.isEmpty()) {
+            return builder.addStatement("return $L", EMPTY_SQL_FIELD).build();
+        }
+
+        int maxVersion = getMaxVersion(columns, indexes, latestVersion);
+
+        builder.beginControlFlow("switch (version)");
+
+        int indexVer = 0;
+        for (int ver = versions.get(0); ver <= maxVersion; ver++) {
+            if (versions.contains(ver)) {
+                indexVer = ver;
+            }
+
+            builder.addStatement("case $L: return $L", ver, getCreateIndexesFieldName(indexVer));
+        }
+
+        builder.addStatement("default: return $L", EMPTY_SQL_FIELD);
+        builder.endControlFlow();
+
+        return builder.build();
+    }
+
+    public static MethodSpec composeGetUpgradeSQLMethod(String tableName,
+                                                        List<ColumnSpecs> columns,
+                                                        List<IndexSpecs> indexes,
+                                                        int latestVersion) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("getUpgradeSQL")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeName.INT, "fromVersion")
+                .returns(ArrayTypeName.of(String.class));
+
+        List<Integer> versions = getColumnVersions(columns);
+        if (versions.isEmpty()) {
+            return builder.addStatement("return $L", EMPTY_SQL_FIELD).build();
+        }
+
+        int maxVersion = getMaxVersion(columns, indexes, latestVersion);
+
+        builder.beginControlFlow("switch (fromVersion)");
+
+        for (int from = CommonVariables.DEFAULT_VERSION; from < maxVersion; from++) {
+            if (composeUpgradeSQLs(tableName, columns, indexes, from, maxVersion).isEmpty()) {
+                continue;
+            }
+
+            builder.addStatement("case $L: return $L", from, getUpgradeFieldName(from));
+        }
+
+        builder.addStatement("default: return $L", EMPTY_SQL_FIELD);
+        builder.endControlFlow();
+
+        return builder.build();
+    }
+
+    private static String composeCreateTableSQL(String tableName,
+                                                List<ColumnSpecs> columns,
+                                                int version) {
+        StringBuilder builder = new StringBuilder("CREATE TABLE IF NOT EXISTS ");
+        builder.append(tableName);
+        builder.append(" (");
+
+        List<String> primaryColumns = new ArrayList<>();
+        for (ColumnSpecs column: columns) {
+            if (column.version <= version && column.primary) {
+                primaryColumns.add(column.columnName);
+            }
+        }
+
+        boolean first = true;
+        for (ColumnSpecs column: columns) {
+            if (column.version > version) {
+                continue;
+            }
+
+            if (!first) {
+                builder.append(", ");
+            }
+
+            builder.append(column.columnName);
+            builder.append(" ");
+            builder.append(column.sqlType);
+            if (column.primary && primaryColumns.size() == 1) {
+                builder.append(" PRIMARY KEY");
+            }
+            if (!column.allowNull) {
+                builder.append(" NOT NULL");
+            }
+
+            first = false;
+        }
+
+        if (primaryColumns.size() > 1) {
+            builder.append(", PRIMARY KEY (");
+            for (int i = 0; i < primaryColumns.size(); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+
+                builder.append(primaryColumns.get(i));
+            }
+            builder.append(")");
+        }
+
+        builder.append(")");
+
+        return builder.toString();
+    }
+
+    private static FieldSpec composeStatementsField(String fieldName,
+                                                    List<String> statements) {
+        StringBuilder initializer = new StringBuilder("{");
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < statements.size(); i++) {
+            initializer.append(i == 0 ? "$S" : ", $S");
+            args.add(statements.get(i));
+        }
+        initializer.append("}");
+
+        return FieldSpec.builder(ArrayTypeName.of(String.class),
+                fieldName,
+                Modifier.PUBLIC,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer(initializer.toString(), args.toArray())
+                .build();
+    }
+
+    /**
+     * The FTS table of full-text columns is created along with the
+     * indexes, as it is an index of the entity table as well.
+     */
+    private static List<String> composeCreateIndexSQLs(String tableName,
+                                                       List<ColumnSpecs> columns,
+                                                       List<IndexSpecs> indexes,
+                                                       int version) {
+        List<String> statements = new ArrayList<>();
+
+        for (IndexSpecs index: indexes) {
+            if (index.version <= version) {
+                statements.add(IndexSpecs.composeCreateIndexSQL(tableName, index));
+            }
+        }
+
+        statements.addAll(FullTextSpecs.composeCreateSQLs(tableName,
+                columns, indexes, version));
+
+        return statements;
+    }
+
+    private static List<String> composeUpgradeSQLs(String tableName,
+                                                   List<ColumnSpecs> columns,
+                                                   List<IndexSpecs> indexes,
+                                                   int fromVersion,
+                                                   int toVersion) {
+        List<String> statements = new ArrayList<>();
+
+        if (fromVersion < getBaseVersion(columns)) {
+            statements.add(composeCreateTableSQL(tableName, columns, toVersion));
+            statements.addAll(composeCreateIndexSQLs(tableName, columns, indexes, toVersion));
+
+            return statements;
+        }
+
+        for (ColumnSpecs column: columns) {
+            if (column.version <= fromVersion || column.version > toVersion) {
+                continue;
+            }
+
+            statements.add("ALTER TABLE " + tableName
+                    + " ADD COLUMN " + column.columnName + " " + column.sqlType);
+        }
+
+        for (IndexSpecs index: indexes) {
+            if (index.version <= fromVersion || index.version > toVersion) {
+                continue;
+            }
+
+            statements.add(IndexSpecs.composeCreateIndexSQL(tableName, index));
+        }
+
+        statements.addAll(FullTextSpecs.composeUpgradeSQLs(tableName,
+                columns, indexes, fromVersion, toVersion));
+
+        return statements;
+    }
+
+    private static int getBaseVersion(List<ColumnSpecs> columns) {
+        int baseVersion = Integer.MAX_VALUE;
+        for (ColumnSpecs column: columns) {
+            baseVersion = Math.min(baseVersion, column.version);
+        }
+
+        return baseVersion;
+    }
+
+    static int getMaxVersion(List<ColumnSpecs> columns,
+                             List<IndexSpecs> indexes,
+                             int latestVersion) {
+        int maxVersion = latestVersion;
+        if (columns != null) {
+            for (ColumnSpecs column: columns) {
+                maxVersion = Math.max(maxVersion, column.version);
+                if (column.fullText) {
+                    maxVersion = Math.max(maxVersion, column.fullTextVersion);
+                }
+            }
+        }
+
+        if (indexes != null) {
+            for (IndexSpecs index: indexes) {
+                maxVersion = Math.max(maxVersion, index.version);
+            }
+        }
+
+        return maxVersion;
+    }
+
+    private static List<Integer> getIndexVersions(List<ColumnSpecs> columns,
+                                                  List<IndexSpecs> indexes) {
+        List<Integer> versions = new ArrayList<>();
+        if (indexes == null) {
+            return versions;
+        }
+
+        for (IndexSpecs index: indexes) {
+            if (!versions.contains(index.version)) {
+                versions.add(index.version);
+            }
+        }
+
+        for (int ver: FullTextSpecs.getFullTextVersions(columns)) {
+            if (!versions.contains(ver)) {
+                versions.add(ver);
+            }
+        }
+
+        Collections.sort(versions);
+
+        return versions;
+    }
+
+    static List<Integer> getColumnVersions(List<ColumnSpecs> columns) {
+        List<Integer> versions = new ArrayList<>();
+        if (columns == null) {
+            return versions;
+        }
+
+        for (ColumnSpecs column: columns) {
+            if (!versions.contains(column.version)) {
+                versions.add(column.version);
+            }
+        }
+
+        Collections.sort(versions);
+
+        return versions;
+    }
+
+    private static String getCreateTableFieldName(int version) {
+        return "SQL_CREATE_TABLE_VER" + version;
+    }
+
+    private static String getCreateIndexesFieldName(int version) {
+        return "SQL_CREATE_INDEXES_VER" + version;
+    }
+
+    private static String getUpgradeFieldName(int fromVersion) {
+        return "SQL_UPGRADE_FROM_VER" + fromVersion;
+    }
+
+}
@@ -0,0 +1,358 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar snapshot of a table, the nested Snapshot class. It keeps one
+ * primitive array per column instead of one object per row: int[],
+ * long[] or double[] values of the stored type, packed bits for booleans
+ * and dictionary codes for strings. Nullable columns get a NonNull bitmap
+ * and null string values the code StringDictionary.NULL_CODE. BLOB columns
+ * are left out.
+ *
+ * Filters return row bitmaps of ColumnScans and aggregates skip NULLs,
+ * as in SQL.
+ */
+public class SnapshotSpecs {
+
+    public final static String SNAPSHOT_CLASS_NAME = "Snapshot";
+
+    private final static String SNAPSHOT_SQL_FIELD = "SQL_SNAPSHOT";
+
+    public static List<ColumnSpecs> getSnapshotColumns(List<ColumnSpecs> columns) {
+        List<ColumnSpecs> snapshotColumns = new ArrayList<>();
+
+        for (ColumnSpecs column: columns) {
+            if (!ColumnTypeSpecs.BYTES.equals(column.storageTypeName)) {
+                snapshotColumns.add(column);
+            }
+        }
+
+        return snapshotColumns;
+    }
+
+    public static FieldSpec composeSnapshotSQLField(String tableName,
+                                                    List<ColumnSpecs> columns) {
+        StringBuilder builder = new StringBuilder("SELECT ");
+
+        List<ColumnSpecs> snapshotColumns = getSnapshotColumns(columns);
+        if (snapshotColumns.isEmpty()) {
+            builder.append("NULL");
+        }
+
+        for (int i = 0; i < snapshotColumns.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+
+            builder.append(snapshotColumns.get(i).columnName);
+        }
+
+        builder.append(" FROM ");
+        builder.append(tableName);
+
+        return FieldSpec.builder(String.class,
+                SNAPSHOT_SQL_FIELD,
+                Modifier.PRIVATE,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$S", builder.toString())
+                .build();
+    }
+
+    /**
+     * Composes readSnapshot(c), which fills a snapshot in one pass over
+     * the cursor, and readSnapshot(db) for the whole table.
+     */
+    public static List<MethodSpec> composeReadSnapshotMethods() {
+        ClassName snapshotClassName = ClassName.bestGuess(SNAPSHOT_CLASS_NAME);
+
+        List<MethodSpec> methods = new ArrayList<>();
+
+        methods.add(MethodSpec.methodBuilder("readSnapshot")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getCursorClassName(), "c")
+                .returns(snapshotClassName)
+                .addStatement("return new $T(c)", snapshotClassName)
+                .build());
+
+        methods.add(MethodSpec.methodBuilder("readSnapshot")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(ClassName.get(CommonVariables.ANDROID_SQLITE_PACKAGE,
+                        "SQLiteDatabase"), "db")
+                .returns(snapshotClassName)
+                .addStatement("final $T c = db.rawQuery($L, null)",
+                        getCursorClassName(), SNAPSHOT_SQL_FIELD)
+                .beginControlFlow("try")
+                .addStatement("return new $T(c)", snapshotClassName)
+                .nextControlFlow("finally")
+                .beginControlFlow("if (c != null)")
+                .addStatement("c.close()")
+                .endControlFlow()
+                .endControlFlow()
+                .build());
+
+        return methods;
+    }
+
+    public static TypeSpec composeSnapshotType(List<ColumnSpecs> columns) {
+        ClassName scansClassName = getColumnScansClassName();
+        ClassName dictionaryClassName = getStringDictionaryClassName();
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(SNAPSHOT_CLASS_NAME)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(TypeName.INT, "size",
+                        Modifier.PUBLIC, Modifier.FINAL).build());
+
+        MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(getCursorClassName(), "c")
+                .addStatement("final int size = (c == null ? 0 : c.getCount())");
+
+        CodeBlock.Builder loopBuilder = CodeBlock.builder();
+        CodeBlock.Builder assignBuilder = CodeBlock.builder();
+
+        List<MethodSpec> methods = new ArrayList<>();
+
+        String name;
+        String index;
+        for (ColumnSpecs column: getSnapshotColumns(columns)) {
+            name = ColumnSpecs.getParameterName(column);
+            index = name + "Index";
+
+            constructorBuilder.addStatement("final int $L = (c == null ? -1 : c.getColumnIndex($S))",
+                    index, column.columnName);
+
+            if (isNullable(column) && !ColumnTypeSpecs.STRING.equals(column.storageTypeName)) {
+                addArrayField(builder, constructorBuilder, assignBuilder,
+                        getNonNullName(column), TypeName.LONG,
+                        CodeBlock.of("$T.newBits(size)", scansClassName));
+            }
+
+            if (column.storageTypeName == TypeName.BOOLEAN) {
+                addArrayField(builder, constructorBuilder, assignBuilder,
+                        name + "Bits", TypeName.LONG,
+                        CodeBlock.of("$T.newBits(size)", scansClassName));
+
+                loopBuilder.beginControlFlow("if ($L >= 0 && !c.isNull($L))", index, index)
+                        .beginControlFlow("if (c.$L($L) == 1)", column.cursorGetterName, index)
+                        .addStatement("$T.set($LBits, row)", scansClassName, name)
+                        .endControlFlow();
+                addSetNonNull(loopBuilder, column, scansClassName);
+                loopBuilder.endControlFlow();
+
+                methods.add(composeBooleanFilterMethod(column));
+            } else if (ColumnTypeSpecs.STRING.equals(column.storageTypeName)) {
+                addArrayField(builder, constructorBuilder, assignBuilder,
+                        name + "Codes", TypeName.INT,
+                        CodeBlock.of("new int[size]"));
+
+                constructorBuilder.addStatement("final $T $LDictionary = new $T()",
+                        dictionaryClassName, name, dictionaryClassName);
+                builder.addField(FieldSpec.builder(ArrayTypeName.of(String.class),
+                        name + "Dictionary", Modifier.PUBLIC, Modifier.FINAL).build());
+                assignBuilder.addStatement("this.$LDictionary = $LDictionary.toArray()",
+                        name, name);
+
+                loopBuilder.addStatement("$LCodes[row] = $LDictionary.encode($L >= 0 ? c.$L($L) : null)",
+                        name, name, index, column.cursorGetterName, index);
+
+                if (column.typeSpecs.conversion == ColumnTypeSpecs.Conversion.NONE) {
+                    methods.add(composeStringFilterMethod(column));
+                }
+            } else {
+                addArrayField(builder, constructorBuilder, assignBuilder,
+                        name + "Values", column.storageTypeName,
+                        CodeBlock.of("new $T[size]", column.storageTypeName));
+
+                loopBuilder.beginControlFlow("if ($L >= 0 && !c.isNull($L))", index, index)
+                        .addStatement("$LValues[row] = c.$L($L)",
+                                name, column.cursorGetterName, index);
+                addSetNonNull(loopBuilder, column, scansClassName);
+                loopBuilder.endControlFlow();
+
+                if (isAggregatable(column)) {
+                    methods.addAll(composeNumericMethods(column));
+                }
+            }
+        }
+
+        constructorBuilder.addStatement("int row = 0")
+                .beginControlFlow("while (row < size && c.moveToNext())")
+                .addCode(loopBuilder.build())
+                .addStatement("row++")
+                .endControlFlow()
+                .addStatement("this.size = row")
+                .addCode(assignBuilder.build());
+
+        methods.add(MethodSpec.methodBuilder("count")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(long[].class, "selection")
+                .returns(TypeName.INT)
+                .addStatement("return $T.count(selection, size)", scansClassName)
+                .build());
+
+        return builder.addMethod(constructorBuilder.build())
+                .addMethods(methods)
+                .build();
+    }
+
+    private static void addArrayField(TypeSpec.Builder builder,
+                                      MethodSpec.Builder constructorBuilder,
+                                      CodeBlock.Builder assignBuilder,
+                                      String fieldName,
+                                      TypeName componentTypeName,
+                                      CodeBlock initializer) {
+        TypeName arrayTypeName = ArrayTypeName.of(componentTypeName);
+
+        builder.addField(FieldSpec.builder(arrayTypeName, fieldName,
+                Modifier.PUBLIC, Modifier.FINAL).build());
+
+        constructorBuilder.addStatement("final $T $L = $L", arrayTypeName, fieldName, initializer);
+        assignBuilder.addStatement("this.$L = $L", fieldName, fieldName);
+    }
+
+    private static void addSetNonNull(CodeBlock.Builder loopBuilder,
+                                      ColumnSpecs column,
+                                      ClassName scansClassName) {
+        if (isNullable(column)) {
+            loopBuilder.addStatement("$T.set($L, row)", scansClassName, getNonNullName(column));
+        }
+    }
+
+    /**
+     * filterX(min, max, selection), sumX(selection), minX(selection) and
+     * maxX(selection) over the stored values, the last three also with a
+     * ForkJoinPool for parallel scans.
+     */
+    private static List<MethodSpec> composeNumericMethods(ColumnSpecs column) {
+        ClassName scansClassName = getColumnScansClassName();
+        ClassName poolClassName = ClassName.get("java.util.concurrent", "ForkJoinPool");
+
+        String stem = ColumnSpecs.getAccessorStem(column);
+        String values = ColumnSpecs.getParameterName(column) + "Values";
+        CodeBlock selection = composeSelection(column);
+
+        TypeName boundTypeName = (column.storageTypeName == TypeName.DOUBLE
+                ? TypeName.DOUBLE : TypeName.LONG);
+
+        List<MethodSpec> methods = new ArrayList<>();
+
+        methods.add(MethodSpec.methodBuilder("filter" + stem)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(boundTypeName, "min")
+                .addParameter(boundTypeName, "max")
+                .addParameter(long[].class, "selection")
+                .returns(long[].class)
+                .addStatement("return $T.range($L, size, min, max, $L)",
+                        scansClassName, values, selection)
+                .build());
+
+        for (String op: new String[] { "sum", "min", "max" }) {
+            methods.add(MethodSpec.methodBuilder(op + stem)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(long[].class, "selection")
+                    .returns(boundTypeName)
+                    .addStatement("return $T.$L($L, size, $L)",
+                            scansClassName, op, values, selection)
+                    .build());
+
+            methods.add(MethodSpec.methodBuilder(op + stem)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(long[].class, "selection")
+                    .addParameter(poolClassName, "pool")
+                    .returns(boundTypeName)
+                    .addStatement("return $T.$L($L, size, $L, pool)",
+                            scansClassName, op, values, selection)
+                    .build());
+        }
+
+        return methods;
+    }
+
+    private static MethodSpec composeBooleanFilterMethod(ColumnSpecs column) {
+        ClassName scansClassName = getColumnScansClassName();
+
+        String bits = ColumnSpecs.getParameterName(column) + "Bits";
+        String nonNull = (isNullable(column) ? getNonNullName(column) : "null");
+
+        return MethodSpec.methodBuilder("filter" + ColumnSpecs.getAccessorStem(column))
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(TypeName.BOOLEAN, "value")
+                .addParameter(long[].class, "selection")
+                .returns(long[].class)
+                .addStatement("return $T.and(selection, value ? $L : $T.andNot($L, $L, size))",
+                        scansClassName, bits, scansClassName, nonNull, bits)
+                .build();
+    }
+
+    private static MethodSpec composeStringFilterMethod(ColumnSpecs column) {
+        String name = ColumnSpecs.getParameterName(column);
+
+        return MethodSpec.methodBuilder("filter" + ColumnSpecs.getAccessorStem(column))
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(String.class, "value")
+                .addParameter(long[].class, "selection")
+                .returns(long[].class)
+                .addStatement("return $T.equalTo($LCodes, size, $T.codeOf($LDictionary, value), selection)",
+                        getColumnScansClassName(), name, getStringDictionaryClassName(), name)
+                .build();
+    }
+
+    private static CodeBlock composeSelection(ColumnSpecs column) {
+        if (!isNullable(column)) {
+            return CodeBlock.of("selection");
+        }
+
+        return CodeBlock.of("$T.and(selection, $L)",
+                getColumnScansClassName(), getNonNullName(column));
+    }
+
+    /**
+     * Enum ordinals and converted values are kept, but min/max/sum over
+     * them mean nothing, so they get no helpers.
+     */
+    private static boolean isAggregatable(ColumnSpecs column) {
+        switch (column.typeSpecs.conversion) {
+            case NONE:
+            case CAST:
+            case BOXED:
+            case DATE:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNullable(ColumnSpecs column) {
+        return column.allowNull && !column.primary;
+    }
+
+    private static String getNonNullName(ColumnSpecs column) {
+        return ColumnSpecs.getParameterName(column) + "NonNull";
+    }
+
+    private static ClassName getCursorClassName() {
+        return ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+    }
+
+    private static ClassName getColumnScansClassName() {
+        return ClassName.get(CacheSpecs.SUPPORT_PACKAGE, "ColumnScans");
+    }
+
+    private static ClassName getStringDictionaryClassName() {
+        return ClassName.get(CacheSpecs.SUPPORT_PACKAGE, "StringDictionary");
+    }
+
+}
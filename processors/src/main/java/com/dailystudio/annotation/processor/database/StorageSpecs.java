@@ -0,0 +1,109 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.List;
+
+public class StorageSpecs {
+
+    public static MethodSpec composeSyncFieldsToValuesMethod(List<ColumnSpecs> columns) {
+        if (columns == null) {
+            return null;
+        }
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("syncFieldsToValues")
+                .addModifiers(Modifier.PUBLIC);
+
+        for (ColumnSpecs column: columns) {
+            beginVersionGuard(builder, column);
+
+            if (ColumnSpecs.isNullablePrimitive(column)) {
+                builder.beginControlFlow("if ($L)", ColumnSpecs.composeIsNull(column, ""))
+                        .addStatement("setValue($L, null)", column.fieldSpec.name)
+                        .nextControlFlow("else");
+            }
+
+            if (column.storageTypeName == TypeName.BOOLEAN) {
+                builder.addStatement("setValue($L, ($L ? 1 : 0))",
+                        column.fieldSpec.name, column.storageFieldSpec.name);
+            } else {
+                builder.addStatement("setValue($L, $L)",
+                        column.fieldSpec.name,
+                        ColumnSpecs.composeToStorage(column, column.storageFieldSpec.name));
+            }
+
+            if (ColumnSpecs.isNullablePrimitive(column)) {
+                builder.endControlFlow();
+            }
+
+            endVersionGuard(builder, column);
+        }
+
+        return builder.build();
+    }
+
+    public static MethodSpec composeSyncFieldsFromValuesMethod(List<ColumnSpecs> columns) {
+        if (columns == null) {
+            return null;
+        }
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("syncFieldsFromValues")
+                .addModifiers(Modifier.PUBLIC);
+
+        for (ColumnSpecs column: columns) {
+            beginVersionGuard(builder, column);
+
+            if (ColumnSpecs.isNullablePrimitive(column)) {
+                builder.beginControlFlow("if (getValue($L) == null)", column.fieldSpec.name)
+                        .addStatement("this.$L = $L", column.storageFieldSpec.name,
+                                CursorSpecs.getDefaultValue(column))
+                        .addCode(composePresenceStatement(column, "clearValue"))
+                        .nextControlFlow("else");
+            }
+
+            if (column.storageTypeName == TypeName.BOOLEAN) {
+                builder.addStatement("this.$L = ($L($L) == 1)",
+                        column.storageFieldSpec.name,
+                        column.valueGetterName, column.fieldSpec.name);
+            } else {
+                builder.addStatement("this.$L = $L",
+                        column.storageFieldSpec.name,
+                        ColumnSpecs.composeFromStorage(column, CodeBlock.of("$L($L)",
+                                column.valueGetterName, column.fieldSpec.name)));
+            }
+
+            if (ColumnSpecs.isNullablePrimitive(column)) {
+                builder.addCode(composePresenceStatement(column, "markValue"))
+                        .endControlFlow();
+            }
+
+            endVersionGuard(builder, column);
+        }
+
+        return builder.build();
+    }
+
+    private static CodeBlock composePresenceStatement(ColumnSpecs column, String method) {
+        if (!ColumnSpecs.hasPresenceBit(column)) {
+            return CodeBlock.of("");
+        }
+
+        return CodeBlock.of("$L($L);\n", method, column.ordinalFieldSpec.name);
+    }
+
+    private static void beginVersionGuard(MethodSpec.Builder builder, ColumnSpecs column) {
+        if (column.version > CommonVariables.DEFAULT_VERSION) {
+            builder.beginControlFlow("if (mVersion >= $L)", column.version);
+        }
+    }
+
+    private static void endVersionGuard(MethodSpec.Builder builder, ColumnSpecs column) {
+        if (column.version > CommonVariables.DEFAULT_VERSION) {
+            builder.endControlFlow();
+        }
+    }
+
+}
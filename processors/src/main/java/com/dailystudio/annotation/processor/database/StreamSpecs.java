@@ -0,0 +1,174 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class StreamSpecs {
+
+    public final static String VISITOR_CLASS_NAME = "RowVisitor";
+    public final static String ITERATOR_CLASS_NAME = "FlyweightIterator";
+
+    public static TypeSpec composeVisitorType(ClassName generatedClassName) {
+        return TypeSpec.interfaceBuilder(VISITOR_CLASS_NAME)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addMethod(MethodSpec.methodBuilder("visit")
+                        .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                        .addParameter(generatedClassName, "object")
+                        .returns(TypeName.BOOLEAN)
+                        .build())
+                .build();
+    }
+
+    public static MethodSpec composeForEachMethod(ClassName generatedClassName) {
+        return MethodSpec.methodBuilder("forEach")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getContextClassName(), "context")
+                .addParameter(getCursorClassName(), "c")
+                .addParameter(generatedClassName.nestedClass(VISITOR_CLASS_NAME), "visitor")
+                .returns(TypeName.INT)
+                .beginControlFlow("if (c == null || visitor == null)")
+                .addStatement("return 0")
+                .endControlFlow()
+                .addStatement("final $L binder = new $L(c)",
+                        CursorSpecs.CURSOR_BINDER_CLASS_NAME,
+                        CursorSpecs.CURSOR_BINDER_CLASS_NAME)
+                .addStatement("final $T flyweight = new $T(context)",
+                        generatedClassName, generatedClassName)
+                .addStatement("int count = 0")
+                .beginControlFlow("while (c.moveToNext())")
+                .addStatement("count++")
+                .beginControlFlow("if (!visitor.visit(binder.bind(c, flyweight)))")
+                .addStatement("break")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return count")
+                .build();
+    }
+
+    public static MethodSpec composeIterateMethod(ClassName generatedClassName) {
+        return MethodSpec.methodBuilder("iterate")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getContextClassName(), "context")
+                .addParameter(getCursorClassName(), "c")
+                .returns(ParameterizedTypeName.get(ClassName.get(Iterator.class),
+                        generatedClassName))
+                .addStatement("return new $L(c, new $T(context))",
+                        ITERATOR_CLASS_NAME, generatedClassName)
+                .build();
+    }
+
+    public static TypeSpec composeIteratorType(ClassName generatedClassName) {
+        List<FieldSpec> fields = new ArrayList<>();
+        fields.add(FieldSpec.builder(getCursorClassName(), "mCursor",
+                Modifier.PRIVATE, Modifier.FINAL).build());
+        fields.add(FieldSpec.builder(
+                ClassName.bestGuess(CursorSpecs.CURSOR_BINDER_CLASS_NAME), "mBinder",
+                Modifier.PRIVATE, Modifier.FINAL).build());
+        fields.add(FieldSpec.builder(generatedClassName, "mFlyweight",
+                Modifier.PRIVATE, Modifier.FINAL).build());
+        fields.add(FieldSpec.builder(TypeName.BOOLEAN, "mFetched",
+                Modifier.PRIVATE).build());
+        fields.add(FieldSpec.builder(TypeName.BOOLEAN, "mHasNext",
+                Modifier.PRIVATE).build());
+
+        MethodSpec constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(getCursorClassName(), "c")
+                .addParameter(generatedClassName, "flyweight")
+                .addStatement("mCursor = c")
+                .addStatement("mBinder = (c == null ? null : new $L(c))",
+                        CursorSpecs.CURSOR_BINDER_CLASS_NAME)
+                .addStatement("mFlyweight = flyweight")
+                .build();
+
+        MethodSpec hasNext = MethodSpec.methodBuilder("hasNext")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(TypeName.BOOLEAN)
+                .beginControlFlow("if (!mFetched)")
+                .addStatement("mHasNext = (mCursor != null && mCursor.moveToNext())")
+                .addStatement("mFetched = true")
+                .endControlFlow()
+                .addStatement("return mHasNext")
+                .build();
+
+        MethodSpec next = MethodSpec.methodBuilder("next")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(generatedClassName)
+                .beginControlFlow("if (!hasNext())")
+                .addStatement("throw new $T()", NoSuchElementException.class)
+                .endControlFlow()
+                .addStatement("mFetched = false")
+                .addStatement("return mBinder.bind(mCursor, mFlyweight)")
+                .build();
+
+        MethodSpec remove = MethodSpec.methodBuilder("remove")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("throw new $T()", UnsupportedOperationException.class)
+                .build();
+
+        return TypeSpec.classBuilder(ITERATOR_CLASS_NAME)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Iterator.class),
+                        generatedClassName))
+                .addFields(fields)
+                .addMethod(constructor)
+                .addMethod(hasNext)
+                .addMethod(next)
+                .addMethod(remove)
+                .build();
+    }
+
+    public static MethodSpec composeCopyMethod(ClassName generatedClassName,
+                                               List<ColumnSpecs> columns) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("copy")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(getContextClassName(), "context")
+                .returns(generatedClassName)
+                .addStatement("final $T copy = new $T(context, mVersion)",
+                        generatedClassName, generatedClassName);
+
+        // unset columns are skipped, so the copy keeps NULL rather than 0
+        for (ColumnSpecs column: columns) {
+            if (column.storageFieldSpec == null) {
+                builder.beginControlFlow("if (getValue($L) != null)",
+                        column.fieldSpec.name);
+            } else if (ColumnSpecs.hasPresenceBit(column)) {
+                builder.beginControlFlow("if (hasValue($L))",
+                        column.ordinalFieldSpec.name);
+            }
+
+            builder.addStatement("copy.$L($L())",
+                    column.setterMethodSpec.name, column.getterMethodSpec.name);
+
+            if (column.storageFieldSpec == null || ColumnSpecs.hasPresenceBit(column)) {
+                builder.endControlFlow();
+            }
+        }
+
+        return builder.addStatement("copy.clearDirtyColumns()")
+                .addStatement("return copy")
+                .build();
+    }
+
+    private static ClassName getContextClassName() {
+        return ClassName.get(CommonVariables.ANDROID_CONTENT_PACKAGE, "Context");
+    }
+
+    private static ClassName getCursorClassName() {
+        return ClassName.get(CommonVariables.ANDROID_DATABASE_PACKAGE, "Cursor");
+    }
+
+}
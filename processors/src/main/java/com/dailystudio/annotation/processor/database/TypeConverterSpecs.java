@@ -0,0 +1,136 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.DBTypeConverter;
+import com.dailystudio.annotation.processor.utils.LogUtils;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One static @DBTypeConverter method, converting fromTypeName values
+ * into toTypeName values.
+ */
+public class TypeConverterSpecs {
+
+    public ClassName ownerClassName = null;
+    public String methodName = null;
+    public TypeName fromTypeName = null;
+    public TypeName toTypeName = null;
+
+    private TypeConverterSpecs() {
+
+    }
+
+    public static TypeConverterSpecs fromDefinition(ClassName ownerClassName,
+                                                    String methodName,
+                                                    TypeName fromTypeName,
+                                                    TypeName toTypeName) {
+        if (ownerClassName == null
+                || methodName == null || methodName.isEmpty()
+                || fromTypeName == null || toTypeName == null) {
+            return null;
+        }
+
+        TypeConverterSpecs specs = new TypeConverterSpecs();
+
+        specs.ownerClassName = ownerClassName;
+        specs.methodName = methodName;
+        specs.fromTypeName = fromTypeName;
+        specs.toTypeName = toTypeName;
+
+        return specs;
+    }
+
+    /**
+     * Collects the converters of the classes listed in
+     * {@link DBObject#converters()}.
+     */
+    public static List<TypeConverterSpecs> fromDBObject(DBObject dbObject,
+                                                        Types typeUtils) {
+        if (dbObject == null) {
+            return Collections.emptyList();
+        }
+
+        List<? extends TypeMirror> converterTypes;
+        try {
+            dbObject.converters();
+
+            return Collections.emptyList();
+        } catch (MirroredTypesException e) {
+            converterTypes = e.getTypeMirrors();
+        }
+
+        List<TypeConverterSpecs> converters = new ArrayList<>();
+
+        Element element;
+        for (TypeMirror converterType: converterTypes) {
+            element = typeUtils.asElement(converterType);
+            if (element instanceof TypeElement) {
+                converters.addAll(fromConverterClass((TypeElement) element));
+            }
+        }
+
+        return converters;
+    }
+
+    public static List<TypeConverterSpecs> fromConverterClass(TypeElement typeElement) {
+        List<TypeConverterSpecs> converters = new ArrayList<>();
+
+        ClassName ownerClassName = ClassName.get(typeElement);
+
+        ExecutableElement method;
+        for (Element subElement: typeElement.getEnclosedElements()) {
+            if (subElement.getKind() != ElementKind.METHOD
+                    || subElement.getAnnotation(DBTypeConverter.class) == null) {
+                continue;
+            }
+
+            method = (ExecutableElement) subElement;
+            if (!method.getModifiers().contains(Modifier.STATIC)
+                    || method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getParameters().size() != 1) {
+                LogUtils.error("%s.%s: a @DBTypeConverter must be a non-private "
+                                + "static method with one parameter",
+                        typeElement, method.getSimpleName());
+                continue;
+            }
+
+            converters.add(fromDefinition(ownerClassName,
+                    method.getSimpleName().toString(),
+                    TypeName.get(method.getParameters().get(0).asType()),
+                    TypeName.get(method.getReturnType())));
+        }
+
+        return converters;
+    }
+
+    public static TypeConverterSpecs findConverter(List<TypeConverterSpecs> converters,
+                                                   TypeName fromTypeName,
+                                                   TypeName toTypeName) {
+        if (converters == null) {
+            return null;
+        }
+
+        for (TypeConverterSpecs converter: converters) {
+            if (converter.fromTypeName.equals(fromTypeName)
+                    && converter.toTypeName.equals(toTypeName)) {
+                return converter;
+            }
+        }
+
+        return null;
+    }
+
+}
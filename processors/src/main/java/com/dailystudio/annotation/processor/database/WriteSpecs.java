@@ -0,0 +1,428 @@
+package com.dailystudio.annotation.processor.database;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+public class WriteSpecs {
+
+    public final static int DEFAULT_CHUNK_SIZE = 500;
+
+    private final static String INSERT_SQL_FIELD_PREFIX = "SQL_INSERT_VER";
+    private final static String UPSERT_SQL_FIELD_PREFIX = "SQL_UPSERT_VER";
+    private final static String CHUNK_SIZE_FIELD = "DEFAULT_CHUNK_SIZE";
+
+    /**
+     * Composes the insert statements of every column version. An object
+     * is written with the columns of its own version only, so objects of
+     * an older version still insert into a table of that version.
+     */
+    public static List<FieldSpec> composeWriteFields(String tableName,
+                                                     List<ColumnSpecs> columns) {
+        List<FieldSpec> writeFields = new ArrayList<>();
+
+        writeFields.add(FieldSpec.builder(TypeName.INT,
+                CHUNK_SIZE_FIELD,
+                Modifier.PUBLIC,
+                Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$L", DEFAULT_CHUNK_SIZE)
+                .build());
+
+        for (int ver: SchemaSpecs.getColumnVersions(columns)) {
+            writeFields.add(FieldSpec.builder(ClassName.get(String.class),
+                    INSERT_SQL_FIELD_PREFIX + ver,
+                    Modifier.PUBLIC,
+                    Modifier.STATIC,
+                    Modifier.FINAL)
+                    .initializer("$S", composeInsertSQL("INSERT", tableName, columns, ver))
+                    .build());
+
+            writeFields.add(FieldSpec.builder(ClassName.get(String.class),
+                    UPSERT_SQL_FIELD_PREFIX + ver,
+                    Modifier.PUBLIC,
+                    Modifier.STATIC,
+                    Modifier.FINAL)
+                    .initializer("$S", composeInsertSQL("INSERT OR REPLACE", tableName,
+                            columns, ver))
+                    .build());
+        }
+
+        return writeFields;
+    }
+
+    public static List<MethodSpec> composeBatchWriteMethods(ClassName generatedClassName,
+                                                            List<ColumnSpecs> columns,
+                                                            int latestVersion,
+                                                            ColumnSpecs cacheKeyColumn) {
+        List<MethodSpec> methods = new ArrayList<>();
+
+        methods.add(composeGetSQLMethod("getInsertSQL", INSERT_SQL_FIELD_PREFIX,
+                columns, latestVersion));
+        methods.add(composeGetSQLMethod("getUpsertSQL", UPSERT_SQL_FIELD_PREFIX,
+                columns, latestVersion));
+        methods.add(composeBatchShortcutMethod("insertAll", generatedClassName));
+        methods.add(composeBatchMethod("insertAll", false, generatedClassName));
+        methods.add(composeBatchShortcutMethod("upsertAll", generatedClassName));
+        methods.add(composeBatchMethod("upsertAll", true, generatedClassName));
+        methods.add(composeExecuteBatchMethod(generatedClassName, cacheKeyColumn));
+
+        return methods;
+    }
+
+    public static MethodSpec composeBindStatementMethod(ClassName generatedClassName,
+                                                        List<ColumnSpecs> columns) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("bindStatement")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(getStatementClassName(), "statement")
+                .addParameter(generatedClassName, "object")
+                .addStatement("statement.clearBindings()")
+                .addStatement("int bindIndex = 1");
+
+        for (ColumnSpecs column: columns) {
+            if (column.version > CommonVariables.DEFAULT_VERSION) {
+                builder.beginControlFlow("if (object.getVersion() >= $L)", column.version);
+            }
+
+            addBindStatement(builder, column, "bindIndex++", "object.");
+
+            if (column.version > CommonVariables.DEFAULT_VERSION) {
+                builder.endControlFlow();
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Composes update(), which writes the dirty columns of the object to
+     * its row. The SQL depends on the dirty mask, so it is compiled per
+     * call and left to the per-connection statement cache of Android.
+     * Dirty columns are kept when no row matched, for a later insert.
+     */
+    public static MethodSpec composeUpdateMethod(String tableName,
+                                                 List<ColumnSpecs> columns,
+                                                 ColumnSpecs cacheKeyColumn) {
+        List<ColumnSpecs> primaryColumns = new ArrayList<>();
+        for (ColumnSpecs column: columns) {
+            if (column.primary) {
+                primaryColumns.add(column);
+            }
+        }
+
+        if (primaryColumns.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder whereClause = new StringBuilder(" WHERE ");
+        for (int i = 0; i < primaryColumns.size(); i++) {
+            if (i > 0) {
+                whereClause.append(" AND ");
+            }
+
+            whereClause.append(primaryColumns.get(i).columnName);
+            whereClause.append(" = ?");
+        }
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("update")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(getDatabaseClassName(), "db")
+                .returns(TypeName.INT)
+                .beginControlFlow("if (db == null || !hasDirtyColumns())")
+                .addStatement("return 0")
+                .endControlFlow()
+                .addStatement("final $T sql = new $T($S)",
+                        StringBuilder.class, StringBuilder.class,
+                        "UPDATE " + tableName + " SET ")
+                .addStatement("int count = 0");
+
+        for (ColumnSpecs column: columns) {
+            if (column.primary) {
+                continue;
+            }
+
+            builder.beginControlFlow("if (isDirty($L))", column.ordinalFieldSpec.name)
+                    .addStatement("sql.append(count++ > 0 ? $S : $S)",
+                            ", " + column.columnName + " = ?",
+                            column.columnName + " = ?")
+                    .endControlFlow();
+        }
+
+        builder.beginControlFlow("if (count == 0)")
+                .addStatement("clearDirtyColumns()")
+                .addStatement("return 0")
+                .endControlFlow()
+                .addStatement("sql.append($S)", whereClause.toString())
+                .addStatement("final $T statement = db.compileStatement(sql.toString())",
+                        getStatementClassName())
+                .addStatement("final int rows")
+                .beginControlFlow("try")
+                .addStatement("int bindIndex = 1");
+
+        for (ColumnSpecs column: columns) {
+            if (column.primary) {
+                continue;
+            }
+
+            builder.beginControlFlow("if (isDirty($L))", column.ordinalFieldSpec.name);
+            addBindStatement(builder, column, "bindIndex++", "");
+            builder.endControlFlow();
+        }
+
+        for (ColumnSpecs column: primaryColumns) {
+            addBindStatement(builder, column, "bindIndex++", "");
+        }
+
+        builder.addStatement("rows = statement.executeUpdateDelete()")
+                .beginControlFlow("if (rows > 0)")
+                .addStatement("clearDirtyColumns()")
+                .endControlFlow()
+                .nextControlFlow("finally")
+                .addStatement("statement.close()")
+                .endControlFlow();
+
+        CacheSpecs.addInvalidateStatement(builder, cacheKeyColumn, null);
+
+        return builder.addStatement("return rows")
+                .build();
+    }
+
+    /**
+     * Binds the column of the object objectPrefix points to, e.g.
+     * "object." or "" for this. Nullable columns stored as primitives
+     * are bound as NULL when they have no value, not as 0.
+     */
+    static void addBindStatement(MethodSpec.Builder builder,
+                                 ColumnSpecs column,
+                                 Object bindIndex,
+                                 String objectPrefix) {
+        String valueExpr = objectPrefix + column.getterMethodSpec.name + "()";
+
+        if (ColumnSpecs.isNullablePrimitive(column)) {
+            builder.beginControlFlow("if ($L)", ColumnSpecs.composeIsNull(column, objectPrefix))
+                    .addStatement("statement.bindNull($L)", bindIndex)
+                    .nextControlFlow("else");
+        }
+
+        if (column.storageTypeName == TypeName.BOOLEAN) {
+            builder.addStatement("statement.$L($L, $L ? 1 : 0)",
+                    column.statementBinderName, bindIndex, valueExpr);
+        } else if (column.storageTypeName.isPrimitive()) {
+            builder.addStatement("statement.$L($L, $L)",
+                    column.statementBinderName, bindIndex,
+                    ColumnSpecs.composeToStorage(column, valueExpr));
+        } else {
+            builder.addStatement("final $T $L = $L",
+                    column.storageTypeName, ColumnSpecs.getParameterName(column),
+                    ColumnSpecs.composeToStorage(column, valueExpr));
+            builder.beginControlFlow("if ($L == null)", ColumnSpecs.getParameterName(column))
+                    .addStatement("statement.bindNull($L)", bindIndex)
+                    .nextControlFlow("else")
+                    .addStatement("statement.$L($L, $L)",
+                            column.statementBinderName, bindIndex,
+                            ColumnSpecs.getParameterName(column))
+                    .endControlFlow();
+        }
+
+        if (ColumnSpecs.isNullablePrimitive(column)) {
+            builder.endControlFlow();
+        }
+    }
+
+    static ClassName getDatabaseClassName() {
+        return ClassName.get(CommonVariables.ANDROID_SQLITE_PACKAGE, "SQLiteDatabase");
+    }
+
+    static ClassName getStatementClassName() {
+        return ClassName.get(CommonVariables.ANDROID_SQLITE_PACKAGE, "SQLiteStatement");
+    }
+
+    private static MethodSpec composeBatchShortcutMethod(String methodName,
+                                                         ClassName generatedClassName) {
+        return MethodSpec.methodBuilder(methodName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getDatabaseClassName(), "db")
+                .addParameter(getObjectsTypeName(generatedClassName), "objects")
+                .returns(TypeName.INT)
+                .addStatement("return $L(db, objects, $L)", methodName, CHUNK_SIZE_FIELD)
+                .build();
+    }
+
+    private static MethodSpec composeGetSQLMethod(String methodName,
+                                                  String fieldPrefix,
+                                                  List<ColumnSpecs> columns,
+                                                  int latestVersion) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(methodName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(TypeName.INT, "version")
+                .returns(String.class);
+
+        List<Integer> versions = SchemaSpecs.getColumnVersions(columns);
+        if (versions.isEmpty()) {
+            return builder.addStatement("return null").build();
+        }
+
+        int maxVersion = SchemaSpecs.getMaxVersion(columns, null, latestVersion);
+
+        builder.beginControlFlow("switch (version)");
+
+        int sqlVer = 0;
+        for (int ver = versions.get(0); ver <= maxVersion; ver++) {
+            if (versions.contains(ver)) {
+                sqlVer = ver;
+            }
+
+            builder.addStatement("case $L: return $L", ver, fieldPrefix + sqlVer);
+        }
+
+        builder.addStatement("default: return null");
+        builder.endControlFlow();
+
+        return builder.build();
+    }
+
+    private static MethodSpec composeBatchMethod(String methodName,
+                                                 boolean replace,
+                                                 ClassName generatedClassName) {
+        return MethodSpec.methodBuilder(methodName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(getDatabaseClassName(), "db")
+                .addParameter(getObjectsTypeName(generatedClassName), "objects")
+                .addParameter(TypeName.INT, "chunkSize")
+                .returns(TypeName.INT)
+                .addStatement("return executeBatch(db, $L, objects, chunkSize)", replace)
+                .build();
+    }
+
+    private static MethodSpec composeExecuteBatchMethod(ClassName generatedClassName,
+                                                        ColumnSpecs cacheKeyColumn) {
+        TypeName iteratorTypeName = ParameterizedTypeName.get(
+                ClassName.get(Iterator.class), generatedClassName);
+
+        MethodSpec.Builder builder = MethodSpec.methodBuilder("executeBatch")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(getDatabaseClassName(), "db")
+                .addParameter(TypeName.BOOLEAN, "replace")
+                .addParameter(getObjectsTypeName(generatedClassName), "objects")
+                .addParameter(TypeName.INT, "chunkSize")
+                .returns(TypeName.INT)
+                .beginControlFlow("if (db == null || objects == null || objects.isEmpty())")
+                .addStatement("return 0")
+                .endControlFlow()
+                .beginControlFlow("if (chunkSize <= 0)")
+                .addStatement("chunkSize = $L", CHUNK_SIZE_FIELD)
+                .endControlFlow()
+                .addStatement("int count = 0")
+                .addStatement("$T statement = null", getStatementClassName())
+                .addStatement("int statementVersion = 0")
+                .addStatement("final $T iterator = objects.iterator()", iteratorTypeName);
+
+        if (cacheKeyColumn != null) {
+            builder.addStatement("final $T keys = new $T[$T.min(chunkSize, objects.size())]",
+                    ArrayTypeName.of(cacheKeyColumn.valueTypeName),
+                    cacheKeyColumn.valueTypeName, Math.class);
+        }
+
+        builder.beginControlFlow("try")
+                .beginControlFlow("while (iterator.hasNext())")
+                .addStatement("int i = 0")
+                .addStatement("db.beginTransaction()")
+                .beginControlFlow("try")
+                .beginControlFlow("for (; i < chunkSize && iterator.hasNext(); i++)")
+                .addStatement("final $T object = iterator.next()", generatedClassName);
+
+        if (cacheKeyColumn != null) {
+            builder.addStatement("keys[i] = object.$L()",
+                    cacheKeyColumn.getterMethodSpec.name);
+        }
+
+        builder
+                .beginControlFlow("if (statement == null || object.getVersion() != statementVersion)")
+                .addStatement("final $T sql = (replace ? getUpsertSQL(object.getVersion())"
+                        + " : getInsertSQL(object.getVersion()))", String.class)
+                .beginControlFlow("if (sql == null)")
+                .addStatement("throw new $T($S + object.getVersion())",
+                        IllegalArgumentException.class, "unsupported version: ")
+                .endControlFlow()
+                .beginControlFlow("if (statement != null)")
+                .addStatement("statement.close()")
+                .endControlFlow()
+                .addStatement("statement = db.compileStatement(sql)")
+                .addStatement("statementVersion = object.getVersion()")
+                .endControlFlow()
+                .addStatement("bindStatement(statement, object)")
+                .beginControlFlow("if (statement.executeInsert() != -1)")
+                .addStatement("object.clearDirtyColumns()")
+                .addStatement("count++")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("db.setTransactionSuccessful()")
+                .nextControlFlow("finally")
+                .addStatement("db.endTransaction()");
+
+        // a reader between the writes and the commit would cache stale rows
+        if (cacheKeyColumn != null) {
+            builder.beginControlFlow("for (int k = 0; k < i; k++)")
+                    .addStatement("invalidateCache(keys[k])")
+                    .endControlFlow();
+        }
+
+        return builder.endControlFlow()
+                .endControlFlow()
+                .nextControlFlow("finally")
+                .beginControlFlow("if (statement != null)")
+                .addStatement("statement.close()")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return count")
+                .build();
+    }
+
+    private static String composeInsertSQL(String verb,
+                                           String tableName,
+                                           List<ColumnSpecs> columns,
+                                           int version) {
+        StringBuilder builder = new StringBuilder(verb);
+        builder.append(" INTO ");
+        builder.append(tableName);
+        builder.append(" (");
+
+        StringBuilder values = new StringBuilder(" VALUES (");
+        boolean first = true;
+        for (ColumnSpecs column: columns) {
+            if (column.version > version) {
+                continue;
+            }
+
+            if (!first) {
+                builder.append(", ");
+                values.append(", ");
+            }
+            first = false;
+
+            builder.append(column.columnName);
+            values.append("?");
+        }
+
+        builder.append(")");
+        builder.append(values);
+        builder.append(")");
+
+        return builder.toString();
+    }
+
+    private static TypeName getObjectsTypeName(ClassName generatedClassName) {
+        return ParameterizedTypeName.get(ClassName.get(Collection.class),
+                generatedClassName);
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.dailystudio.annotation.processor.utils;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Counts the UTF-8 encoded size of everything written through it.
+ */
+public class CountingWriter extends FilterWriter {
+
+    private long mByteCount = 0;
+
+    public CountingWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        super.write(c);
+
+        mByteCount += getUtf8Size((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        super.write(cbuf, off, len);
+
+        for (int i = off; i < off + len; i++) {
+            mByteCount += getUtf8Size(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        super.write(str, off, len);
+
+        for (int i = off; i < off + len; i++) {
+            mByteCount += getUtf8Size(str.charAt(i));
+        }
+    }
+
+    public long getByteCount() {
+        return mByteCount;
+    }
+
+    private static int getUtf8Size(char ch) {
+        if (ch < 0x80) {
+            return 1;
+        } else if (ch < 0x800) {
+            return 2;
+        } else if (Character.isSurrogate(ch)) {
+            return 2;
+        }
+
+        return 3;
+    }
+
+}
@@ -3,9 +3,23 @@ package com.dailystudio.annotation.processor.utils;
 public class GenUtils {
 
     private final static String DB_OBJECT_CLASS_NAME_SUFFIX = "DBObject";
+    private final static String DB_PROJECTION_CLASS_NAME_SUFFIX = "DBProjection";
+    private final static String DB_RELATIONS_CLASS_NAME_SUFFIX = "DBRelations";
 
     public static String getDBObjectGenClassName(String className) {
         return className + DB_OBJECT_CLASS_NAME_SUFFIX;
     }
 
+    public static String getDBProjectionGenClassName(String className) {
+        return className + DB_PROJECTION_CLASS_NAME_SUFFIX;
+    }
+
+    public static String getDBRelationsGenClassName(String className) {
+        return className + DB_RELATIONS_CLASS_NAME_SUFFIX;
+    }
+
+    public static String getDBObjectTableName(String className) {
+        return getDBObjectGenClassName(className);
+    }
+
 }
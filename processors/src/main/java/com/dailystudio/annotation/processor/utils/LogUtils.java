@@ -8,49 +8,130 @@ import javax.tools.Diagnostic;
 
 public class LogUtils {
 
+    public final static int LEVEL_ERROR = 0;
+    public final static int LEVEL_WARN = 1;
+    public final static int LEVEL_INFO = 2;
+    public final static int LEVEL_DEBUG = 3;
+
+    private final static int DEFAULT_LEVEL = LEVEL_WARN;
+
+    /**
+     * Receives messages when there is no javac Messager, e.g. when the
+     * specs are driven by the KSP frontend.
+     */
+    public interface Printer {
+
+        void print(Diagnostic.Kind kind, String message);
+
+    }
+
+    private static volatile int sLevel = DEFAULT_LEVEL;
+    private static volatile Printer sPrinter = null;
+
+    public static void setPrinter(Printer printer) {
+        sPrinter = printer;
+    }
+
+    /**
+     * Sets the level from a processor option value (error, warn, info
+     * or debug). Returns false and keeps the default for unknown values.
+     */
+    public static boolean setLevel(String level) {
+        if (level == null || level.isEmpty()) {
+            sLevel = DEFAULT_LEVEL;
+            return true;
+        }
+
+        switch (level.trim().toLowerCase()) {
+            case "error":
+                sLevel = LEVEL_ERROR;
+                break;
+
+            case "warn":
+            case "warning":
+                sLevel = LEVEL_WARN;
+                break;
+
+            case "info":
+                sLevel = LEVEL_INFO;
+                break;
+
+            case "debug":
+                sLevel = LEVEL_DEBUG;
+                break;
+
+            default:
+                sLevel = DEFAULT_LEVEL;
+                return false;
+        }
+
+        return true;
+    }
+
+    public static boolean isLoggable(int level) {
+        return (level <= sLevel);
+    }
+
     public static void debug(String format, Object... args) {
-        Messager messager = getGlobalMessager();
+        if (!isLoggable(LEVEL_DEBUG)) {
+            return;
+        }
 
-        debug(messager, format, args);
+        debug(getGlobalMessager(), format, args);
     }
 
     public static void debug(Messager messager, String format, Object... args) {
-        if (messager == null) {
+        print(messager, LEVEL_DEBUG, Diagnostic.Kind.NOTE, format, args);
+    }
+
+    public static void info(String format, Object... args) {
+        if (!isLoggable(LEVEL_INFO)) {
             return;
         }
 
-        messager.printMessage(Diagnostic.Kind.NOTE, String.format(format, args));
+        info(getGlobalMessager(), format, args);
     }
 
-    public static void warn(String format, Object... args) {
-        Messager messager = getGlobalMessager();
-
-        warn(messager, format, args);
+    public static void info(Messager messager, String format, Object... args) {
+        print(messager, LEVEL_INFO, Diagnostic.Kind.NOTE, format, args);
     }
 
-    public static void warn(Messager messager, String format, Object... args) {
-        if (messager == null) {
+    public static void warn(String format, Object... args) {
+        if (!isLoggable(LEVEL_WARN)) {
             return;
         }
 
-        messager.printMessage(Diagnostic.Kind.WARNING, String.format(format, args));
+        warn(getGlobalMessager(), format, args);
     }
 
-    public static void error(String format, Object... args) {
-        Messager messager = getGlobalMessager();
+    public static void warn(Messager messager, String format, Object... args) {
+        print(messager, LEVEL_WARN, Diagnostic.Kind.WARNING, format, args);
+    }
 
-        error(messager, format, args);
+    public static void error(String format, Object... args) {
+        error(getGlobalMessager(), format, args);
     }
 
     public static void error(Messager messager, String format, Object... args) {
-        if (messager == null) {
+        print(messager, LEVEL_ERROR, Diagnostic.Kind.ERROR, format, args);
+    }
+
+    private static void print(Messager messager,
+                              int level,
+                              Diagnostic.Kind kind,
+                              String format,
+                              Object... args) {
+        if (!isLoggable(level)) {
             return;
         }
 
-        messager.printMessage(Diagnostic.Kind.ERROR, String.format(format, args));
+        if (messager != null) {
+            messager.printMessage(kind, String.format(format, args));
+        } else if (sPrinter != null) {
+            sPrinter.print(kind, String.format(format, args));
+        }
     }
 
-
     public static Messager getGlobalMessager() {
         ProcessingEnvironment env = GlobalEnvironment.get();
         if (env == null) {
@@ -0,0 +1,174 @@
+package com.dailystudio.annotation.processor.utils;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Collects per-entity generation statistics for the -Adevbricks.stats
+ * report. One instance is shared by all processors of a compilation.
+ */
+public class ProcessingStats {
+
+    public static class EntityStats {
+
+        public String processor;
+        public String sourceClass;
+        public String generatedClass;
+        public int columnCount = 0;
+        public List<String> skippedFields = new ArrayList<>();
+        public long nanos = 0;
+        public long generatedBytes = 0;
+
+        private long mStartNanos = 0;
+
+    }
+
+    private final static Map<ProcessingEnvironment, ProcessingStats> sStats =
+            new WeakHashMap<>();
+
+    private final List<EntityStats> mEntities = new ArrayList<>();
+
+    public static synchronized ProcessingStats of(ProcessingEnvironment processingEnv) {
+        ProcessingStats stats = sStats.get(processingEnv);
+        if (stats == null) {
+            stats = new ProcessingStats();
+            sStats.put(processingEnv, stats);
+        }
+
+        return stats;
+    }
+
+    public synchronized EntityStats begin(String processor,
+                                          String sourceClass,
+                                          String generatedClass) {
+        EntityStats entity = new EntityStats();
+
+        entity.processor = processor;
+        entity.sourceClass = sourceClass;
+        entity.generatedClass = generatedClass;
+        entity.mStartNanos = System.nanoTime();
+
+        mEntities.add(entity);
+
+        return entity;
+    }
+
+    /**
+     * Restarts timing of an entity, e.g. when generation continues on
+     * another thread. Time between end() and resume() is not counted.
+     */
+    public void resume(EntityStats entity) {
+        entity.mStartNanos = System.nanoTime();
+    }
+
+    public void end(EntityStats entity) {
+        entity.nanos += System.nanoTime() - entity.mStartNanos;
+    }
+
+    public synchronized void writeTo(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("cannot create directory " + parent);
+        }
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+    }
+
+    synchronized String toJson() {
+        StringBuilder builder = new StringBuilder();
+
+        long totalNanos = 0;
+        long totalBytes = 0;
+        int totalColumns = 0;
+        int totalSkipped = 0;
+        int totalEntities = 0;
+
+        builder.append("{\n  \"entities\": [");
+
+        EntityStats entity;
+        for (int i = 0; i < mEntities.size(); i++) {
+            entity = mEntities.get(i);
+
+            builder.append(i == 0 ? "\n" : ",\n");
+            builder.append("    {");
+            appendField(builder, "processor", entity.processor).append(", ");
+            appendField(builder, "sourceClass", entity.sourceClass).append(", ");
+            appendField(builder, "generatedClass", entity.generatedClass).append(", ");
+            builder.append("\"columns\": ").append(entity.columnCount).append(", ");
+            builder.append("\"skippedFields\": [");
+            for (int j = 0; j < entity.skippedFields.size(); j++) {
+                if (j > 0) {
+                    builder.append(", ");
+                }
+
+                appendString(builder, entity.skippedFields.get(j));
+            }
+            builder.append("], ");
+            builder.append("\"micros\": ").append(entity.nanos / 1000).append(", ");
+            builder.append("\"generatedBytes\": ").append(entity.generatedBytes);
+            builder.append("}");
+
+            totalNanos += entity.nanos;
+            totalBytes += entity.generatedBytes;
+            totalColumns += entity.columnCount;
+            totalSkipped += entity.skippedFields.size();
+            if (entity.sourceClass != null) {
+                totalEntities++;
+            }
+        }
+
+        builder.append(mEntities.isEmpty() ? "],\n" : "\n  ],\n");
+        builder.append("  \"totalEntities\": ").append(totalEntities).append(",\n");
+        builder.append("  \"totalFiles\": ").append(mEntities.size()).append(",\n");
+        builder.append("  \"totalColumns\": ").append(totalColumns).append(",\n");
+        builder.append("  \"totalSkippedFields\": ").append(totalSkipped).append(",\n");
+        builder.append("  \"totalMicros\": ").append(totalNanos / 1000).append(",\n");
+        builder.append("  \"totalGeneratedBytes\": ").append(totalBytes).append("\n");
+        builder.append("}\n");
+
+        return builder.toString();
+    }
+
+    private static StringBuilder appendField(StringBuilder builder, String name, String value) {
+        appendString(builder, name);
+        builder.append(": ");
+
+        return appendString(builder, value);
+    }
+
+    private static StringBuilder appendString(StringBuilder builder, String value) {
+        if (value == null) {
+            return builder.append("null");
+        }
+
+        builder.append('"');
+
+        char ch;
+        for (int i = 0; i < value.length(); i++) {
+            ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                builder.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                builder.append(String.format("\\u%04x", (int) ch));
+            } else {
+                builder.append(ch);
+            }
+        }
+
+        return builder.append('"');
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.dailystudio.annotation.processor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pins the accessor names javac entities get: any leading m or s of a
+ * field is stripped, even when the name only starts with the letter.
+ * The KSP frontend strips mXxx and sXxx only.
+ */
+public class AccessorNamingTest {
+
+    @Test
+    public void stripsLeadingMOrS() {
+        ProcessorRunner.Result result = ProcessorRunner.run(
+                ProcessorRunner.sources(ProcessorRunner.source("test.Game",
+                        "package test;",
+                        "import com.dailystudio.annotation.*;",
+                        "@DBObject(storage = DBObject.Storage.FIELDS)",
+                        "public class Game {",
+                        "    @DBColumn(primary = \"true\") private long mId;",
+                        "    @DBColumn(name = \"total\") private int sTotal;",
+                        "    @DBColumn(name = \"mode\") private int mode;",
+                        "    @DBColumn(name = \"score\") private double score;",
+                        "    @DBColumn(name = \"level\") private int level;",
+                        "}")),
+                new DBObjectProcessor());
+        assertTrue(result.diagnostics.toString(), result.success);
+
+        String game = result.sources.get("test.GameDBObject");
+        assertTrue(game, game.contains("public void setId(long id)"));
+        assertTrue(game, game.contains("public int getTotal()"));
+        assertTrue(game, game.contains("public void setOde(int ode)"));
+        assertTrue(game, game.contains("public double getCore()"));
+        assertTrue(game, game.contains("public int getLevel()"));
+        assertTrue(game, game.contains("this.score = core"));
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.dailystudio.annotation.processor;
+
+import org.junit.Test;
+
+import javax.annotation.processing.Processor;
+import javax.tools.JavaFileObject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the contract Gradle relies on for the isolating processors:
+ * every generated file has its own annotated type as the only originating
+ * element, and a change to one entity changes only its own output. Outputs
+ * that read other entities come from aggregating processors and name
+ * those entities as originating elements too.
+ */
+public class IncrementalProcessingTest {
+
+    private final static String REGISTRY = "test.DBObjectRegistry";
+
+    private final static String AGGREGATING = "aggregating";
+
+    private static JavaFileObject customer() {
+        return customer("    @DBColumn(primary = \"true\") private long mCustomerId;");
+    }
+
+    private static JavaFileObject customer(String keyColumn) {
+        return ProcessorRunner.source("test.Customer",
+                "package test;",
+                "import com.dailystudio.annotation.*;",
+                "@DBObject(relations = @DBRelation(name = \"orders\", target = Order.class,",
+                "        type = DBRelation.Type.ONE_TO_MANY, column = \"customer_id\"))",
+                "public class Customer {",
+                keyColumn,
+                "    @DBColumn private String mName;",
+                "}");
+    }
+
+    private static JavaFileObject order() {
+        return ProcessorRunner.source("test.Order",
+                "package test;",
+                "import com.dailystudio.annotation.*;",
+                "@DBObject(relations = @DBRelation(name = \"customer\", target = Customer.class,",
+                "        column = \"customer_id\"))",
+                "public class Order {",
+                "    @DBColumn(primary = \"true\") private long mOrderId;",
+                "    @DBColumn private long mCustomerId;",
+                "}");
+    }
+
+    private static JavaFileObject tag(String... extraColumns) {
+        List<String> lines = new ArrayList<>(Arrays.asList(
+                "package test;",
+                "import com.dailystudio.annotation.*;",
+                "@DBObject(latestVersion = 2)",
+                "public class Tag {",
+                "    @DBColumn(primary = \"true\") private long mTagId;",
+                "    @DBColumn(name = \"label\") private String mLabel;"));
+        lines.addAll(Arrays.asList(extraColumns));
+        lines.add("}");
+
+        return ProcessorRunner.source("test.Tag", lines.toArray(new String[lines.size()]));
+    }
+
+    private static JavaFileObject tagSummary() {
+        return ProcessorRunner.source("test.TagSummary",
+                "package test;",
+                "import com.dailystudio.annotation.*;",
+                "@DBProjection(of = Tag.class, columns = { \"label\" })",
+                "public class TagSummary {",
+                "}");
+    }
+
+    private static ProcessorRunner.Result process(JavaFileObject tag) {
+        return process(customer(), tag);
+    }
+
+    private static ProcessorRunner.Result process(JavaFileObject customer, JavaFileObject tag) {
+        ProcessorRunner.Result result = ProcessorRunner.run(
+                ProcessorRunner.sources(customer, order(), tag, tagSummary()),
+                new Processor[] {
+                        new DBObjectProcessor(),
+                        new DBObjectRegistryProcessor(),
+                        new DBProjectionProcessor(),
+                        new DBRelationProcessor()
+                });
+
+        assertTrue(result.diagnostics.toString(), result.success);
+
+        return result;
+    }
+
+    @Test
+    public void isolatingOutputsHaveOneOriginatingElement() {
+        Map<String, List<String>> originatingElements = process(tag()).originatingElements;
+
+        assertEquals(Arrays.asList("test.CustomerDBObject", "test.CustomerDBRelations",
+                "test.DBObjectRegistry", "test.OrderDBObject", "test.OrderDBRelations",
+                "test.TagDBObject", "test.TagSummaryDBProjection"),
+                new ArrayList<>(originatingElements.keySet()));
+
+        assertEquals(Collections.singletonList("test.Customer"),
+                originatingElements.get("test.CustomerDBObject"));
+        assertEquals(Collections.singletonList("test.Order"),
+                originatingElements.get("test.OrderDBObject"));
+        assertEquals(Collections.singletonList("test.Tag"),
+                originatingElements.get("test.TagDBObject"));
+
+        // the aggregating outputs
+        assertEquals(Arrays.asList("test.Customer", "test.Order", "test.Tag"),
+                originatingElements.get(REGISTRY));
+        assertEquals(Arrays.asList("test.Tag", "test.TagSummary"),
+                originatingElements.get("test.TagSummaryDBProjection"));
+        assertEquals(Arrays.asList("test.Customer", "test.Order"),
+                originatingElements.get("test.CustomerDBRelations"));
+        assertEquals(Arrays.asList("test.Customer", "test.Order"),
+                originatingElements.get("test.OrderDBRelations"));
+    }
+
+    @Test
+    public void outputsReadingOtherEntitiesAreAggregating() throws IOException {
+        Map<String, String> kinds = readIncrementalKinds();
+
+        assertEquals("isolating", kinds.get(DBObjectProcessor.class.getName()));
+        assertEquals(AGGREGATING, kinds.get(DBObjectRegistryProcessor.class.getName()));
+        assertEquals(AGGREGATING, kinds.get(DBProjectionProcessor.class.getName()));
+        assertEquals(AGGREGATING, kinds.get(DBRelationProcessor.class.getName()));
+    }
+
+    @Test
+    public void changingARelationTargetChangesTheRelationsOfItsSources() {
+        Map<String, String> before = process(customer(), tag()).sources;
+        Map<String, String> after = process(customer(
+                "    @DBColumn(name = \"cid\", primary = \"true\") private long mCustomerId;"),
+                tag()).sources;
+
+        // Order refers to the primary column of Customer, which is renamed
+        assertTrue(after.get("test.OrderDBRelations").contains("WHERE cid IN "));
+        assertEquals(Arrays.asList("test.CustomerDBObject", "test.OrderDBRelations"),
+                changedSources(before, after));
+    }
+
+    @Test
+    public void changingAProjectionTargetChangesTheProjection() {
+        Map<String, String> before = process(tag()).sources;
+        Map<String, String> after = process(ProcessorRunner.source("test.Tag",
+                "package test;",
+                "import com.dailystudio.annotation.*;",
+                "@DBObject(latestVersion = 2)",
+                "public class Tag {",
+                "    @DBColumn(primary = \"true\") private long mTagId;",
+                "    @DBColumn(name = \"label\") private int mLabel;",
+                "}")).sources;
+
+        assertTrue(after.get("test.TagSummaryDBProjection").contains("Integer getLabel()"));
+        assertEquals(Arrays.asList("test.TagDBObject", "test.TagSummaryDBProjection"),
+                changedSources(before, after));
+    }
+
+    @Test
+    public void changingOneEntityChangesOnlyItsOutput() {
+        Map<String, String> before = process(tag()).sources;
+        Map<String, String> after = process(tag(
+                "    @DBColumn(name = \"color\", version = 2) private int mColor;")).sources;
+
+        assertEquals(Collections.singletonList("test.TagDBObject"),
+                changedSources(before, after));
+    }
+
+    private static List<String> changedSources(Map<String, String> before,
+                                               Map<String, String> after) {
+        assertEquals(before.keySet(), after.keySet());
+
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, String> entry: before.entrySet()) {
+            if (!entry.getValue().equals(after.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Reads META-INF/gradle/incremental.annotation.processors, which tells
+     * Gradle the kind of each processor.
+     */
+    private static Map<String, String> readIncrementalKinds() throws IOException {
+        InputStream in = IncrementalProcessingTest.class.getClassLoader()
+                .getResourceAsStream("META-INF/gradle/incremental.annotation.processors");
+        assertNotNull(in);
+
+        Map<String, String> kinds = new TreeMap<>();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(",");
+                if (parts.length == 2) {
+                    kinds.put(parts[0], parts[1]);
+                }
+            }
+        } finally {
+            in.close();
+        }
+
+        return kinds;
+    }
+
+}
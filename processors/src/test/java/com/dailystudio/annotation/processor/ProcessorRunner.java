@@ -0,0 +1,320 @@
+package com.dailystudio.annotation.processor;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Runs processors in-process over in-memory sources, keeps the generated
+ * sources in memory and records the originating elements of each one.
+ */
+final class ProcessorRunner {
+
+    private final static Charset UTF_8 = Charset.forName("UTF-8");
+    private final static String MEMORY_SCHEME = "mem";
+
+    static final class Result {
+
+        final boolean success;
+        /**
+         * Errors of the processing, see isProcessingError().
+         */
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+
+        /**
+         * Generated sources by qualified class name.
+         */
+        final Map<String, String> sources = new TreeMap<>();
+
+        /**
+         * Qualified names of the originating elements by generated class.
+         */
+        final Map<String, List<String>> originatingElements = new TreeMap<>();
+
+        private Result(boolean success,
+                       List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+        }
+
+    }
+
+    private ProcessorRunner() {
+    }
+
+    static JavaFileObject source(String className, String... lines) {
+        final StringBuilder content = new StringBuilder();
+        for (String line: lines) {
+            content.append(line).append('\n');
+        }
+
+        return new SimpleJavaFileObject(URI.create("string:///"
+                + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+
+        };
+    }
+
+    static List<JavaFileObject> sources(JavaFileObject... sources) {
+        return new ArrayList<>(Arrays.asList(sources));
+    }
+
+    /**
+     * Processes the sources with -proc:only and the given options, which
+     * are passed as -A options.
+     */
+    static Result run(List<JavaFileObject> sources,
+                      List<String> processorOptions,
+                      Processor... processors) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        MemoryFileManager fileManager = new MemoryFileManager(
+                compiler.getStandardFileManager(diagnostics, Locale.US, null));
+
+        List<String> options = new ArrayList<>();
+        options.add("-proc:only");
+        options.add("-classpath");
+        options.add(System.getProperty("java.class.path"));
+        for (String option: processorOptions) {
+            options.add("-A" + option);
+        }
+
+        Map<String, List<String>> originatingElements = new TreeMap<>();
+
+        List<Processor> recordingProcessors = new ArrayList<>();
+        for (Processor processor: processors) {
+            recordingProcessors.add(new RecordingProcessor(processor, originatingElements));
+        }
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager,
+                diagnostics, options, null, sources);
+        task.setProcessors(recordingProcessors);
+
+        task.call();
+
+        List<Diagnostic<? extends JavaFileObject>> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic: diagnostics.getDiagnostics()) {
+            if (isProcessingError(diagnostic)) {
+                errors.add(diagnostic);
+            }
+        }
+
+        Result result = new Result(errors.isEmpty(), errors);
+
+        for (Map.Entry<String, ByteArrayOutputStream> entry:
+                fileManager.mSources.entrySet()) {
+            result.sources.put(entry.getKey(),
+                    new String(entry.getValue().toByteArray(), UTF_8));
+        }
+
+        result.originatingElements.putAll(originatingElements);
+
+        return result;
+    }
+
+    static Result run(List<JavaFileObject> sources, Processor... processors) {
+        return run(sources, Collections.<String>emptyList(), processors);
+    }
+
+    /**
+     * The generated sources need the Android runtime to compile, which is
+     * not on the test classpath, so errors reported in them do not count.
+     */
+    private static boolean isProcessingError(Diagnostic<? extends JavaFileObject> diagnostic) {
+        if (diagnostic.getKind() != Diagnostic.Kind.ERROR) {
+            return false;
+        }
+
+        JavaFileObject source = diagnostic.getSource();
+
+        return (source == null || !MEMORY_SCHEME.equals(source.toUri().getScheme()));
+    }
+
+    private static final class MemoryFileManager
+            extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ByteArrayOutputStream> mSources = new TreeMap<>();
+
+        MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location,
+                                                   final String className,
+                                                   JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            if (kind == JavaFileObject.Kind.SOURCE) {
+                mSources.put(className, content);
+            }
+
+            return new SimpleJavaFileObject(URI.create(MEMORY_SCHEME + ":///"
+                    + location.getName() + "/" + className.replace('.', '/')
+                    + kind.extension), kind) {
+
+                @Override
+                public OutputStream openOutputStream() {
+                    content.reset();
+
+                    return content;
+                }
+
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return new String(content.toByteArray(), UTF_8);
+                }
+
+            };
+        }
+
+    }
+
+    /**
+     * Hands the processor a Filer which records the originating elements
+     * passed to createSourceFile().
+     */
+    private static final class RecordingProcessor implements Processor {
+
+        private final Processor mDelegate;
+        private final Map<String, List<String>> mOriginatingElements;
+
+        RecordingProcessor(Processor delegate,
+                           Map<String, List<String>> originatingElements) {
+            mDelegate = delegate;
+            mOriginatingElements = originatingElements;
+        }
+
+        @Override
+        public Set<String> getSupportedOptions() {
+            return mDelegate.getSupportedOptions();
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return mDelegate.getSupportedAnnotationTypes();
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return mDelegate.getSupportedSourceVersion();
+        }
+
+        @Override
+        public void init(final ProcessingEnvironment processingEnv) {
+            final Filer filer = (Filer) Proxy.newProxyInstance(
+                    Filer.class.getClassLoader(),
+                    new Class<?>[] { Filer.class },
+                    new InvocationHandler() {
+
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args)
+                                throws Throwable {
+                            if (method.getName().equals("createSourceFile")) {
+                                record(args[0].toString(), (Element[]) args[1]);
+                            }
+
+                            return forward(processingEnv.getFiler(), method, args);
+                        }
+
+                    });
+
+            mDelegate.init((ProcessingEnvironment) Proxy.newProxyInstance(
+                    ProcessingEnvironment.class.getClassLoader(),
+                    new Class<?>[] { ProcessingEnvironment.class },
+                    new InvocationHandler() {
+
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args)
+                                throws Throwable {
+                            if (method.getName().equals("getFiler")) {
+                                return filer;
+                            }
+
+                            return forward(processingEnv, method, args);
+                        }
+
+                    }));
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations,
+                               RoundEnvironment roundEnv) {
+            return mDelegate.process(annotations, roundEnv);
+        }
+
+        @Override
+        public Iterable<? extends Completion> getCompletions(Element element,
+                                                             AnnotationMirror annotation,
+                                                             ExecutableElement member,
+                                                             String userText) {
+            return mDelegate.getCompletions(element, annotation, member, userText);
+        }
+
+        private void record(String className, Element[] elements) {
+            List<String> names = new ArrayList<>();
+            if (elements != null) {
+                for (Element element: elements) {
+                    names.add(element instanceof TypeElement
+                            ? ((TypeElement) element).getQualifiedName().toString()
+                            : element.toString());
+                }
+            }
+
+            Collections.sort(names);
+
+            synchronized (mOriginatingElements) {
+                mOriginatingElements.put(className, names);
+            }
+        }
+
+        private static Object forward(Object target, Method method, Object[] args)
+                throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+    }
+
+}
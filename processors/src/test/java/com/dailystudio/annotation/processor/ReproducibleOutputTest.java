@@ -0,0 +1,97 @@
+package com.dailystudio.annotation.processor;
+
+import org.junit.Test;
+
+import javax.annotation.processing.Processor;
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the processors twice, the second time with the sources in reverse
+ * order and generation on a pool, and checks that the generated sources
+ * are byte-identical.
+ */
+public class ReproducibleOutputTest {
+
+    private final static int ENTITIES = 12;
+
+    private static List<JavaFileObject> synthesize() {
+        List<JavaFileObject> sources = new ArrayList<>();
+
+        String name;
+        for (int i = 0; i < ENTITIES; i++) {
+            name = String.format(Locale.US, "Entity%02d", i);
+
+            String relation = (i == 0 ? "" : String.format(Locale.US,
+                    ", relations = @DBRelation(name = \"parent\", target = Entity%02d.class,"
+                            + " column = \"parent_id\")", i - 1));
+
+            sources.add(ProcessorRunner.source("test." + name,
+                    "package test;",
+                    "import com.dailystudio.annotation.*;",
+                    "@DBObject(latestVersion = 3,",
+                    "        indexes = { @DBIndex(columns = { \"title\" }, version = 2) }"
+                            + relation + ")",
+                    "public class " + name + " {",
+                    "    @DBColumn(primary = \"true\") private long mId;",
+                    "    @DBColumn(name = \"parent_id\") private long mParentId;",
+                    "    @DBColumn(name = \"title\", fullText = true) private String mTitle;",
+                    "    @DBColumn(name = \"hits\", version = 2) private int mHits;",
+                    "    @DBColumn(name = \"ratio\", version = 3) private double mRatio;",
+                    "    @DBColumn(name = \"flag\", version = 3) private boolean mFlag;",
+                    "}"));
+
+            sources.add(ProcessorRunner.source("test." + name + "Summary",
+                    "package test;",
+                    "import com.dailystudio.annotation.*;",
+                    "@DBProjection(of = " + name + ".class, columns = { \"title\", \"hits\" })",
+                    "public class " + name + "Summary {",
+                    "}"));
+        }
+
+        return sources;
+    }
+
+    private static Map<String, String> process(List<JavaFileObject> sources, int threads) {
+        ProcessorRunner.Result result = ProcessorRunner.run(sources,
+                Collections.singletonList("devbricks.threads=" + threads),
+                new Processor[] {
+                        new DBObjectProcessor(),
+                        new DBObjectRegistryProcessor(),
+                        new DBProjectionProcessor(),
+                        new DBRelationProcessor()
+                });
+
+        assertTrue(result.diagnostics.toString(), result.success);
+
+        return result.sources;
+    }
+
+    @Test
+    public void outputDoesNotDependOnSourceOrderOrThreads() {
+        List<JavaFileObject> sources = synthesize();
+        Map<String, String> first = process(sources, 1);
+
+        Collections.reverse(sources);
+        Map<String, String> second = process(sources, 4);
+
+        // an object and a projection per entity, relations for all but
+        // the first one, and the registry
+        assertEquals(ENTITIES * 3, first.size());
+        assertEquals(first.keySet(), second.keySet());
+
+        for (Map.Entry<String, String> entry: first.entrySet()) {
+            assertEquals(entry.getKey() + " differs between runs",
+                    entry.getValue(), second.get(entry.getKey()));
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs the generated insertAll and upsertAll on SQLite: chunked
+ * transactions, one statement per object version and replacing rows.
+ */
+public class BatchTest {
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = Samples.createDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void insertsInChunks() {
+        final List<SampleDBObject> samples = newSamples(1, 7);
+
+        assertEquals(7, SampleDBObject.insertAll(mDatabase, samples, 3));
+        assertEquals(7, countRows());
+        assertEquals(1, mDatabase.getCompiledStatementCount());
+        assertFalse(mDatabase.inTransaction());
+
+        for (SampleDBObject sample: samples) {
+            assertFalse(sample.hasDirtyColumns());
+            Samples.assertSampleEquals(sample,
+                    SampleDBObject.findByTitle(mContext, mDatabase, sample.getTitle()));
+        }
+    }
+
+    @Test
+    public void insertsNothing() {
+        assertEquals(0, SampleDBObject.insertAll(mDatabase,
+                new ArrayList<SampleDBObject>()));
+        assertEquals(0, SampleDBObject.insertAll(null, newSamples(1, 1)));
+        assertEquals(0, mDatabase.getCompiledStatementCount());
+    }
+
+    @Test
+    public void bindsEachVersion() {
+        final SampleDBObject older = new SampleDBObject(mContext, 1);
+        older.setId(2);
+        older.setTitle("sample 2");
+        older.setNote("not stored");
+
+        final List<SampleDBObject> samples = newSamples(1, 1);
+        samples.add(older);
+        samples.addAll(newSamples(3, 3));
+
+        assertEquals(3, SampleDBObject.insertAll(mDatabase, samples));
+        assertEquals(3, mDatabase.getCompiledStatementCount());
+        assertNull(SampleDBObject.findByTitle(mContext, mDatabase, "sample 2").getNote());
+        assertEquals("note 3",
+                SampleDBObject.findByTitle(mContext, mDatabase, "sample 3").getNote());
+    }
+
+    @Test
+    public void upsertReplacesRows() {
+        SampleDBObject.insertAll(mDatabase, newSamples(1, 3));
+
+        final SampleDBObject changed = Samples.newNullSample(mContext, 2);
+        changed.setTitle("changed");
+
+        assertEquals(2, SampleDBObject.upsertAll(mDatabase,
+                Arrays.asList(changed, Samples.newSample(mContext, 4))));
+        assertEquals(4, countRows());
+        assertNull(SampleDBObject.findByTitle(mContext, mDatabase, "sample 2"));
+        Samples.assertSampleEquals(changed,
+                SampleDBObject.findByTitle(mContext, mDatabase, "changed"));
+    }
+
+    @Test
+    public void failedChunkRollsBack() {
+        final List<SampleDBObject> samples = newSamples(1, 5);
+        final SampleDBObject duplicate = Samples.newSample(mContext, 6);
+        duplicate.setTitle("sample 1");
+        samples.add(duplicate);
+
+        try {
+            SampleDBObject.insertAll(mDatabase, samples, 3);
+            fail("duplicate title inserted");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        assertEquals(3, countRows());
+        assertFalse(mDatabase.inTransaction());
+    }
+
+    private List<SampleDBObject> newSamples(int from, int to) {
+        final List<SampleDBObject> samples = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            samples.add(Samples.newSample(mContext, i));
+        }
+
+        return samples;
+    }
+
+    private long countRows() {
+        return mDatabase.queryLong("SELECT COUNT(*) FROM SampleDBObject", null);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+import android.os.Parcel;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Round-trips generated objects through the generated ByteBuffer and
+ * Parcel codecs, NULL columns included.
+ */
+public class BinaryCodecTest {
+
+    private final Context mContext = new Context();
+
+    @Test
+    public void roundTripsBuffers() {
+        final List<SampleDBObject> samples = Arrays.asList(
+                Samples.newSample(mContext, 1),
+                Samples.newNullSample(mContext, 2),
+                Samples.newSample(mContext, 3));
+
+        final int size = SampleDBObject.getBinarySize(samples);
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        SampleDBObject.writeAllTo(buffer, samples);
+        assertEquals(size, buffer.position());
+
+        buffer.flip();
+        final List<SampleDBObject> read = SampleDBObject.readAllFrom(mContext, buffer);
+        assertEquals(0, buffer.remaining());
+
+        assertEquals(samples.size(), read.size());
+        for (int i = 0; i < samples.size(); i++) {
+            Samples.assertSampleEquals(samples.get(i), read.get(i));
+            assertFalse(read.get(i).hasDirtyColumns());
+        }
+        assertNull(read.get(1).getValue(SampleDBObject.COLUMN_RANK));
+        assertNull(read.get(1).getValue(SampleDBObject.COLUMN_ACTIVE));
+        assertNull(read.get(1).getValue(SampleDBObject.COLUMN_COLOR));
+    }
+
+    @Test
+    public void roundTripsFieldStorageBuffers() {
+        final FieldSampleDBObject empty = Samples.newNullFieldSample(mContext, 2);
+        empty.setRatio(0);
+
+        for (FieldSampleDBObject sample: Arrays.asList(
+                Samples.newFieldSample(mContext, 1), empty)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(sample.getBinarySize());
+            sample.writeTo(buffer);
+            assertEquals(0, buffer.remaining());
+
+            buffer.flip();
+            final FieldSampleDBObject read = FieldSampleDBObject.readFrom(mContext, buffer);
+
+            Samples.assertFieldSampleEquals(sample, read);
+            assertFalse(read.hasDirtyColumns());
+        }
+    }
+
+    @Test
+    public void roundTripsParcels() {
+        final SampleDBObject older = new SampleDBObject(mContext, 1);
+        older.setId(4);
+        older.setTitle("sample 4");
+
+        for (SampleDBObject sample: Arrays.asList(
+                Samples.newSample(mContext, 1), Samples.newNullSample(mContext, 2), older)) {
+            final SampleDBObject read = SampleDBObject.readFromParcel(mContext, toParcel(sample));
+
+            Samples.assertSampleEquals(sample, read);
+            assertFalse(read.hasDirtyColumns());
+        }
+    }
+
+    @Test
+    public void roundTripsFieldStorageParcels() {
+        for (FieldSampleDBObject sample: Arrays.asList(
+                Samples.newFieldSample(mContext, 1), Samples.newNullFieldSample(mContext, 2))) {
+            final Parcel parcel = Parcel.obtain();
+            sample.writeToParcel(parcel);
+            parcel.setDataPosition(0);
+
+            final FieldSampleDBObject read = FieldSampleDBObject.readFromParcel(mContext, parcel);
+
+            Samples.assertFieldSampleEquals(sample, read);
+            assertFalse(read.hasDirtyColumns());
+        }
+    }
+
+    private static Parcel toParcel(SampleDBObject sample) {
+        final Parcel parcel = Parcel.obtain();
+        sample.writeToParcel(parcel);
+        parcel.setDataPosition(0);
+
+        return parcel;
+    }
+
+}
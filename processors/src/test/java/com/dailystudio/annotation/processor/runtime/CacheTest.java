@@ -0,0 +1,159 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Runs the generated identity cache of {@link Owner} on SQLite: eviction
+ * of the least recently used object, invalidation by writes and racing
+ * loads of one row.
+ */
+public class CacheTest {
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        OwnerDBObject.clearCache();
+
+        mDatabase = new JdbcDatabase();
+        mDatabase.execSQL(OwnerDBObject.getCreateTableSQL(1));
+        OwnerDBObject.insertAll(mDatabase, newOwners(1, 3));
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+        OwnerDBObject.clearCache();
+    }
+
+    @Test
+    public void findsCachedObjects() {
+        final long misses = OwnerDBObject.getCacheMissCount();
+        final long hits = OwnerDBObject.getCacheHitCount();
+        final int queries = mDatabase.getQueryCount();
+
+        final OwnerDBObject owner = OwnerDBObject.findCached(mContext, mDatabase, 1);
+        assertEquals("owner 1", owner.getName());
+        assertSame(owner, OwnerDBObject.findCached(mContext, mDatabase, 1));
+        assertNull(OwnerDBObject.findCached(mContext, mDatabase, 9));
+
+        assertEquals(queries + 2, mDatabase.getQueryCount());
+        assertEquals(misses + 2, OwnerDBObject.getCacheMissCount());
+        assertEquals(hits + 1, OwnerDBObject.getCacheHitCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final OwnerDBObject first = OwnerDBObject.findCached(mContext, mDatabase, 1);
+        OwnerDBObject.findCached(mContext, mDatabase, 2);
+        OwnerDBObject.findCached(mContext, mDatabase, 1);
+        OwnerDBObject.findCached(mContext, mDatabase, 3);
+
+        assertNull(OwnerDBObject.getCached(2));
+        assertSame(first, OwnerDBObject.getCached(1));
+        assertNotNull(OwnerDBObject.getCached(3));
+    }
+
+    @Test
+    public void updateInvalidates() {
+        final OwnerDBObject owner = OwnerDBObject.findCached(mContext, mDatabase, 1);
+        owner.setName("renamed");
+
+        assertEquals(1, owner.update(mDatabase));
+        assertNull(OwnerDBObject.getCached(1));
+
+        final OwnerDBObject reloaded = OwnerDBObject.findCached(mContext, mDatabase, 1);
+        assertNotSame(owner, reloaded);
+        assertEquals("renamed", reloaded.getName());
+    }
+
+    @Test
+    public void batchInvalidatesAfterCommit() {
+        // a reader loading the row before the commit must not keep it cached
+        final JdbcDatabase db = new JdbcDatabase() {
+
+            @Override
+            public void endTransaction() {
+                OwnerDBObject.findCached(mContext, this, 2);
+                super.endTransaction();
+            }
+
+        };
+        try {
+            db.execSQL(OwnerDBObject.getCreateTableSQL(1));
+            OwnerDBObject.insertAll(db, newOwners(1, 3));
+
+            final OwnerDBObject changed = newOwners(2, 2).get(0);
+            changed.setName("renamed");
+            assertEquals(1, OwnerDBObject.upsertAll(db, Arrays.asList(changed)));
+
+            assertNull(OwnerDBObject.getCached(2));
+            assertEquals("renamed",
+                    OwnerDBObject.findCached(mContext, db, 2).getName());
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void racingLoadsShareOneObject() {
+        // another load of the row wins while this one is reading its cursor
+        final JdbcDatabase db = new JdbcDatabase() {
+
+            private boolean mRacing;
+
+            @Override
+            public Cursor query(String table, String[] columns, String selection,
+                                String[] selectionArgs, String groupBy, String having,
+                                String orderBy) {
+                if (!mRacing) {
+                    mRacing = true;
+                    OwnerDBObject.findCached(mContext, this, 1);
+                }
+
+                return super.query(table, columns, selection, selectionArgs,
+                        groupBy, having, orderBy);
+            }
+
+        };
+        try {
+            db.execSQL(OwnerDBObject.getCreateTableSQL(1));
+            OwnerDBObject.insertAll(db, newOwners(1, 1));
+
+            final OwnerDBObject owner = OwnerDBObject.findCached(mContext, db, 1);
+            assertSame(OwnerDBObject.getCached(1), owner);
+        } finally {
+            db.close();
+        }
+    }
+
+    private List<OwnerDBObject> newOwners(long from, long to) {
+        final List<OwnerDBObject> owners = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            final OwnerDBObject owner = new OwnerDBObject(mContext);
+            owner.setId(id);
+            owner.setName("owner " + id);
+            owners.add(owner);
+        }
+
+        return owners;
+    }
+
+}
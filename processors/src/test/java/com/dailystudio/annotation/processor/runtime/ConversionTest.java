@@ -0,0 +1,111 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the enum, date and converter columns of generated objects on
+ * SQLite: values are stored as ordinals, epoch milliseconds and converted
+ * text, and null as SQL NULL.
+ */
+public class ConversionTest {
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = Samples.createDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void storesConvertedValues() {
+        SampleDBObject.insertAll(mDatabase, Arrays.asList(Samples.newSample(mContext, 2)));
+        FieldSampleDBObject.insertAll(mDatabase, Arrays.asList(Samples.newFieldSample(mContext, 2)));
+
+        for (String table: Arrays.asList("SampleDBObject", "FieldSampleDBObject")) {
+            final Cursor c = mDatabase.rawQuery("SELECT color, created, price FROM " + table, null);
+            try {
+                c.moveToFirst();
+                assertEquals(Sample.Color.BLUE.ordinal(), c.getInt(0));
+                assertEquals(1500000000002L, c.getLong(1));
+                assertEquals("2.25", c.getString(2));
+            } finally {
+                c.close();
+            }
+        }
+    }
+
+    @Test
+    public void storesNullAsNull() {
+        final SampleDBObject sample = Samples.newSample(mContext, 1);
+        sample.setColor(null);
+        sample.setCreated(null);
+        sample.setPrice(null);
+        assertNull(sample.getValue(SampleDBObject.COLUMN_COLOR));
+        assertNull(sample.getColor());
+
+        final FieldSampleDBObject fieldSample = Samples.newFieldSample(mContext, 1);
+        fieldSample.setColor(null);
+        fieldSample.setCreated(null);
+        fieldSample.setPrice(null);
+
+        SampleDBObject.insertAll(mDatabase, Arrays.asList(sample));
+        FieldSampleDBObject.insertAll(mDatabase, Arrays.asList(fieldSample));
+
+        for (String table: Arrays.asList("SampleDBObject", "FieldSampleDBObject")) {
+            assertEquals(table, 1, mDatabase.queryLong("SELECT COUNT(*) FROM " + table
+                    + " WHERE color IS NULL AND created IS NULL AND price IS NULL", null));
+        }
+
+        final SampleDBObject read = SampleDBObject.findByTitle(mContext, mDatabase, "sample 1");
+        assertNull(read.getColor());
+        assertNull(read.getCreated());
+        assertNull(read.getPrice());
+
+        final FieldSampleDBObject fieldRead =
+                FieldSampleDBObject.findByTitle(mContext, mDatabase, "sample 1");
+        assertNull(fieldRead.getColor());
+        assertNull(fieldRead.getCreated());
+        assertNull(fieldRead.getPrice());
+    }
+
+    @Test
+    public void readsUnknownOrdinalsAsNull() {
+        mDatabase.execSQL("INSERT INTO SampleDBObject (id, title, color, price)"
+                + " VALUES (1, 'sample 1', 7, '10')");
+
+        final SampleDBObject read = SampleDBObject.findByTitle(mContext, mDatabase, "sample 1");
+        assertNull(read.getColor());
+        assertEquals(new BigDecimal("10"), read.getPrice());
+    }
+
+    @Test
+    public void bindsConvertedSelectionArgs() {
+        SampleDBObject.insertAll(mDatabase, Arrays.asList(
+                Samples.newSample(mContext, 1), Samples.newSample(mContext, 4)));
+
+        assertEquals(1, SampleDBObject.findByColorAndCreated(mContext, mDatabase,
+                Sample.Color.GREEN, Samples.newSample(mContext, 4).getCreated()).size());
+        assertTrue(SampleDBObject.findByColorAndCreated(mContext, mDatabase,
+                Sample.Color.GREEN, Samples.newSample(mContext, 2).getCreated()).isEmpty());
+    }
+
+}
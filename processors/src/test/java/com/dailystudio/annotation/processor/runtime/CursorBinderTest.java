@@ -0,0 +1,155 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the generated CursorBinders over cursors with columns in any
+ * order, missing columns, NULL cells and rows read back from SQLite.
+ */
+public class CursorBinderTest {
+
+    private final static String[] SHUFFLED_COLUMNS = {
+            "extra", "note", "data", "price", "color", "created",
+            "active", "ratio", "quantity", "rank", "title", "id",
+    };
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = Samples.createDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void bindsColumnsByName() {
+        final MatrixCursor c = new MatrixCursor(SHUFFLED_COLUMNS);
+        c.addRow(new Object[] { "ignored", "n", new byte[] { 1, 2 }, "1.50", 2, 1000L,
+                1, 0.5, 7, 3, "t", 42L });
+        assertTrue(c.moveToFirst());
+
+        final SampleDBObject sample = SampleDBObject.fromCursor(c, new SampleDBObject(mContext));
+        assertEquals(42L, sample.getId());
+        assertEquals("t", sample.getTitle());
+        assertEquals(3, sample.getRank());
+        assertEquals(Integer.valueOf(7), sample.getQuantity());
+        assertEquals(0.5, sample.getRatio(), 0);
+        assertTrue(sample.getActive());
+        assertEquals(new Date(1000L), sample.getCreated());
+        assertEquals(Sample.Color.BLUE, sample.getColor());
+        assertEquals(new BigDecimal("1.50"), sample.getPrice());
+        assertArrayEquals(new byte[] { 1, 2 }, sample.getData());
+        assertEquals("n", sample.getNote());
+        assertFalse(sample.hasDirtyColumns());
+
+        final FieldSampleDBObject fieldSample = FieldSampleDBObject.fromCursor(c,
+                new FieldSampleDBObject(mContext));
+        assertEquals(42L, fieldSample.getId());
+        assertEquals(3, fieldSample.getRank());
+        assertTrue(fieldSample.hasValue(FieldSampleDBObject.ORDINAL_RANK));
+        assertEquals(FieldSample.Color.BLUE, fieldSample.getColor());
+        assertEquals(new BigDecimal("1.50"), fieldSample.getPrice());
+        assertFalse(fieldSample.hasDirtyColumns());
+    }
+
+    @Test
+    public void bindsNullCells() {
+        final MatrixCursor c = new MatrixCursor(SHUFFLED_COLUMNS);
+        c.addRow(new Object[] { null, null, null, null, null, null,
+                null, null, null, null, "t", 1L });
+        assertTrue(c.moveToFirst());
+
+        final SampleDBObject sample = SampleDBObject.fromCursor(c,
+                Samples.newSample(mContext, 5));
+        assertEquals(1L, sample.getId());
+        assertNull(sample.getValue(SampleDBObject.COLUMN_RANK));
+        assertNull(sample.getQuantity());
+        assertNull(sample.getValue(SampleDBObject.COLUMN_RATIO));
+        assertNull(sample.getValue(SampleDBObject.COLUMN_ACTIVE));
+        assertNull(sample.getCreated());
+        assertNull(sample.getPrice());
+        assertNull(sample.getData());
+        assertNull(sample.getNote());
+
+        final FieldSampleDBObject fieldSample = FieldSampleDBObject.fromCursor(c,
+                Samples.newFieldSample(mContext, 5));
+        assertFalse(fieldSample.hasValue(FieldSampleDBObject.ORDINAL_RANK));
+        assertEquals(0, fieldSample.getRank());
+        assertFalse(fieldSample.hasValue(FieldSampleDBObject.ORDINAL_RATIO));
+        assertFalse(fieldSample.hasValue(FieldSampleDBObject.ORDINAL_ACTIVE));
+        assertNull(fieldSample.getQuantity());
+        assertNull(fieldSample.getCreated());
+        assertNull(fieldSample.getColor());
+        assertNull(fieldSample.getPrice());
+        assertNull(fieldSample.getData());
+        assertFalse(fieldSample.hasDirtyColumns());
+    }
+
+    @Test
+    public void keepsColumnsMissingFromCursor() {
+        final MatrixCursor c = new MatrixCursor(new String[] { "id", "rank" });
+        c.addRow(new Object[] { 9L, 90 });
+        assertTrue(c.moveToFirst());
+
+        final SampleDBObject sample = SampleDBObject.fromCursor(c,
+                Samples.newSample(mContext, 5));
+        assertEquals(9L, sample.getId());
+        assertEquals(90, sample.getRank());
+        assertEquals("sample 5", sample.getTitle());
+        assertEquals("note 5", sample.getNote());
+    }
+
+    @Test
+    public void readsRowsOfSQLite() {
+        final List<SampleDBObject> samples = Arrays.asList(
+                Samples.newSample(mContext, 1),
+                Samples.newNullSample(mContext, 2),
+                Samples.newSample(mContext, 3));
+        final List<FieldSampleDBObject> fieldSamples = Arrays.asList(
+                Samples.newFieldSample(mContext, 1),
+                Samples.newNullFieldSample(mContext, 2),
+                Samples.newFieldSample(mContext, 3));
+        SampleDBObject.insertAll(mDatabase, samples);
+        FieldSampleDBObject.insertAll(mDatabase, fieldSamples);
+
+        final Cursor c = mDatabase.query(SampleDBObject.TABLE_NAME,
+                null, null, null, null, null, "id");
+        final List<SampleDBObject> read = SampleDBObject.readAll(mContext, c);
+        assertEquals(samples.size(), read.size());
+        for (int i = 0; i < samples.size(); i++) {
+            Samples.assertSampleEquals(samples.get(i), read.get(i));
+        }
+
+        final Cursor fc = mDatabase.query(FieldSampleDBObject.TABLE_NAME,
+                null, null, null, null, null, "id");
+        final List<FieldSampleDBObject> fieldRead = FieldSampleDBObject.readAll(mContext, fc);
+        assertEquals(fieldSamples.size(), fieldRead.size());
+        for (int i = 0; i < fieldSamples.size(); i++) {
+            Samples.assertFieldSampleEquals(fieldSamples.get(i), fieldRead.get(i));
+        }
+    }
+
+}
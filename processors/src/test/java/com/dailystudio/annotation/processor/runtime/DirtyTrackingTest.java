@@ -0,0 +1,110 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the generated dirty tracking and update() on SQLite: only the
+ * changed columns are written and they stay dirty until a row is updated.
+ */
+public class DirtyTrackingTest {
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = Samples.createDatabase();
+        SampleDBObject.insertAll(mDatabase, Arrays.asList(
+                Samples.newSample(mContext, 1), Samples.newSample(mContext, 2)));
+        FieldSampleDBObject.insertAll(mDatabase, Arrays.asList(
+                Samples.newFieldSample(mContext, 1)));
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void settersMarkColumnsDirty() {
+        final SampleDBObject sample = load(1);
+        assertFalse(sample.hasDirtyColumns());
+
+        sample.setRank(42);
+        assertTrue(sample.isDirty(SampleDBObject.ORDINAL_RANK));
+        assertFalse(sample.isDirty(SampleDBObject.ORDINAL_TITLE));
+
+        sample.clearDirtyColumns();
+        assertFalse(sample.hasDirtyColumns());
+    }
+
+    @Test
+    public void updatesDirtyColumnsOnly() {
+        final SampleDBObject sample = load(1);
+        sample.setRank(42);
+        sample.setNote(null);
+
+        assertEquals(1, sample.update(mDatabase));
+        assertFalse(sample.hasDirtyColumns());
+
+        final List<String> statements = mDatabase.getStatements();
+        assertEquals("UPDATE SampleDBObject SET rank = ?, note = ? WHERE id = ?",
+                statements.get(statements.size() - 1));
+
+        final SampleDBObject expected = Samples.newSample(mContext, 1);
+        expected.setRank(42);
+        expected.setNote(null);
+        Samples.assertSampleEquals(expected, load(1));
+        Samples.assertSampleEquals(Samples.newSample(mContext, 2), load(2));
+    }
+
+    @Test
+    public void updatesNothingWithoutDirtyColumns() {
+        final int compiled = mDatabase.getCompiledStatementCount();
+
+        assertEquals(0, load(1).update(mDatabase));
+        assertEquals(compiled, mDatabase.getCompiledStatementCount());
+    }
+
+    @Test
+    public void keepsDirtyColumnsWithoutRow() {
+        final SampleDBObject sample = Samples.newNullSample(mContext, 9);
+        sample.setRank(42);
+
+        assertEquals(0, sample.update(mDatabase));
+        assertTrue(sample.isDirty(SampleDBObject.ORDINAL_RANK));
+        assertNull(SampleDBObject.findByTitle(mContext, mDatabase, "sample 9"));
+    }
+
+    @Test
+    public void updatesFieldStorage() {
+        final FieldSampleDBObject sample = FieldSampleDBObject.findByTitle(
+                mContext, mDatabase, "sample 1");
+        assertFalse(sample.hasDirtyColumns());
+
+        sample.setRatio(0.5);
+        assertEquals(1, sample.update(mDatabase));
+        assertFalse(sample.hasDirtyColumns());
+
+        assertEquals(1, mDatabase.queryLong("SELECT COUNT(*) FROM FieldSampleDBObject"
+                + " WHERE ratio = 0.5 AND rank = 10", null));
+    }
+
+    private SampleDBObject load(long id) {
+        return SampleDBObject.findByTitle(mContext, mDatabase, "sample " + id);
+    }
+
+}
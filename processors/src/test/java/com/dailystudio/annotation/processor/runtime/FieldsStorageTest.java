@@ -0,0 +1,101 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the typed fields of Storage.FIELDS and their sync with the value
+ * map, including the presence bits of nullable primitive columns.
+ */
+public class FieldsStorageTest {
+
+    private final Context mContext = new Context();
+
+    @Test
+    public void settersKeepValuesInFields() {
+        final FieldSampleDBObject sample = new FieldSampleDBObject(mContext);
+        assertFalse(sample.hasValue(FieldSampleDBObject.ORDINAL_RANK));
+
+        sample.setRank(0);
+        assertTrue(sample.hasValue(FieldSampleDBObject.ORDINAL_RANK));
+        assertEquals(0, sample.getRank());
+
+        // the value map is only written by syncFieldsToValues()
+        assertNull(sample.getValue(FieldSampleDBObject.COLUMN_RANK));
+    }
+
+    @Test
+    public void syncsFieldsWithValues() {
+        final FieldSampleDBObject sample = Samples.newFieldSample(mContext, 3);
+        sample.syncFieldsToValues();
+
+        assertEquals(30, sample.getIntegerValue(FieldSampleDBObject.COLUMN_RANK));
+        assertEquals(103, sample.getIntegerValue(FieldSampleDBObject.COLUMN_QUANTITY));
+        assertEquals(1500000000003L, sample.getLongValue(FieldSampleDBObject.COLUMN_CREATED));
+        assertEquals(FieldSample.Color.values()[0].ordinal(),
+                sample.getIntegerValue(FieldSampleDBObject.COLUMN_COLOR));
+        assertEquals("3.25", sample.getTextValue(FieldSampleDBObject.COLUMN_PRICE));
+
+        final FieldSampleDBObject copy = new FieldSampleDBObject(mContext);
+        for (int i = 0; i < FieldSampleDBObject.COLUMN_COUNT; i++) {
+            copy.setValue(copy.getTemplate().listColumns().get(i),
+                    sample.getValue(sample.getTemplate().listColumns().get(i)));
+        }
+        copy.syncFieldsFromValues();
+
+        Samples.assertFieldSampleEquals(sample, copy);
+    }
+
+    @Test
+    public void syncsNullColumns() {
+        final FieldSampleDBObject sample = Samples.newFieldSample(mContext, 3);
+        sample.syncFieldsToValues();
+
+        final FieldSampleDBObject empty = Samples.newNullFieldSample(mContext, 3);
+        empty.syncFieldsToValues();
+        assertNull(empty.getValue(FieldSampleDBObject.COLUMN_RANK));
+        assertNull(empty.getValue(FieldSampleDBObject.COLUMN_RATIO));
+        assertNull(empty.getValue(FieldSampleDBObject.COLUMN_ACTIVE));
+        assertNull(empty.getValue(FieldSampleDBObject.COLUMN_CREATED));
+        assertNull(empty.getValue(FieldSampleDBObject.COLUMN_COLOR));
+
+        // NULL values clear fields and presence bits set before
+        sample.setValue(FieldSampleDBObject.COLUMN_RANK, null);
+        sample.setValue(FieldSampleDBObject.COLUMN_CREATED, null);
+        sample.setValue(FieldSampleDBObject.COLUMN_COLOR, null);
+        sample.syncFieldsFromValues();
+
+        assertFalse(sample.hasValue(FieldSampleDBObject.ORDINAL_RANK));
+        assertEquals(0, sample.getRank());
+        assertNull(sample.getCreated());
+        assertNull(sample.getColor());
+        assertTrue(sample.hasValue(FieldSampleDBObject.ORDINAL_RATIO));
+    }
+
+    @Test
+    public void storesUnsetPrimitivesAsNull() {
+        final JdbcDatabase db = Samples.createDatabase();
+        try {
+            final FieldSampleDBObject sample = Samples.newNullFieldSample(mContext, 1);
+            sample.setActive(false);
+            sample.setCreated(new Date(0));
+            FieldSampleDBObject.insertAll(db, Arrays.asList(sample));
+
+            assertEquals(1, db.queryLong("SELECT COUNT(*) FROM FieldSampleDBObject"
+                    + " WHERE rank IS NULL AND ratio IS NULL AND active = 0"
+                    + " AND created = 0", null));
+        } finally {
+            db.close();
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the generated FTS4 triggers keep the index of {@link Note}
+ * in sync with its table on SQLite, and that the upgrade rebuilds it.
+ */
+public class FullTextTest {
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = new JdbcDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void indexesInsertedRows() {
+        createTables();
+
+        assertSearch("fox", 1);
+        assertSearch("lazy", 2);
+        assertSearch("quick", 1, 3);
+        assertSearch("title:quick", 1);
+        assertSearch("urgent", 3);
+        assertSearch("anna");
+        assertIndexIntact();
+    }
+
+    @Test
+    public void reindexesUpdatedRows() {
+        createTables();
+
+        final NoteDBObject note = NoteDBObject.search(
+                mContext, mDatabase, "fox", 10).get(0);
+        note.setTitle("slow turtle");
+        assertEquals(1, note.update(mDatabase));
+
+        assertSearch("fox");
+        assertSearch("turtle", 1);
+        assertSearch("quick", 3);
+
+        note.setAuthor("bob");
+        assertEquals(1, note.update(mDatabase));
+        assertSearch("turtle", 1);
+        assertIndexIntact();
+    }
+
+    @Test
+    public void reindexesReplacedRows() {
+        createTables();
+
+        NoteDBObject.upsertAll(mDatabase, Arrays.asList(
+                newNote(2, "sleepy cat", null, "home")));
+
+        assertSearch("dog");
+        assertSearch("cat", 2);
+        assertSearch("home", 2);
+        assertIndexIntact();
+    }
+
+    @Test
+    public void unindexesDeletedRows() {
+        createTables();
+
+        mDatabase.execSQL("DELETE FROM NoteDBObject WHERE id = 1");
+
+        assertSearch("fox");
+        assertSearch("quick", 3);
+        assertIndexIntact();
+    }
+
+    @Test
+    public void upgradeRebuildsIndex() {
+        mDatabase.execSQL(NoteDBObject.getCreateTableSQL(1));
+        mDatabase.execSQL(NoteDBObject.getCreateIndexSQL(1));
+        mDatabase.execSQL("INSERT INTO NoteDBObject (id, title, body, author)"
+                + " VALUES (1, 'quick fox', 'jumps high', 'anna')");
+
+        mDatabase.execSQL(NoteDBObject.getUpgradeSQL(1));
+
+        assertSearch("fox", 1);
+
+        mDatabase.execSQL("UPDATE NoteDBObject SET tags = 'urgent' WHERE id = 1");
+        assertSearch("urgent", 1);
+        assertSearch("tags:fox");
+        assertIndexIntact();
+    }
+
+    private void createTables() {
+        mDatabase.execSQL(NoteDBObject.getCreateTableSQL(2));
+        mDatabase.execSQL(NoteDBObject.getCreateIndexSQL(2));
+
+        NoteDBObject.insertAll(mDatabase, Arrays.asList(
+                newNote(1, "quick fox", "jumps over", null),
+                newNote(2, "lazy dog", "sleeps all day", null),
+                newNote(3, "shopping", "a quick list", "urgent")));
+    }
+
+    private NoteDBObject newNote(long id, String title, String body, String tags) {
+        final NoteDBObject note = new NoteDBObject(mContext);
+
+        note.setId(id);
+        note.setTitle(title);
+        note.setBody(body);
+        note.setTags(tags);
+        note.setAuthor("anna");
+
+        return note;
+    }
+
+    private void assertSearch(String query, long... expectedIds) {
+        final long[] ids = NoteDBObject.searchRowIds(mDatabase, query, 10);
+        Arrays.sort(ids);
+
+        assertArrayEquals(query, expectedIds, ids);
+
+        final List<Long> noteIds = new ArrayList<>();
+        for (NoteDBObject note: NoteDBObject.search(mContext, mDatabase, query, 10)) {
+            noteIds.add(note.getId());
+        }
+        for (long id: expectedIds) {
+            assertTrue(query, noteIds.contains(id));
+        }
+        assertEquals(query, expectedIds.length, noteIds.size());
+    }
+
+    private void assertIndexIntact() {
+        mDatabase.execSQL("INSERT INTO NoteDBObject_fts(NoteDBObject_fts)"
+                + " VALUES ('integrity-check')");
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the generated findBy lookups of declared indexes and checks that
+ * SQLite answers them from those indexes.
+ */
+public class IndexTest {
+
+    private final static int ROWS = 30;
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = Samples.createDatabase();
+
+        final List<SampleDBObject> samples = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            final SampleDBObject sample = Samples.newSample(mContext, i);
+            sample.setRank(i % 5);
+            samples.add(sample);
+        }
+        SampleDBObject.insertAll(mDatabase, samples);
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void findsByUniqueIndex() {
+        final SampleDBObject expected = Samples.newSample(mContext, 7);
+        expected.setRank(2);
+
+        Samples.assertSampleEquals(expected,
+                SampleDBObject.findByTitle(mContext, mDatabase, "sample 7"));
+        assertNull(SampleDBObject.findByTitle(mContext, mDatabase, "missing"));
+    }
+
+    @Test
+    public void findsByIndex() {
+        final List<SampleDBObject> samples =
+                SampleDBObject.findByRank(mContext, mDatabase, 3);
+
+        assertEquals(ROWS / 5, samples.size());
+        for (SampleDBObject sample: samples) {
+            assertEquals(3, sample.getRank());
+        }
+    }
+
+    @Test
+    public void findsByCompositeIndex() {
+        final List<SampleDBObject> samples = SampleDBObject.findByColorAndCreated(
+                mContext, mDatabase, Sample.Color.BLUE, new Date(1500000000000L + 11));
+
+        assertEquals(1, samples.size());
+        assertEquals(11, samples.get(0).getId());
+        assertTrue(SampleDBObject.findByColorAndCreated(mContext, mDatabase,
+                Sample.Color.RED, new Date(1500000000000L + 11)).isEmpty());
+    }
+
+    @Test
+    public void lookupsUseIndexes() {
+        assertUsesIndex("idx_SampleDBObject_title", "title = ?", "sample 7");
+        assertUsesIndex("idx_SampleDBObject_rank", "rank = ?", "3");
+        assertUsesIndex("idx_SampleDBObject_color_created",
+                "color = ? AND created = ?", "2", "1500000000011");
+    }
+
+    private void assertUsesIndex(String index, String selection, String... args) {
+        final List<String> plan = mDatabase.explainQueryPlan(
+                "SELECT * FROM SampleDBObject WHERE " + selection, args);
+
+        assertEquals(1, plan.size());
+        assertTrue(plan.toString(), plan.get(0).contains("USING INDEX " + index));
+    }
+
+}
@@ -0,0 +1,284 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQLiteDatabase over an in-memory SQLite reached through JDBC, so the
+ * runtime tests run the SQL of generated code against a real SQLite.
+ * Nested transactions follow the platform: the outermost one commits
+ * only if every level was marked successful.
+ */
+public class JdbcDatabase extends SQLiteDatabase implements Closeable {
+
+    private final Connection mConnection;
+
+    private int mTransactionDepth;
+    private boolean mTransactionSuccessful;
+    private boolean mTransactionFailed;
+
+    private int mCompiledStatements;
+    private int mQueries;
+    private final List<String> mStatements = new ArrayList<>();
+
+    public JdbcDatabase() {
+        try {
+            mConnection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        } catch (SQLException e) {
+            throw new IllegalStateException("open database failed", e);
+        }
+    }
+
+    @Override
+    public void beginTransaction() {
+        try {
+            if (mTransactionDepth == 0) {
+                mConnection.setAutoCommit(false);
+                mTransactionFailed = false;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("begin transaction failed", e);
+        }
+
+        mTransactionDepth++;
+        mTransactionSuccessful = false;
+    }
+
+    @Override
+    public void setTransactionSuccessful() {
+        if (mTransactionDepth == 0) {
+            throw new IllegalStateException("no transaction pending");
+        }
+
+        mTransactionSuccessful = true;
+    }
+
+    @Override
+    public void endTransaction() {
+        if (mTransactionDepth == 0) {
+            throw new IllegalStateException("no transaction pending");
+        }
+
+        if (!mTransactionSuccessful) {
+            mTransactionFailed = true;
+        }
+
+        mTransactionSuccessful = false;
+        if (--mTransactionDepth > 0) {
+            return;
+        }
+
+        try {
+            if (mTransactionFailed) {
+                mConnection.rollback();
+            } else {
+                mConnection.commit();
+            }
+
+            mConnection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new IllegalStateException("end transaction failed", e);
+        }
+    }
+
+    public boolean inTransaction() {
+        return (mTransactionDepth > 0);
+    }
+
+    @Override
+    public void execSQL(String sql) {
+        mStatements.add(sql);
+
+        try {
+            final Statement statement = mConnection.createStatement();
+            try {
+                statement.execute(sql);
+            } finally {
+                statement.close();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("execute failed: " + sql, e);
+        }
+    }
+
+    public void execSQL(String[] sqls) {
+        for (String sql: sqls) {
+            execSQL(sql);
+        }
+    }
+
+    @Override
+    public SQLiteStatement compileStatement(String sql) {
+        mCompiledStatements++;
+        mStatements.add(sql);
+
+        try {
+            return new JdbcStatement(mConnection, sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("compile failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public Cursor rawQuery(String sql, String[] selectionArgs) {
+        mQueries++;
+        mStatements.add(sql);
+
+        try {
+            final PreparedStatement statement = mConnection.prepareStatement(sql);
+            try {
+                if (selectionArgs != null) {
+                    for (int i = 0; i < selectionArgs.length; i++) {
+                        statement.setString(i + 1, selectionArgs[i]);
+                    }
+                }
+
+                final ResultSet rs = statement.executeQuery();
+                try {
+                    return toCursor(rs);
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                statement.close();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("query failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public Cursor query(String table, String[] columns, String selection,
+                        String[] selectionArgs, String groupBy, String having,
+                        String orderBy) {
+        return query(table, columns, selection, selectionArgs,
+                groupBy, having, orderBy, null);
+    }
+
+    @Override
+    public Cursor query(String table, String[] columns, String selection,
+                        String[] selectionArgs, String groupBy, String having,
+                        String orderBy, String limit) {
+        final StringBuilder sql = new StringBuilder("SELECT ");
+        if (columns == null || columns.length == 0) {
+            sql.append('*');
+        } else {
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(i > 0 ? ", " : "").append(columns[i]);
+            }
+        }
+
+        sql.append(" FROM ").append(table);
+        appendClause(sql, " WHERE ", selection);
+        appendClause(sql, " GROUP BY ", groupBy);
+        appendClause(sql, " HAVING ", having);
+        appendClause(sql, " ORDER BY ", orderBy);
+        appendClause(sql, " LIMIT ", limit);
+
+        return rawQuery(sql.toString(), selectionArgs);
+    }
+
+    /**
+     * Details of EXPLAIN QUERY PLAN for the query, one per step.
+     */
+    public List<String> explainQueryPlan(String sql, String[] selectionArgs) {
+        final List<String> details = new ArrayList<>();
+
+        final Cursor c = rawQuery("EXPLAIN QUERY PLAN " + sql, selectionArgs);
+        try {
+            final int detailIndex = c.getColumnIndex("detail");
+            while (c.moveToNext()) {
+                details.add(c.getString(detailIndex));
+            }
+        } finally {
+            c.close();
+        }
+
+        return details;
+    }
+
+    public long queryLong(String sql, String[] selectionArgs) {
+        final Cursor c = rawQuery(sql, selectionArgs);
+        try {
+            if (!c.moveToFirst()) {
+                throw new IllegalStateException("no result: " + sql);
+            }
+
+            return c.getLong(0);
+        } finally {
+            c.close();
+        }
+    }
+
+    /**
+     * Number of statements compiled so far.
+     */
+    public int getCompiledStatementCount() {
+        return mCompiledStatements;
+    }
+
+    /**
+     * Number of queries run so far.
+     */
+    public int getQueryCount() {
+        return mQueries;
+    }
+
+    /**
+     * SQL of every statement executed, compiled or queried so far.
+     */
+    public List<String> getStatements() {
+        return mStatements;
+    }
+
+    @Override
+    public void close() {
+        try {
+            mConnection.close();
+        } catch (SQLException e) {
+            throw new IllegalStateException("close database failed", e);
+        }
+    }
+
+    private static void appendClause(StringBuilder sql, String keyword, String clause) {
+        if (clause != null && !clause.isEmpty()) {
+            sql.append(keyword).append(clause);
+        }
+    }
+
+    private static Cursor toCursor(ResultSet rs) throws SQLException {
+        final ResultSetMetaData metaData = rs.getMetaData();
+        final int count = metaData.getColumnCount();
+
+        final String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = metaData.getColumnLabel(i + 1);
+        }
+
+        final MatrixCursor cursor = new MatrixCursor(names);
+        while (rs.next()) {
+            final Object[] values = new Object[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+
+            cursor.addRow(values);
+        }
+
+        return cursor;
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.database.sqlite.SQLiteStatement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * SQLiteStatement over a JDBC prepared statement of {@link JdbcDatabase}.
+ */
+class JdbcStatement extends SQLiteStatement {
+
+    private final Connection mConnection;
+    private final PreparedStatement mStatement;
+
+    JdbcStatement(Connection connection, String sql) throws SQLException {
+        mConnection = connection;
+        mStatement = connection.prepareStatement(sql);
+    }
+
+    @Override
+    public void bindLong(int index, long value) {
+        try {
+            mStatement.setLong(index, value);
+        } catch (SQLException e) {
+            throw new IllegalStateException("bind failed: " + index, e);
+        }
+    }
+
+    @Override
+    public void bindDouble(int index, double value) {
+        try {
+            mStatement.setDouble(index, value);
+        } catch (SQLException e) {
+            throw new IllegalStateException("bind failed: " + index, e);
+        }
+    }
+
+    @Override
+    public void bindString(int index, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("the bind value at index " + index + " is null");
+        }
+
+        try {
+            mStatement.setString(index, value);
+        } catch (SQLException e) {
+            throw new IllegalStateException("bind failed: " + index, e);
+        }
+    }
+
+    @Override
+    public void bindBlob(int index, byte[] value) {
+        if (value == null) {
+            throw new IllegalArgumentException("the bind value at index " + index + " is null");
+        }
+
+        try {
+            mStatement.setBytes(index, value);
+        } catch (SQLException e) {
+            throw new IllegalStateException("bind failed: " + index, e);
+        }
+    }
+
+    @Override
+    public void bindNull(int index) {
+        try {
+            mStatement.setNull(index, Types.NULL);
+        } catch (SQLException e) {
+            throw new IllegalStateException("bind failed: " + index, e);
+        }
+    }
+
+    @Override
+    public void clearBindings() {
+        try {
+            mStatement.clearParameters();
+        } catch (SQLException e) {
+            throw new IllegalStateException("clear bindings failed", e);
+        }
+    }
+
+    @Override
+    public long executeInsert() {
+        try {
+            if (mStatement.executeUpdate() <= 0) {
+                return -1;
+            }
+
+            final Statement statement = mConnection.createStatement();
+            try {
+                final ResultSet rs = statement.executeQuery("SELECT last_insert_rowid()");
+                try {
+                    return (rs.next() ? rs.getLong(1) : -1);
+                } finally {
+                    rs.close();
+                }
+            } finally {
+                statement.close();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("insert failed", e);
+        }
+    }
+
+    @Override
+    public int executeUpdateDelete() {
+        try {
+            return mStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("update failed", e);
+        }
+    }
+
+    @Override
+    public void execute() {
+        try {
+            mStatement.execute();
+        } catch (SQLException e) {
+            throw new IllegalStateException("execute failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            mStatement.close();
+        } catch (SQLException e) {
+            throw new IllegalStateException("close failed", e);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonWriter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Round-trips generated objects through the generated JSON codec, NULL
+ * columns, dates, enums and converted columns included.
+ */
+public class JsonCodecTest {
+
+    private final Context mContext = new Context();
+
+    @Test
+    public void roundTripsValues() throws IOException {
+        final SampleDBObject sample = Samples.newSample(mContext, 5);
+
+        final SampleDBObject read = SampleDBObject.readJson(mContext, reader(toJson(sample)));
+
+        Samples.assertSampleEquals(sample, read);
+        assertFalse(read.hasDirtyColumns());
+    }
+
+    @Test
+    public void roundTripsNullValues() throws IOException {
+        final SampleDBObject sample = Samples.newNullSample(mContext, 5);
+
+        final String json = toJson(sample);
+        assertTrue(json, json.contains("\"rank\":null"));
+        assertTrue(json, json.contains("\"quantity\":null"));
+        assertTrue(json, json.contains("\"created\":null"));
+        assertTrue(json, json.contains("\"color\":null"));
+        assertTrue(json, json.contains("\"price\":null"));
+
+        final SampleDBObject read = SampleDBObject.readJson(mContext, reader(json));
+
+        Samples.assertSampleEquals(sample, read);
+        assertNull(read.getValue(SampleDBObject.COLUMN_RANK));
+        assertNull(read.getValue(SampleDBObject.COLUMN_COLOR));
+    }
+
+    @Test
+    public void nullClearsReadValues() throws IOException {
+        final SampleDBObject read = SampleDBObject.readJson(
+                reader(toJson(Samples.newNullSample(mContext, 5))),
+                Samples.newSample(mContext, 5));
+
+        Samples.assertSampleEquals(Samples.newNullSample(mContext, 5), read);
+        assertFalse(read.hasDirtyColumns());
+    }
+
+    @Test
+    public void roundTripsFieldStorage() throws IOException {
+        final FieldSampleDBObject sample = Samples.newFieldSample(mContext, 4);
+        final FieldSampleDBObject empty = Samples.newNullFieldSample(mContext, 6);
+
+        final StringWriter out = new StringWriter();
+        FieldSampleDBObject.writeJsonArray(new JsonWriter(out),
+                Arrays.asList(sample, null, empty));
+
+        final List<FieldSampleDBObject> read =
+                FieldSampleDBObject.readJsonArray(mContext, reader(out.toString()));
+
+        assertEquals(2, read.size());
+        Samples.assertFieldSampleEquals(sample, read.get(0));
+        Samples.assertFieldSampleEquals(empty, read.get(1));
+        assertFalse(read.get(1).hasValue(FieldSampleDBObject.ORDINAL_RANK));
+        assertFalse(read.get(1).hasDirtyColumns());
+    }
+
+    @Test
+    public void olderVersionSkipsNewerColumns() throws IOException {
+        final SampleDBObject read = SampleDBObject.readJson(
+                reader(toJson(Samples.newSample(mContext, 5))),
+                new SampleDBObject(mContext, 1));
+
+        assertEquals("sample 5", read.getTitle());
+        assertNull(read.getNote());
+    }
+
+    private static String toJson(SampleDBObject sample) throws IOException {
+        final StringWriter out = new StringWriter();
+        sample.writeJson(new JsonWriter(out));
+
+        return out.toString();
+    }
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(new StringReader(json));
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import com.dailystudio.annotation.DBColumn;
+import com.dailystudio.annotation.DBObject;
+
+/**
+ * Fixture of the runtime tests with full-text columns, one of them added
+ * to the index in a later version.
+ */
+@DBObject(latestVersion = 2)
+public class Note {
+
+    @DBColumn(primary = "true")
+    private long mId;
+    @DBColumn(fullText = true)
+    private String mTitle;
+    @DBColumn(fullText = true)
+    private String mBody;
+    @DBColumn(version = 2, fullText = true, fullTextVersion = 2)
+    private String mTags;
+    @DBColumn
+    private String mAuthor;
+
+}
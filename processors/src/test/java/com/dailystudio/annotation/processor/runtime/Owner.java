@@ -0,0 +1,21 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import com.dailystudio.annotation.DBColumn;
+import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.DBRelation;
+
+/**
+ * Fixture of the runtime tests with a small identity cache and the
+ * {@link Pet}s referencing it.
+ */
+@DBObject(cacheSize = 2,
+        relations = @DBRelation(name = "pets", target = Pet.class,
+                type = DBRelation.Type.ONE_TO_MANY, column = "owner_id"))
+public class Owner {
+
+    @DBColumn(primary = "true")
+    private long mId;
+    @DBColumn(allowNull = "false")
+    private String mName;
+
+}
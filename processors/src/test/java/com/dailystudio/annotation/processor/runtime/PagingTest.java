@@ -0,0 +1,205 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import com.dailystudio.annotation.support.Ordering;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Walks the generated keyset pages in both orderings and checks that
+ * SQLite reads each page from an index without sorting it.
+ */
+public class PagingTest {
+
+    private final static int ROWS = 23;
+    private final static int PAGE_SIZE = 5;
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+    private List<SampleDBObject> mSamples;
+
+    @Before
+    public void setUp() {
+        mDatabase = Samples.createDatabase();
+
+        mSamples = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            final SampleDBObject sample = Samples.newSample(mContext, i);
+            sample.setRank(i % 4);
+            mSamples.add(sample);
+        }
+        SampleDBObject.insertAll(mDatabase, mSamples);
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void pagesByKey() {
+        for (Ordering ordering: Ordering.values()) {
+            final List<Long> ids = new ArrayList<>();
+
+            List<SampleDBObject> page = SampleDBObject.firstPage(
+                    mContext, mDatabase, PAGE_SIZE, ordering);
+            while (!page.isEmpty()) {
+                assertTrue(page.size() <= PAGE_SIZE);
+                for (SampleDBObject sample: page) {
+                    ids.add(sample.getId());
+                }
+
+                page = SampleDBObject.pageAfter(mContext, mDatabase,
+                        page.get(page.size() - 1).getId(), PAGE_SIZE, ordering);
+            }
+
+            assertEquals(getExpectedIds(BY_ID, ordering), ids);
+        }
+    }
+
+    @Test
+    public void pagesByUniqueIndex() {
+        for (Ordering ordering: Ordering.values()) {
+            final List<Long> ids = new ArrayList<>();
+
+            List<SampleDBObject> page = SampleDBObject.firstPageByTitle(
+                    mContext, mDatabase, PAGE_SIZE, ordering);
+            while (!page.isEmpty()) {
+                for (SampleDBObject sample: page) {
+                    ids.add(sample.getId());
+                }
+
+                final SampleDBObject last = page.get(page.size() - 1);
+                page = SampleDBObject.pageByTitleAfter(mContext, mDatabase,
+                        last.getTitle(), last.getId(), PAGE_SIZE, ordering);
+            }
+
+            assertEquals(getExpectedIds(BY_TITLE, ordering), ids);
+        }
+    }
+
+    @Test
+    public void pagesByIndexWithTies() {
+        for (Ordering ordering: Ordering.values()) {
+            final List<Long> ids = new ArrayList<>();
+
+            List<SampleDBObject> page = SampleDBObject.firstPageByRank(
+                    mContext, mDatabase, PAGE_SIZE, ordering);
+            while (!page.isEmpty()) {
+                for (SampleDBObject sample: page) {
+                    ids.add(sample.getId());
+                }
+
+                final SampleDBObject last = page.get(page.size() - 1);
+                page = SampleDBObject.pageByRankAfter(mContext, mDatabase,
+                        last.getRank(), last.getId(), PAGE_SIZE, ordering);
+            }
+
+            assertEquals(getExpectedIds(BY_RANK, ordering), ids);
+        }
+    }
+
+    @Test
+    public void pagesAfterLastRowAreEmpty() {
+        assertTrue(SampleDBObject.pageAfter(mContext, mDatabase,
+                ROWS, PAGE_SIZE, Ordering.ASCENDING).isEmpty());
+        assertTrue(SampleDBObject.pageAfter(mContext, mDatabase,
+                1, PAGE_SIZE, Ordering.DESCENDING).isEmpty());
+        assertFalse(SampleDBObject.pageAfter(mContext, mDatabase,
+                1, PAGE_SIZE, Ordering.ASCENDING).isEmpty());
+    }
+
+    @Test
+    public void pagesUseIndexes() {
+        assertPlanWithoutSort("SELECT * FROM SampleDBObject WHERE id > ?"
+                + " ORDER BY id ASC LIMIT ?", "5", "5");
+        assertPlanWithoutSort("SELECT * FROM SampleDBObject WHERE title <= ?"
+                        + " AND (title < ? OR id < ?) ORDER BY title DESC, id DESC LIMIT ?",
+                "sample 5", "sample 5", "5", "5");
+        assertPlanUsesIndex("idx_SampleDBObject_title",
+                "SELECT * FROM SampleDBObject WHERE title >= ?"
+                        + " AND (title > ? OR id > ?) ORDER BY title ASC, id ASC LIMIT ?",
+                "sample 5", "sample 5", "5", "5");
+        assertPlanUsesIndex("idx_SampleDBObject_rank",
+                "SELECT * FROM SampleDBObject WHERE rank >= ?"
+                        + " AND (rank > ? OR id > ?) ORDER BY rank ASC, id ASC LIMIT ?",
+                "2", "2", "5", "5");
+        assertPlanUsesIndex("idx_SampleDBObject_rank",
+                "SELECT * FROM SampleDBObject WHERE rank IS NOT NULL"
+                        + " ORDER BY rank DESC, id DESC LIMIT ?", "5");
+    }
+
+    private void assertPlanUsesIndex(String index, String sql, String... args) {
+        final List<String> plan = assertPlanWithoutSort(sql, args);
+
+        assertTrue(plan.toString(), plan.get(0).contains("USING INDEX " + index));
+    }
+
+    private List<String> assertPlanWithoutSort(String sql, String... args) {
+        final List<String> plan = mDatabase.explainQueryPlan(sql, args);
+
+        assertEquals(plan.toString(), 1, plan.size());
+        assertFalse(plan.toString(), plan.get(0).contains("TEMP B-TREE"));
+
+        return plan;
+    }
+
+    private List<Long> getExpectedIds(Comparator<SampleDBObject> comparator,
+                                      Ordering ordering) {
+        final List<SampleDBObject> sorted = new ArrayList<>(mSamples);
+        Collections.sort(sorted, (ordering == Ordering.ASCENDING
+                ? comparator : Collections.reverseOrder(comparator)));
+
+        final List<Long> ids = new ArrayList<>();
+        for (SampleDBObject sample: sorted) {
+            ids.add(sample.getId());
+        }
+
+        return ids;
+    }
+
+    private final static Comparator<SampleDBObject> BY_ID = new Comparator<SampleDBObject>() {
+
+        @Override
+        public int compare(SampleDBObject lhs, SampleDBObject rhs) {
+            return Long.compare(lhs.getId(), rhs.getId());
+        }
+
+    };
+
+    private final static Comparator<SampleDBObject> BY_TITLE = new Comparator<SampleDBObject>() {
+
+        @Override
+        public int compare(SampleDBObject lhs, SampleDBObject rhs) {
+            final int result = lhs.getTitle().compareTo(rhs.getTitle());
+
+            return (result != 0 ? result : BY_ID.compare(lhs, rhs));
+        }
+
+    };
+
+    private final static Comparator<SampleDBObject> BY_RANK = new Comparator<SampleDBObject>() {
+
+        @Override
+        public int compare(SampleDBObject lhs, SampleDBObject rhs) {
+            final int result = Integer.compare(lhs.getRank(), rhs.getRank());
+
+            return (result != 0 ? result : BY_ID.compare(lhs, rhs));
+        }
+
+    };
+
+}
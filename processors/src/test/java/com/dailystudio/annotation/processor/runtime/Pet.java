@@ -0,0 +1,23 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import com.dailystudio.annotation.DBColumn;
+import com.dailystudio.annotation.DBIndex;
+import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.DBRelation;
+
+/**
+ * Fixture of the runtime tests referencing its {@link Owner}.
+ */
+@DBObject(indexes = @DBIndex(columns = "owner_id"),
+        relations = @DBRelation(name = "owner", target = Owner.class,
+                column = "owner_id"))
+public class Pet {
+
+    @DBColumn(primary = "true")
+    private long mId;
+    @DBColumn
+    private long mOwnerId;
+    @DBColumn(allowNull = "false")
+    private String mName;
+
+}
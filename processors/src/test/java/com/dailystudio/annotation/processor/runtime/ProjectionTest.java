@@ -0,0 +1,94 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the generated projection of {@link SampleSummary} on SQLite,
+ * including NULL in nullable columns stored as primitives.
+ */
+public class ProjectionTest {
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = Samples.createDatabase();
+        SampleDBObject.insertAll(mDatabase, Arrays.asList(
+                Samples.newSample(mContext, 1), Samples.newNullSample(mContext, 2)));
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void projectsColumns() {
+        final List<SampleSummaryDBProjection> summaries =
+                SampleSummaryDBProjection.query(mDatabase, "id = ?", new String[] { "1" }, null);
+        assertEquals(1, summaries.size());
+
+        final SampleSummaryDBProjection summary = summaries.get(0);
+        assertEquals(1, summary.getId());
+        assertEquals("sample 1", summary.getTitle());
+        assertEquals(Integer.valueOf(10), summary.getRank());
+        assertEquals(Double.valueOf(0.25), summary.getRatio());
+        assertEquals(Boolean.FALSE, summary.getActive());
+        assertEquals(new Date(1500000000001L), summary.getCreated());
+        assertEquals(Sample.Color.GREEN, summary.getColor());
+        assertEquals(new BigDecimal("1.25"), summary.getPrice());
+    }
+
+    @Test
+    public void projectsNullColumns() {
+        final SampleSummaryDBProjection summary = SampleSummaryDBProjection.query(
+                mDatabase, "id = ?", new String[] { "2" }, null).get(0);
+
+        assertEquals("sample 2", summary.getTitle());
+        assertNull(summary.getRank());
+        assertNull(summary.getRatio());
+        assertNull(summary.getActive());
+        assertNull(summary.getCreated());
+        assertNull(summary.getColor());
+        assertNull(summary.getPrice());
+    }
+
+    @Test
+    public void projectsMissingColumnsAsDefaults() {
+        final SampleSummaryDBProjection summary = SampleSummaryDBProjection.readAll(
+                mDatabase.rawQuery("SELECT id, title FROM SampleDBObject WHERE id = 1", null))
+                .get(0);
+
+        assertEquals("sample 1", summary.getTitle());
+        assertNull(summary.getRank());
+        assertNull(summary.getCreated());
+    }
+
+    @Test
+    public void readsOnlyProjectedColumns() {
+        SampleSummaryDBProjection.query(mDatabase, null, null, "id");
+
+        final List<String> statements = mDatabase.getStatements();
+        final String sql = statements.get(statements.size() - 1);
+        assertTrue(sql, sql.startsWith("SELECT id, title, rank, ratio, active,"
+                + " created, color, price FROM SampleDBObject"));
+        assertFalse(sql, sql.contains("note"));
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import com.dailystudio.dataobject.DatabaseObject;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the generated {@link DBObjectRegistry} of the runtime fixtures on
+ * SQLite.
+ */
+public class RegistryTest {
+
+    private final Context mContext = new Context();
+
+    @Test
+    public void findsEntities() {
+        final DBObjectRegistry.Entity entity = DBObjectRegistry.findEntity(
+                SampleDBObject.TABLE_NAME);
+
+        assertSame(entity, DBObjectRegistry.findEntity(SampleDBObject.class));
+        assertEquals(2, entity.latestVersion);
+        assertArrayEquals(SampleDBObject.COLUMN_NAMES, entity.columnNames);
+        assertNull(DBObjectRegistry.findEntity("missing"));
+        assertNull(DBObjectRegistry.findEntity((String) null));
+
+        final DatabaseObject object = entity.newObject(mContext, 1);
+        assertTrue(object instanceof SampleDBObject);
+        assertEquals(1, object.getVersion());
+    }
+
+    @Test
+    public void createsAllTables() {
+        final JdbcDatabase db = new JdbcDatabase();
+        try {
+            DBObjectRegistry.createAll(db);
+
+            final List<String> tables = listTables(db);
+            for (int i = 0; i < DBObjectRegistry.getEntityCount(); i++) {
+                assertTrue(tables.contains(DBObjectRegistry.getEntity(i).tableName));
+            }
+            assertEquals(1, db.queryLong("SELECT COUNT(*) FROM sqlite_master"
+                    + " WHERE name = 'idx_SampleDBObject_color_created'", null));
+            assertTrue(db.getStatements().contains(SampleDBObject.getCreateTableSQL(2)));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void upgradesAllTables() {
+        final JdbcDatabase db = new JdbcDatabase();
+        try {
+            for (int i = 0; i < DBObjectRegistry.getEntityCount(); i++) {
+                final DBObjectRegistry.Entity entity = DBObjectRegistry.getEntity(i);
+                db.execSQL(entity.getCreateTableSQL(1));
+                db.execSQL(entity.getCreateIndexSQL(1));
+            }
+
+            DBObjectRegistry.upgradeAll(db, 1);
+
+            db.execSQL("INSERT INTO SampleDBObject (id, title, note)"
+                    + " VALUES (1, 'sample 1', 'note 1')");
+            db.execSQL("INSERT INTO FieldSampleDBObject (id, title, note)"
+                    + " VALUES (1, 'sample 1', 'note 1')");
+            assertEquals(1, db.queryLong("SELECT COUNT(*) FROM sqlite_master"
+                    + " WHERE name = 'idx_FieldSampleDBObject_color_created'", null));
+        } finally {
+            db.close();
+        }
+    }
+
+    private static List<String> listTables(JdbcDatabase db) {
+        final List<String> tables = new ArrayList<>();
+
+        final Cursor c = db.rawQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'table'", null);
+        try {
+            while (c.moveToNext()) {
+                tables.add(c.getString(0));
+            }
+        } finally {
+            c.close();
+        }
+
+        return tables;
+    }
+
+}
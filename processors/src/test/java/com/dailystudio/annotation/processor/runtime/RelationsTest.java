@@ -0,0 +1,152 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import com.dailystudio.annotation.support.LongObjectMap;
+import com.dailystudio.annotation.support.RelationUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Loads the generated relations between {@link Owner} and {@link Pet} in
+ * both directions on SQLite.
+ */
+public class RelationsTest {
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = new JdbcDatabase();
+
+        mDatabase.execSQL(OwnerDBObject.getCreateTableSQL(1));
+        mDatabase.execSQL(PetDBObject.getCreateTableSQL(1));
+        mDatabase.execSQL(PetDBObject.getCreateIndexSQL(1));
+
+        OwnerDBObject.insertAll(mDatabase, Arrays.asList(
+                newOwner(1, "alice"),
+                newOwner(2, "bob"),
+                newOwner(3, "carol")));
+        PetDBObject.insertAll(mDatabase, Arrays.asList(
+                newPet(10, 1, "rex"),
+                newPet(11, 2, "tom"),
+                newPet(12, 1, "kit"),
+                newPet(13, 9, "stray")));
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void loadsManyToOne() {
+        final List<PetDBObject> pets = PetDBObject.readAll(mContext,
+                mDatabase.rawQuery("SELECT * FROM PetDBObject", null));
+
+        final LongObjectMap<OwnerDBObject> owners =
+                PetDBObject.loadOwner(mContext, mDatabase, pets);
+
+        assertEquals(2, owners.size());
+        assertEquals("alice", owners.get(1).getName());
+        assertEquals("bob", owners.get(2).getName());
+        assertNull(owners.get(9));
+        for (PetDBObject pet: pets) {
+            final OwnerDBObject owner = owners.get(pet.getOwnerId());
+            if (owner != null) {
+                assertEquals(pet.getOwnerId(), owner.getId());
+            }
+        }
+    }
+
+    @Test
+    public void loadsOneToMany() {
+        final List<OwnerDBObject> owners = OwnerDBObject.readAll(mContext,
+                mDatabase.rawQuery("SELECT * FROM OwnerDBObject", null));
+
+        final LongObjectMap<List<PetDBObject>> pets =
+                OwnerDBObject.loadPets(mContext, mDatabase, owners);
+
+        assertEquals(2, pets.size());
+        assertEquals(Arrays.asList("rex", "kit"), getNames(pets.get(1)));
+        assertEquals(Arrays.asList("tom"), getNames(pets.get(2)));
+        assertNull(pets.get(3));
+    }
+
+    @Test
+    public void queriesEachKeyOnce() {
+        final List<PetDBObject> pets = new ArrayList<>();
+        pets.add(newPet(20, 1, "a"));
+        pets.add(null);
+        pets.add(newPet(21, 1, "b"));
+        pets.add(newPet(22, 2, "c"));
+
+        final int queries = mDatabase.getQueryCount();
+        final LongObjectMap<OwnerDBObject> owners =
+                PetDBObject.loadOwner(mContext, mDatabase, pets);
+
+        assertEquals(queries + 1, mDatabase.getQueryCount());
+        assertEquals(2, owners.size());
+        assertTrue(PetDBObject.loadOwner(mContext, mDatabase,
+                new ArrayList<PetDBObject>()).isEmpty());
+    }
+
+    @Test
+    public void queriesKeysInChunks() {
+        final int count = RelationUtils.MAX_CHUNK_SIZE * 2 + 1;
+
+        final List<OwnerDBObject> owners = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            owners.add(newOwner(i, "owner " + i));
+        }
+
+        final int queries = mDatabase.getQueryCount();
+        final LongObjectMap<List<PetDBObject>> pets =
+                OwnerDBObject.loadPets(mContext, mDatabase, owners);
+
+        assertEquals(queries + 3, mDatabase.getQueryCount());
+        assertEquals(2, pets.get(1).size());
+        assertEquals(1, pets.get(2).size());
+    }
+
+    private OwnerDBObject newOwner(long id, String name) {
+        final OwnerDBObject owner = new OwnerDBObject(mContext);
+
+        owner.setId(id);
+        owner.setName(name);
+
+        return owner;
+    }
+
+    private PetDBObject newPet(long id, long ownerId, String name) {
+        final PetDBObject pet = new PetDBObject(mContext);
+
+        pet.setId(id);
+        pet.setOwnerId(ownerId);
+        pet.setName(name);
+
+        return pet;
+    }
+
+    private static List<String> getNames(List<PetDBObject> pets) {
+        final List<String> names = new ArrayList<>();
+        for (PetDBObject pet: pets) {
+            names.add(pet.getName());
+        }
+
+        return names;
+    }
+
+}
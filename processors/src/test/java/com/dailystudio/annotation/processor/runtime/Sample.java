@@ -0,0 +1,73 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import com.dailystudio.annotation.DBColumn;
+import com.dailystudio.annotation.DBIndex;
+import com.dailystudio.annotation.DBObject;
+import com.dailystudio.annotation.DBTypeConverter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Fixture of the runtime tests with a column of every kind, kept in the
+ * value map.
+ */
+@DBObject(latestVersion = 2,
+        converters = Sample.Converters.class,
+        features = {
+                DBObject.Feature.SNAPSHOT,
+                DBObject.Feature.STREAMING,
+                DBObject.Feature.JSON,
+                DBObject.Feature.BINARY,
+        },
+        indexes = {
+                @DBIndex(columns = "title", unique = true),
+                @DBIndex(columns = "rank"),
+                @DBIndex(columns = {"color", "created"}, version = 2),
+        })
+public class Sample {
+
+    public enum Color {
+        RED,
+        GREEN,
+        BLUE,
+    }
+
+    @DBColumn(primary = "true")
+    private long mId;
+    @DBColumn(allowNull = "false")
+    private String mTitle;
+    @DBColumn
+    private int mRank;
+    @DBColumn
+    private Integer mQuantity;
+    @DBColumn
+    private double mRatio;
+    @DBColumn
+    private boolean mActive;
+    @DBColumn
+    private Date mCreated;
+    @DBColumn
+    private Color mColor;
+    @DBColumn
+    private BigDecimal mPrice;
+    @DBColumn
+    private byte[] mData;
+    @DBColumn(version = 2)
+    private String mNote;
+
+    public static class Converters {
+
+        @DBTypeConverter
+        public static String fromPrice(BigDecimal price) {
+            return (price == null ? null : price.toPlainString());
+        }
+
+        @DBTypeConverter
+        public static BigDecimal toPrice(String price) {
+            return (price == null ? null : new BigDecimal(price));
+        }
+
+    }
+
+}
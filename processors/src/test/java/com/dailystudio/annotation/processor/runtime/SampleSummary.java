@@ -0,0 +1,12 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import com.dailystudio.annotation.DBProjection;
+
+/**
+ * Projection fixture of the runtime tests over columns of every kind of
+ * {@link Sample}.
+ */
+@DBProjection(of = Sample.class,
+        columns = { "id", "title", "rank", "ratio", "active", "created", "color", "price" })
+public class SampleSummary {
+}
@@ -0,0 +1,121 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Builds and compares {@link SampleDBObject} and {@link FieldSampleDBObject}
+ * rows for the runtime tests. A "null" sample has only its primary and
+ * NOT NULL columns set.
+ */
+final class Samples {
+
+    private Samples() {
+    }
+
+    static JdbcDatabase createDatabase() {
+        final JdbcDatabase db = new JdbcDatabase();
+
+        db.execSQL(SampleDBObject.getCreateTableSQL(2));
+        db.execSQL(SampleDBObject.getCreateIndexSQL(2));
+        db.execSQL(FieldSampleDBObject.getCreateTableSQL(2));
+        db.execSQL(FieldSampleDBObject.getCreateIndexSQL(2));
+
+        return db;
+    }
+
+    static SampleDBObject newSample(Context context, long id) {
+        final SampleDBObject sample = newNullSample(context, id);
+
+        sample.setRank((int) id * 10);
+        sample.setQuantity((int) id + 100);
+        sample.setRatio(id / 4.0);
+        sample.setActive(id % 2 == 0);
+        sample.setCreated(new Date(1500000000000L + id));
+        sample.setColor(Sample.Color.values()[(int) (id % 3)]);
+        sample.setPrice(new BigDecimal(id + ".25"));
+        sample.setData(new byte[] { (byte) id, 0, -1 });
+        sample.setNote("note " + id);
+
+        return sample;
+    }
+
+    static SampleDBObject newNullSample(Context context, long id) {
+        final SampleDBObject sample = new SampleDBObject(context);
+
+        sample.setId(id);
+        sample.setTitle("sample " + id);
+
+        return sample;
+    }
+
+    static FieldSampleDBObject newFieldSample(Context context, long id) {
+        final FieldSampleDBObject sample = newNullFieldSample(context, id);
+
+        sample.setRank((int) id * 10);
+        sample.setQuantity((int) id + 100);
+        sample.setRatio(id / 4.0);
+        sample.setActive(id % 2 == 0);
+        sample.setCreated(new Date(1500000000000L + id));
+        sample.setColor(FieldSample.Color.values()[(int) (id % 3)]);
+        sample.setPrice(new BigDecimal(id + ".25"));
+        sample.setData(new byte[] { (byte) id, 0, -1 });
+        sample.setNote("note " + id);
+
+        return sample;
+    }
+
+    static FieldSampleDBObject newNullFieldSample(Context context, long id) {
+        final FieldSampleDBObject sample = new FieldSampleDBObject(context);
+
+        sample.setId(id);
+        sample.setTitle("sample " + id);
+
+        return sample;
+    }
+
+    static void assertSampleEquals(SampleDBObject expected, SampleDBObject actual) {
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getValue(SampleDBObject.COLUMN_RANK),
+                actual.getValue(SampleDBObject.COLUMN_RANK));
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.getValue(SampleDBObject.COLUMN_RATIO),
+                actual.getValue(SampleDBObject.COLUMN_RATIO));
+        assertEquals(expected.getValue(SampleDBObject.COLUMN_ACTIVE),
+                actual.getValue(SampleDBObject.COLUMN_ACTIVE));
+        assertEquals(expected.getCreated(), actual.getCreated());
+        assertEquals(expected.getColor(), actual.getColor());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertArrayEquals(expected.getData(), actual.getData());
+        assertEquals(expected.getNote(), actual.getNote());
+    }
+
+    static void assertFieldSampleEquals(FieldSampleDBObject expected, FieldSampleDBObject actual) {
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.hasValue(FieldSampleDBObject.ORDINAL_RANK),
+                actual.hasValue(FieldSampleDBObject.ORDINAL_RANK));
+        assertEquals(expected.getRank(), actual.getRank());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.hasValue(FieldSampleDBObject.ORDINAL_RATIO),
+                actual.hasValue(FieldSampleDBObject.ORDINAL_RATIO));
+        assertEquals(expected.getRatio(), actual.getRatio(), 0);
+        assertEquals(expected.hasValue(FieldSampleDBObject.ORDINAL_ACTIVE),
+                actual.hasValue(FieldSampleDBObject.ORDINAL_ACTIVE));
+        assertEquals(expected.getActive(), actual.getActive());
+        assertEquals(expected.getCreated(), actual.getCreated());
+        assertEquals(expected.getColor(), actual.getColor());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertArrayEquals(expected.getData(), actual.getData());
+        assertEquals(expected.getNote(), actual.getNote());
+    }
+
+}
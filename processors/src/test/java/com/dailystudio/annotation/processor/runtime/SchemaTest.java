@@ -0,0 +1,125 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.database.Cursor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Runs the generated CREATE and upgrade SQL on SQLite: upgrading an
+ * older table must end with the schema of a table created at the latest
+ * version and keep its rows.
+ */
+public class SchemaTest {
+
+    @Test
+    public void createsLatestSchema() {
+        final JdbcDatabase db = new JdbcDatabase();
+        try {
+            db.execSQL(SampleDBObject.getCreateTableSQL(2));
+            db.execSQL(SampleDBObject.getCreateIndexSQL(2));
+
+            assertEquals(Arrays.asList(SampleDBObject.COLUMN_NAMES),
+                    listColumnNames(db));
+            assertEquals(Arrays.asList(
+                    "idx_SampleDBObject_color_created",
+                    "idx_SampleDBObject_rank",
+                    "idx_SampleDBObject_title"),
+                    listIndexNames(db));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void upgradesToLatestSchema() {
+        final JdbcDatabase latest = new JdbcDatabase();
+        final JdbcDatabase upgraded = new JdbcDatabase();
+        try {
+            latest.execSQL(SampleDBObject.getCreateTableSQL(2));
+            latest.execSQL(SampleDBObject.getCreateIndexSQL(2));
+
+            upgraded.execSQL(SampleDBObject.getCreateTableSQL(1));
+            upgraded.execSQL(SampleDBObject.getCreateIndexSQL(1));
+            upgraded.execSQL("INSERT INTO SampleDBObject (id, title, rank)"
+                    + " VALUES (1, 'sample 1', 10)");
+            upgraded.execSQL(SampleDBObject.getUpgradeSQL(1));
+
+            assertEquals(listColumns(latest), listColumns(upgraded));
+            assertEquals(listIndexNames(latest), listIndexNames(upgraded));
+
+            final Cursor c = upgraded.rawQuery(
+                    "SELECT rank, note FROM SampleDBObject WHERE id = 1", null);
+            try {
+                c.moveToFirst();
+                assertEquals(10, c.getInt(0));
+                assertNull(c.getString(1));
+            } finally {
+                c.close();
+            }
+        } finally {
+            latest.close();
+            upgraded.close();
+        }
+    }
+
+    @Test
+    public void noUpgradeFromLatestVersion() {
+        assertEquals(0, SampleDBObject.getUpgradeSQL(2).length);
+        assertNull(SampleDBObject.getCreateTableSQL(3));
+    }
+
+    private static List<String> listColumnNames(JdbcDatabase db) {
+        final List<String> names = new ArrayList<>();
+        for (String column: listColumns(db)) {
+            names.add(column.substring(0, column.indexOf(' ')));
+        }
+
+        return names;
+    }
+
+    /**
+     * Name, type, NOT NULL and primary key of each column, in table order.
+     */
+    private static List<String> listColumns(JdbcDatabase db) {
+        final List<String> columns = new ArrayList<>();
+
+        final Cursor c = db.rawQuery("PRAGMA table_info(SampleDBObject)", null);
+        try {
+            while (c.moveToNext()) {
+                columns.add(c.getString(c.getColumnIndex("name"))
+                        + " " + c.getString(c.getColumnIndex("type"))
+                        + " " + c.getInt(c.getColumnIndex("notnull"))
+                        + " " + c.getInt(c.getColumnIndex("pk")));
+            }
+        } finally {
+            c.close();
+        }
+
+        return columns;
+    }
+
+    private static List<String> listIndexNames(JdbcDatabase db) {
+        final List<String> names = new ArrayList<>();
+
+        final Cursor c = db.rawQuery("SELECT name FROM sqlite_master"
+                + " WHERE type = 'index' AND tbl_name = 'SampleDBObject'"
+                + " AND sql IS NOT NULL ORDER BY name", null);
+        try {
+            while (c.moveToNext()) {
+                names.add(c.getString(0));
+            }
+        } finally {
+            c.close();
+        }
+
+        return names;
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import com.dailystudio.annotation.support.ColumnScans;
+import com.dailystudio.annotation.support.StringDictionary;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads a generated columnar Snapshot from SQLite and checks its columns,
+ * NULLs included, and its scans against the row objects. The table has
+ * more rows than ColumnScans.PARALLEL_THRESHOLD, so the ForkJoinPool
+ * overloads split the scans. The table is filled once for all tests.
+ */
+public class SnapshotTest {
+
+    private final static int ROWS = ColumnScans.PARALLEL_THRESHOLD * 2 + 77;
+    private final static double DELTA = 1e-6;
+
+    private final static AtomicInteger sPoolInvocations = new AtomicInteger();
+
+    private static JdbcDatabase sDatabase;
+    private static ForkJoinPool sPool;
+
+    private static List<SampleDBObject> sRows;
+    private static SampleDBObject.Snapshot sSnapshot;
+
+    @BeforeClass
+    public static void setUpClass() {
+        final Context context = new Context();
+
+        sDatabase = Samples.createDatabase();
+
+        final List<SampleDBObject> samples = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            samples.add(i % 7 == 0
+                    ? Samples.newNullSample(context, i)
+                    : Samples.newSample(context, i));
+        }
+        SampleDBObject.insertAll(sDatabase, samples);
+
+        sRows = SampleDBObject.readAll(context,
+                sDatabase.rawQuery("SELECT * FROM SampleDBObject", null));
+        sSnapshot = SampleDBObject.readSnapshot(sDatabase);
+
+        sPool = new ForkJoinPool(4) {
+
+            @Override
+            public <T> T invoke(ForkJoinTask<T> task) {
+                sPoolInvocations.incrementAndGet();
+
+                return super.invoke(task);
+            }
+
+        };
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        sPool.shutdown();
+        sDatabase.close();
+    }
+
+    @Test
+    public void readsColumnsOfEveryRow() {
+        assertEquals(ROWS, sSnapshot.size);
+        assertEquals(ROWS, sRows.size());
+
+        SampleDBObject row;
+        for (int i = 0; i < ROWS; i++) {
+            row = sRows.get(i);
+
+            assertEquals(row.getId(), sSnapshot.idValues[i]);
+            assertEquals(row.getTitle(), StringDictionary.decode(
+                    sSnapshot.titleDictionary, sSnapshot.titleCodes[i]));
+
+            assertNonNull(sSnapshot.rankNonNull, i,
+                    row.getValue(SampleDBObject.COLUMN_RANK));
+            if (isSet(sSnapshot.rankNonNull, i)) {
+                assertEquals(row.getRank(), sSnapshot.rankValues[i]);
+            }
+
+            assertNonNull(sSnapshot.quantityNonNull, i, row.getQuantity());
+            if (row.getQuantity() != null) {
+                assertEquals(row.getQuantity().intValue(), sSnapshot.quantityValues[i]);
+            }
+
+            assertNonNull(sSnapshot.ratioNonNull, i,
+                    row.getValue(SampleDBObject.COLUMN_RATIO));
+            if (isSet(sSnapshot.ratioNonNull, i)) {
+                assertEquals(row.getRatio(), sSnapshot.ratioValues[i], 0);
+            }
+
+            assertNonNull(sSnapshot.activeNonNull, i,
+                    row.getValue(SampleDBObject.COLUMN_ACTIVE));
+            assertEquals(isSet(sSnapshot.activeNonNull, i) && row.getActive(),
+                    isSet(sSnapshot.activeBits, i));
+
+            final Date created = row.getCreated();
+            assertNonNull(sSnapshot.createdNonNull, i, created);
+            if (created != null) {
+                assertEquals(created.getTime(), sSnapshot.createdValues[i]);
+            }
+
+            final Sample.Color color = row.getColor();
+            assertNonNull(sSnapshot.colorNonNull, i, color);
+            if (color != null) {
+                assertEquals(color.ordinal(), sSnapshot.colorValues[i]);
+            }
+
+            final BigDecimal price = row.getPrice();
+            assertEquals(price == null ? null : price.toPlainString(),
+                    StringDictionary.decode(sSnapshot.priceDictionary, sSnapshot.priceCodes[i]));
+            assertEquals(row.getNote(), StringDictionary.decode(
+                    sSnapshot.noteDictionary, sSnapshot.noteCodes[i]));
+        }
+    }
+
+    @Test
+    public void filtersLikeRows() {
+        int nulls = 0;
+        int active = 0;
+        int inactive = 0;
+        int ranked = 0;
+        for (SampleDBObject row: sRows) {
+            if (row.getValue(SampleDBObject.COLUMN_ACTIVE) == null) {
+                nulls++;
+            } else if (row.getActive()) {
+                active++;
+            } else {
+                inactive++;
+            }
+
+            if (row.getValue(SampleDBObject.COLUMN_RANK) != null
+                    && row.getRank() >= 1000 && row.getRank() <= 5000) {
+                ranked++;
+            }
+        }
+
+        assertTrue(nulls > 0);
+        assertEquals(ROWS, sSnapshot.count(null));
+        assertEquals(active, sSnapshot.count(sSnapshot.filterActive(true, null)));
+        assertEquals(inactive, sSnapshot.count(sSnapshot.filterActive(false, null)));
+        assertEquals(nulls, sSnapshot.count(sSnapshot.filterNote(null, null)));
+        assertEquals(ranked, sSnapshot.count(sSnapshot.filterRank(1000, 5000, null)));
+        assertEquals(1, sSnapshot.count(sSnapshot.filterTitle("sample 5", null)));
+        assertEquals(0, sSnapshot.count(sSnapshot.filterTitle("missing", null)));
+        assertEquals(0, sSnapshot.count(sSnapshot.filterActive(true,
+                sSnapshot.filterNote(null, null))));
+    }
+
+    @Test
+    public void aggregatesLikeRows() {
+        final long[] selection = sSnapshot.filterActive(true, null);
+
+        long sumRank = 0;
+        long minRank = Long.MAX_VALUE;
+        long maxRank = Long.MIN_VALUE;
+        long sumQuantity = 0;
+        double sumRatio = 0;
+        double maxRatio = Double.NEGATIVE_INFINITY;
+        long minCreated = Long.MAX_VALUE;
+        long activeSumRank = 0;
+        for (SampleDBObject row: sRows) {
+            if (row.getValue(SampleDBObject.COLUMN_RANK) != null) {
+                sumRank += row.getRank();
+                minRank = Math.min(minRank, row.getRank());
+                maxRank = Math.max(maxRank, row.getRank());
+                if (row.getActive()) {
+                    activeSumRank += row.getRank();
+                }
+            }
+            if (row.getQuantity() != null) {
+                sumQuantity += row.getQuantity();
+            }
+            if (row.getValue(SampleDBObject.COLUMN_RATIO) != null) {
+                sumRatio += row.getRatio();
+                maxRatio = Math.max(maxRatio, row.getRatio());
+            }
+            if (row.getCreated() != null) {
+                minCreated = Math.min(minCreated, row.getCreated().getTime());
+            }
+        }
+
+        assertEquals(sumRank, sSnapshot.sumRank(null));
+        assertEquals(minRank, sSnapshot.minRank(null));
+        assertEquals(maxRank, sSnapshot.maxRank(null));
+        assertEquals(sumQuantity, sSnapshot.sumQuantity(null));
+        assertEquals(sumRatio, sSnapshot.sumRatio(null), DELTA);
+        assertEquals(maxRatio, sSnapshot.maxRatio(null), 0);
+        assertEquals(minCreated, sSnapshot.minCreated(null));
+        assertEquals(activeSumRank, sSnapshot.sumRank(selection));
+
+        final int invocations = sPoolInvocations.get();
+
+        assertEquals(sumRank, sSnapshot.sumRank(null, sPool));
+        assertEquals(minRank, sSnapshot.minRank(null, sPool));
+        assertEquals(maxRank, sSnapshot.maxRank(null, sPool));
+        assertEquals(sumQuantity, sSnapshot.sumQuantity(null, sPool));
+        assertEquals(sumRatio, sSnapshot.sumRatio(null, sPool), DELTA);
+        assertEquals(maxRatio, sSnapshot.maxRatio(null, sPool), 0);
+        assertEquals(minCreated, sSnapshot.minCreated(null, sPool));
+        assertEquals(activeSumRank, sSnapshot.sumRank(selection, sPool));
+
+        assertEquals(invocations + 8, sPoolInvocations.get());
+    }
+
+    @Test
+    public void aggregatesNoRows() {
+        final long[] none = sSnapshot.filterTitle("missing", null);
+
+        assertEquals(0, sSnapshot.sumRank(none));
+        assertEquals(Long.MAX_VALUE, sSnapshot.minRank(none, sPool));
+        assertEquals(Long.MIN_VALUE, sSnapshot.maxCreated(none, sPool));
+        assertEquals(Double.NEGATIVE_INFINITY, sSnapshot.maxRatio(none), 0);
+    }
+
+    private static void assertNonNull(long[] nonNull, int row, Object value) {
+        assertEquals("row " + row, value != null, isSet(nonNull, row));
+    }
+
+    private static boolean isSet(long[] bits, int row) {
+        return ColumnScans.isSet(bits, row);
+    }
+
+}
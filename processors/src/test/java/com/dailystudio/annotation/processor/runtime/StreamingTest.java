@@ -0,0 +1,137 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Runs the generated flyweight streaming on SQLite: rows are bound into
+ * one object and copy() retains a row, NULL columns included.
+ */
+public class StreamingTest {
+
+    private final Context mContext = new Context();
+
+    private JdbcDatabase mDatabase;
+
+    @Before
+    public void setUp() {
+        mDatabase = Samples.createDatabase();
+        SampleDBObject.insertAll(mDatabase, Arrays.asList(
+                Samples.newSample(mContext, 1),
+                Samples.newNullSample(mContext, 2),
+                Samples.newSample(mContext, 3)));
+        FieldSampleDBObject.insertAll(mDatabase, Arrays.asList(
+                Samples.newNullFieldSample(mContext, 1)));
+    }
+
+    @After
+    public void tearDown() {
+        mDatabase.close();
+    }
+
+    @Test
+    public void visitsRowsWithOneObject() {
+        final List<SampleDBObject> visited = new ArrayList<>();
+        final List<SampleDBObject> copies = new ArrayList<>();
+
+        final int count = SampleDBObject.forEach(mContext, queryAll(),
+                new SampleDBObject.RowVisitor() {
+
+            @Override
+            public boolean visit(SampleDBObject object) {
+                visited.add(object);
+                copies.add(object.copy(mContext));
+                return true;
+            }
+
+        });
+
+        assertEquals(3, count);
+        assertSame(visited.get(0), visited.get(2));
+        Samples.assertSampleEquals(Samples.newSample(mContext, 1), copies.get(0));
+        Samples.assertSampleEquals(Samples.newNullSample(mContext, 2), copies.get(1));
+        Samples.assertSampleEquals(Samples.newSample(mContext, 3), copies.get(2));
+    }
+
+    @Test
+    public void visitorStopsEarly() {
+        final int count = SampleDBObject.forEach(mContext, queryAll(),
+                new SampleDBObject.RowVisitor() {
+
+            @Override
+            public boolean visit(SampleDBObject object) {
+                return object.getId() < 2;
+            }
+
+        });
+
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void iteratesRows() {
+        final Iterator<SampleDBObject> iterator =
+                SampleDBObject.iterate(mContext, queryAll());
+
+        final List<Long> ids = new ArrayList<>();
+        while (iterator.hasNext()) {
+            ids.add(iterator.next().getId());
+        }
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), ids);
+        assertFalse(SampleDBObject.iterate(mContext, null).hasNext());
+    }
+
+    @Test
+    public void copyRetainsNullColumns() {
+        final Iterator<SampleDBObject> iterator =
+                SampleDBObject.iterate(mContext, queryAll());
+        iterator.next();
+
+        final SampleDBObject copy = iterator.next().copy(mContext);
+        iterator.next();
+
+        assertNull(copy.getValue(SampleDBObject.COLUMN_RANK));
+        assertNull(copy.getValue(SampleDBObject.COLUMN_RATIO));
+        assertNull(copy.getValue(SampleDBObject.COLUMN_ACTIVE));
+        assertNull(copy.getCreated());
+        assertFalse(copy.hasDirtyColumns());
+        Samples.assertSampleEquals(Samples.newNullSample(mContext, 2), copy);
+
+        mDatabase.execSQL("DELETE FROM SampleDBObject");
+        SampleDBObject.insertAll(mDatabase, Arrays.asList(copy));
+        assertEquals(1, mDatabase.queryLong("SELECT COUNT(*) FROM SampleDBObject"
+                + " WHERE id = 2 AND rank IS NULL AND ratio IS NULL AND active IS NULL", null));
+    }
+
+    @Test
+    public void copyRetainsPresence() {
+        final Iterator<FieldSampleDBObject> iterator = FieldSampleDBObject.iterate(mContext,
+                mDatabase.rawQuery("SELECT * FROM FieldSampleDBObject", null));
+
+        final FieldSampleDBObject copy = iterator.next().copy(mContext);
+
+        assertFalse(copy.hasValue(FieldSampleDBObject.ORDINAL_RANK));
+        assertFalse(copy.hasDirtyColumns());
+        Samples.assertFieldSampleEquals(Samples.newNullFieldSample(mContext, 1), copy);
+    }
+
+    private Cursor queryAll() {
+        return mDatabase.rawQuery("SELECT * FROM SampleDBObject ORDER BY id", null);
+    }
+
+}
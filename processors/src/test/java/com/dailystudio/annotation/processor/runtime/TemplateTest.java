@@ -0,0 +1,80 @@
+package com.dailystudio.annotation.processor.runtime;
+
+import android.content.Context;
+
+import com.dailystudio.dataobject.Template;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that objects share one Template per schema version and that
+ * columns of newer versions stay out of older objects.
+ */
+public class TemplateTest {
+
+    private final Context mContext = new Context();
+
+    @Test
+    public void sharesOneTemplatePerVersion() {
+        final Template latest = new SampleDBObject(mContext).getTemplate();
+        final Template ver1 = new SampleDBObject(mContext, 1).getTemplate();
+
+        assertSame(latest, new SampleDBObject(mContext, 2).getTemplate());
+        assertSame(ver1, new SampleDBObject(mContext, 1).getTemplate());
+        assertNotSame(latest, ver1);
+
+        assertEquals(SampleDBObject.COLUMN_COUNT, latest.getColumnCount());
+        assertEquals(SampleDBObject.COLUMN_COUNT - 1, ver1.getColumnCount());
+        assertTrue(latest.containsColumn(SampleDBObject.COLUMN_NOTE));
+        assertFalse(ver1.containsColumn(SampleDBObject.COLUMN_NOTE));
+
+        assertSame(new FieldSampleDBObject(mContext).getTemplate(),
+                new FieldSampleDBObject(mContext).getTemplate());
+    }
+
+    @Test
+    public void olderVersionIgnoresNewerColumns() {
+        final SampleDBObject sample = Samples.newNullSample(mContext, 1);
+        final SampleDBObject ver1 = new SampleDBObject(mContext, 1);
+        ver1.setId(2);
+        ver1.setTitle("sample 2");
+        ver1.setNote("dropped");
+
+        assertNull(ver1.getNote());
+        assertFalse(ver1.isDirty(SampleDBObject.ORDINAL_NOTE));
+
+        final JdbcDatabase db = Samples.createDatabase();
+        try {
+            sample.setNote("kept");
+            assertEquals(2, SampleDBObject.insertAll(db, Arrays.asList(sample, ver1)));
+
+            final List<SampleDBObject> read = SampleDBObject.readAll(mContext,
+                    db.query(SampleDBObject.TABLE_NAME, null, null, null, null, null, "id"));
+            assertEquals("kept", read.get(0).getNote());
+            assertNull(read.get(1).getNote());
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void templateColumnsFollowDeclarationOrder() {
+        final Template latest = new SampleDBObject(mContext).getTemplate();
+
+        for (int i = 0; i < SampleDBObject.COLUMN_COUNT; i++) {
+            assertEquals(SampleDBObject.COLUMN_NAMES[i],
+                    latest.listColumns().get(i).getName());
+        }
+    }
+
+}